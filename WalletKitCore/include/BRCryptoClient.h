@@ -71,6 +71,15 @@ cwmAnnounceTransactions (OwnershipKept BRCryptoWalletManager cwm,
                          BRCryptoClientTransactionBundle *bundles,
                          size_t bundlesCount);
 
+// Announce one page of a `getTransactions` request's results.  The bundles are processed now;
+// the request remains outstanding, under the same `callbackState`, until `cwmAnnounceTransactions`
+// is called - with the final page, if any, or with no bundles as the completion marker.
+extern void
+cwmAnnounceTransactionsPartial (OwnershipKept BRCryptoWalletManager cwm,
+                                OwnershipKept BRCryptoClientCallbackState callbackState,
+                                BRCryptoClientTransactionBundle *bundles,
+                                size_t bundlesCount);
+
 // MARK: - Get Transfers
 
 typedef void
@@ -120,6 +129,14 @@ cwmAnnounceTransfers (OwnershipKept BRCryptoWalletManager cwm,
                       BRCryptoClientTransferBundle *bundles,
                       size_t bundlesCount);
 
+// Announce one page of a `getTransfers` request's results; as `cwmAnnounceTransactionsPartial`,
+// with `cwmAnnounceTransfers` completing the request.
+extern void
+cwmAnnounceTransfersPartial (OwnershipKept BRCryptoWalletManager cwm,
+                             OwnershipKept BRCryptoClientCallbackState callbackState,
+                             BRCryptoClientTransferBundle *bundles,
+                             size_t bundlesCount);
+
 // MARK: - Submit Transaction
 
 typedef void
@@ -243,6 +243,44 @@ extern "C" {
                                     uint32_t *blockHeight,
                                     uint32_t *timestamp);
 
+    // MARK: - Transfer Snapshot
+
+    ///
+    /// Return a snapshot of the fields of `transfers`, for reading many transfers at once (such as
+    /// for a Swift/Java history view) without a call per field.  The snapshot is a single buffer,
+    /// of `*snapshotSize` bytes, that the caller must free().  It is laid out as a struct-of-arrays,
+    /// in host byte order, with `count` entries per column:
+    ///
+    ///   uint64_t count
+    ///   uint64_t dataOffset                   // of `data`, from the start of the buffer
+    ///   uint64_t blockNumber[count]           // if INCLUDED, otherwise 0
+    ///   uint64_t transactionIndex[count]      // if INCLUDED, otherwise 0
+    ///   uint64_t timestamp[count]             // if INCLUDED, otherwise 0
+    ///   int32_t  stateType[count]             // BRCryptoTransferStateType
+    ///   int32_t  direction[count]             // BRCryptoTransferDirection
+    ///   int32_t  success[count]               // BRCryptoBoolean, if INCLUDED
+    ///   int32_t  attributeCount[count]
+    ///   int32_t  hash[count]                  // the offsets, into `data`, of strings or -1 if NULL
+    ///   int32_t  sourceAddress[count]
+    ///   int32_t  targetAddress[count]
+    ///   int32_t  amount[count]                // in the base unit, as a base 10 integer
+    ///   int32_t  fee[count]                   // in the base unit; as per `cryptoTransferGetFee`
+    ///   int32_t  error[count]                 // if INCLUDED but not successful
+    ///   int32_t  attributes[count]            // offsets, into `data`, of `attributeCount` attributes
+    ///   char     data[]
+    ///
+    /// Strings are NUL terminated and UTF-8 encoded.  An attribute is a flags byte (0x01 if it is
+    /// required; 0x02 if it has a value) followed by its key and, if it has one, its value.
+    ///
+    /// @param transfers the transfers, as from `cryptoWalletGetTransfers`
+    /// @param transfersCount the number of transfers
+    /// @param snapshotSize the size of the returned snapshot
+    ///
+    extern OwnershipGiven uint8_t *
+    cryptoTransferSnapshotCreate (OwnershipKept BRCryptoTransfer *transfers,
+                                  size_t transfersCount,
+                                  size_t *snapshotSize);
+
     // MARK: - Transfer Output
 
     /**
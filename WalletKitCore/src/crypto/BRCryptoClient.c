@@ -545,6 +545,50 @@ cryptoClientTransactionBundleCompareForSort (const void *v1, const void *v2) {
     return cryptoClientTransactionBundleCompare (*b1, *b2);
 }
 
+static bool
+cryptoClientQRYMatchesRid (BRCryptoClientQRYManager qry,
+                           BRCryptoClientCallbackState callbackState) {
+    pthread_mutex_lock (&qry->lock);
+    bool matchedRids = (callbackState->rid == qry->sync.rid);
+    pthread_mutex_unlock (&qry->lock);
+
+    return matchedRids;
+}
+
+static void
+cryptoClientQRYRecoverTransactionBundles (BRCryptoWalletManager manager,
+                                          BRCryptoClientTransactionBundle *bundles,
+                                          size_t bundlesCount) {
+    // Sort bundles to have the lowest blocknumber first.  Use of `mergesort` is
+    // appropriate given that the bundles are likely already ordered.  This minimizes
+    // dependency resolution between later transactions depending on prior transactions.
+    //
+    // Seems that there may be duplicates in `bundles`; will be dealt with later
+
+    mergesort_brd (bundles, bundlesCount, sizeof (BRCryptoClientTransactionBundle),
+                   cryptoClientTransactionBundleCompareForSort);
+
+    // Recover transfers from each bundle
+    for (size_t index = 0; index < bundlesCount; index++) {
+        cryptoWalletManagerSaveTransactionBundle(manager, bundles[index]);
+        cryptoWalletManagerRecoverTransfersFromTransactionBundle (manager, bundles[index]);
+    }
+}
+
+extern void
+cwmAnnounceTransactionsPartial (OwnershipKept BRCryptoWalletManager manager,
+                                OwnershipKept BRCryptoClientCallbackState callbackState,
+                                BRCryptoClientTransactionBundle *bundles,  // given elements, not array
+                                size_t bundlesCount) {
+    // Process the page if it is for our rid; otherwise simply discard.  Pages are sorted one by
+    // one, so a page only depends on the pages that came before it.
+    if (cryptoClientQRYMatchesRid (manager->qryManager, callbackState))
+        cryptoClientQRYRecoverTransactionBundles (manager, bundles, bundlesCount);
+
+    for (size_t index = 0; index < bundlesCount; index++)
+        cryptoClientTransactionBundleRelease (bundles[index]);
+}
+
 extern void
 cwmAnnounceTransactions (OwnershipKept BRCryptoWalletManager manager,
                          OwnershipGiven BRCryptoClientCallbackState callbackState,
@@ -554,9 +598,7 @@ cwmAnnounceTransactions (OwnershipKept BRCryptoWalletManager manager,
 
     BRCryptoClientQRYManager qry = manager->qryManager;
 
-    pthread_mutex_lock (&qry->lock);
-    bool matchedRids = (callbackState->rid == qry->sync.rid);
-    pthread_mutex_unlock (&qry->lock);
+    bool matchedRids = cryptoClientQRYMatchesRid (qry, callbackState);
 
     bool syncCompleted = false;
     bool syncSuccess   = false;
@@ -565,20 +607,7 @@ cwmAnnounceTransactions (OwnershipKept BRCryptoWalletManager manager,
     if (matchedRids) {
         switch (success) {
             case CRYPTO_TRUE: {
-                // Sort bundles to have the lowest blocknumber first.  Use of `mergesort` is
-                // appropriate given that the bundles are likely already ordered.  This minimizes
-                // dependency resolution between later transactions depending on prior transactions.
-                //
-                // Seems that there may be duplicates in `bundles`; will be dealt with later
-
-                mergesort_brd (bundles, bundlesCount, sizeof (BRCryptoClientTransactionBundle),
-                               cryptoClientTransactionBundleCompareForSort);
-
-                // Recover transfers from each bundle
-                for (size_t index = 0; index < bundlesCount; index++) {
-                    cryptoWalletManagerSaveTransactionBundle(manager, bundles[index]);
-                    cryptoWalletManagerRecoverTransfersFromTransactionBundle (manager, bundles[index]);
-                }
+                cryptoClientQRYRecoverTransactionBundles (manager, bundles, bundlesCount);
 
                 BRCryptoWallet wallet = cryptoWalletManagerGetWallet(manager);
 
@@ -629,6 +658,37 @@ cryptoClientTransferBundleCompareForSort (const void *v1, const void *v2) {
     return cryptoClientTransferBundleCompare (*b1, *b2);
 }
 
+static void
+cryptoClientQRYRecoverTransferBundles (BRCryptoWalletManager manager,
+                                       BRCryptoClientTransferBundle *bundles,
+                                       size_t bundlesCount) {
+    // Sort bundles to have the lowest blocknumber first.  Use of `mergesort` is
+    // appropriate given that the bundles are likely already ordered.  This minimizes
+    // dependency resolution between later transfers depending on prior transfers.
+
+    mergesort_brd (bundles, bundlesCount, sizeof (BRCryptoClientTransferBundle),
+                   cryptoClientTransferBundleCompareForSort);
+
+    // Recover transfers from each bundle
+    for (size_t index = 0; index < bundlesCount; index++) {
+        cryptoWalletManagerSaveTransferBundle(manager, bundles[index]);
+        cryptoWalletManagerRecoverTransferFromTransferBundle (manager, bundles[index]);
+    }
+}
+
+extern void
+cwmAnnounceTransfersPartial (OwnershipKept BRCryptoWalletManager manager,
+                             OwnershipKept BRCryptoClientCallbackState callbackState,
+                             OwnershipGiven BRCryptoClientTransferBundle *bundles, // given elements, not array
+                             size_t bundlesCount) {
+    // Process the page if it is for our rid; otherwise simply discard.
+    if (cryptoClientQRYMatchesRid (manager->qryManager, callbackState))
+        cryptoClientQRYRecoverTransferBundles (manager, bundles, bundlesCount);
+
+    for (size_t index = 0; index < bundlesCount; index++)
+        cryptoClientTransferBundleRelease (bundles[index]);
+}
+
 extern void
 cwmAnnounceTransfers (OwnershipKept BRCryptoWalletManager manager,
                       OwnershipGiven BRCryptoClientCallbackState callbackState,
@@ -637,9 +697,7 @@ cwmAnnounceTransfers (OwnershipKept BRCryptoWalletManager manager,
                       size_t bundlesCount) {
     BRCryptoClientQRYManager qry = manager->qryManager;
 
-    pthread_mutex_lock (&qry->lock);
-    bool matchedRids = (callbackState->rid == qry->sync.rid);
-    pthread_mutex_unlock (&qry->lock);
+    bool matchedRids = cryptoClientQRYMatchesRid (qry, callbackState);
 
     bool syncCompleted = false;
     bool syncSuccess   = false;
@@ -648,18 +706,7 @@ cwmAnnounceTransfers (OwnershipKept BRCryptoWalletManager manager,
     if (matchedRids) {
         switch (success) {
             case CRYPTO_TRUE: {
-                // Sort bundles to have the lowest blocknumber first.  Use of `mergesort` is
-                // appropriate given that the bundles are likely already ordered.  This minimizes
-                // dependency resolution between later transfers depending on prior transfers.
-
-                mergesort_brd (bundles, bundlesCount, sizeof (BRCryptoClientTransferBundle),
-                               cryptoClientTransferBundleCompareForSort);
-
-                // Recover transfers from each bundle
-                for (size_t index = 0; index < bundlesCount; index++) {
-                    cryptoWalletManagerSaveTransferBundle(manager, bundles[index]);
-                    cryptoWalletManagerRecoverTransferFromTransferBundle (manager, bundles[index]);
-                }
+                cryptoClientQRYRecoverTransferBundles (manager, bundles, bundlesCount);
 
                 BRCryptoWallet wallet = cryptoWalletManagerGetWallet(manager);
 
@@ -726,3 +726,145 @@ cryptoTransferAttributeArrayRelease (BRArrayOf(BRCryptoTransferAttribute) attrib
 }
 
 DECLARE_CRYPTO_GIVE_TAKE (BRCryptoTransferAttribute, cryptoTransferAttribute);
+
+/// MARK: - Transfer Snapshot
+
+#define CRYPTO_TRANSFER_SNAPSHOT_ATTRIBUTE_REQUIRED      (0x01)
+#define CRYPTO_TRANSFER_SNAPSHOT_ATTRIBUTE_HAS_VALUE     (0x02)
+
+// `data` is passed by reference as adding to it may reallocate it.
+static int32_t
+cryptoTransferSnapshotAddString (BRArrayOf(uint8_t) *data,
+                                 const char *string) {
+    if (NULL == string) return -1;
+
+    int32_t offset = (int32_t) array_count (*data);
+    array_add_array (*data, (const uint8_t *) string, strlen (string) + 1);
+    return offset;
+}
+
+static int32_t
+cryptoTransferSnapshotAddStringGiven (BRArrayOf(uint8_t) *data,
+                                      OwnershipGiven char *string) {
+    int32_t offset = cryptoTransferSnapshotAddString (data, string);
+    if (NULL != string) free (string);
+    return offset;
+}
+
+static int32_t
+cryptoTransferSnapshotAddAmount (BRArrayOf(uint8_t) *data,
+                                 OwnershipGiven BRCryptoAmount amount) {
+    if (NULL == amount) return -1;
+
+    int32_t offset = cryptoTransferSnapshotAddStringGiven (data, cryptoAmountGetStringPrefaced (amount, 10, NULL));
+    cryptoAmountGive (amount);
+    return offset;
+}
+
+extern OwnershipGiven uint8_t *
+cryptoTransferSnapshotCreate (OwnershipKept BRCryptoTransfer *transfers,
+                              size_t transfersCount,
+                              size_t *snapshotSize) {
+    size_t count = transfersCount;
+
+    // The fixed size columns
+    uint64_t *blockNumbers       = calloc (count + 1, sizeof (uint64_t));
+    uint64_t *transactionIndexes = calloc (count + 1, sizeof (uint64_t));
+    uint64_t *timestamps         = calloc (count + 1, sizeof (uint64_t));
+    int32_t  *stateTypes         = calloc (count + 1, sizeof (int32_t));
+    int32_t  *directions         = calloc (count + 1, sizeof (int32_t));
+    int32_t  *successes          = calloc (count + 1, sizeof (int32_t));
+    int32_t  *attributeCounts    = calloc (count + 1, sizeof (int32_t));
+    int32_t  *hashes             = calloc (count + 1, sizeof (int32_t));
+    int32_t  *sourceAddresses    = calloc (count + 1, sizeof (int32_t));
+    int32_t  *targetAddresses    = calloc (count + 1, sizeof (int32_t));
+    int32_t  *amounts            = calloc (count + 1, sizeof (int32_t));
+    int32_t  *fees               = calloc (count + 1, sizeof (int32_t));
+    int32_t  *errors             = calloc (count + 1, sizeof (int32_t));
+    int32_t  *attributes         = calloc (count + 1, sizeof (int32_t));
+
+    // The strings and attributes
+    BRArrayOf(uint8_t) data;
+    array_new (data, 64 * (count + 1));
+
+    for (size_t index = 0; index < count; index++) {
+        BRCryptoTransfer transfer = transfers[index];
+
+        BRCryptoTransferState state = cryptoTransferGetState (transfer);
+        stateTypes[index] = (int32_t) state.type;
+        errors[index]     = -1;
+        if (CRYPTO_TRANSFER_STATE_INCLUDED == state.type) {
+            blockNumbers[index]       = state.u.included.blockNumber;
+            transactionIndexes[index] = state.u.included.transactionIndex;
+            timestamps[index]         = state.u.included.timestamp;
+            successes[index]          = (int32_t) state.u.included.success;
+            if (CRYPTO_FALSE == state.u.included.success)
+                errors[index] = cryptoTransferSnapshotAddString (&data, state.u.included.error);
+        }
+        cryptoTransferStateRelease (&state);
+
+        directions[index] = (int32_t) cryptoTransferGetDirection (transfer);
+
+        BRCryptoHash hash = cryptoTransferGetHash (transfer);
+        hashes[index] = (NULL == hash ? -1 : cryptoTransferSnapshotAddStringGiven (&data, cryptoHashEncodeString (hash)));
+        cryptoHashGive (hash);
+
+        sourceAddresses[index] = (NULL == transfer->sourceAddress ? -1 :
+                                  cryptoTransferSnapshotAddStringGiven (&data, cryptoAddressAsString (transfer->sourceAddress)));
+        targetAddresses[index] = (NULL == transfer->targetAddress ? -1 :
+                                  cryptoTransferSnapshotAddStringGiven (&data, cryptoAddressAsString (transfer->targetAddress)));
+
+        amounts[index] = cryptoTransferSnapshotAddAmount (&data, cryptoTransferGetAmount (transfer));
+        fees[index]    = cryptoTransferSnapshotAddAmount (&data, cryptoTransferGetFee (transfer));
+
+        pthread_mutex_lock (&transfer->lock);
+        attributeCounts[index] = (int32_t) array_count (transfer->attributes);
+        attributes[index]      = (int32_t) array_count (data);
+        for (size_t aIndex = 0; aIndex < array_count (transfer->attributes); aIndex++) {
+            BRCryptoTransferAttribute attribute = transfer->attributes[aIndex];
+
+            uint8_t flags = ((CRYPTO_TRUE == attribute->isRequired ? CRYPTO_TRANSFER_SNAPSHOT_ATTRIBUTE_REQUIRED  : 0) |
+                             (NULL != attribute->value             ? CRYPTO_TRANSFER_SNAPSHOT_ATTRIBUTE_HAS_VALUE : 0));
+            array_add (data, flags);
+            cryptoTransferSnapshotAddString (&data, attribute->key);
+            cryptoTransferSnapshotAddString (&data, attribute->value);
+        }
+        pthread_mutex_unlock (&transfer->lock);
+    }
+
+    size_t dataOffset = (2 + 3 * count) * sizeof (uint64_t) + 11 * count * sizeof (int32_t);
+    size_t size       = dataOffset + array_count (data);
+
+    uint8_t *snapshot = malloc (size);
+    uint8_t *cursor   = snapshot;
+
+    uint64_t header[2] = { count, dataOffset };
+    memcpy (cursor, header, sizeof (header));                               cursor += sizeof (header);
+
+    memcpy (cursor, blockNumbers,       count * sizeof (uint64_t));         cursor += count * sizeof (uint64_t);
+    memcpy (cursor, transactionIndexes, count * sizeof (uint64_t));         cursor += count * sizeof (uint64_t);
+    memcpy (cursor, timestamps,         count * sizeof (uint64_t));         cursor += count * sizeof (uint64_t);
+    memcpy (cursor, stateTypes,         count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    memcpy (cursor, directions,         count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    memcpy (cursor, successes,          count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    memcpy (cursor, attributeCounts,    count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    memcpy (cursor, hashes,             count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    memcpy (cursor, sourceAddresses,    count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    memcpy (cursor, targetAddresses,    count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    memcpy (cursor, amounts,            count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    memcpy (cursor, fees,               count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    memcpy (cursor, errors,             count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    memcpy (cursor, attributes,         count * sizeof (int32_t));          cursor += count * sizeof (int32_t);
+    assert (cursor == snapshot + dataOffset);
+
+    memcpy (cursor, data, array_count (data));
+
+    free (blockNumbers); free (transactionIndexes); free (timestamps);
+    free (stateTypes); free (directions); free (successes); free (attributeCounts);
+    free (hashes); free (sourceAddresses); free (targetAddresses);
+    free (amounts); free (fees); free (errors); free (attributes);
+    array_free (data);
+
+    *snapshotSize = size;
+    return snapshot;
+}
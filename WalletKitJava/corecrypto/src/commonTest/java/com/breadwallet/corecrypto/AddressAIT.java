@@ -7,6 +7,7 @@
  */
 package com.breadwallet.corecrypto;
 
+import com.breadwallet.corenative.crypto.BRCryptoAddress;
 import com.breadwallet.crypto.AddressScheme;
 import com.google.common.base.Optional;
 import com.google.common.primitives.UnsignedInteger;
@@ -188,4 +189,26 @@ public class AddressAIT {
         assertEquals("ETH Default", AddressScheme.ETH_DEFAULT.toString());
         assertEquals("GEN Default", AddressScheme.GEN_DEFAULT.toString());
     }
+
+    @Test
+    public void testAddressClose() {
+        Network network = Network.findBuiltin("bitcoin-mainnet").get();
+
+        Address b1 = Address.create("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj", network).get();
+        b1.close();
+        b1.close();
+
+        try {
+            b1.toString();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // a shared address outlives a caller's close
+        Address shared = Address.createShared(BRCryptoAddress.create("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj",
+                network.getCoreBRCryptoNetwork()).get());
+        shared.close();
+        assertEquals("1CC3X2gu58d6wXUWMffpuzN9JAfTUWu4Kj", shared.toString());
+    }
 }
@@ -7,6 +7,7 @@
  */
 package com.breadwallet.corecrypto;
 
+import com.breadwallet.corenative.crypto.BRCryptoAmount;
 import com.google.common.primitives.UnsignedInteger;
 
 import org.junit.Test;
@@ -214,4 +215,26 @@ public class AmountAIT {
         Amount btc3 = Amount.create(1e20, satoshi_btc);
         assertTrue (btc3.doubleAmount(btc_mongo).isPresent());
     }
+
+    @Test
+    public void testAmountClose() {
+        Currency btc = Currency.create("Bitcoin", "Bitcoin", "btc", "native", null);
+        Unit satoshi_btc = Unit.create(btc, "BTC-SAT", "Satoshi", "SAT");
+
+        Amount btc1 = Amount.create(100000000, satoshi_btc);
+        btc1.close();
+        btc1.close();
+
+        try {
+            btc1.isNegative();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // a shared amount outlives a caller's close
+        Amount shared = Amount.createShared(BRCryptoAmount.create(100000000, satoshi_btc.getCoreBRCryptoUnit()));
+        shared.close();
+        assertEquals(new Double(100000000), shared.doubleAmount(satoshi_btc).get());
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.corecrypto.ClientScheduler.Priority;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ClientSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSameKeyRunsOneAtATimeInOrder() throws InterruptedException {
+        ClientScheduler scheduler = new ClientScheduler(4, "test-%d");
+
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger active = new AtomicInteger(0);
+        AtomicBoolean overlapped = new AtomicBoolean(false);
+        CountDownLatch done = new CountDownLatch(100);
+
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            scheduler.execute("key", Priority.BULK, () -> {
+                if (active.incrementAndGet() > 1) overlapped.set(true);
+                order.add(index);
+                active.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        await(done);
+        assertFalse(overlapped.get());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    @Test
+    public void testDifferentKeysRunInParallel() throws InterruptedException {
+        ClientScheduler scheduler = new ClientScheduler(3, "test-%d");
+
+        // each task only completes once the other has started
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        CountDownLatch done = new CountDownLatch(2);
+        for (String key : Arrays.asList("a", "b")) {
+            scheduler.execute(key, Priority.BULK, () -> {
+                try {
+                    barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    done.countDown();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        await(done);
+    }
+
+    @Test
+    public void testPriorityIsNotHeldUpByBulk() throws InterruptedException {
+        // two threads, of which one is kept out of reach of `BULK`
+        ClientScheduler scheduler = new ClientScheduler(2, "test-%d");
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch bulkStarted = new CountDownLatch(1);
+        scheduler.execute("a", Priority.BULK, () -> {
+            bulkStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await(bulkStarted);
+
+        CountDownLatch secondBulk = new CountDownLatch(1);
+        scheduler.execute("b", Priority.BULK, secondBulk::countDown);
+
+        CountDownLatch priority = new CountDownLatch(1);
+        scheduler.execute("c", Priority.PRIORITY, priority::countDown);
+        await(priority);
+
+        assertEquals(1, secondBulk.getCount());
+        assertEquals(1, scheduler.getPendingCount(Priority.BULK));
+
+        release.countDown();
+        await(secondBulk);
+        assertEquals(0, scheduler.getPendingCount(Priority.BULK));
+    }
+
+    @Test
+    public void testPriorityStartsAheadOfWaitingBulk() throws InterruptedException {
+        ClientScheduler scheduler = new ClientScheduler(1, "test-%d");
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.execute("a", Priority.BULK, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await(started);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2);
+        scheduler.execute("b", Priority.BULK, () -> { order.add("bulk"); done.countDown(); });
+        scheduler.execute("c", Priority.PRIORITY, () -> { order.add("priority"); done.countDown(); });
+
+        release.countDown();
+        await(done);
+        assertEquals(Arrays.asList("priority", "bulk"), order);
+    }
+
+    @Test
+    public void testThrowingTaskDoesNotStopKey() throws InterruptedException {
+        ClientScheduler scheduler = new ClientScheduler(1, "test-%d");
+
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.execute("a", Priority.BULK, () -> {
+            throw new IllegalStateException("callback failed");
+        });
+        scheduler.execute("a", Priority.BULK, done::countDown);
+
+        await(done);
+    }
+}
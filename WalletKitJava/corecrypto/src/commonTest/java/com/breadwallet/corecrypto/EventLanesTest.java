@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.PointerType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EventLanesTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    // Stands in for a native wallet manager at `address`; as with a core callback, each event
+    // brings a new wrapper of the same address
+    private static final class Core extends PointerType {
+        Core(long address) {
+            super(new Pointer(address));
+        }
+    }
+
+    // Allocations are aligned, so the low bits of managers' addresses rarely vary
+    private static long managerAddress(int index) {
+        return 0x7f0000001000L + 0x200L * index;
+    }
+
+    @Test
+    public void testEventsOfEachManagerRunInOrder() throws Exception {
+        int managerCount = 32;
+        int announcerCount = 8;
+        int eventCount = 500;
+
+        EventLanes lanes = new EventLanes(4, "test-lane-%d");
+        Map<Long, List<Integer>> handled = new ConcurrentHashMap<>();
+        for (int i = 0; i < managerCount; i++) handled.put(managerAddress(i), new CopyOnWriteArrayList<>());
+
+        // each manager's events are announced in order by one thread, interleaved with others'
+        ExecutorService announcers = Executors.newFixedThreadPool(announcerCount);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int a = 0; a < announcerCount; a++) {
+                int announcer = a;
+                futures.add(announcers.submit(() -> {
+                    for (int event = 0; event < eventCount; event++) {
+                        for (int m = announcer; m < managerCount; m += announcerCount) {
+                            long address = managerAddress(m);
+                            int sequence = event;
+                            lanes.execute(new Core(address), () -> handled.get(address).add(sequence));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            announcers.shutdownNow();
+        }
+
+        // drain every lane
+        CountDownLatch drained = new CountDownLatch(managerCount);
+        for (int m = 0; m < managerCount; m++) lanes.execute(new Core(managerAddress(m)), drained::countDown);
+        assertTrue(drained.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+        for (List<Integer> sequences : handled.values()) {
+            assertEquals(eventCount, sequences.size());
+            for (int i = 0; i < eventCount; i++) {
+                assertEquals(i, (int) sequences.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testBlockedLaneHoldsOnlyItsManagers() throws InterruptedException {
+        EventLanes lanes = new EventLanes(4, "test-lane-%d");
+
+        Core blocked = new Core(managerAddress(0));
+        Core sameLane = null;
+        Core otherLane = null;
+        for (int m = 1; null == sameLane || null == otherLane; m++) {
+            Core core = new Core(managerAddress(m));
+            if (lanes.getLane(core) == lanes.getLane(blocked)) {
+                if (null == sameLane) sameLane = core;
+            } else {
+                if (null == otherLane) otherLane = core;
+            }
+        }
+
+        CountDownLatch release = new CountDownLatch(1);
+        lanes.execute(blocked, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        CountDownLatch sameLaneRan = new CountDownLatch(1);
+        CountDownLatch otherLaneRan = new CountDownLatch(1);
+        lanes.execute(sameLane, sameLaneRan::countDown);
+        lanes.execute(otherLane, otherLaneRan::countDown);
+
+        assertTrue(otherLaneRan.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertFalse(sameLaneRan.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, lanes.getQueueDepth(lanes.getLane(blocked)));
+
+        release.countDown();
+        assertTrue(sameLaneRan.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testAlignedAddressesSpreadOverLanes() {
+        EventLanes lanes = new EventLanes(8, "test-lane-%d");
+
+        Set<Integer> used = new HashSet<>();
+        for (int m = 0; m < 64; m++) {
+            int lane = lanes.getLane(new Core(managerAddress(m)));
+            assertTrue(lane >= 0 && lane < lanes.getLaneCount());
+            assertEquals(lane, lanes.getLane(new Core(managerAddress(m))));
+            used.add(lane);
+        }
+        assertEquals(8, used.size());
+    }
+}
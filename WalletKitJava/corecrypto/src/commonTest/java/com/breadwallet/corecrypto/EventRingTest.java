@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EventRingTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    // Records each event; blocks on `release` if given
+    private static class Recorder implements EventRing.Handler {
+
+        final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release;
+        final CountDownLatch handled;
+
+        Recorder(int count, boolean blocking) {
+            this.handled = new CountDownLatch(count);
+            this.release = new CountDownLatch(blocking ? 1 : 0);
+        }
+
+        @Override
+        public void handle(EventRing.Slot slot) {
+            started.countDown();
+            try {
+                assertTrue(release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            events.add(slot.event);
+            handled.countDown();
+            if ("throw".equals(slot.event)) throw new IllegalStateException("handler failed");
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(handled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    private static long publish(EventRing ring, Object event) {
+        long sequence = ring.next();
+        if (-1 != sequence) {
+            ring.get(sequence).set(EventRing.Type.SYSTEM, null, null, null, null, event);
+            ring.publish(sequence);
+        }
+        return sequence;
+    }
+
+    @Test
+    public void testEventsAreHandledInOrderWithEachStrategy() throws InterruptedException {
+        for (SystemConfiguration.ListenerWaitStrategy strategy : SystemConfiguration.ListenerWaitStrategy.values()) {
+            Recorder recorder = new Recorder(1000, false);
+            EventRing ring = new EventRing(16, strategy, recorder);
+
+            List<Object> expected = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                expected.add(i);
+                publish(ring, i);
+            }
+
+            recorder.await();
+            assertEquals(strategy.toString(), expected, recorder.events);
+            ring.halt();
+        }
+    }
+
+    @Test
+    public void testSlotIsClearedOnceHandled() throws InterruptedException {
+        Recorder recorder = new Recorder(1, false);
+        EventRing ring = new EventRing(2, SystemConfiguration.ListenerWaitStrategy.BLOCKING, recorder);
+
+        long sequence = publish(ring, "event");
+        recorder.await();
+        ring.halt();
+
+        // cleared just after being handled
+        for (int i = 0; i < 1000 && null != ring.get(sequence).event; i++) {
+            Thread.sleep(1);
+        }
+        assertNull(ring.get(sequence).event);
+        assertNull(ring.get(sequence).type);
+    }
+
+    @Test
+    public void testThrowingHandlerDoesNotStopConsumer() throws InterruptedException {
+        Recorder recorder = new Recorder(2, false);
+        EventRing ring = new EventRing(4, SystemConfiguration.ListenerWaitStrategy.BLOCKING, recorder);
+
+        publish(ring, "throw");
+        publish(ring, "next");
+
+        recorder.await();
+        ring.halt();
+    }
+
+    @Test
+    public void testPublishedEventsAreHandledAfterHalt() throws InterruptedException {
+        Recorder recorder = new Recorder(2, true);
+        EventRing ring = new EventRing(4, SystemConfiguration.ListenerWaitStrategy.BLOCKING, recorder);
+
+        publish(ring, "first");
+        publish(ring, "second");
+        assertTrue(recorder.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        ring.halt();
+        recorder.release.countDown();
+        recorder.await();
+    }
+
+    @Test
+    public void testEventIsDroppedAfterHalt() {
+        Recorder recorder = new Recorder(0, false);
+        EventRing ring = new EventRing(2, SystemConfiguration.ListenerWaitStrategy.BLOCKING, recorder);
+
+        ring.halt();
+        assertEquals(-1, publish(ring, "event"));
+    }
+
+    @Test
+    public void testFullRingDoesNotOverwriteUnhandledSlotOnHalt() throws InterruptedException {
+        Recorder recorder = new Recorder(1, true);
+        EventRing ring = new EventRing(2, SystemConfiguration.ListenerWaitStrategy.BLOCKING, recorder);
+
+        // the consumer holds the first, still in its slot; the second fills the ring
+        publish(ring, "first");
+        assertTrue(recorder.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        publish(ring, "second");
+
+        // a third waits for the slot of the first, then gives up on halt
+        long[] third = new long[1];
+        Thread producer = new Thread(() -> third[0] = ring.next());
+        producer.start();
+        Thread.sleep(50);
+        assertTrue(producer.isAlive());
+
+        ring.halt();
+        producer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(producer.isAlive());
+        assertEquals(-1, third[0]);
+        assertEquals("first", ring.get(0).event);
+
+        recorder.release.countDown();
+    }
+}
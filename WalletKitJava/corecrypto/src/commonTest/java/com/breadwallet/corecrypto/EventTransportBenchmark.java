@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.crypto.events.system.DefaultSystemListener;
+import com.breadwallet.crypto.events.system.SystemCreatedEvent;
+import com.breadwallet.crypto.events.system.SystemEvent;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares announcing events through `ExecutorService.submit` against the listener ring: the
+ * throughput, and the bytes allocated by the announcing thread per event. Skipped unless run with
+ * `-Pbenchmark`; the figures are printed rather than asserted beyond 'the ring allocates less'.
+ */
+public class EventTransportBenchmark {
+
+    private static final int EVENTS_PER_ITERATION = 200_000;
+    private static final int WARMUP_ITERATIONS    = 5;
+    private static final int MEASURE_ITERATIONS   = 10;
+
+    private static final SystemEvent EVENT = new SystemCreatedEvent();
+
+    @BeforeClass
+    public static void checkEnabled() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+    }
+
+    @Test
+    public void testRingAllocatesLessThanSubmit() throws Exception {
+        CountingListener listener = new CountingListener();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        EventDispatcher submitDispatcher = EventDispatcher.onExecutor(null, listener, executor);
+        Result submit = measure(submitDispatcher, listener);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (SystemConfiguration.ListenerWaitStrategy strategy : SystemConfiguration.ListenerWaitStrategy.values()) {
+            EventDispatcher ringDispatcher = EventDispatcher.onRing(null, listener, 4096, strategy);
+            Result ring = measure(ringDispatcher, listener);
+            ringDispatcher.close();
+
+            java.lang.System.out.println(String.format(
+                    "Announce %d events: submit %.0f events/ms, %.1f B/event; ring (%s) %.0f events/ms, %.1f B/event",
+                    EVENTS_PER_ITERATION,
+                    submit.eventsPerMilli, submit.bytesPerEvent,
+                    strategy, ring.eventsPerMilli, ring.bytesPerEvent));
+
+            assertTrue(ring.bytesPerEvent < submit.bytesPerEvent);
+        }
+    }
+
+    private static final class Result {
+        final double eventsPerMilli;
+        final double bytesPerEvent;
+
+        Result(double eventsPerMilli, double bytesPerEvent) {
+            this.eventsPerMilli = eventsPerMilli;
+            this.bytesPerEvent = bytesPerEvent;
+        }
+    }
+
+    private static final class CountingListener implements DefaultSystemListener {
+
+        private final AtomicLong count = new AtomicLong(0);
+
+        @Override
+        public void handleSystemEvent(com.breadwallet.crypto.System system, SystemEvent event) {
+            count.lazySet(count.get() + 1);
+        }
+
+        void awaitCount(long expected) {
+            while (count.get() < expected) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private static Result measure(EventDispatcher dispatcher, CountingListener listener) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            announce(dispatcher, listener);
+        }
+
+        long beforeBytes = bean.getThreadAllocatedBytes(thread);
+        long beforeNanos = java.lang.System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            announce(dispatcher, listener);
+        }
+        long nanos = java.lang.System.nanoTime() - beforeNanos;
+        long bytes = bean.getThreadAllocatedBytes(thread) - beforeBytes;
+
+        long events = (long) EVENTS_PER_ITERATION * MEASURE_ITERATIONS;
+        return new Result(events / (nanos / 1e6), bytes / (double) events);
+    }
+
+    private static void announce(EventDispatcher dispatcher, CountingListener listener) {
+        long expected = listener.count.get() + EVENTS_PER_ITERATION;
+        for (int i = 0; i < EVENTS_PER_ITERATION; i++) {
+            dispatcher.dispatchSystemEvent(EVENT);
+        }
+        listener.awaitCount(expected);
+    }
+}
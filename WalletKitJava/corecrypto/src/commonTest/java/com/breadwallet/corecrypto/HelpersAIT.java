@@ -14,6 +14,7 @@ import com.breadwallet.crypto.Transfer;
 import com.breadwallet.crypto.Wallet;
 import com.breadwallet.crypto.WalletManager;
 import com.breadwallet.crypto.blockchaindb.BlockchainDb;
+import com.breadwallet.crypto.blockchaindb.DataTask;
 import com.breadwallet.crypto.events.network.NetworkEvent;
 import com.breadwallet.crypto.events.system.DefaultSystemListener;
 import com.breadwallet.crypto.events.system.SystemEvent;
@@ -21,6 +22,7 @@ import com.breadwallet.crypto.events.system.SystemListener;
 import com.breadwallet.crypto.events.system.SystemManagerAddedEvent;
 import com.breadwallet.crypto.events.system.SystemNetworkAddedEvent;
 import com.breadwallet.crypto.events.transfer.TranferEvent;
+import com.breadwallet.crypto.events.transfer.TransferCreatedEvent;
 import com.breadwallet.crypto.events.wallet.WalletEvent;
 import com.breadwallet.crypto.events.walletmanager.WalletManagerEvent;
 import com.breadwallet.crypto.events.walletmanager.WalletManagerWalletAddedEvent;
@@ -31,6 +33,7 @@ import com.google.common.util.concurrent.Uninterruptibles;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -45,6 +48,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
 
 /* package */
 class HelpersAIT {
@@ -103,9 +107,13 @@ class HelpersAIT {
 
     /* package */
     static System createAndConfigureSystemWithListener(File dataDir, SystemListener listener, Boolean mainnet) {
+        return createAndConfigureSystemWithListenerAndBlockchainDb(dataDir, listener, HelpersAIT.createDefaultBlockchainDbWithToken(), mainnet);
+    }
+
+    /* package */
+    static System createAndConfigureSystemWithListenerAndBlockchainDb(File dataDir, SystemListener listener, BlockchainDb query, Boolean mainnet) {
         String storagePath = dataDir.getAbsolutePath();
         Account account = HelpersAIT.createDefaultAccount();
-        BlockchainDb query = HelpersAIT.createDefaultBlockchainDbWithToken();
         ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
         com.breadwallet.corecrypto.System system = com.breadwallet.corecrypto.System.create(executor, listener, account, mainnet, storagePath, query);
 
@@ -194,6 +202,28 @@ class HelpersAIT {
                 null);
     }
 
+    /* package */
+    static BlockchainDb createDefaultBlockchainDbWithDataTask(DataTask dataTask) {
+        if (null == testConfiguration) testConfiguration = TestConfigurationLoader.getTestConfiguration();
+        return new BlockchainDb(DEFAULT_HTTP_CLIENT,
+                testConfiguration.getBlocksetAccess().getBaseURL(),
+                dataTask,
+                null,
+                null);
+    }
+
+    /* package */
+    static DataTask createDefaultDataTaskWithToken() {
+        if (null == testConfiguration) testConfiguration = TestConfigurationLoader.getTestConfiguration();
+        String token = testConfiguration.getBlocksetAccess().getToken();
+        return (client, request, callback) -> {
+            Request decoratedRequest = request.newBuilder()
+                    .header("Authorization", "Bearer " + token)
+                    .build();
+            client.newCall(decoratedRequest).enqueue(callback);
+        };
+    }
+
     /* package */
     static BlockchainDb createDefaultBlockchainDbWithoutToken() {
         return new BlockchainDb(DEFAULT_HTTP_CLIENT);
@@ -328,6 +358,17 @@ class HelpersAIT {
             }
             return managers;
         }
+
+        /* package */
+        List<Transfer> getCreatedTransfers() {
+            List<Transfer> transfers = new ArrayList<>();
+            for (CryptoEvent event: events) {
+                if (event.event instanceof TransferCreatedEvent) {
+                    transfers.add(event.transfer);
+                }
+            }
+            return transfers;
+        }
     }
 
     /* package */
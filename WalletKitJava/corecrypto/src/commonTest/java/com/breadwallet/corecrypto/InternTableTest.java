@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.sun.jna.Pointer;
+import com.sun.jna.PointerType;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class InternTableTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    // Stands in for a native object at `address`; nothing is dereferenced
+    private static final class Core extends PointerType {
+        Core(long address) {
+            super(new Pointer(address));
+        }
+    }
+
+    private static final class Wrapper {
+    }
+
+    private final AtomicInteger createdCount = new AtomicInteger(0);
+    private final AtomicInteger givenCount = new AtomicInteger(0);
+
+    private Wrapper intern(InternTable<Wrapper> table, long address) {
+        return table.intern(new Core(address), () -> {
+            createdCount.incrementAndGet();
+            return new Wrapper();
+        }, givenCount::incrementAndGet);
+    }
+
+    @Test
+    public void testMissCreatesAndHitReturnsExisting() {
+        InternTable<Wrapper> table = new InternTable<>();
+
+        Wrapper first = intern(table, 0x1000);
+        assertEquals(1, createdCount.get());
+        assertEquals(1, table.size());
+
+        assertSame(first, intern(table, 0x1000));
+        assertEquals(1, createdCount.get());
+
+        Wrapper other = intern(table, 0x2000);
+        assertNotSame(first, other);
+        assertEquals(2, createdCount.get());
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void testHitGivesBackCallersReference() {
+        InternTable<Wrapper> table = new InternTable<>();
+
+        Wrapper first = intern(table, 0x1000);
+        assertEquals(0, givenCount.get());
+
+        intern(table, 0x1000);
+        intern(table, 0x1000);
+        assertEquals(2, givenCount.get());
+
+        // a miss keeps it, for the new wrapper
+        intern(table, 0x2000);
+        assertEquals(2, givenCount.get());
+
+        // none to give back
+        assertSame(first, table.intern(new Core(0x1000), Wrapper::new, null));
+    }
+
+    @Test
+    public void testEntryIsRecreatedOnceCollected() throws InterruptedException {
+        InternTable<Wrapper> table = new InternTable<>();
+
+        intern(table, 0x1000);
+        Wrapper kept = intern(table, 0x2000);
+        assertEquals(2, table.size());
+
+        // the unreferenced wrapper is dropped once collected ...
+        long deadline = java.lang.System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (table.size() > 1 && java.lang.System.currentTimeMillis() < deadline) {
+            java.lang.System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, table.size());
+
+        // ... and created anew, with nothing given back
+        Wrapper recreated = intern(table, 0x1000);
+        assertNotNull(recreated);
+        assertEquals(3, createdCount.get());
+        assertEquals(0, givenCount.get());
+
+        assertSame(kept, intern(table, 0x2000));
+        assertEquals(1, givenCount.get());
+    }
+}
@@ -148,4 +148,28 @@ public class KeyAIT {
         k = Key.createForBIP32BitID (s,2, "some uri", HelpersAIT.BIP39_WORDS_EN);
         assertFalse(k.isPresent());
     }
+
+    @Test
+    public void testKeyClose() {
+        byte[] s = "5Kb8kLf9zgWQnogidDA76MzPL6TsZZY36hWXMssSzNydYXYB9KF".getBytes(StandardCharsets.UTF_8);
+        Key k = Key.createFromPrivateKeyString(s).get();
+        Key l = Key.createFromPrivateKeyString(s).get();
+
+        k.close();
+        k.close();
+
+        try {
+            k.encodeAsPrivate();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        try {
+            l.privateKeyMatch(k);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
 }
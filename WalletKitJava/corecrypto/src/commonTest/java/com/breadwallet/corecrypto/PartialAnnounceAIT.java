@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.corecrypto.HelpersAIT.RecordingSystemListener;
+import com.breadwallet.crypto.AddressScheme;
+import com.breadwallet.crypto.Network;
+import com.breadwallet.crypto.System;
+import com.breadwallet.crypto.Transfer;
+import com.breadwallet.crypto.TransferHash;
+import com.breadwallet.crypto.Wallet;
+import com.breadwallet.crypto.WalletManager;
+import com.breadwallet.crypto.WalletManagerMode;
+import com.breadwallet.crypto.blockchaindb.BlockchainDb;
+import com.breadwallet.crypto.blockchaindb.DataTask;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+public class PartialAnnounceAIT {
+
+    private static final MediaType MEDIA_TYPE_JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private static final String SOURCE_ADDRESS = "0x8fb4cb96f7c15f9c39b3854595733f728e1963bc";
+
+    // The block heights of the transactions served, page by page; each page out of order
+    private static final List<List<Long>> PAGES = Arrays.asList(
+            Arrays.asList(10_000_300L, 10_000_100L),
+            Arrays.asList(10_000_250L, 10_000_050L),
+            Collections.singletonList(10_000_200L));
+
+    // Each page is recovered on its own, lowest block first, and the pages in the order served
+    private static final List<Long> RECOVERED = Arrays.asList(
+            10_000_100L, 10_000_300L,
+            10_000_050L, 10_000_250L,
+            10_000_200L);
+
+    private File coreDataDir;
+
+    @Before
+    public void setup() {
+        HelpersAIT.registerCryptoApiProvider();
+
+        coreDataDir = HelpersAIT.generateCoreDataDir();
+        HelpersAIT.createOrOverwriteDirectory(coreDataDir);
+    }
+
+    @After
+    public void teardown() {
+        HelpersAIT.deleteFile(coreDataDir);
+    }
+
+    @Test
+    public void testPagesAreRecoveredInOrderEachSorted() {
+        // Serve `transactions` from PAGES, linked one to the next; all else goes to the network
+        List<Integer> pagesServed = new CopyOnWriteArrayList<>();
+        DataTask networkDataTask = HelpersAIT.createDefaultDataTaskWithToken();
+        DataTask dataTask = (client, request, callback) -> {
+            HttpUrl url = request.url();
+            if (!url.encodedPath().endsWith("/transactions") || !"GET".equals(request.method())) {
+                networkDataTask.execute(client, request, callback);
+                return;
+            }
+
+            String pageParameter = url.queryParameter("page");
+            int page = null == pageParameter ? 0 : Integer.parseInt(pageParameter);
+            String nextUrl = page + 1 < PAGES.size()
+                    ? url.newBuilder().setQueryParameter("page", String.valueOf(page + 1)).build().toString()
+                    : null;
+            pagesServed.add(page);
+
+            try {
+                callback.onResponse(client.newCall(request), new Response.Builder()
+                        .request(request)
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(200)
+                        .message("OK")
+                        .body(ResponseBody.create(createPage(PAGES.get(page), url.queryParameter("address"), nextUrl), MEDIA_TYPE_JSON))
+                        .build());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        BlockchainDb query = HelpersAIT.createDefaultBlockchainDbWithDataTask(dataTask);
+
+        RecordingSystemListener recorder = HelpersAIT.createRecordingListener();
+        System system = HelpersAIT.createAndConfigureSystemWithListenerAndBlockchainDb(coreDataDir, recorder, query, true);
+
+        Optional<Network> maybeNetwork = HelpersAIT.getNetworkByCurrencyCode(recorder.getAddedNetworks(), "eth");
+        assertTrue(maybeNetwork.isPresent());
+
+        system.createWalletManager(maybeNetwork.get(), WalletManagerMode.API_ONLY, AddressScheme.ETH_DEFAULT, Collections.emptySet());
+        Uninterruptibles.sleepUninterruptibly(5, TimeUnit.SECONDS);
+
+        Optional<WalletManager> maybeManager = HelpersAIT.getManagerByCode(recorder.getAddedManagers(), "eth");
+        assertTrue(maybeManager.isPresent());
+
+        WalletManager manager = maybeManager.get();
+        manager.connect(null);
+        Uninterruptibles.sleepUninterruptibly(30, TimeUnit.SECONDS);
+
+        // every page of the first request was fetched, in turn
+        assertTrue(pagesServed.size() >= PAGES.size());
+        assertEquals(Arrays.asList(0, 1, 2), pagesServed.subList(0, PAGES.size()));
+
+        Optional<Wallet> maybeWallet = HelpersAIT.getWalletByCode(recorder.getAddedWallets(), "eth");
+        assertTrue(maybeWallet.isPresent());
+        assertEquals(RECOVERED.size(), maybeWallet.get().getTransfers().size());
+
+        // the pages were announced under the request's rid, as they arrived, not sorted as a whole
+        List<String> expectedHashes = new ArrayList<>();
+        for (long blockHeight : RECOVERED) expectedHashes.add(createHash(blockHeight));
+
+        List<String> createdHashes = new ArrayList<>();
+        for (Transfer transfer : recorder.getCreatedTransfers()) {
+            createdHashes.add(transfer.getHash().transform(TransferHash::toString).orNull());
+        }
+        assertEquals(expectedHashes, createdHashes);
+
+        manager.disconnect();
+    }
+
+    private static String createHash(long blockHeight) {
+        return String.format("0x%064x", blockHeight);
+    }
+
+    // A `transactions` page, each transaction sending ETH from SOURCE_ADDRESS to `address`
+    private static String createPage(List<Long> blockHeights, String address, String nextUrl) {
+        StringBuilder builder = new StringBuilder("{\"_embedded\":{\"transactions\":[");
+        for (int i = 0; i < blockHeights.size(); i++) {
+            long blockHeight = blockHeights.get(i);
+            String hash = createHash(blockHeight);
+            String transactionId = "ethereum-mainnet:" + hash;
+
+            if (i != 0) builder.append(',');
+            builder.append("{\"transaction_id\":\"").append(transactionId)
+                    .append("\",\"identifier\":\"").append(hash)
+                    .append("\",\"hash\":\"").append(hash)
+                    .append("\",\"blockchain_id\":\"ethereum-mainnet\",\"size\":110")
+                    .append(",\"fee\":{\"currency_id\":\"ethereum-mainnet:__native__\",\"amount\":\"21000000000000\"}")
+                    .append(",\"status\":\"confirmed\",\"timestamp\":\"2020-05-01T00:00:00.000+0000\"")
+                    .append(",\"index\":0")
+                    .append(",\"block_hash\":\"").append(hash)
+                    .append("\",\"block_height\":").append(blockHeight)
+                    .append(",\"confirmations\":100")
+                    .append(",\"meta\":{\"input\":\"0x\",\"gasLimit\":\"21000\",\"gasUsed\":\"21000\",\"gasPrice\":\"1000000000\",\"nonce\":\"").append(i)
+                    .append("\"},\"_embedded\":{\"transfers\":[")
+                    .append("{\"transfer_id\":\"").append(transactionId).append(":0")
+                    .append("\",\"blockchain_id\":\"ethereum-mainnet\",\"index\":0")
+                    .append(",\"amount\":{\"currency_id\":\"ethereum-mainnet:__native__\",\"amount\":\"1000000000000000\"}")
+                    .append(",\"meta\":{},\"from_address\":\"").append(SOURCE_ADDRESS)
+                    .append("\",\"to_address\":\"").append(address)
+                    .append("\",\"transaction_id\":\"").append(transactionId)
+                    .append("\",\"acknowledgements\":100}]}}");
+        }
+        builder.append("]},\"_links\":{");
+        if (null != nextUrl) builder.append("\"next\":{\"href\":\"").append(nextUrl).append("\"}");
+        builder.append("}}");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SyncSchedulerTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    // The started requests, by name, in the order started
+    private final BlockingQueue<String> started = new LinkedBlockingQueue<>();
+    private final Map<String, SyncScheduler.Completion> completions = new ConcurrentHashMap<>();
+
+    private SyncScheduler.Completion request(SyncScheduler scheduler, Object key, String name) {
+        return scheduler.request(key, completion -> {
+            completions.put(name, completion);
+            started.add(name);
+        });
+    }
+
+    private String nextStarted() throws InterruptedException {
+        String name = started.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        assertNotNull("Timed out waiting for a start", name);
+        return name;
+    }
+
+    private void assertNoneStarted() throws InterruptedException {
+        assertNull(started.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testActiveSyncsAreCapped() throws InterruptedException {
+        SyncScheduler scheduler = new SyncScheduler(1, 0, "test-sync");
+
+        request(scheduler, "a", "a");
+        request(scheduler, "b", "b");
+
+        assertEquals("a", nextStarted());
+        assertNoneStarted();
+        assertEquals(1, scheduler.getActiveCount());
+        assertEquals(1, scheduler.getQueueDepth());
+
+        // a request for the running key joins its sync
+        request(scheduler, "a", "a2");
+        assertEquals("a2", nextStarted());
+
+        completions.get("a").complete();
+        assertNoneStarted();
+
+        completions.get("a2").complete();
+        assertEquals("b", nextStarted());
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+
+    @Test
+    public void testHigherPriorityIsAdmittedFirst() throws InterruptedException {
+        SyncScheduler scheduler = new SyncScheduler(1, 0, "test-sync");
+
+        request(scheduler, "a", "a");
+        assertEquals("a", nextStarted());
+
+        request(scheduler, "b", "b");
+        request(scheduler, "c", "c");
+        request(scheduler, "d", "d");
+        scheduler.setPriority("d", 5);
+
+        completions.get("a").complete();
+        assertEquals("d", nextStarted());
+
+        completions.get("d").complete();
+        assertEquals("b", nextStarted());
+
+        completions.get("b").complete();
+        assertEquals("c", nextStarted());
+    }
+
+    @Test
+    public void testAdmissionsAreStaggered() throws InterruptedException {
+        SyncScheduler scheduler = new SyncScheduler(0, 200, "test-sync");
+
+        long startNanos = java.lang.System.nanoTime();
+        request(scheduler, "a", "a");
+        request(scheduler, "b", "b");
+        request(scheduler, "c", "c");
+
+        assertEquals("a", nextStarted());
+        assertEquals("b", nextStarted());
+        assertTrue(java.lang.System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals("c", nextStarted());
+        assertTrue(java.lang.System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(400));
+
+        // without a cap, none waits on another's completion
+        assertEquals(3, scheduler.getActiveCount());
+    }
+
+    @Test
+    public void testReleaseEndsSyncWhateverIsOutstanding() throws InterruptedException {
+        SyncScheduler scheduler = new SyncScheduler(1, 0, "test-sync");
+
+        request(scheduler, "a", "a");
+        request(scheduler, "a", "a2");
+        request(scheduler, "b", "b");
+        assertEquals("a", nextStarted());
+        assertEquals("a2", nextStarted());
+
+        scheduler.release("a");
+        assertEquals("b", nextStarted());
+        completions.get("b").complete();
+
+        // a new round for `a` is ended by neither of the old round's completions
+        request(scheduler, "a", "a3");
+        assertEquals("a3", nextStarted());
+        completions.get("a").complete();
+        completions.get("a2").complete();
+        assertEquals(1, scheduler.getActiveCount());
+
+        completions.get("a3").complete();
+        assertEquals(0, scheduler.getActiveCount());
+    }
+
+    @Test
+    public void testCompletionCountsOnce() throws InterruptedException {
+        SyncScheduler scheduler = new SyncScheduler(1, 0, "test-sync");
+
+        request(scheduler, "a", "a");
+        request(scheduler, "a", "a2");
+        request(scheduler, "b", "b");
+        assertEquals("a", nextStarted());
+        assertEquals("a2", nextStarted());
+
+        completions.get("a").complete();
+        completions.get("a").complete();
+        assertNoneStarted();
+        assertEquals(1, scheduler.getActiveCount());
+
+        completions.get("a2").complete();
+        assertEquals("b", nextStarted());
+    }
+
+    @Test
+    public void testRequestCompletedWhileWaitingIsWithdrawn() throws InterruptedException {
+        SyncScheduler scheduler = new SyncScheduler(1, 0, "test-sync");
+
+        request(scheduler, "a", "a");
+        SyncScheduler.Completion waiting = request(scheduler, "b", "b");
+        request(scheduler, "c", "c");
+        assertEquals("a", nextStarted());
+
+        waiting.complete();
+        assertEquals(1, scheduler.getQueueDepth());
+
+        completions.get("a").complete();
+        assertEquals("c", nextStarted());
+        assertNoneStarted();
+    }
+
+    @Test
+    public void testThrowingStartCompletes() throws InterruptedException {
+        SyncScheduler scheduler = new SyncScheduler(1, 0, "test-sync");
+
+        scheduler.request("a", completion -> {
+            throw new IllegalStateException("start failed");
+        });
+        request(scheduler, "b", "b");
+
+        assertEquals("b", nextStarted());
+    }
+
+    @Test
+    public void testRemoveForgetsKey() throws InterruptedException {
+        SyncScheduler scheduler = new SyncScheduler(1, 0, "test-sync");
+
+        request(scheduler, "a", "a");
+        request(scheduler, "b", "b");
+        assertEquals("a", nextStarted());
+        assertEquals(2, scheduler.getKeyCount());
+
+        scheduler.remove("a");
+        assertEquals("b", nextStarted());
+        assertEquals(1, scheduler.getKeyCount());
+
+        // a late completion of the removed key's sync has no effect
+        completions.get("a").complete();
+        assertEquals(1, scheduler.getActiveCount());
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.corenative.crypto.BRCryptoTransferStateType;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Amount;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Transaction;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Transfer;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.UnsignedLong;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the time and bytes allocated to make the bundles of a 10k-transfer `getTransfers`
+ * response using `TransferBundleBuilder` against the prior filter-and-copy `mergeTransfers`. The
+ * bundles themselves are not created in the core; both produce the same description of each.
+ * Skipped unless run with `-Pbenchmark`; the figures are printed rather than asserted beyond 'the
+ * builder allocates less'.
+ */
+public class TransferBundleBuilderBenchmark {
+
+    private static final int TRANSACTIONS       = 2500;     // 4 transfers each
+    private static final int WALLET_ADDRESSES   = 500;
+    private static final int WARMUP_ITERATIONS  = 10;
+    private static final int MEASURE_ITERATIONS = 20;
+
+    private List<String> addresses;
+    private List<Transaction> transactions;
+
+    @BeforeClass
+    public static void checkEnabled() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+    }
+
+    @Before
+    public void setup() {
+        addresses = new ArrayList<>();
+        for (int i = 0; i < WALLET_ADDRESSES; i++) {
+            addresses.add("wallet-" + i);
+        }
+
+        transactions = new ArrayList<>();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            String txId = "tx-" + i;
+            String ours = addresses.get(i % WALLET_ADDRESSES);
+
+            Transaction.Embedded embedded = new Transaction.Embedded();
+            embedded.transfers = Arrays.asList(
+                    createTransfer(txId + ":0", txId, ours, "other-" + i, "eth", ImmutableMap.of("nonce", "1")),
+                    createTransfer(txId + ":1", txId, ours, "other-" + i, "usdt", ImmutableMap.of("token", "usdt", "gasUsed", "21000")),
+                    createTransfer(txId + ":2", txId, "other-" + i, "another-" + i, "eth", ImmutableMap.of()),
+                    createTransfer(txId + ":3", txId, ours, "__fee__", "eth", ImmutableMap.of()));
+
+            transactions.add(Transaction.create(txId, txId, String.format("%064x", i), "ethereum-mainnet",
+                    UnsignedLong.valueOf(100), Amount.create("ethereum-mainnet:__native__", "21000"), "confirmed",
+                    embedded, null, new Date(1_577_836_800_000L), UnsignedLong.valueOf(i % 100), "block", UnsignedLong.valueOf(9_000_000 + i / 100),
+                    null, UnsignedLong.valueOf(12), null, null,
+                    ImmutableMap.of("gasPrice", "1000000000", "gasLimit", "21000", "nonce", "0")));
+        }
+    }
+
+    @Test
+    public void testBuilderAllocatesLessThanMergeTransfers() {
+        Maker baseline = () -> {
+            List<String> bundles = new ArrayList<>();
+            for (Transaction transaction : transactions) {
+                makeTransferBundlesBaseline(transaction, addresses, bundles);
+            }
+            return bundles;
+        };
+
+        Maker builder = () -> {
+            List<String> bundles = new ArrayList<>();
+            TransferBundleBuilder<String> bundleBuilder = new DescribingBuilder(addresses);
+            for (Transaction transaction : transactions) {
+                bundleBuilder.addTransaction(transaction, bundles);
+            }
+            return bundles;
+        };
+
+        assertEquals(baseline.make(), builder.make());
+        assertEquals(2 * TRANSACTIONS, builder.make().size());
+
+        long[] baselineResult = measure(baseline);
+        long[] builderResult  = measure(builder);
+
+        java.lang.System.out.println(String.format(
+                "Bundle %d transfers over %d addresses: mergeTransfers %.2f ms, %d KB; builder %.2f ms, %d KB",
+                4 * TRANSACTIONS, WALLET_ADDRESSES,
+                baselineResult[0] / 1e6, baselineResult[1] / 1024,
+                builderResult[0] / 1e6, builderResult[1] / 1024));
+
+        assertTrue(builderResult[1] < baselineResult[1]);
+    }
+
+    private interface Maker {
+        List<String> make();
+    }
+
+    // Returns the mean nanoseconds and bytes allocated per make
+    private static long[] measure(Maker maker) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            maker.make();
+        }
+
+        long beforeBytes = bean.getThreadAllocatedBytes(thread);
+        long beforeNanos = java.lang.System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            maker.make();
+        }
+        long nanos = java.lang.System.nanoTime() - beforeNanos;
+        long bytes = bean.getThreadAllocatedBytes(thread) - beforeBytes;
+
+        return new long[] { nanos / MEASURE_ITERATIONS, bytes / MEASURE_ITERATIONS };
+    }
+
+    private static Transfer createTransfer(String id, String txId, String from, String to, String currency, Map<String, String> meta) {
+        return Transfer.create(id, "ethereum-mainnet", UnsignedLong.ZERO, Amount.create(currency, "1000"),
+                meta, from, to, txId, UnsignedLong.ONE);
+    }
+
+    private static String describe(BRCryptoTransferStateType status, Transfer transfer, String fee, int metaCount, String[] metaKeys, String[] metaVals) {
+        Map<String, String> meta = new TreeMap<>();
+        for (int i = 0; i < metaCount; i++) {
+            meta.put(metaKeys[i], metaVals[i]);
+        }
+        return status + "|" + transfer.getId() + "|" + transfer.getToAddress().orNull() + "|" + fee + "|" + meta;
+    }
+
+    private static final class DescribingBuilder extends TransferBundleBuilder<String> {
+
+        DescribingBuilder(List<String> addresses) {
+            super(addresses);
+        }
+
+        @Override
+        String createBundle(BRCryptoTransferStateType status, Transaction transaction, Transfer transfer, String fee,
+                            UnsignedLong blockTimestamp, UnsignedLong blockHeight, UnsignedLong blockConfirmations,
+                            UnsignedLong blockTransactionIndex, int metaCount, String[] metaKeys, String[] metaVals) {
+            return describe(status, transfer, fee, metaCount, metaKeys, metaVals);
+        }
+    }
+
+    // The prior `System.makeTransferBundles` and `System.mergeTransfers`, less the core calls
+
+    private static void makeTransferBundlesBaseline(Transaction transaction, List<String> addresses, List<String> bundles) {
+        BRCryptoTransferStateType status = System.getTransferStatus(transaction.getStatus());
+
+        for (Object[] o : mergeTransfersBaseline(transaction, addresses)) {
+            Transfer transfer = (Transfer) o[0];
+
+            Map<String, String> meta = new HashMap<>(transaction.getMeta());
+            meta.putAll(transfer.getMeta());
+
+            int metaCount = meta.size();
+            String[] metaKeys = meta.keySet().toArray(new String[metaCount]);
+            String[] metaVals = meta.values().toArray(new String[metaCount]);
+
+            bundles.add(describe(status, transfer, (String) o[1], metaCount, metaKeys, metaVals));
+        }
+    }
+
+    private static List<Object[]> mergeTransfersBaseline(Transaction transaction, List<String> addresses) {
+        List<Transfer> transfers = new ArrayList<>(Collections2.filter(transaction.getTransfers(),
+                t -> addresses.contains(t.getFromAddress().orNull()) ||
+                        addresses.contains(t.getToAddress().orNull())));
+
+        List<Transfer> transfersWithFee = new ArrayList<>(Collections2.filter(transfers, t -> "__fee__".equals(t.getToAddress().orNull())));
+        List<Transfer> transfersWithoutFee = new ArrayList<>(Collections2.filter(transfers, t -> !"__fee__".equals(t.getToAddress().orNull())));
+
+        Transfer transferWithFee = transfersWithFee.isEmpty() ? null : transfersWithFee.get(0);
+
+        List<Object[]> transfersMerged = new ArrayList<>(transfers.size());
+        if (transferWithFee == null) {
+            for (Transfer transfer : transfers) {
+                transfersMerged.add(new Object[] { transfer, null });
+            }
+        } else {
+            Transfer transferMatchingFee = null;
+            for (Transfer transfer : transfersWithoutFee) {
+                if (transferWithFee.getTransactionId().equals(transfer.getTransactionId()) &&
+                        transferWithFee.getFromAddress().equals(transfer.getFromAddress()) &&
+                        transferWithFee.getAmount().getCurrencyId().equals(transfer.getAmount().getCurrencyId())) {
+                    transferMatchingFee = transfer;
+                    break;
+                }
+            }
+
+            transfers = new ArrayList<>(transfersWithoutFee);
+            String transferForFeeId = transferMatchingFee != null ? transferMatchingFee.getId() : transferWithFee.getId();
+
+            for (Transfer transfer : transfers) {
+                String fee = transfer.getId().equals(transferForFeeId) ? transferWithFee.getAmount().getAmount() : null;
+                transfersMerged.add(new Object[] { transfer, fee });
+            }
+        }
+        return transfersMerged;
+    }
+}
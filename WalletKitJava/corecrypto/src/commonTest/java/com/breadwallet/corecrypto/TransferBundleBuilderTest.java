@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.corenative.crypto.BRCryptoTransferStateType;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Amount;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Transaction;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Transfer;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.UnsignedLong;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.junit.Assert.*;
+
+public class TransferBundleBuilderTest {
+
+    private static final List<String> ADDRESSES = Arrays.asList("ours", "ours-too");
+
+    @Test
+    public void testTransfersWithoutFee() {
+        Transaction transaction = createTransaction("tx", "confirmed", ImmutableMap.of(),
+                createTransfer("tx:0", "tx", "ours", "theirs", "eth", ImmutableMap.of()),
+                createTransfer("tx:1", "tx", "theirs", "ours-too", "eth", ImmutableMap.of()),
+                createTransfer("tx:2", "tx", "theirs", "another", "eth", ImmutableMap.of()));
+
+        List<String> bundles = assertMatchesMergeTransfers(transaction);
+        assertEquals(Arrays.asList(
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:0|ours|theirs|eth|null|{}",
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:1|theirs|ours-too|eth|null|{}"), bundles);
+    }
+
+    @Test
+    public void testFeeMergedIntoTransferOfSameCurrency() {
+        Transaction transaction = createTransaction("tx", "confirmed", ImmutableMap.of(),
+                createTransfer("tx:0", "tx", "ours", "theirs", "usdt", ImmutableMap.of()),
+                createTransfer("tx:1", "tx", "ours", "theirs", "eth", ImmutableMap.of()),
+                createTransfer("tx:2", "tx", "ours", "__fee__", "eth", ImmutableMap.of()));
+
+        List<String> bundles = assertMatchesMergeTransfers(transaction);
+        assertEquals(Arrays.asList(
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:0|ours|theirs|usdt|null|{}",
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:1|ours|theirs|eth|1000|{}"), bundles);
+    }
+
+    @Test
+    public void testFeeMergedIntoTransferOfOtherCurrency() {
+        Transaction transaction = createTransaction("tx", "confirmed", ImmutableMap.of(),
+                createTransfer("tx:0", "tx", "theirs", "ours", "usdt", ImmutableMap.of()),
+                createTransfer("tx:1", "tx", "ours", "theirs", "usdt", ImmutableMap.of()),
+                createTransfer("tx:2", "tx", "ours", "another", "usdt", ImmutableMap.of()),
+                createTransfer("tx:3", "tx", "ours", "__fee__", "eth", ImmutableMap.of()));
+
+        // the first transfer from the fee's source
+        List<String> bundles = assertMatchesMergeTransfers(transaction);
+        assertEquals(Arrays.asList(
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:0|theirs|ours|usdt|null|{}",
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:1|ours|theirs|usdt|1000|{}",
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:2|ours|another|usdt|null|{}"), bundles);
+    }
+
+    @Test
+    public void testFeeWithoutTransferBecomesTransferToUnknown() {
+        Transaction transaction = createTransaction("tx", "submitted", ImmutableMap.of(),
+                createTransfer("tx:0", "tx", "theirs", "ours", "eth", ImmutableMap.of()),
+                createTransfer("tx:1", "tx", "ours", "__fee__", "eth", ImmutableMap.of("fee", "yes")));
+
+        List<String> bundles = assertMatchesMergeTransfers(transaction);
+        assertEquals(Arrays.asList(
+                "CRYPTO_TRANSFER_STATE_SUBMITTED|tx:0|theirs|ours|eth|null|{}",
+                "CRYPTO_TRANSFER_STATE_SUBMITTED|tx:1|ours|unknown|eth|1000|{fee=yes}"), bundles);
+    }
+
+    @Test
+    public void testFeeOfOtherSourceIsNotMerged() {
+        Transaction transaction = createTransaction("tx", "confirmed", ImmutableMap.of(),
+                createTransfer("tx:0", "tx", "ours", "theirs", "eth", ImmutableMap.of()),
+                createTransfer("tx:1", "tx", "ours-too", "__fee__", "eth", ImmutableMap.of()));
+
+        List<String> bundles = assertMatchesMergeTransfers(transaction);
+        assertEquals(Arrays.asList(
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:0|ours|theirs|eth|null|{}",
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:1|ours-too|unknown|eth|1000|{}"), bundles);
+    }
+
+    @Test
+    public void testTransferMetaOverridesTransactionMeta() {
+        Transaction transaction = createTransaction("tx", "confirmed", ImmutableMap.of("nonce", "0", "gasPrice", "1"),
+                createTransfer("tx:0", "tx", "ours", "theirs", "eth", ImmutableMap.of("nonce", "7", "token", "usdt")),
+                createTransfer("tx:1", "tx", "ours", "theirs", "eth", ImmutableMap.of()));
+
+        List<String> bundles = assertMatchesMergeTransfers(transaction);
+        assertEquals(Arrays.asList(
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:0|ours|theirs|eth|null|{gasPrice=1, nonce=7, token=usdt}",
+                "CRYPTO_TRANSFER_STATE_INCLUDED|tx:1|ours|theirs|eth|null|{gasPrice=1, nonce=0}"), bundles);
+    }
+
+    @Test
+    public void testMetaBuffersAreReusedAcrossTransactions() {
+        Map<String, String> bigMeta = new HashMap<>();
+        for (int i = 0; i < 20; i++) bigMeta.put("key" + i, "val" + i);
+
+        List<Transaction> transactions = Arrays.asList(
+                createTransaction("tx1", "confirmed", bigMeta,
+                        createTransfer("tx1:0", "tx1", "ours", "theirs", "eth", ImmutableMap.of())),
+                createTransaction("tx2", "failed", ImmutableMap.of("only", "one"),
+                        createTransfer("tx2:0", "tx2", "ours", "theirs", "eth", ImmutableMap.of())),
+                createTransaction("tx3", "confirmed", ImmutableMap.of(),
+                        createTransfer("tx3:0", "tx3", "theirs", "another", "eth", ImmutableMap.of())));
+
+        List<String> expected = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            makeTransferBundlesBaseline(transaction, ADDRESSES, expected);
+        }
+
+        RecordingBuilder builder = new RecordingBuilder(ADDRESSES);
+        List<String> bundles = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            builder.addTransaction(transaction, bundles);
+        }
+
+        assertEquals(expected, bundles);
+        assertEquals(2, bundles.size());
+
+        // what's left of the longer meta is cleared
+        for (int i = 1; i < builder.lastMetaKeys.length; i++) {
+            assertNull(builder.lastMetaKeys[i]);
+            assertNull(builder.lastMetaVals[i]);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMoreThanOneFeeIsRejected() {
+        Transaction transaction = createTransaction("tx", "confirmed", ImmutableMap.of(),
+                createTransfer("tx:0", "tx", "ours", "__fee__", "eth", ImmutableMap.of()),
+                createTransfer("tx:1", "tx", "ours", "__fee__", "eth", ImmutableMap.of()));
+
+        new RecordingBuilder(ADDRESSES).addTransaction(transaction, new ArrayList<>());
+    }
+
+    // Returns the bundles, once checked against the prior `mergeTransfers`
+    private static List<String> assertMatchesMergeTransfers(Transaction transaction) {
+        List<String> expected = new ArrayList<>();
+        makeTransferBundlesBaseline(transaction, ADDRESSES, expected);
+
+        List<String> bundles = new ArrayList<>();
+        new RecordingBuilder(ADDRESSES).addTransaction(transaction, bundles);
+
+        assertEquals(expected, bundles);
+        return bundles;
+    }
+
+    private static Transaction createTransaction(String txId, String status, Map<String, String> meta, Transfer... transfers) {
+        Transaction.Embedded embedded = new Transaction.Embedded();
+        embedded.transfers = Arrays.asList(transfers);
+
+        return Transaction.create(txId, txId, "hash-" + txId, "ethereum-mainnet",
+                UnsignedLong.valueOf(100), Amount.create("ethereum-mainnet:__native__", "21000"), status,
+                embedded, null, new Date(1_577_836_800_000L), UnsignedLong.ZERO, "block", UnsignedLong.valueOf(9_000_000),
+                null, UnsignedLong.valueOf(12), null, null, meta);
+    }
+
+    private static Transfer createTransfer(String id, String txId, String from, String to, String currency, Map<String, String> meta) {
+        return Transfer.create(id, "ethereum-mainnet", UnsignedLong.ZERO, Amount.create(currency, "1000"),
+                meta, from, to, txId, UnsignedLong.ONE);
+    }
+
+    private static String describe(BRCryptoTransferStateType status, Transfer transfer, String fee, Map<String, String> meta) {
+        return status + "|" + transfer.getId() + "|" + transfer.getFromAddress().orNull() + "|" +
+                transfer.getToAddress().orNull() + "|" + transfer.getAmount().getCurrencyId() + "|" + fee + "|" +
+                new TreeMap<>(meta);
+    }
+
+    private static final class RecordingBuilder extends TransferBundleBuilder<String> {
+
+        String[] lastMetaKeys;
+        String[] lastMetaVals;
+
+        RecordingBuilder(List<String> addresses) {
+            super(addresses);
+        }
+
+        @Override
+        String createBundle(BRCryptoTransferStateType status, Transaction transaction, Transfer transfer, String fee,
+                            UnsignedLong blockTimestamp, UnsignedLong blockHeight, UnsignedLong blockConfirmations,
+                            UnsignedLong blockTransactionIndex, int metaCount, String[] metaKeys, String[] metaVals) {
+            lastMetaKeys = metaKeys;
+            lastMetaVals = metaVals;
+
+            Map<String, String> meta = new HashMap<>();
+            for (int i = 0; i < metaCount; i++) {
+                assertNull(meta.put(metaKeys[i], metaVals[i]));
+            }
+            return describe(status, transfer, fee, meta);
+        }
+    }
+
+    // The prior `System.makeTransferBundles` and `System.mergeTransfers`, less the core calls
+
+    private static void makeTransferBundlesBaseline(Transaction transaction, List<String> addresses, List<String> bundles) {
+        BRCryptoTransferStateType status = System.getTransferStatus(transaction.getStatus());
+
+        for (Object[] o : mergeTransfersBaseline(transaction, addresses)) {
+            Transfer transfer = (Transfer) o[0];
+
+            Map<String, String> meta = new HashMap<>(transaction.getMeta());
+            meta.putAll(transfer.getMeta());
+
+            bundles.add(describe(status, transfer, (String) o[1], meta));
+        }
+    }
+
+    private static List<Object[]> mergeTransfersBaseline(Transaction transaction, List<String> addresses) {
+        List<Transfer> transfers = new ArrayList<>(Collections2.filter(transaction.getTransfers(),
+                t -> addresses.contains(t.getFromAddress().orNull()) ||
+                        addresses.contains(t.getToAddress().orNull())));
+
+        List<Transfer> transfersWithFee = new ArrayList<>(Collections2.filter(transfers, t -> "__fee__".equals(t.getToAddress().orNull())));
+        List<Transfer> transfersWithoutFee = new ArrayList<>(Collections2.filter(transfers, t -> !"__fee__".equals(t.getToAddress().orNull())));
+
+        checkState(transfersWithFee.size() <= 1);
+        Transfer transferWithFee = transfersWithFee.isEmpty() ? null : transfersWithFee.get(0);
+
+        List<Object[]> transfersMerged = new ArrayList<>(transfers.size());
+        if (transferWithFee == null) {
+            for (Transfer transfer : transfers) {
+                transfersMerged.add(new Object[] { transfer, null });
+            }
+        } else {
+            Transfer transferMatchingFee = null;
+            for (Transfer transfer : transfersWithoutFee) {
+                if (transferWithFee.getTransactionId().equals(transfer.getTransactionId()) &&
+                        transferWithFee.getFromAddress().equals(transfer.getFromAddress()) &&
+                        transferWithFee.getAmount().getCurrencyId().equals(transfer.getAmount().getCurrencyId())) {
+                    transferMatchingFee = transfer;
+                    break;
+                }
+            }
+
+            if (null == transferMatchingFee)
+                for (Transfer transfer : transfersWithoutFee) {
+                    if (transferWithFee.getTransactionId().equals(transfer.getTransactionId()) &&
+                            transferWithFee.getFromAddress().equals(transfer.getFromAddress())) {
+                        transferMatchingFee = transfer;
+                        break;
+                    }
+                }
+
+            transfers = new ArrayList<>(transfersWithoutFee);
+            if (null == transferMatchingFee) {
+                transfers.add(Transfer.create(
+                        transferWithFee.getId(),
+                        transferWithFee.getBlockchainId(),
+                        transferWithFee.getIndex(),
+                        transferWithFee.getAmount(),
+                        transferWithFee.getMeta(),
+                        transferWithFee.getFromAddress().orNull(),
+                        "unknown",
+                        "0",
+                        transferWithFee.getAcknowledgements().orNull()));
+            }
+
+            String transferForFeeId = transferMatchingFee != null ? transferMatchingFee.getId() : transferWithFee.getId();
+
+            for (Transfer transfer : transfers) {
+                String fee = transfer.getId().equals(transferForFeeId) ? transferWithFee.getAmount().getAmount() : null;
+                transfersMerged.add(new Object[] { transfer, fee });
+            }
+        }
+        return transfersMerged;
+    }
+}
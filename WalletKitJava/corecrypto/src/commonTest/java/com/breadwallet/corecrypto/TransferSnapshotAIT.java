@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.corecrypto.HelpersAIT.RecordingSystemListener;
+import com.breadwallet.crypto.AddressScheme;
+import com.breadwallet.crypto.Network;
+import com.breadwallet.crypto.System;
+import com.breadwallet.crypto.Transfer;
+import com.breadwallet.crypto.TransferAttribute;
+import com.breadwallet.crypto.TransferHash;
+import com.breadwallet.crypto.Wallet;
+import com.breadwallet.crypto.WalletManager;
+import com.breadwallet.crypto.WalletManagerMode;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TransferSnapshotAIT {
+
+    private File coreDataDir;
+
+    @Before
+    public void setup() {
+        HelpersAIT.registerCryptoApiProvider();
+
+        coreDataDir = HelpersAIT.generateCoreDataDir();
+        HelpersAIT.createOrOverwriteDirectory(coreDataDir);
+    }
+
+    @After
+    public void teardown() {
+        HelpersAIT.deleteFile(coreDataDir);
+    }
+
+    @Test
+    public void testSnapshotMatchesTransfersEth() {
+        testSnapshotMatchesTransfers("eth", true, AddressScheme.ETH_DEFAULT);
+    }
+
+    @Test
+    public void testSnapshotMatchesTransfersBtc() {
+        testSnapshotMatchesTransfers("btc", false, AddressScheme.BTC_LEGACY);
+    }
+
+    // Each transfer's strings (hash, addresses and amounts) exceed the snapshot's initial
+    // allowance, so that any history reallocates the snapshot's data as it is made
+    private void testSnapshotMatchesTransfers(String currencyCode, boolean mainnet, AddressScheme scheme) {
+        RecordingSystemListener recorder = HelpersAIT.createRecordingListener();
+        System system = HelpersAIT.createAndConfigureSystemWithListener(coreDataDir, recorder, mainnet);
+
+        Optional<Network> maybeNetwork = HelpersAIT.getNetworkByCurrencyCode(recorder.getAddedNetworks(), currencyCode);
+        assertTrue(maybeNetwork.isPresent());
+
+        system.createWalletManager(maybeNetwork.get(), WalletManagerMode.API_ONLY, scheme, Collections.emptySet());
+        Uninterruptibles.sleepUninterruptibly(5, TimeUnit.SECONDS);
+
+        Optional<WalletManager> maybeManager = HelpersAIT.getManagerByCode(recorder.getAddedManagers(), currencyCode);
+        assertTrue(maybeManager.isPresent());
+
+        WalletManager manager = maybeManager.get();
+        manager.connect(null);
+        Uninterruptibles.sleepUninterruptibly(60, TimeUnit.SECONDS);
+
+        Optional<Wallet> maybeWallet = HelpersAIT.getWalletByCode(recorder.getAddedWallets(), currencyCode);
+        assertTrue(maybeWallet.isPresent());
+
+        Wallet wallet = maybeWallet.get();
+        List<? extends Transfer> transfers = wallet.getTransfers();
+        assertNotEquals(0, transfers.size());
+
+        List<TransferSnapshot> snapshots = TransferSnapshot.of(wallet);
+        assertEquals(transfers.size(), snapshots.size());
+
+        for (TransferSnapshot snapshot : snapshots) {
+            Transfer transfer = snapshot.getTransfer();
+
+            assertEquals(transfer.getHash().transform(TransferHash::toString), snapshot.getHash());
+            assertEquals(transfer.getSource().transform(Object::toString), snapshot.getSource());
+            assertEquals(transfer.getTarget().transform(Object::toString), snapshot.getTarget());
+            assertEquals(new BigInteger(transfer.getAmount().toStringWithBase(10, "")), snapshot.getAmount());
+            assertEquals(new BigInteger(transfer.getAmountDirected().toStringWithBase(10, "")), snapshot.getAmountDirected());
+            assertEquals(transfer.getDirection(), snapshot.getDirection());
+            assertEquals(transfer.getState().getType(), snapshot.getStateType());
+
+            Map<String, Optional<String>> attributes = new HashMap<>();
+            for (TransferAttribute attribute : transfer.getAttributes()) {
+                attributes.put(attribute.getKey(), attribute.getValue());
+            }
+            assertEquals(attributes.size(), snapshot.getAttributes().size());
+            for (TransferSnapshot.Attribute attribute : snapshot.getAttributes()) {
+                assertEquals(attributes.get(attribute.getKey()), attribute.getValue());
+            }
+        }
+
+        manager.disconnect();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.corenative.crypto.BRCryptoTransferDirection;
+import com.breadwallet.corenative.crypto.BRCryptoTransferStateType;
+import com.breadwallet.crypto.TransferDirection;
+import com.breadwallet.crypto.TransferState;
+import com.google.common.base.Optional;
+import com.google.common.primitives.UnsignedLong;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import static org.junit.Assert.*;
+
+public class TransferSnapshotTest {
+
+    // A transfer's fields, as laid out by `cryptoTransferSnapshotCreate`
+    private static final class Row {
+        long blockNumber;
+        long transactionIndex;
+        long timestamp;
+        BRCryptoTransferStateType stateType = BRCryptoTransferStateType.CRYPTO_TRANSFER_STATE_CREATED;
+        BRCryptoTransferDirection direction = BRCryptoTransferDirection.CRYPTO_TRANSFER_SENT;
+        boolean success;
+        @Nullable String hash;
+        @Nullable String source;
+        @Nullable String target;
+        @Nullable String amount;
+        @Nullable String fee;
+        @Nullable String error;
+        final List<String[]> attributes = new ArrayList<>();   // { key, value or null, "required" or null }
+    }
+
+    private static ByteBuffer write(List<Row> rows) {
+        int count = rows.size();
+        int dataOffset = 16 + 3 * 8 * count + 11 * 4 * count;
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        ByteBuffer columns = ByteBuffer.allocate(dataOffset).order(ByteOrder.nativeOrder());
+        columns.putLong((long) count);
+        columns.putLong((long) dataOffset);
+
+        for (Row row : rows) columns.putLong(row.blockNumber);
+        for (Row row : rows) columns.putLong(row.transactionIndex);
+        for (Row row : rows) columns.putLong(row.timestamp);
+        for (Row row : rows) columns.putInt(row.stateType.toCore());
+        for (Row row : rows) columns.putInt(row.direction.toCore());
+        for (Row row : rows) columns.putInt(row.success ? 1 : 0);
+        for (Row row : rows) columns.putInt(row.attributes.size());
+        for (Row row : rows) columns.putInt(writeString(data, row.hash));
+        for (Row row : rows) columns.putInt(writeString(data, row.source));
+        for (Row row : rows) columns.putInt(writeString(data, row.target));
+        for (Row row : rows) columns.putInt(writeString(data, row.amount));
+        for (Row row : rows) columns.putInt(writeString(data, row.fee));
+        for (Row row : rows) columns.putInt(writeString(data, row.error));
+        for (Row row : rows) {
+            columns.putInt(row.attributes.isEmpty() ? -1 : data.size());
+            for (String[] attribute : row.attributes) {
+                data.write((null != attribute[2] ? 0x01 : 0) | (null != attribute[1] ? 0x02 : 0));
+                writeString(data, attribute[0]);
+                if (null != attribute[1]) writeString(data, attribute[1]);
+            }
+        }
+        assertEquals(dataOffset, columns.position());
+
+        byte[] bytes = data.toByteArray();
+        ByteBuffer snapshot = ByteBuffer.allocate(dataOffset + bytes.length).order(ByteOrder.nativeOrder());
+        snapshot.put(columns.array());
+        snapshot.put(bytes);
+        snapshot.flip();
+        return snapshot;
+    }
+
+    private static int writeString(ByteArrayOutputStream data, @Nullable String string) {
+        if (null == string) return -1;
+
+        int offset = data.size();
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        data.write(bytes, 0, bytes.length);
+        data.write(0);
+        return offset;
+    }
+
+    // The transfers themselves need the core; the snapshots only hold them
+    private static List<Transfer> transfers(int count) {
+        return Arrays.asList(new Transfer[count]);
+    }
+
+    @Test
+    public void testReadsIncludedTransfer() {
+        Row row = new Row();
+        row.blockNumber = 9_000_000;
+        row.transactionIndex = 7;
+        row.timestamp = 1_577_836_800L;
+        row.stateType = BRCryptoTransferStateType.CRYPTO_TRANSFER_STATE_INCLUDED;
+        row.direction = BRCryptoTransferDirection.CRYPTO_TRANSFER_SENT;
+        row.success = true;
+        row.hash = "0xabc";
+        row.source = "0xsource";
+        row.target = "0xtarget";
+        row.amount = "123456789012345678901234567890";
+        row.fee = "21000";
+        row.attributes.add(new String[] { "DestinationTag", "12", "required" });
+        row.attributes.add(new String[] { "Memo", null, null });
+
+        List<TransferSnapshot> snapshots = TransferSnapshot.read(transfers(1), write(Collections.singletonList(row)));
+        assertEquals(1, snapshots.size());
+
+        TransferSnapshot snapshot = snapshots.get(0);
+        assertEquals(Optional.of("0xabc"), snapshot.getHash());
+        assertEquals(Optional.of("0xsource"), snapshot.getSource());
+        assertEquals(Optional.of("0xtarget"), snapshot.getTarget());
+        assertEquals(new BigInteger("123456789012345678901234567890"), snapshot.getAmount());
+        assertEquals(new BigInteger("-123456789012345678901234567890"), snapshot.getAmountDirected());
+        assertEquals(Optional.of(BigInteger.valueOf(21000)), snapshot.getFee());
+        assertEquals(TransferDirection.SENT, snapshot.getDirection());
+        assertEquals(TransferState.Type.INCLUDED, snapshot.getStateType());
+        assertEquals(Optional.of(UnsignedLong.valueOf(9_000_000)), snapshot.getBlockNumber());
+        assertEquals(Optional.of(UnsignedLong.valueOf(7)), snapshot.getTransactionIndex());
+        assertEquals(Optional.of(UnsignedLong.valueOf(1_577_836_800L)), snapshot.getTimestamp());
+        assertTrue(snapshot.isSuccess());
+        assertEquals(Optional.absent(), snapshot.getError());
+
+        List<TransferSnapshot.Attribute> attributes = snapshot.getAttributes();
+        assertEquals(2, attributes.size());
+        assertEquals("DestinationTag", attributes.get(0).getKey());
+        assertEquals(Optional.of("12"), attributes.get(0).getValue());
+        assertTrue(attributes.get(0).isRequired());
+        assertEquals("Memo", attributes.get(1).getKey());
+        assertEquals(Optional.absent(), attributes.get(1).getValue());
+        assertFalse(attributes.get(1).isRequired());
+    }
+
+    @Test
+    public void testReadsEachTransferOfMany() {
+        Row submitted = new Row();
+        submitted.stateType = BRCryptoTransferStateType.CRYPTO_TRANSFER_STATE_SUBMITTED;
+        submitted.direction = BRCryptoTransferDirection.CRYPTO_TRANSFER_RECEIVED;
+        submitted.target = "né";
+        submitted.amount = "5";
+
+        Row failed = new Row();
+        failed.blockNumber = 1;
+        failed.stateType = BRCryptoTransferStateType.CRYPTO_TRANSFER_STATE_INCLUDED;
+        failed.direction = BRCryptoTransferDirection.CRYPTO_TRANSFER_RECOVERED;
+        failed.amount = "10";
+        failed.error = "out of gas";
+
+        List<TransferSnapshot> snapshots = TransferSnapshot.read(transfers(2), write(Arrays.asList(submitted, failed)));
+
+        TransferSnapshot first = snapshots.get(0);
+        assertEquals(Optional.absent(), first.getHash());
+        assertEquals(Optional.absent(), first.getSource());
+        assertEquals(Optional.of("né"), first.getTarget());
+        assertEquals(BigInteger.valueOf(5), first.getAmountDirected());
+        assertEquals(Optional.absent(), first.getFee());
+        assertEquals(TransferState.Type.SUBMITTED, first.getStateType());
+        assertEquals(Optional.absent(), first.getBlockNumber());
+        assertEquals(Optional.absent(), first.getTimestamp());
+        assertFalse(first.isSuccess());
+        assertEquals(Collections.emptyList(), first.getAttributes());
+
+        TransferSnapshot second = snapshots.get(1);
+        assertEquals(TransferDirection.RECOVERED, second.getDirection());
+        assertEquals(BigInteger.ZERO, second.getAmountDirected());
+        assertEquals(Optional.of(UnsignedLong.ONE), second.getBlockNumber());
+        assertFalse(second.isSuccess());
+        assertEquals(Optional.of("out of gas"), second.getError());
+    }
+
+    @Test
+    public void testMissingAmountIsZero() {
+        List<TransferSnapshot> snapshots = TransferSnapshot.read(transfers(1), write(Collections.singletonList(new Row())));
+        assertEquals(BigInteger.ZERO, snapshots.get(0).getAmount());
+    }
+
+    @Test
+    public void testEmptySnapshot() {
+        assertEquals(Collections.emptyList(), TransferSnapshot.read(transfers(0), write(Collections.emptyList())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountMustMatchTransfers() {
+        TransferSnapshot.read(transfers(2), write(Collections.singletonList(new Row())));
+    }
+}
@@ -15,6 +15,8 @@ import com.google.common.base.Suppliers;
 
 import java.util.Objects;
 
+import static com.google.common.base.Preconditions.checkState;
+
 /* package */
 final class Address implements com.breadwallet.crypto.Address {
 
@@ -27,8 +29,21 @@ final class Address implements com.breadwallet.crypto.Address {
 
     /* package */
     static Address create(BRCryptoAddress core) {
-        Address address = new Address(core);
-        ReferenceCleaner.register(address, core::give);
+        return create(core, true);
+    }
+
+    /**
+     * An address handed to every caller, such as a transfer's; `close` leaves it to be released
+     * once collected, so that one caller's `close` doesn't free it under the others.
+     */
+    /* package */
+    static Address createShared(BRCryptoAddress core) {
+        return create(core, false);
+    }
+
+    private static Address create(BRCryptoAddress core, boolean isCloseable) {
+        Address address = new Address(core, isCloseable);
+        address.cleanable = ReferenceCleaner.register(address, core::give);
         return address;
     }
 
@@ -41,13 +56,17 @@ final class Address implements com.breadwallet.crypto.Address {
     }
 
     private final BRCryptoAddress core;
+    private final boolean isCloseable;
+    private ReferenceCleaner.Cleanable cleanable;
+    private volatile boolean closed = false;
 
     private final Supplier<String> toStringSupplier;
 
-    private Address(BRCryptoAddress core) {
+    private Address(BRCryptoAddress core, boolean isCloseable) {
         this.core = core;
+        this.isCloseable = isCloseable;
 
-        this.toStringSupplier = Suppliers.memoize(core::toString);
+        this.toStringSupplier = Suppliers.memoize(() -> getCore().toString());
     }
 
     @Override
@@ -66,7 +85,7 @@ final class Address implements com.breadwallet.crypto.Address {
         }
 
         Address address = (Address) o;
-        return core.isIdentical(address.core);
+        return getCore().isIdentical(address.getCore());
     }
 
     @Override
@@ -74,8 +93,21 @@ final class Address implements com.breadwallet.crypto.Address {
         return Objects.hash(toString());
     }
 
+    @Override
+    public void close() {
+        if (!isCloseable) return;
+
+        closed = true;
+        cleanable.clean();
+    }
+
     /* package */
     BRCryptoAddress getCoreBRCryptoAddress() {
+        return getCore();
+    }
+
+    private BRCryptoAddress getCore() {
+        checkState(!closed, "Address is closed");
         return core;
     }
 }
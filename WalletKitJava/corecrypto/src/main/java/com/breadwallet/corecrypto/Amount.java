@@ -24,6 +24,7 @@ import java.text.NumberFormat;
 import java.util.Objects;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 
 /* package */
 final class Amount implements com.breadwallet.crypto.Amount {
@@ -51,8 +52,21 @@ final class Amount implements com.breadwallet.crypto.Amount {
 
     /* package */
     static Amount create(BRCryptoAmount core) {
-        Amount amount = new Amount(core);
-        ReferenceCleaner.register(amount, core::give);
+        return create(core, true);
+    }
+
+    /**
+     * An amount handed to every caller, such as a transfer's; `close` leaves it to be released
+     * once collected, so that one caller's `close` doesn't free it under the others.
+     */
+    /* package */
+    static Amount createShared(BRCryptoAmount core) {
+        return create(core, false);
+    }
+
+    private static Amount create(BRCryptoAmount core, boolean isCloseable) {
+        Amount amount = new Amount(core, isCloseable);
+        amount.cleanable = ReferenceCleaner.register(amount, core::give);
         return amount;
     }
 
@@ -88,16 +102,20 @@ final class Amount implements com.breadwallet.crypto.Amount {
     }
 
     private final BRCryptoAmount core;
+    private final boolean isCloseable;
+    private ReferenceCleaner.Cleanable cleanable;
+    private volatile boolean closed = false;
 
     private final Supplier<Unit> unitSupplier;
     private final Supplier<Currency> currencySupplier;
     private final Supplier<String> toStringSupplier;
 
-    private Amount(BRCryptoAmount core) {
+    private Amount(BRCryptoAmount core, boolean isCloseable) {
         this.core = core;
+        this.isCloseable = isCloseable;
 
-        this.currencySupplier = Suppliers.memoize(() -> Currency.create(core.getCurrency()));
-        this.unitSupplier = Suppliers.memoize(() -> Unit.create(core.getUnit()));
+        this.currencySupplier = Suppliers.memoize(() -> Currency.create(getCore().getCurrency()));
+        this.unitSupplier = Suppliers.memoize(() -> Unit.create(getCore().getUnit()));
         this.toStringSupplier = Suppliers.memoize(() -> toStringAsUnit(getUnit()).or("<nan>"));
     }
 
@@ -113,46 +131,46 @@ final class Amount implements com.breadwallet.crypto.Amount {
 
     @Override
     public boolean hasCurrency(com.breadwallet.crypto.Currency currency) {
-        return core.hasCurrency(Currency.from(currency).getCoreBRCryptoCurrency());
+        return getCore().hasCurrency(Currency.from(currency).getCoreBRCryptoCurrency());
     }
 
     @Override
     public boolean isCompatible(com.breadwallet.crypto.Amount withAmount) {
-        return core.isCompatible(from(withAmount).core);
+        return getCore().isCompatible(from(withAmount).getCore());
     }
 
     @Override
     public boolean isNegative() {
-        return core.isNegative();
+        return getCore().isNegative();
     }
 
     @Override
     public boolean isZero() {
-        return core.isZero();
+        return getCore().isZero();
     }
 
     @Override
     public Optional<Amount> add(com.breadwallet.crypto.Amount o) {
         checkArgument(isCompatible(o));
 
-        return core.add(from(o).core).transform(Amount::create);
+        return getCore().add(from(o).getCore()).transform(Amount::create);
     }
 
     @Override
     public Optional<Amount> sub(com.breadwallet.crypto.Amount o) {
         checkArgument(isCompatible(o));
 
-        return core.sub(from(o).core).transform(Amount::create);
+        return getCore().sub(from(o).getCore()).transform(Amount::create);
     }
 
     @Override
     public Amount negate() {
-        return Amount.create(core.negate());
+        return Amount.create(getCore().negate());
     }
 
     @Override
     public Optional<Amount> convert(com.breadwallet.crypto.Unit toUnit) {
-        return core.convert(Unit.from(toUnit).getCoreBRCryptoUnit()).transform(Amount::create);
+        return getCore().convert(Unit.from(toUnit).getCoreBRCryptoUnit()).transform(Amount::create);
     }
 
     @Override
@@ -183,7 +201,7 @@ final class Amount implements com.breadwallet.crypto.Amount {
 
     @Override
     public String toStringWithBase(int base, String preface) {
-        return core.toStringWithBase(base, preface);
+        return getCore().toStringWithBase(base, preface);
     }
 
     @Override
@@ -193,7 +211,7 @@ final class Amount implements com.breadwallet.crypto.Amount {
 
     @Override
     public int compareTo(com.breadwallet.crypto.Amount o) {
-        switch (core.compare(from(o).core)) {
+        switch (getCore().compare(from(o).getCore())) {
             case CRYPTO_COMPARE_EQ: return 0;
             case CRYPTO_COMPARE_LT: return -1;
             case CRYPTO_COMPARE_GT: return 1;
@@ -212,7 +230,7 @@ final class Amount implements com.breadwallet.crypto.Amount {
         }
 
         Amount amount = (Amount) o;
-        return BRCryptoComparison.CRYPTO_COMPARE_EQ == core.compare(amount.core);
+        return BRCryptoComparison.CRYPTO_COMPARE_EQ == getCore().compare(amount.getCore());
     }
 
     @Override
@@ -222,11 +240,24 @@ final class Amount implements com.breadwallet.crypto.Amount {
 
     @Override
     public Optional<Double> doubleAmount(com.breadwallet.crypto.Unit asUnit) {
-        return core.getDouble(Unit.from(asUnit).getCoreBRCryptoUnit());
+        return getCore().getDouble(Unit.from(asUnit).getCoreBRCryptoUnit());
+    }
+
+    @Override
+    public void close() {
+        if (!isCloseable) return;
+
+        closed = true;
+        cleanable.clean();
     }
 
     /* package */
     BRCryptoAmount getCoreBRCryptoAmount() {
+        return getCore();
+    }
+
+    private BRCryptoAmount getCore() {
+        checkState(!closed, "Amount is closed");
         return core;
     }
 }
@@ -12,6 +12,7 @@ import com.breadwallet.corenative.crypto.BRCryptoCipher;
 import com.google.common.base.Optional;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 /* package */
 final class Cipher implements com.breadwallet.crypto.Cipher {
@@ -55,11 +56,13 @@ final class Cipher implements com.breadwallet.crypto.Cipher {
 
     private static Cipher create(BRCryptoCipher core) {
         Cipher cipher = new Cipher(core);
-        ReferenceCleaner.register(cipher, core::give);
+        cipher.cleanable = ReferenceCleaner.register(cipher, core::give);
         return cipher;
     }
 
     private final BRCryptoCipher core;
+    private ReferenceCleaner.Cleanable cleanable;
+    private volatile boolean closed = false;
 
     private Cipher(BRCryptoCipher core) {
         this.core = core;
@@ -67,15 +70,26 @@ final class Cipher implements com.breadwallet.crypto.Cipher {
 
     @Override
     public Optional<byte[]> encrypt(byte[] data) {
-        return core.encrypt(data);
+        return getCore().encrypt(data);
     }
 
     @Override
     public Optional<byte[]> decrypt(byte[] data) {
-        return core.decrypt(data);
+        return getCore().decrypt(data);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        cleanable.clean();
     }
 
     private Optional<byte[]> migrateBRCoreKeyCiphertext(byte[] data) {
-        return core.migrateBRCoreKeyCiphertext(data);
+        return getCore().migrateBRCoreKeyCiphertext(data);
+    }
+
+    private BRCryptoCipher getCore() {
+        checkState(!closed, "Cipher is closed");
+        return core;
     }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Runs the client callbacks of the core on a fixed set of threads.
+ *
+ * Callbacks with the same key (typically, the wallet manager) and priority run one at a time, in
+ * the order submitted; callbacks with different keys run in parallel.  `PRIORITY` callbacks are
+ * started ahead of any waiting `BULK` ones and, with more than one thread, one thread is kept out
+ * of reach of `BULK` callbacks so that a long sync never holds up a submit or a fee estimate.
+ */
+/* package */
+final class ClientScheduler {
+
+    private static final Logger Log = Logger.getLogger(ClientScheduler.class.getName());
+
+    /* package */
+    enum Priority {
+        /** User initiated requests, such as submitting a transaction or estimating a fee */
+        PRIORITY,
+
+        /** Sync requests, such as getting transfers */
+        BULK
+    }
+
+    // A key's callbacks of a given priority
+    private static final class Serial {
+
+        private final Object key;
+        private final Priority priority;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        Serial(Object key, Priority priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+
+    // The callbacks of a priority
+    private static final class Lane {
+
+        private final Map<Object, Serial> serials = new HashMap<>();
+        private final ArrayDeque<Serial> ready = new ArrayDeque<>();
+        private int pendingCount = 0;
+    }
+
+    private final Object lock = new Object();
+
+    // Guarded by `lock`
+    private final Map<Priority, Lane> lanes;
+    private int bulkActiveCount;
+
+    private final int bulkLimit;
+
+    /* package */
+    ClientScheduler(int threadCount, String nameFormat) {
+        checkArgument(threadCount >= 1);
+
+        this.lanes = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new Lane());
+        }
+
+        this.bulkActiveCount = 0;
+        this.bulkLimit = Math.max(1, threadCount - 1);
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat(nameFormat)
+                .setDaemon(true)
+                .build();
+
+        for (int i = 0; i < threadCount; i++) {
+            threadFactory.newThread(this::runWorker).start();
+        }
+    }
+
+    /* package */
+    void execute(Object key, Priority priority, Runnable task) {
+        synchronized (lock) {
+            Lane lane = lanes.get(priority);
+
+            Serial serial = lane.serials.get(key);
+            if (null == serial) {
+                // the key has nothing running or waiting; it is ready now
+                serial = new Serial(key, priority);
+                lane.serials.put(key, serial);
+                lane.ready.add(serial);
+                lock.notifyAll();
+            }
+
+            serial.tasks.add(task);
+            lane.pendingCount += 1;
+        }
+    }
+
+    /**
+     * The number of callbacks of `priority` waiting to run.
+     */
+    /* package */
+    int getPendingCount(Priority priority) {
+        synchronized (lock) {
+            return lanes.get(priority).pendingCount;
+        }
+    }
+
+    private void runWorker() {
+        for (;;) {
+            Serial serial;
+            Runnable task;
+
+            synchronized (lock) {
+                while (null == (serial = takeReady())) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Log.log(Level.SEVERE, "Unexpected interrupt", e);
+                    }
+                }
+
+                task = serial.tasks.poll();
+                lanes.get(serial.priority).pendingCount -= 1;
+                if (Priority.BULK == serial.priority) bulkActiveCount += 1;
+            }
+
+            try {
+                task.run();
+            } catch (Throwable t) {
+                Log.log(Level.SEVERE, "Error running client callback", t);
+            }
+
+            synchronized (lock) {
+                if (Priority.BULK == serial.priority) bulkActiveCount -= 1;
+
+                Lane lane = lanes.get(serial.priority);
+                if (serial.tasks.isEmpty()) {
+                    lane.serials.remove(serial.key);
+                } else {
+                    lane.ready.add(serial);
+                }
+
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Guarded by `lock`
+    private Serial takeReady() {
+        Serial serial = lanes.get(Priority.PRIORITY).ready.poll();
+        if (null == serial && bulkActiveCount < bulkLimit) {
+            serial = lanes.get(Priority.BULK).ready.poll();
+        }
+        return serial;
+    }
+}
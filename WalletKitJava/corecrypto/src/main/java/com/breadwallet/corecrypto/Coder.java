@@ -74,4 +74,9 @@ final class Coder implements com.breadwallet.crypto.Coder {
     public Optional<byte[]> decode(String source) {
         return core.decode(source);
     }
+
+    @Override
+    public void close() {
+        // each algorithm's coder is shared by every caller, and never released
+    }
 }
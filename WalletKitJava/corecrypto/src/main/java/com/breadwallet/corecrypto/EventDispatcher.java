@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.crypto.events.network.NetworkEvent;
+import com.breadwallet.crypto.events.system.SystemEvent;
+import com.breadwallet.crypto.events.system.SystemListener;
+import com.breadwallet.crypto.events.transfer.TranferEvent;
+import com.breadwallet.crypto.events.wallet.WalletEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerEvent;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Hands a System's events to its listener.
+ */
+/* package */
+abstract class EventDispatcher {
+
+    /**
+     * Dispatch each event as a task on `executor`.
+     */
+    /* package */
+    static EventDispatcher onExecutor(System system, SystemListener listener, ExecutorService executor) {
+        return new ExecutorDispatcher(system, listener, executor);
+    }
+
+    /**
+     * Dispatch each event through a ring of `capacity` slots, consumed by a dedicated thread.
+     */
+    /* package */
+    static EventDispatcher onRing(System system,
+                                  SystemListener listener,
+                                  int capacity,
+                                  SystemConfiguration.ListenerWaitStrategy waitStrategy) {
+        return new RingDispatcher(system, listener, capacity, waitStrategy);
+    }
+
+    /**
+     * Dispatch each event on the announcing thread.
+     */
+    /* package */
+    static EventDispatcher direct(System system, SystemListener listener) {
+        return new DirectDispatcher(system, listener);
+    }
+
+    protected final System system;
+    protected final SystemListener listener;
+
+    EventDispatcher(System system, SystemListener listener) {
+        this.system = system;
+        this.listener = listener;
+    }
+
+    abstract void dispatchSystemEvent(SystemEvent event);
+
+    abstract void dispatchNetworkEvent(Network network, NetworkEvent event);
+
+    abstract void dispatchWalletManagerEvent(WalletManager walletManager, WalletManagerEvent event);
+
+    abstract void dispatchWalletEvent(WalletManager walletManager, Wallet wallet, WalletEvent event);
+
+    abstract void dispatchTransferEvent(WalletManager walletManager, Wallet wallet, Transfer transfer, TranferEvent event);
+
+    /**
+     * Release any resources; events dispatched afterwards may be dropped.
+     */
+    void close() {
+    }
+
+    private static final class ExecutorDispatcher extends EventDispatcher {
+
+        private final ExecutorService executor;
+
+        ExecutorDispatcher(System system, SystemListener listener, ExecutorService executor) {
+            super(system, listener);
+            this.executor = executor;
+        }
+
+        @Override
+        void dispatchSystemEvent(SystemEvent event) {
+            executor.submit(() -> listener.handleSystemEvent(system, event));
+        }
+
+        @Override
+        void dispatchNetworkEvent(Network network, NetworkEvent event) {
+            executor.submit(() -> listener.handleNetworkEvent(system, network, event));
+        }
+
+        @Override
+        void dispatchWalletManagerEvent(WalletManager walletManager, WalletManagerEvent event) {
+            executor.submit(() -> listener.handleManagerEvent(system, walletManager, event));
+        }
+
+        @Override
+        void dispatchWalletEvent(WalletManager walletManager, Wallet wallet, WalletEvent event) {
+            executor.submit(() -> listener.handleWalletEvent(system, walletManager, wallet, event));
+        }
+
+        @Override
+        void dispatchTransferEvent(WalletManager walletManager, Wallet wallet, Transfer transfer, TranferEvent event) {
+            executor.submit(() -> listener.handleTransferEvent(system, walletManager, wallet, transfer, event));
+        }
+    }
+
+    private static final class RingDispatcher extends EventDispatcher implements EventRing.Handler {
+
+        private final EventRing ring;
+
+        RingDispatcher(System system,
+                       SystemListener listener,
+                       int capacity,
+                       SystemConfiguration.ListenerWaitStrategy waitStrategy) {
+            super(system, listener);
+            this.ring = new EventRing(capacity, waitStrategy, this);
+        }
+
+        @Override
+        void dispatchSystemEvent(SystemEvent event) {
+            publish(EventRing.Type.SYSTEM, null, null, null, null, event);
+        }
+
+        @Override
+        void dispatchNetworkEvent(Network network, NetworkEvent event) {
+            publish(EventRing.Type.NETWORK, network, null, null, null, event);
+        }
+
+        @Override
+        void dispatchWalletManagerEvent(WalletManager walletManager, WalletManagerEvent event) {
+            publish(EventRing.Type.MANAGER, null, walletManager, null, null, event);
+        }
+
+        @Override
+        void dispatchWalletEvent(WalletManager walletManager, Wallet wallet, WalletEvent event) {
+            publish(EventRing.Type.WALLET, null, walletManager, wallet, null, event);
+        }
+
+        @Override
+        void dispatchTransferEvent(WalletManager walletManager, Wallet wallet, Transfer transfer, TranferEvent event) {
+            publish(EventRing.Type.TRANSFER, null, walletManager, wallet, transfer, event);
+        }
+
+        @Override
+        void close() {
+            ring.halt();
+        }
+
+        @Override
+        public void handle(EventRing.Slot slot) {
+            switch (slot.type) {
+                case SYSTEM:
+                    listener.handleSystemEvent(system, (SystemEvent) slot.event);
+                    break;
+                case NETWORK:
+                    listener.handleNetworkEvent(system, slot.network, (NetworkEvent) slot.event);
+                    break;
+                case MANAGER:
+                    listener.handleManagerEvent(system, slot.walletManager, (WalletManagerEvent) slot.event);
+                    break;
+                case WALLET:
+                    listener.handleWalletEvent(system, slot.walletManager, slot.wallet, (WalletEvent) slot.event);
+                    break;
+                case TRANSFER:
+                    listener.handleTransferEvent(system, slot.walletManager, slot.wallet, slot.transfer, (TranferEvent) slot.event);
+                    break;
+            }
+        }
+
+        private void publish(EventRing.Type type,
+                             Network network,
+                             WalletManager walletManager,
+                             Wallet wallet,
+                             Transfer transfer,
+                             Object event) {
+            long sequence = ring.next();
+            if (-1 == sequence) {
+                // closed
+                return;
+            }
+            ring.get(sequence).set(type, network, walletManager, wallet, transfer, event);
+            ring.publish(sequence);
+        }
+    }
+
+    private static final class DirectDispatcher extends EventDispatcher {
+
+        DirectDispatcher(System system, SystemListener listener) {
+            super(system, listener);
+        }
+
+        @Override
+        void dispatchSystemEvent(SystemEvent event) {
+            listener.handleSystemEvent(system, event);
+        }
+
+        @Override
+        void dispatchNetworkEvent(Network network, NetworkEvent event) {
+            listener.handleNetworkEvent(system, network, event);
+        }
+
+        @Override
+        void dispatchWalletManagerEvent(WalletManager walletManager, WalletManagerEvent event) {
+            listener.handleManagerEvent(system, walletManager, event);
+        }
+
+        @Override
+        void dispatchWalletEvent(WalletManager walletManager, Wallet wallet, WalletEvent event) {
+            listener.handleWalletEvent(system, walletManager, wallet, event);
+        }
+
+        @Override
+        void dispatchTransferEvent(WalletManager walletManager, Wallet wallet, Transfer transfer, TranferEvent event) {
+            listener.handleTransferEvent(system, walletManager, wallet, transfer, event);
+        }
+    }
+}
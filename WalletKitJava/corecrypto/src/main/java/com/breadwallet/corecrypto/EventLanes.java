@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A fixed number of serial 'lanes', each with its own thread.  Work is assigned to a lane by
+ * the hash of a key, so work for one key runs in order while work for keys on other lanes runs
+ * in parallel.
+ */
+/* package */
+final class EventLanes {
+
+    private final ThreadPoolExecutor[] lanes;
+
+    /* package */
+    EventLanes(int laneCount, String nameFormat) {
+        checkArgument(laneCount >= 1);
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat(nameFormat)
+                .setDaemon(true)
+                .build();
+
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        }
+    }
+
+    /* package */
+    void execute(Object key, Runnable runnable) {
+        lanes[getLane(key)].execute(runnable);
+    }
+
+    /* package */
+    int getLaneCount() {
+        return lanes.length;
+    }
+
+    /* package */
+    int getQueueDepth(int lane) {
+        return lanes[lane].getQueue().size();
+    }
+
+    /* package */
+    int getLane(Object key) {
+        // keys are often native pointers, with low bits that rarely vary; mix the bits
+        int hash = key.hashCode() * 0x9E3779B9;
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % lanes.length;
+    }
+}
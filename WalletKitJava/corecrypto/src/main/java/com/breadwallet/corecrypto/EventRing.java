@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A ring of preallocated event slots, filled by any number of producers and emptied, in order,
+ * by a single consumer thread.
+ *
+ * A producer claims a sequence with `next`, fills the slot from `get` and then `publish`es the
+ * sequence.  The consumer hands each published slot to the `Handler` and then clears it; a slot
+ * is reused once the consumer is past it, so producers wait while the ring is full.  Nothing is
+ * allocated per event by the ring itself.
+ */
+/* package */
+final class EventRing {
+
+    private static final Logger Log = Logger.getLogger(EventRing.class.getName());
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger(0);
+
+    /* package */
+    enum Type {
+        SYSTEM,
+        NETWORK,
+        MANAGER,
+        WALLET,
+        TRANSFER
+    }
+
+    /* package */
+    static final class Slot {
+
+        @Nullable Type type;
+        @Nullable Network network;
+        @Nullable WalletManager walletManager;
+        @Nullable Wallet wallet;
+        @Nullable Transfer transfer;
+        @Nullable Object event;
+
+        /* package */
+        void set(Type type,
+                 @Nullable Network network,
+                 @Nullable WalletManager walletManager,
+                 @Nullable Wallet wallet,
+                 @Nullable Transfer transfer,
+                 Object event) {
+            this.type = type;
+            this.network = network;
+            this.walletManager = walletManager;
+            this.wallet = wallet;
+            this.transfer = transfer;
+            this.event = event;
+        }
+
+        private void clear() {
+            set(null, null, null, null, null, null);
+        }
+    }
+
+    /* package */
+    interface Handler {
+        void handle(Slot slot);
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed;
+    private final WaitStrategy waitStrategy;
+    private final Handler handler;
+    private final Thread consumer;
+
+    private volatile long consumed;
+    private volatile boolean running;
+
+    /* package */
+    EventRing(int capacity, SystemConfiguration.ListenerWaitStrategy waitStrategy, Handler handler) {
+        checkArgument(capacity >= 2 && Integer.bitCount(capacity) == 1, "Capacity must be a power of two");
+
+        this.slots = new Slot[capacity];
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1);
+        }
+
+        this.claimed = new AtomicLong(-1);
+        this.consumed = -1;
+        this.running = true;
+
+        this.waitStrategy = WaitStrategy.create(waitStrategy);
+        this.handler = handler;
+
+        this.consumer = new Thread(this::runConsumer, "system-listener-ring-" + THREAD_COUNT.getAndIncrement());
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Claim the next sequence, waiting while the ring is full.
+     *
+     * @return the sequence, or -1 if the ring is halted, in which case the event is to be dropped
+     */
+    /* package */
+    long next() {
+        if (!running) {
+            return -1;
+        }
+
+        long sequence = claimed.incrementAndGet();
+
+        long wrapPoint = sequence - slots.length;
+        while (wrapPoint > consumed) {
+            // the consumer has stopped; the slot may still hold an unhandled event
+            if (!running) {
+                return -1;
+            }
+            LockSupport.parkNanos(1000);
+        }
+        return sequence;
+    }
+
+    /* package */
+    Slot get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /* package */
+    void publish(long sequence) {
+        published.set((int) sequence & mask, sequence);
+        waitStrategy.signal();
+    }
+
+    /**
+     * The number of events claimed but not yet handled.
+     */
+    /* package */
+    long getPendingCount() {
+        return claimed.get() - consumed;
+    }
+
+    /**
+     * Stop the consumer once the events published so far are handled.
+     */
+    /* package */
+    void halt() {
+        running = false;
+        waitStrategy.signalAll();
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == sequence;
+    }
+
+    private void runConsumer() {
+        long sequence = consumed + 1;
+        while (waitStrategy.await(this, sequence)) {
+            Slot slot = get(sequence);
+            try {
+                handler.handle(slot);
+            } catch (Throwable t) {
+                Log.log(Level.SEVERE, "Error handling event", t);
+            }
+            slot.clear();
+
+            consumed = sequence;
+            sequence += 1;
+        }
+    }
+
+    // Wait Strategies
+
+    private static abstract class WaitStrategy {
+
+        static WaitStrategy create(SystemConfiguration.ListenerWaitStrategy strategy) {
+            switch (strategy) {
+                case BLOCKING:  return new BlockingWaitStrategy();
+                case SLEEPING:  return new SpinningWaitStrategy(100, 100, true);
+                case YIELDING:  return new SpinningWaitStrategy(100, Integer.MAX_VALUE, false);
+                case BUSY_SPIN: return new SpinningWaitStrategy(Integer.MAX_VALUE, 0, false);
+                default: throw new IllegalArgumentException("Unsupported strategy");
+            }
+        }
+
+        /**
+         * Wait until `sequence` is published.
+         *
+         * @return false if the ring is halted and `sequence` is not published
+         */
+        abstract boolean await(EventRing ring, long sequence);
+
+        void signal() {
+        }
+
+        void signalAll() {
+        }
+    }
+
+    // Spins, then yields, then (if `sleeps`) parks briefly
+    private static final class SpinningWaitStrategy extends WaitStrategy {
+
+        private final int spins;
+        private final int yields;
+        private final boolean sleeps;
+
+        SpinningWaitStrategy(int spins, int yields, boolean sleeps) {
+            this.spins = spins;
+            this.yields = yields;
+            this.sleeps = sleeps;
+        }
+
+        @Override
+        boolean await(EventRing ring, long sequence) {
+            int attempts = 0;
+            while (!ring.isPublished(sequence)) {
+                if (!ring.running) {
+                    return ring.isPublished(sequence);
+                }
+
+                if (attempts < spins) {
+                    attempts += 1;
+                } else if (attempts - spins < yields) {
+                    attempts += 1;
+                    Thread.yield();
+                } else if (sleeps) {
+                    LockSupport.parkNanos(100_000);
+                }
+            }
+            return true;
+        }
+    }
+
+    // Blocks on a condition; producers signal only while the consumer waits
+    private static final class BlockingWaitStrategy extends WaitStrategy {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+        private volatile boolean waiting = false;
+
+        @Override
+        boolean await(EventRing ring, long sequence) {
+            if (ring.isPublished(sequence)) {
+                return true;
+            }
+
+            lock.lock();
+            try {
+                waiting = true;
+                while (!ring.isPublished(sequence)) {
+                    if (!ring.running) {
+                        return false;
+                    }
+                    published.awaitUninterruptibly();
+                }
+                return true;
+            } finally {
+                waiting = false;
+                lock.unlock();
+            }
+        }
+
+        @Override
+        void signal() {
+            if (waiting) {
+                signalAll();
+            }
+        }
+
+        @Override
+        void signalAll() {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
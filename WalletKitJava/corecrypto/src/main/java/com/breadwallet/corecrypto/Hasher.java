@@ -111,4 +111,9 @@ final class Hasher implements com.breadwallet.crypto.Hasher {
     public Optional<byte[]> hash(byte[] data) {
         return core.hash(data);
     }
+
+    @Override
+    public void close() {
+        // each algorithm's hasher is shared by every caller, and never released
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.google.common.base.Supplier;
+import com.sun.jna.Pointer;
+import com.sun.jna.PointerType;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Maps native objects, by address, to their Java wrapper for as long as the wrapper is reachable.
+ *
+ * Each wrapper holds its own reference to its native object, given back once the wrapper is
+ * collected.  While a wrapper is reachable its native object is thus alive and its address can
+ * not be reused, so a wrapper found by address wraps the same native object.
+ */
+/* package */
+final class InternTable<V> {
+
+    private final Map<Long, Entry<V>> entries = new HashMap<>();
+    private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+
+    /**
+     * Get the wrapper for `core`, creating it with `creator` if there is none.
+     *
+     * @param onExisting run if an existing wrapper is returned; for example, to give back a
+     *                   reference to `core` that the caller holds but the existing wrapper doesn't
+     *                   need
+     */
+    /* package */
+    V intern(PointerType core, Supplier<V> creator, @Nullable Runnable onExisting) {
+        Long address = Pointer.nativeValue(core.getPointer());
+
+        V value;
+        synchronized (this) {
+            purge();
+
+            Entry<V> entry = entries.get(address);
+            value = (null == entry ? null : entry.get());
+
+            if (null == value) {
+                value = creator.get();
+                entries.put(address, new Entry<>(address, value, queue));
+                return value;
+            }
+        }
+
+        if (null != onExisting) {
+            onExisting.run();
+        }
+        return value;
+    }
+
+    /* package */
+    synchronized int size() {
+        purge();
+        return entries.size();
+    }
+
+    private void purge() {
+        Entry<?> entry;
+        while (null != (entry = (Entry<?>) queue.poll())) {
+            // the address may already hold a newer wrapper
+            if (entries.get(entry.address) == entry) {
+                entries.remove(entry.address);
+            }
+        }
+    }
+
+    private static final class Entry<V> extends WeakReference<V> {
+
+        private final Long address;
+
+        Entry(Long address, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.address = address;
+        }
+    }
+}
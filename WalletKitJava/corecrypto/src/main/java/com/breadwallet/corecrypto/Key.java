@@ -15,6 +15,8 @@ import com.google.common.base.Optional;
 
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkState;
+
 /* package */
 final class Key implements com.breadwallet.crypto.Key {
 
@@ -111,7 +113,7 @@ final class Key implements com.breadwallet.crypto.Key {
     /* package */
     static Key create(BRCryptoKey core) {
         Key key = new Key(core);
-        ReferenceCleaner.register(key, core::give);
+        key.cleanable = ReferenceCleaner.register(key, core::give);
         return key;
     }
 
@@ -129,6 +131,8 @@ final class Key implements com.breadwallet.crypto.Key {
     }
 
     private final BRCryptoKey core;
+    private ReferenceCleaner.Cleanable cleanable;
+    private volatile boolean closed = false;
 
     private Key(BRCryptoKey core) {
         this.core = core;
@@ -137,36 +141,47 @@ final class Key implements com.breadwallet.crypto.Key {
 
     @Override
     public byte[] encodeAsPrivate() {
-        return core.encodeAsPrivate();
+        return getCore().encodeAsPrivate();
     }
 
     @Override
     public byte[] encodeAsPublic() {
-        return core.encodeAsPublic();
+        return getCore().encodeAsPublic();
     }
 
     @Override
     public boolean hasSecret() {
-        return core.hasSecret();
+        return getCore().hasSecret();
     }
 
     @Override
     public byte[] getSecret() {
-        return core.getSecret();
+        return getCore().getSecret();
     }
 
     @Override
     public boolean privateKeyMatch(com.breadwallet.crypto.Key other) {
-        return core.privateKeyMatch(from(other).core);
+        return getCore().privateKeyMatch(from(other).getCore());
     }
 
     @Override
     public boolean publicKeyMatch(com.breadwallet.crypto.Key other) {
-        return core.publicKeyMatch(from(other).core);
+        return getCore().publicKeyMatch(from(other).getCore());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        cleanable.clean();
     }
 
     /* package */
     BRCryptoKey getBRCryptoKey() {
+        return getCore();
+    }
+
+    private BRCryptoKey getCore() {
+        checkState(!closed, "Key is closed");
         return core;
     }
 }
@@ -69,4 +69,9 @@ final class Signer implements com.breadwallet.crypto.Signer {
     public Optional<Key> recover(byte[] digest, byte[] signature) {
         return core.recover(digest, signature).transform(Key::create);
     }
+
+    @Override
+    public void close() {
+        // each algorithm's signer is shared by every caller, and never released
+    }
 }
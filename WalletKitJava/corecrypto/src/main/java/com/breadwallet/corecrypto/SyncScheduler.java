@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Admits the syncs of wallet managers, at most `maxActiveCount` at a time (or any number, if
+ * zero), highest priority first and, within a priority, in the order requested.
+ *
+ * A sync is requested with `request`, which runs the given start once the key (the wallet
+ * manager) is admitted.  Requests made while the key's sync is running are part of that sync and
+ * start at once.  Each request has a `Completion`, and the sync ends once all of its requests have
+ * completed; a completion counts once, and not at all once its sync has ended.  A sync may also be
+ * ended, outright, with `release`, and a key is forgotten with `remove`.  Successive admissions are
+ * at least `staggerMillis` apart so that, say, resuming many managers doesn't start every sync at
+ * once.
+ *
+ * A start admitted at once runs on the requesting thread; one that waited runs on a dedicated
+ * thread.
+ */
+/* package */
+final class SyncScheduler {
+
+    private static final Logger Log = Logger.getLogger(SyncScheduler.class.getName());
+
+    /* package */
+    interface Start {
+
+        /**
+         * Start a request; `completion` is to be completed once the request is done.
+         */
+        void run(Completion completion);
+    }
+
+    /**
+     * The completion of a request.
+     */
+    /* package */
+    final class Completion {
+
+        private final Entry entry;
+        private final Start start;
+
+        // Guarded by `SyncScheduler.this`; the round joined, or -1 while waiting
+        private long round = -1;
+        private boolean completed = false;
+
+        private Completion(Entry entry, Start start) {
+            this.entry = entry;
+            this.start = start;
+        }
+
+        /**
+         * Complete the request, if not already.  A request completed while waiting is withdrawn;
+         * one completed after its sync has ended (as by `release`) has no effect.
+         */
+        /* package */
+        void complete() {
+            SyncScheduler.this.complete(this);
+        }
+    }
+
+    // A key's sync: its requests, and the times of its last sync
+    private static final class Entry {
+
+        private final Object key;
+
+        private int priority = 0;
+
+        private final List<Completion> waiting = new ArrayList<>();
+        private boolean queued = false;
+        private boolean active = false;
+        private long round = 0;
+        private int outstandingCount = 0;
+
+        private long sequence;
+        private long queuedNanos;
+        private long admittedNanos;
+
+        private long lastQueueNanos = 0;
+        private long lastSyncNanos = 0;
+
+        Entry(Object key) {
+            this.key = key;
+        }
+    }
+
+    private final int maxActiveCount;
+    private final long staggerNanos;
+    private final ScheduledExecutorService executor;
+
+    // Guarded by `this`
+    private final Map<Object, Entry> entries;
+    private final PriorityQueue<Entry> queue;
+    private int activeCount;
+    private long nextSequence;
+    private long lastAdmittedNanos;
+    private boolean admitScheduled;
+
+    /* package */
+    SyncScheduler(int maxActiveCount, long staggerMillis, String threadName) {
+        checkArgument(maxActiveCount >= 0);
+        checkArgument(staggerMillis >= 0);
+
+        this.maxActiveCount = maxActiveCount;
+        this.staggerNanos = TimeUnit.MILLISECONDS.toNanos(staggerMillis);
+
+        this.executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat(threadName)
+                .setDaemon(true)
+                .build());
+
+        this.entries = new HashMap<>();
+        this.queue = new PriorityQueue<>(11, (e1, e2) -> e1.priority != e2.priority
+                ? Integer.compare(e2.priority, e1.priority)
+                : Long.compare(e1.sequence, e2.sequence));
+        this.activeCount = 0;
+        this.nextSequence = 0;
+        this.lastAdmittedNanos = java.lang.System.nanoTime() - staggerNanos;
+        this.admitScheduled = false;
+    }
+
+    /**
+     * Set the priority of `key`'s syncs; higher priorities are admitted first.  The default is 0.
+     */
+    /* package */
+    synchronized void setPriority(Object key, int priority) {
+        Entry entry = getEntry(key);
+        if (entry.priority == priority) return;
+
+        if (entry.queued) {
+            queue.remove(entry);
+            entry.priority = priority;
+            queue.add(entry);
+        } else {
+            entry.priority = priority;
+        }
+    }
+
+    /**
+     * Run `start` once `key` is admitted.
+     */
+    /* package */
+    Completion request(Object key, Start start) {
+        Completion completion;
+
+        synchronized (this) {
+            Entry entry = getEntry(key);
+            completion = new Completion(entry, start);
+
+            if (!entry.active) {
+                long nowNanos = java.lang.System.nanoTime();
+
+                if (entry.queued || !queue.isEmpty() || !hasCapacity() || nowNanos - lastAdmittedNanos < staggerNanos) {
+                    entry.waiting.add(completion);
+                    if (!entry.queued) {
+                        entry.queued = true;
+                        entry.sequence = nextSequence++;
+                        entry.queuedNanos = nowNanos;
+                        queue.add(entry);
+                    }
+                    scheduleAdmit();
+                    return completion;
+                }
+
+                entry.queuedNanos = nowNanos;
+                activate(entry, nowNanos);
+            }
+
+            join(entry, completion);
+        }
+
+        run(completion);
+        return completion;
+    }
+
+    /**
+     * End `key`'s sync, if running, whatever its requests outstanding.
+     */
+    /* package */
+    synchronized void release(Object key) {
+        Entry entry = entries.get(key);
+        if (null == entry || !entry.active) return;
+
+        end(entry);
+    }
+
+    /**
+     * Forget `key`, ending its sync if running; a sync still waiting is admitted in turn.
+     */
+    /* package */
+    synchronized void remove(Object key) {
+        Entry entry = entries.remove(key);
+        if (null == entry || !entry.active) return;
+
+        end(entry);
+    }
+
+    /* package */
+    synchronized int getKeyCount() {
+        return entries.size();
+    }
+
+    /* package */
+    synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /* package */
+    synchronized int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * The time `key`'s current sync (or, if none, its last) waited to be admitted.
+     */
+    /* package */
+    synchronized long getQueueMillis(Object key) {
+        Entry entry = entries.get(key);
+        if (null == entry) return 0;
+
+        long nanos = entry.queued ? java.lang.System.nanoTime() - entry.queuedNanos : entry.lastQueueNanos;
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * The time `key`'s current sync has been running or, if none, the duration of its last.
+     */
+    /* package */
+    synchronized long getSyncMillis(Object key) {
+        Entry entry = entries.get(key);
+        if (null == entry) return 0;
+
+        long nanos = entry.active ? java.lang.System.nanoTime() - entry.admittedNanos : entry.lastSyncNanos;
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    // Guarded by `this`
+    private Entry getEntry(Object key) {
+        Entry entry = entries.get(key);
+        if (null == entry) {
+            entry = new Entry(key);
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private synchronized void complete(Completion completion) {
+        if (completion.completed) return;
+        completion.completed = true;
+
+        Entry entry = completion.entry;
+        if (-1 == completion.round) {
+            entry.waiting.remove(completion);
+            if (entry.queued && entry.waiting.isEmpty()) {
+                queue.remove(entry);
+                entry.queued = false;
+            }
+            return;
+        }
+
+        if (!entry.active || completion.round != entry.round) return;
+
+        entry.outstandingCount -= 1;
+        if (0 == entry.outstandingCount) {
+            end(entry);
+        }
+    }
+
+    // Guarded by `this`
+    private void join(Entry entry, Completion completion) {
+        completion.round = entry.round;
+        entry.outstandingCount += 1;
+    }
+
+    // Guarded by `this`
+    private void activate(Entry entry, long nowNanos) {
+        entry.active = true;
+        entry.round += 1;
+        entry.admittedNanos = nowNanos;
+        entry.lastQueueNanos = nowNanos - entry.queuedNanos;
+        activeCount += 1;
+        lastAdmittedNanos = nowNanos;
+
+        Log.log(Level.FINE, String.format("Sync admitted: %s (queued %d ms)", entry.key, TimeUnit.NANOSECONDS.toMillis(entry.lastQueueNanos)));
+    }
+
+    // Guarded by `this`
+    private void end(Entry entry) {
+        entry.active = false;
+        entry.outstandingCount = 0;
+        entry.lastSyncNanos = java.lang.System.nanoTime() - entry.admittedNanos;
+        activeCount -= 1;
+
+        Log.log(Level.FINE, String.format("Sync ended: %s (%d ms)", entry.key, TimeUnit.NANOSECONDS.toMillis(entry.lastSyncNanos)));
+
+        scheduleAdmit();
+    }
+
+    // Guarded by `this`
+    private void scheduleAdmit() {
+        if (admitScheduled || queue.isEmpty() || !hasCapacity()) return;
+
+        long delayNanos = lastAdmittedNanos + staggerNanos - java.lang.System.nanoTime();
+        admitScheduled = true;
+        executor.schedule(this::admit, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+    }
+
+    // Guarded by `this`
+    private boolean hasCapacity() {
+        return 0 == maxActiveCount || activeCount < maxActiveCount;
+    }
+
+    private void admit() {
+        List<Completion> starts;
+
+        synchronized (this) {
+            admitScheduled = false;
+
+            Entry entry = hasCapacity() ? queue.poll() : null;
+            if (null == entry) return;
+
+            entry.queued = false;
+            activate(entry, java.lang.System.nanoTime());
+
+            starts = new ArrayList<>(entry.waiting);
+            entry.waiting.clear();
+            for (Completion completion : starts) {
+                join(entry, completion);
+            }
+
+            scheduleAdmit();
+        }
+
+        for (Completion completion : starts) {
+            run(completion);
+        }
+    }
+
+    private static void run(Completion completion) {
+        try {
+            completion.start.run(completion);
+        } catch (Throwable t) {
+            Log.log(Level.SEVERE, "Error starting sync", t);
+            completion.complete();
+        }
+    }
+}
@@ -33,6 +33,7 @@ import com.breadwallet.corenative.crypto.BRCryptoWalletManager;
 import com.breadwallet.corenative.crypto.BRCryptoWalletManagerEvent;
 import com.breadwallet.corenative.support.BRConstants;
 import com.breadwallet.corenative.utility.Cookie;
+import com.breadwallet.corenative.utility.NativeArena;
 import com.breadwallet.crypto.AddressScheme;
 import com.breadwallet.crypto.NetworkType;
 import com.breadwallet.crypto.SystemState;
@@ -43,6 +44,8 @@ import com.breadwallet.crypto.WalletManagerSyncDepth;
 import com.breadwallet.crypto.WalletManagerSyncStoppedReason;
 import com.breadwallet.crypto.WalletState;
 import com.breadwallet.crypto.blockchaindb.BlockchainDb;
+import com.breadwallet.crypto.blockchaindb.RequestTag;
+import com.breadwallet.crypto.blockchaindb.apis.PageHandler;
 import com.breadwallet.crypto.blockchaindb.errors.QueryError;
 import com.breadwallet.crypto.blockchaindb.errors.QueryNoDataError;
 import com.breadwallet.crypto.blockchaindb.models.bdb.Blockchain;
@@ -98,7 +101,6 @@ import com.breadwallet.crypto.events.walletmanager.WalletManagerWalletChangedEve
 import com.breadwallet.crypto.events.walletmanager.WalletManagerWalletDeletedEvent;
 import com.breadwallet.crypto.utility.CompletionHandler;
 import com.google.common.base.Optional;
-import com.google.common.collect.Collections2;
 import com.google.common.primitives.UnsignedInteger;
 import com.google.common.primitives.UnsignedLong;
 
@@ -113,9 +115,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -143,13 +143,6 @@ final class System implements com.breadwallet.crypto.System {
     /// If true, save removed system in the above array. Set to `false` for debugging 'release'.
     private static final boolean SYSTEMS_INACTIVE_RETAIN = true;
 
-    // Create a dedicated executor to pump CWM events as quickly as possible
-    private static final Executor EXECUTOR_LISTENER = Executors.newSingleThreadExecutor();
-
-    // Create a dedicated executor to pump CWM callbacks. This is a separate executor
-    // than the one used to handle events as they *really* need to be pumped as fast as possible.
-    private static final Executor EXECUTOR_CLIENT = Executors.newSingleThreadExecutor();
-
     //
     // Keep a static reference to the callbacks so that they are never GC'ed
     //
@@ -296,6 +289,9 @@ final class System implements com.breadwallet.crypto.System {
         // Stop
         sys.stopAll();
 
+        // Stop announcing events
+        sys.dispatcher.close();
+
         // Register the system as inactive
         if (SYSTEMS_INACTIVE_RETAIN) {
             SYSTEMS_INACTIVE.add(sys);
@@ -337,6 +333,7 @@ final class System implements com.breadwallet.crypto.System {
     private final BRCryptoSystem core;
     private final ExecutorService executor;
     private final SystemListener listener;
+    private final EventDispatcher dispatcher;
     private final SystemCallbackCoordinator callbackCoordinator;
     private final Account account;
     private final boolean isMainnet;
@@ -357,6 +354,7 @@ final class System implements com.breadwallet.crypto.System {
                    BRCryptoClient cwmClient) {
         this.executor = executor;
         this.listener = listener;
+        this.dispatcher = createDispatcher(listener, executor);
         this.callbackCoordinator = new SystemCallbackCoordinator(executor);
         this.account = account;
         this.isMainnet = isMainnet;
@@ -654,24 +652,35 @@ final class System implements com.breadwallet.crypto.System {
 
     // Event announcements
 
+    private EventDispatcher createDispatcher(SystemListener listener, ScheduledExecutorService executor) {
+        int ringCapacity = SystemConfiguration.getListenerRingCapacity();
+        if (0 != ringCapacity) {
+            return EventDispatcher.onRing(this, listener, ringCapacity, SystemConfiguration.getListenerWaitStrategy());
+        }
+
+        return SystemConfiguration.isListenerDeliveredOnLanes()
+                ? EventDispatcher.direct(this, listener)
+                : EventDispatcher.onExecutor(this, listener, executor);
+    }
+
     private void announceSystemEvent(SystemEvent event) {
-        executor.submit(() -> listener.handleSystemEvent(this, event));
+        dispatcher.dispatchSystemEvent(event);
     }
 
     private void announceNetworkEvent(Network network, NetworkEvent event) {
-        executor.submit(() -> listener.handleNetworkEvent(this, network, event));
+        dispatcher.dispatchNetworkEvent(network, event);
     }
 
     private void announceWalletManagerEvent(WalletManager walletManager, WalletManagerEvent event) {
-        executor.submit(() -> listener.handleManagerEvent(this, walletManager, event));
+        dispatcher.dispatchWalletManagerEvent(walletManager, event);
     }
 
     private void announceWalletEvent(WalletManager walletManager, Wallet wallet, WalletEvent event) {
-        executor.submit(() -> listener.handleWalletEvent(this, walletManager, wallet, event));
+        dispatcher.dispatchWalletEvent(walletManager, wallet, event);
     }
 
     private void announceTransferEvent(WalletManager walletManager, Wallet wallet, Transfer transfer, TranferEvent event) {
-        executor.submit(() -> listener.handleTransferEvent(this, walletManager, wallet, transfer, event));
+        dispatcher.dispatchTransferEvent(walletManager, wallet, transfer, event);
     }
 
     //
@@ -681,7 +690,7 @@ final class System implements com.breadwallet.crypto.System {
     private static void systemEventCallback(Cookie context,
                                             BRCryptoSystem coreSystem,
                                             BRCryptoSystemEvent event) {
-        EXECUTOR_LISTENER.execute(() -> {
+        SystemConfiguration.getListenerLanes().execute(context, () -> {
             try {
                 Log.log(Level.FINE, "SystemEventCallback");
 
@@ -820,7 +829,7 @@ final class System implements com.breadwallet.crypto.System {
     private static void networkEventCallback(Cookie context,
                                              BRCryptoNetwork coreNetwork,
                                              BRCryptoNetworkEvent event) {
-        EXECUTOR_LISTENER.execute(() -> {
+        SystemConfiguration.getListenerLanes().execute(context, () -> {
             try {
                 Log.log(Level.FINE, "NetworkEventCallback");
 
@@ -843,7 +852,7 @@ final class System implements com.breadwallet.crypto.System {
     private static void walletManagerEventCallback(Cookie context,
                                                    BRCryptoWalletManager coreWalletManager,
                                                    BRCryptoWalletManagerEvent event) {
-        EXECUTOR_LISTENER.execute(() -> {
+        SystemConfiguration.getListenerLanes().execute(coreWalletManager, () -> {
             try {
                 Log.log(Level.FINE, "WalletManagerEventCallback");
 
@@ -920,6 +929,13 @@ final class System implements com.breadwallet.crypto.System {
 
         Log.log(Level.FINE, String.format("WalletManagerChanged (%s -> %s)", oldState, newState));
 
+        // A disconnect ends any sync; a deletion also forgets the manager
+        if (WalletManagerState.Type.DISCONNECTED == newState.getType()) {
+            SystemConfiguration.getSyncScheduler().release(coreWalletManager);
+        } else if (WalletManagerState.Type.DELETED == newState.getType()) {
+            SystemConfiguration.getSyncScheduler().remove(coreWalletManager);
+        }
+
         Optional<System> optSystem = getSystem(context);
         if (optSystem.isPresent()) {
             System system = optSystem.get();
@@ -1113,6 +1129,8 @@ final class System implements com.breadwallet.crypto.System {
         WalletManagerSyncStoppedReason reason = Utilities.walletManagerSyncStoppedReasonFromCrypto(event.u.syncStopped.reason);
         Log.log(Level.FINE, String.format("WalletManagerSyncStopped: (%s)", reason));
 
+        SystemConfiguration.getSyncScheduler().release(coreWalletManager);
+
         Optional<System> optSystem = getSystem(context);
         if (optSystem.isPresent()) {
             System system = optSystem.get();
@@ -1184,7 +1202,7 @@ final class System implements com.breadwallet.crypto.System {
                                             BRCryptoWalletManager coreWalletManager,
                                             BRCryptoWallet coreWallet,
                                             BRCryptoWalletEvent coreEvent) {
-        EXECUTOR_LISTENER.execute(() -> {
+        SystemConfiguration.getListenerLanes().execute(coreWalletManager, () -> {
             try {
                 Log.log(Level.FINE, "WalletEventCallback");
 
@@ -1596,7 +1614,7 @@ final class System implements com.breadwallet.crypto.System {
                                               BRCryptoWallet coreWallet,
                                               BRCryptoTransfer coreTransfer,
                                               BRCryptoTransferEvent event) {
-        EXECUTOR_LISTENER.execute(() -> {
+        SystemConfiguration.getListenerLanes().execute(coreWalletManager, () -> {
             try {
                 Log.log(Level.FINE, "TransferEventCallback");
 
@@ -1735,7 +1753,7 @@ final class System implements com.breadwallet.crypto.System {
     // BTC client
 
     private static void getBlockNumber(Cookie context, BRCryptoWalletManager coreWalletManager, BRCryptoClientCallbackState callbackState) {
-        EXECUTOR_CLIENT.execute(() -> {
+        SystemConfiguration.getClientScheduler().execute(coreWalletManager, ClientScheduler.Priority.BULK, () -> {
             try {
                 Log.log(Level.FINE, "BRCryptoCWMGetBlockNumberCallback");
 
@@ -1747,7 +1765,7 @@ final class System implements com.breadwallet.crypto.System {
                     if (optWalletManager.isPresent()) {
                         WalletManager walletManager = optWalletManager.get();
 
-                        system.query.getBlockchain(walletManager.getNetwork().getUids(), new CompletionHandler<Blockchain, QueryError>() {
+                        RequestTag.run(walletManager.getName(), () -> system.query.getBlockchain(walletManager.getNetwork().getUids(), new CompletionHandler<Blockchain, QueryError>() {
                             @Override
                             public void handleData(Blockchain blockchain) {
                                 Optional<UnsignedLong> maybeBlockHeight = blockchain.getBlockHeight();
@@ -1768,7 +1786,7 @@ final class System implements com.breadwallet.crypto.System {
                                 Log.log(Level.SEVERE, "BRCryptoCWMGetBlockNumberCallback: failed", error);
                                 walletManager.getCoreBRCryptoWalletManager().announceGetBlockNumber(callbackState, false, UnsignedLong.ZERO, "");
                             }
-                        });
+                        }));
                     } else {
                         throw new IllegalStateException("BRCryptoCWMGetBlockNumberCallback: missing manager");
                     }
@@ -1785,7 +1803,8 @@ final class System implements com.breadwallet.crypto.System {
         });
     }
 
-    private static BRCryptoTransferStateType getTransferStatus (String apiStatus) {
+    /* package */
+    static BRCryptoTransferStateType getTransferStatus (String apiStatus) {
         switch (apiStatus) {
             case "confirmed":
                 return BRCryptoTransferStateType.CRYPTO_TRANSFER_STATE_INCLUDED;
@@ -1815,7 +1834,7 @@ final class System implements com.breadwallet.crypto.System {
         }
     }
 
-    private static Optional<BRCryptoClientTransactionBundle> makeTransactionBundle (Transaction transaction) {
+    private static Optional<BRCryptoClientTransactionBundle> makeTransactionBundle (NativeArena arena, Transaction transaction) {
         Optional<byte[]> optRaw = transaction.getRaw();
         if (!optRaw.isPresent()) {
             Log.log(Level.SEVERE, "BRCryptoCWMGetTransactionsCallback completing with missing raw bytes");
@@ -1837,15 +1856,24 @@ final class System implements com.breadwallet.crypto.System {
         }
 
         return Optional.of(BRCryptoClientTransactionBundle.create(
+                arena,
                 status,
                 optRaw.get(),
                 timestamp,
                 blockHeight));
     }
 
+    // A round of sync requests (for transactions or transfers) runs once the sync scheduler admits
+    // it, and each request must complete once announced.  The core makes any further requests, for
+    // addresses found along the way, from within the announce; these join the round rather than waiting.
+    private static void executeSyncRequest(BRCryptoWalletManager coreWalletManager, SyncScheduler.Start task) {
+        SystemConfiguration.getSyncScheduler().request(coreWalletManager,
+                completion -> SystemConfiguration.getClientScheduler().execute(coreWalletManager, ClientScheduler.Priority.BULK, () -> task.run(completion)));
+    }
+
      private static void getTransactions(Cookie context, BRCryptoWalletManager coreWalletManager, BRCryptoClientCallbackState callbackState,
                                         List<String> addresses, long begBlockNumber, long endBlockNumber) {
-        EXECUTOR_CLIENT.execute(() -> {
+        executeSyncRequest(coreWalletManager, completion -> {
             try {
                 UnsignedLong begBlockNumberUnsigned = UnsignedLong.fromLongBits(begBlockNumber);
                 UnsignedLong endBlockNumberUnsigned = UnsignedLong.fromLongBits(endBlockNumber);
@@ -1862,39 +1890,75 @@ final class System implements com.breadwallet.crypto.System {
 
                         final List<String> canonicalAddresses = canonicalAddresses(addresses, walletManager.getNetwork().getType());
 
-                        system.query.getTransactions(walletManager.getNetwork().getUids(),
+                        RequestTag.run(walletManager.getName(), () -> system.query.getTransactions(walletManager.getNetwork().getUids(),
                                 canonicalAddresses,
                                 begBlockNumberUnsigned.equals(BRConstants.BLOCK_HEIGHT_UNBOUND) ? null : begBlockNumberUnsigned,
                                 endBlockNumberUnsigned.equals(BRConstants.BLOCK_HEIGHT_UNBOUND) ? null : endBlockNumberUnsigned,
                                 true,
                                 false,
                                 false,
-                                new CompletionHandler<List<Transaction>, QueryError>() {
+                                null,
+                                new PageHandler<Transaction, QueryError>() {
+                                    // Each page is announced as it arrives, so that only one page of bundles is held;
+                                    // the (empty) announce on completion marks the end of the request.  The bundles'
+                                    // arguments are marshalled into an arena that is reused from page to page.
+                                    private final List<BRCryptoClientTransactionBundle> bundles = new ArrayList<>();
+                                    private final NativeArena arena = new NativeArena();
+                                    private boolean done = false;
+
                                     @Override
-                                    public void handleData(List<Transaction> transactions) {
-                                        boolean success = false;
+                                    public void handlePage(List<Transaction> transactions) {
+                                        if (done) return;
+
                                         Log.log(Level.FINE, "BRCryptoCWMGetTransactionsCallback received transactions");
 
-                                        List<BRCryptoClientTransactionBundle> bundles = new ArrayList<>();
-                                        for (Transaction transaction : transactions) {
-                                            Optional<BRCryptoClientTransactionBundle> bundle = makeTransactionBundle(transaction);
-                                            if (bundle.isPresent()) {
-                                                bundles.add(bundle.get());
+                                        try {
+                                            for (Transaction transaction : transactions) {
+                                                Optional<BRCryptoClientTransactionBundle> bundle = makeTransactionBundle(arena, transaction);
+                                                if (bundle.isPresent()) {
+                                                    bundles.add(bundle.get());
+                                                }
                                             }
+
+                                            if (!bundles.isEmpty()) {
+                                                walletManager.getCoreBRCryptoWalletManager().announceTransactionsPartial(callbackState, bundles);
+                                                bundles.clear();
+                                            }
+                                            arena.reset();
+
+                                        } catch (RuntimeException e) {
+                                            // the core must still hear of the request's end; rethrown, to end the query
+                                            Log.log(Level.SEVERE, "BRCryptoCWMGetTransactionsCallback failed on a page, completing with failure", e);
+                                            finish(false);
+                                            throw e;
                                         }
-                                        walletManager.getCoreBRCryptoWalletManager().announceTransactions(callbackState, true, bundles);
+                                    }
 
-                                        success = true;
+                                    @Override
+                                    public void handleComplete() {
+                                        if (done) return;
+                                        finish(true);
                                         Log.log(Level.FINE, "BRCryptoCWMGetTransactionsCallback: complete");
                                     }
 
                                     @Override
                                     public void handleError(QueryError error) {
+                                        if (done) return;
                                         Log.log(Level.SEVERE, "BRCryptoCWMGetTransactionsCallback received an error, completing with failure: ", error);
-                                        walletManager.getCoreBRCryptoWalletManager().announceTransactions(callbackState, false, new ArrayList<>());
+                                        finish(false);
+                                    }
 
+                                    // Announce the end of the request, exactly once
+                                    private void finish(boolean success) {
+                                        done = true;
+                                        try {
+                                            walletManager.getCoreBRCryptoWalletManager().announceTransactions(callbackState, success, success ? bundles : new ArrayList<>());
+                                        } finally {
+                                            arena.close();
+                                            completion.complete();
+                                        }
                                     }
-                                });
+                                }));
 
                     } else {
                         throw new IllegalStateException("BRCryptoCWMGetTransactionsCallback: missing manager");
@@ -1906,53 +1970,16 @@ final class System implements com.breadwallet.crypto.System {
             } catch (RuntimeException e) {
                 Log.log(Level.SEVERE, e.getMessage());
                 coreWalletManager.announceTransactions(callbackState, false, new ArrayList<>());
+                completion.complete();
             } finally {
                 coreWalletManager.give();
             }
         });
     }
 
-    private static List<BRCryptoClientTransferBundle> makeTransferBundles (Transaction transaction, List<String> addresses) {
-        List<BRCryptoClientTransferBundle> result = new ArrayList<>();
-
-        UnsignedLong blockHeight    = transaction.getBlockHeight().or(BRConstants.BLOCK_HEIGHT_UNBOUND);
-        UnsignedLong blockTimestamp = transaction.getTimestamp().transform(Utilities::dateAsUnixTimestamp).or(UnsignedLong.ZERO);
-        UnsignedLong blockConfirmations = transaction.getConfirmations().or(UnsignedLong.ZERO);
-        UnsignedLong blockTransactionIndex = transaction.getIndex().or(UnsignedLong.ZERO);
-        String blockHash = transaction.getHash();
-
-        BRCryptoTransferStateType status = getTransferStatus (transaction.getStatus());
-
-        for (ObjectPair<com.breadwallet.crypto.blockchaindb.models.bdb.Transfer, String> o : System.mergeTransfers(transaction, addresses)) {
-            Log.log(Level.FINE, "BRCryptoCWMGetTransfersCallback  announcing " + o.o1.getId());
-
-            // Merge Transfer 'meta' into Transaction' meta; duplicates from Transfer
-            Map<String,String> meta = new HashMap<>(transaction.getMeta());
-            meta.putAll(o.o1.getMeta());
-
-            result.add (BRCryptoClientTransferBundle.create(
-                    status,
-                    transaction.getHash(),
-                    o.o1.getId(),
-                    o.o1.getFromAddress().orNull(),
-                    o.o1.getToAddress().orNull(),
-                    o.o1.getAmount().getAmount(),
-                    o.o1.getAmount().getCurrencyId(),
-                    o.o2,
-                    blockTimestamp,
-                    blockHeight,
-                    blockConfirmations,
-                    blockTransactionIndex,
-                    blockHash,
-                    meta));
-        }
-
-        return result;
-    }
-
     private static void getTransfers(Cookie context, BRCryptoWalletManager coreWalletManager, BRCryptoClientCallbackState callbackState,
                                      List<String> addresses, long begBlockNumber, long endBlockNumber) {
-        EXECUTOR_CLIENT.execute(() -> {
+        executeSyncRequest(coreWalletManager, completion -> {
             try {
                 UnsignedLong begBlockNumberUnsigned = UnsignedLong.fromLongBits(begBlockNumber);
                 UnsignedLong endBlockNumberUnsigned = UnsignedLong.fromLongBits(endBlockNumber);
@@ -1969,38 +1996,72 @@ final class System implements com.breadwallet.crypto.System {
 
                         final List<String> canonicalAddresses = canonicalAddresses(addresses, walletManager.getNetwork().getType());
 
-                        system.query.getTransactions(walletManager.getNetwork().getUids(), canonicalAddresses,
+                        RequestTag.run(walletManager.getName(), () -> system.query.getTransactions(walletManager.getNetwork().getUids(), canonicalAddresses,
                                 begBlockNumberUnsigned.equals(BRConstants.BLOCK_HEIGHT_UNBOUND) ? null : begBlockNumberUnsigned,
                                 endBlockNumberUnsigned.equals(BRConstants.BLOCK_HEIGHT_UNBOUND) ? null : endBlockNumberUnsigned,
                                 false,
                                 false,
                                 true,
-                                new CompletionHandler<List<Transaction>, QueryError>() {
+                                null,
+                                new PageHandler<Transaction, QueryError>() {
+                                    // Each page is announced as it arrives, so that only one page of bundles is held;
+                                    // the (empty) announce on completion marks the end of the request.  The bundles'
+                                    // arguments are marshalled into an arena that is reused from page to page.
+                                    private final List<BRCryptoClientTransferBundle> bundles = new ArrayList<>();
+                                    private final NativeArena arena = new NativeArena();
+                                    private final TransferBundleBuilder<BRCryptoClientTransferBundle> builder = TransferBundleBuilder.create(arena, canonicalAddresses);
+                                    private boolean done = false;
+
                                     @Override
-                                    public void handleData(List<Transaction> transactions) {
-                                        boolean success = false;
-                                        Log.log(Level.FINE, "BRCryptoCWMGetTransfersCallback received transfers");
+                                    public void handlePage(List<Transaction> transactions) {
+                                        if (done) return;
 
-                                        List<BRCryptoClientTransferBundle> bundles = new ArrayList<>();
+                                        Log.log(Level.FINE, "BRCryptoCWMGetTransfersCallback received transfers");
 
                                         try {
                                             for (Transaction transaction : transactions) {
-                                                bundles.addAll(makeTransferBundles(transaction, canonicalAddresses));
-                                             }
+                                                builder.addTransaction(transaction, bundles);
+                                            }
 
-                                            success = true;
-                                            Log.log(Level.FINE, "BRCryptoCWMGetTransfersCallback : complete");
-                                        } finally {
-                                            walletManager.getCoreBRCryptoWalletManager().announceTransfers(callbackState, true, bundles);
+                                            if (!bundles.isEmpty()) {
+                                                walletManager.getCoreBRCryptoWalletManager().announceTransfersPartial(callbackState, bundles);
+                                                bundles.clear();
+                                            }
+                                            arena.reset();
+
+                                        } catch (RuntimeException e) {
+                                            // the core must still hear of the request's end; rethrown, to end the query
+                                            Log.log(Level.SEVERE, "BRCryptoCWMGetTransfersCallback failed on a page, completing with failure", e);
+                                            finish(false);
+                                            throw e;
                                         }
                                     }
 
+                                    @Override
+                                    public void handleComplete() {
+                                        if (done) return;
+                                        finish(true);
+                                        Log.log(Level.FINE, "BRCryptoCWMGetTransfersCallback: complete");
+                                    }
+
                                     @Override
                                     public void handleError(QueryError error) {
-                                        Log.log(Level.SEVERE, "BRCryptoCWMGetTransfersCallback  received an error, completing with failure: ", error);
-                                        walletManager.getCoreBRCryptoWalletManager().announceTransfers(callbackState, false, new ArrayList<>());
+                                        if (done) return;
+                                        Log.log(Level.SEVERE, "BRCryptoCWMGetTransfersCallback received an error, completing with failure: ", error);
+                                        finish(false);
+                                    }
+
+                                    // Announce the end of the request, exactly once
+                                    private void finish(boolean success) {
+                                        done = true;
+                                        try {
+                                            walletManager.getCoreBRCryptoWalletManager().announceTransfers(callbackState, success, success ? bundles : new ArrayList<>());
+                                        } finally {
+                                            arena.close();
+                                            completion.complete();
+                                        }
                                     }
-                                });
+                                }));
                     } else {
                         throw new IllegalStateException("BRCryptoCWMGetTransfersCallback : missing manager");
                     }
@@ -2011,6 +2072,7 @@ final class System implements com.breadwallet.crypto.System {
             } catch (RuntimeException e) {
                 Log.log(Level.SEVERE, e.getMessage());
                 coreWalletManager.announceTransfers(callbackState,false, new ArrayList<>());
+                completion.complete();
             } finally {
                 coreWalletManager.give();
             }
@@ -2019,7 +2081,7 @@ final class System implements com.breadwallet.crypto.System {
 
     private static void submitTransaction(Cookie context, BRCryptoWalletManager coreWalletManager, BRCryptoClientCallbackState callbackState,
                                           byte[] transaction, String hashAsHex) {
-        EXECUTOR_CLIENT.execute(() -> {
+        SystemConfiguration.getClientScheduler().execute(coreWalletManager, ClientScheduler.Priority.PRIORITY, () -> {
             try {
                 Log.log(Level.FINE, "BRCryptoCWMSubmitTransactionCallback");
 
@@ -2031,7 +2093,7 @@ final class System implements com.breadwallet.crypto.System {
                     if (optWalletManager.isPresent()) {
                         WalletManager walletManager = optWalletManager.get();
 
-                        system.query.createTransaction(walletManager.getNetwork().getUids(), hashAsHex, transaction, new CompletionHandler<Void, QueryError>() {
+                        RequestTag.run(walletManager.getName(), () -> system.query.createTransaction(walletManager.getNetwork().getUids(), hashAsHex, transaction, new CompletionHandler<Void, QueryError>() {
                             @Override
                             public void handleData(Void data) {
                                 Log.log(Level.FINE, "BRCryptoCWMSubmitTransactionCallback: succeeded");
@@ -2043,7 +2105,7 @@ final class System implements com.breadwallet.crypto.System {
                                 Log.log(Level.SEVERE, "BRCryptoCWMSubmitTransactionCallback: failed", error);
                                 walletManager.getCoreBRCryptoWalletManager().announceSubmitTransfer(callbackState, false);
                             }
-                        });
+                        }));
 
                     } else {
                         throw new IllegalStateException("BRCryptoCWMSubmitTransactionCallback: missing manager");
@@ -2063,7 +2125,7 @@ final class System implements com.breadwallet.crypto.System {
 
     private static void estimateTransactionFee(Cookie context, BRCryptoWalletManager coreWalletManager, BRCryptoClientCallbackState callbackState,
                                                byte[] transaction, String hashAsHex) {
-        EXECUTOR_CLIENT.execute(() -> {
+        SystemConfiguration.getClientScheduler().execute(coreWalletManager, ClientScheduler.Priority.PRIORITY, () -> {
             try {
                 Log.log(Level.FINE, "BRCryptoCWMEstimateTransactionFeeCallback");
 
@@ -2075,7 +2137,7 @@ final class System implements com.breadwallet.crypto.System {
                     if (optWalletManager.isPresent()) {
                         WalletManager walletManager = optWalletManager.get();
 
-                        system.query.estimateTransactionFee(walletManager.getNetwork().getUids(), hashAsHex, transaction, new CompletionHandler<TransactionFee, QueryError>() {
+                        RequestTag.run(walletManager.getName(), () -> system.query.estimateTransactionFee(walletManager.getNetwork().getUids(), hashAsHex, transaction, new CompletionHandler<TransactionFee, QueryError>() {
                             @Override
                             public void handleData(TransactionFee fee) {
                                 Log.log(Level.FINE, "BRCryptoCWMEstimateTransactionFeeCallback: succeeded");
@@ -2087,7 +2149,7 @@ final class System implements com.breadwallet.crypto.System {
                                 Log.log(Level.SEVERE, "BRCryptoCWMEstimateTransactionFeeCallback: failed", error);
                                 walletManager.getCoreBRCryptoWalletManager().announceEstimateTransactionFee(callbackState, false, null, UnsignedLong.ZERO, new ArrayMap<>());
                             }
-                        });
+                        }));
                     } else {
                         throw new IllegalStateException("BRCryptoCWMEstimateTransactionFeeCallback: missing manager");
                     }
@@ -2104,104 +2166,6 @@ final class System implements com.breadwallet.crypto.System {
         });
     }
 
-    private static class ObjectPair<T1, T2> {
-        final T1 o1;
-        final T2 o2;
-
-        ObjectPair (T1 o1, T2 o2) {
-            this.o1 = o1;
-            this.o2 = o2;
-        }
-    }
-
-    private static List<ObjectPair<com.breadwallet.crypto.blockchaindb.models.bdb.Transfer, String>> mergeTransfers(Transaction transaction, List<String> addresses) {
-        List<com.breadwallet.crypto.blockchaindb.models.bdb.Transfer> transfers;
-        List<com.breadwallet.crypto.blockchaindb.models.bdb.Transfer> transfersWithFee;
-        List<com.breadwallet.crypto.blockchaindb.models.bdb.Transfer> transfersWithoutFee;
-        List<ObjectPair<com.breadwallet.crypto.blockchaindb.models.bdb.Transfer, String>> transfersMerged;
-        com.breadwallet.crypto.blockchaindb.models.bdb.Transfer transferWithFee;
-
-        // Only consider transfers w/ `address`
-        transfers = new ArrayList<>(Collections2.filter(transaction.getTransfers(),
-                t -> addresses.contains(t.getFromAddress().orNull()) ||
-                        addresses.contains(t.getToAddress().orNull())));
-
-        // Note for later: all transfers have a unique id
-
-        transfersWithFee = new ArrayList<>(Collections2.filter(transfers, t -> "__fee__".equals(t.getToAddress().orNull())));
-        transfersWithoutFee = new ArrayList<>(Collections2.filter(transfers, t -> !"__fee__".equals(t.getToAddress().orNull())));
-
-        // Get the transferWithFee if we have one
-        checkState(transfersWithFee.size() <= 1);
-        transferWithFee = transfersWithFee.isEmpty() ? null : transfersWithFee.get(0);
-
-        transfersMerged = new ArrayList<>(transfers.size());
-
-        // There is no "__fee__" entry
-        if (transferWithFee == null) {
-            // Announce transfers with no fee
-            for (com.breadwallet.crypto.blockchaindb.models.bdb.Transfer transfer: transfers) {
-                transfersMerged.add(new ObjectPair<>(transfer, null));
-            }
-
-        // There is a single "__fee__" entry, due to `checkState(transfersWithFee.size() <= 1)` above
-        } else {
-            // We may or may not have a non-fee transfer matching `transferWithFee`.  We
-            // may or may not have more than one non-fee transfers matching `transferWithFee`
-
-            // Find the first of the non-fee transfers matching `transferWithFee` that also matches
-            // the amount's currency.
-            com.breadwallet.crypto.blockchaindb.models.bdb.Transfer transferMatchingFee = null;
-            for (com.breadwallet.crypto.blockchaindb.models.bdb.Transfer transfer: transfersWithoutFee) {
-                if (transferWithFee.getTransactionId().equals(transfer.getTransactionId()) &&
-                    transferWithFee.getFromAddress().equals(transfer.getFromAddress()) &&
-                    transferWithFee.getAmount().getCurrencyId().equals(transfer.getAmount().getCurrencyId())) {
-                    transferMatchingFee = transfer;
-                    break;
-                }
-            }
-
-            // If there is still no `transferWithFee`, find the first w/o matching the amount's currency
-            if (null == transferMatchingFee)
-                for (com.breadwallet.crypto.blockchaindb.models.bdb.Transfer transfer : transfersWithoutFee) {
-                    if (transferWithFee.getTransactionId().equals(transfer.getTransactionId()) &&
-                            transferWithFee.getFromAddress().equals(transfer.getFromAddress())) {
-                        transferMatchingFee = transfer;
-                        break;
-                    }
-                }
-
-            // We must have a transferMatchingFee; if we don't add one
-            transfers = new ArrayList<>(transfersWithoutFee);
-            if (null == transferMatchingFee) {
-                transfers.add(
-                        com.breadwallet.crypto.blockchaindb.models.bdb.Transfer.create(
-                                transferWithFee.getId(),
-                                transferWithFee.getBlockchainId(),
-                                transferWithFee.getIndex(),
-                                transferWithFee.getAmount(),
-                                transferWithFee.getMeta(),
-                                transferWithFee.getFromAddress().orNull(),
-                                "unknown",
-                                "0",
-                                transferWithFee.getAcknowledgements().orNull())
-                );
-            }
-
-            // Hold the Id for the transfer that we'll add a fee to.
-            String transferForFeeId = transferMatchingFee != null ? transferMatchingFee.getId() : transferWithFee.getId();
-
-            // Announce transfers adding the fee to the `transferforFeeId`
-            for (com.breadwallet.crypto.blockchaindb.models.bdb.Transfer transfer: transfers) {
-                String fee = transfer.getId().equals(transferForFeeId) ? transferWithFee.getAmount().getAmount() : null;
-
-                transfersMerged.add(new ObjectPair<>(transfer, fee));
-            }
-        }
-
-        return transfersMerged;
-    }
-
     @Override
     public boolean accountIsInitialized(com.breadwallet.crypto.Account account, com.breadwallet.crypto.Network network) {
         return account.isInitialized(network);
@@ -2212,7 +2176,7 @@ final class System implements com.breadwallet.crypto.System {
                                   com.breadwallet.crypto.Network network,
                                   boolean create,
                                   CompletionHandler<byte[], AccountInitializationError> handler) {
-        EXECUTOR_CLIENT.execute(() -> {
+        SystemConfiguration.getClientScheduler().execute(this, ClientScheduler.Priority.PRIORITY, () -> {
             if (accountIsInitialized(account, network)) {
                 accountInitializeReportError(new AccountInitializationAlreadyInitializedError(), handler);
                 return;
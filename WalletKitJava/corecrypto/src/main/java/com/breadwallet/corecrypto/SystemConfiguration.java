@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.corenative.cleaner.ReferenceCleaner;
+import com.breadwallet.corenative.utility.CallbackThreads;
+
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Process-wide settings for how Systems handle core events.  Settings must be made before the
+ * first System is created.
+ */
+public final class SystemConfiguration {
+
+    public static final int DEFAULT_LISTENER_LANE_COUNT = 1;
+
+    public static final int DEFAULT_CLIENT_THREAD_COUNT = 4;
+
+    /** How a listener ring's consumer waits for events */
+    public enum ListenerWaitStrategy {
+        /** Block on a lock; the least CPU, the highest latency */
+        BLOCKING,
+
+        /** Spin, then yield, then park briefly */
+        SLEEPING,
+
+        /** Spin, then yield */
+        YIELDING,
+
+        /** Spin; the lowest latency, a core kept busy */
+        BUSY_SPIN
+    }
+
+    private static int listenerLaneCount = DEFAULT_LISTENER_LANE_COUNT;
+    private static boolean listenerDeliveredOnLanes = false;
+
+    private static int clientThreadCount = DEFAULT_CLIENT_THREAD_COUNT;
+
+    private static int listenerRingCapacity = 0;
+    private static ListenerWaitStrategy listenerWaitStrategy = ListenerWaitStrategy.BLOCKING;
+
+    private static int syncConcurrency = 0;
+    private static long syncStaggerMillis = 0;
+
+    private static volatile EventLanes listenerLanes;
+    private static volatile ClientScheduler clientScheduler;
+    private static volatile SyncScheduler syncScheduler;
+
+    /**
+     * Set the number of listener 'lanes'.  Core events are handled on a lane chosen by their
+     * wallet manager (or, for system and network events, their system): the events of a wallet
+     * manager are handled in order, while those of managers on other lanes are handled in
+     * parallel.  The default is a single lane.
+     */
+    public static synchronized void setListenerLaneCount(int laneCount) {
+        checkArgument(laneCount >= 1);
+        checkState(null == listenerLanes, "Listener lanes already created");
+        listenerLaneCount = laneCount;
+    }
+
+    public static synchronized int getListenerLaneCount() {
+        return listenerLaneCount;
+    }
+
+    /**
+     * If true, a System's listener is called on the lane handling the event, rather than as a task
+     * on the System's executor.  A slow listener then delays only the wallet managers sharing its
+     * lane; the listener must be thread-safe when there are several lanes.  The default is false.
+     */
+    public static synchronized void setListenerDeliveredOnLanes(boolean deliveredOnLanes) {
+        listenerDeliveredOnLanes = deliveredOnLanes;
+    }
+
+    public static synchronized boolean isListenerDeliveredOnLanes() {
+        return listenerDeliveredOnLanes;
+    }
+
+    /**
+     * The number of core events waiting on each listener lane.
+     */
+    public static int[] getListenerLaneQueueDepths() {
+        EventLanes lanes = getListenerLanes();
+        int[] depths = new int[lanes.getLaneCount()];
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = lanes.getQueueDepth(i);
+        }
+        return depths;
+    }
+
+    /**
+     * If non-zero, a System's listener is called from a dedicated thread, fed by a ring of
+     * `capacity` preallocated event slots, rather than as a task on the System's executor.  Events
+     * are then delivered without allocating a task for each.  The capacity must be a power of two;
+     * the default is zero.
+     */
+    public static synchronized void setListenerRing(int capacity, ListenerWaitStrategy waitStrategy) {
+        checkArgument(0 == capacity || (capacity >= 2 && Integer.bitCount(capacity) == 1));
+        listenerRingCapacity = capacity;
+        listenerWaitStrategy = waitStrategy;
+    }
+
+    public static synchronized int getListenerRingCapacity() {
+        return listenerRingCapacity;
+    }
+
+    public static synchronized ListenerWaitStrategy getListenerWaitStrategy() {
+        return listenerWaitStrategy;
+    }
+
+    /**
+     * Set the number of threads running the core's client callbacks (getting blocks, transactions
+     * and transfers; submitting transactions and estimating fees).  A wallet manager's callbacks
+     * run in order; those of different wallet managers run in parallel.  Submits and fee estimates
+     * run ahead of syncing.  The default is `DEFAULT_CLIENT_THREAD_COUNT`.
+     */
+    public static synchronized void setClientThreadCount(int threadCount) {
+        checkArgument(threadCount >= 1);
+        checkState(null == clientScheduler, "Client scheduler already created");
+        clientThreadCount = threadCount;
+    }
+
+    public static synchronized int getClientThreadCount() {
+        return clientThreadCount;
+    }
+
+    /**
+     * The number of submit and fee estimate callbacks waiting to run.
+     */
+    public static int getClientPriorityQueueDepth() {
+        return getClientScheduler().getPendingCount(ClientScheduler.Priority.PRIORITY);
+    }
+
+    /**
+     * The number of sync callbacks waiting to run.
+     */
+    public static int getClientBulkQueueDepth() {
+        return getClientScheduler().getPendingCount(ClientScheduler.Priority.BULK);
+    }
+
+    /**
+     * Set the number of wallet managers that may sync at once, across all Systems; others wait
+     * their turn, by priority (see `setSyncPriority`).  For managers syncing with the API this
+     * bounds their rounds of requests for transactions or transfers; for managers syncing with
+     * P2P it bounds their connects and syncs.  The default, zero, is no limit.
+     */
+    public static synchronized void setSyncConcurrency(int maxConcurrentSyncs) {
+        checkArgument(maxConcurrentSyncs >= 0);
+        checkState(null == syncScheduler, "Sync scheduler already created");
+        syncConcurrency = maxConcurrentSyncs;
+    }
+
+    public static synchronized int getSyncConcurrency() {
+        return syncConcurrency;
+    }
+
+    /**
+     * Set the least time between the starts of two syncs, so that a resume of many wallet managers
+     * starts their syncs one after another.  The default is zero.
+     */
+    public static synchronized void setSyncStagger(long staggerMillis) {
+        checkArgument(staggerMillis >= 0);
+        checkState(null == syncScheduler, "Sync scheduler already created");
+        syncStaggerMillis = staggerMillis;
+    }
+
+    public static synchronized long getSyncStagger() {
+        return syncStaggerMillis;
+    }
+
+    /**
+     * Set the priority of `manager`'s syncs; when syncs wait, those of higher priority start
+     * first (for example, the wallet in the foreground).  The default is 0.
+     */
+    public static void setSyncPriority(com.breadwallet.crypto.WalletManager manager, int priority) {
+        getSyncScheduler().setPriority(WalletManager.from(manager).getCoreBRCryptoWalletManager(), priority);
+    }
+
+    /**
+     * The number of syncs waiting to start.
+     */
+    public static int getSyncQueueDepth() {
+        return getSyncScheduler().getQueueDepth();
+    }
+
+    /**
+     * The number of syncs running.
+     */
+    public static int getSyncActiveCount() {
+        return getSyncScheduler().getActiveCount();
+    }
+
+    /**
+     * The time `manager`'s waiting (or, if none, last) sync waited to start.
+     */
+    public static long getSyncQueueMillis(com.breadwallet.crypto.WalletManager manager) {
+        return getSyncScheduler().getQueueMillis(WalletManager.from(manager).getCoreBRCryptoWalletManager());
+    }
+
+    /**
+     * The time `manager`'s running sync has taken so far or, if none, the duration of its last.
+     */
+    public static long getSyncMillis(com.breadwallet.crypto.WalletManager manager) {
+        return getSyncScheduler().getSyncMillis(WalletManager.from(manager).getCoreBRCryptoWalletManager());
+    }
+
+    /**
+     * Set the number of threads releasing the native objects of collected wrappers (amounts,
+     * transfers, addresses and the like); with one, a burst of garbage is released one object at
+     * a time.  Unlike the other settings, this may be changed at any time.  The default is 1.
+     */
+    public static void setCleanerThreadCount(int threadCount) {
+        ReferenceCleaner.setThreadCount(threadCount);
+    }
+
+    public static int getCleanerThreadCount() {
+        return ReferenceCleaner.getThreadCount();
+    }
+
+    /**
+     * The number of wrappers whose native object is yet to be released, by `close` or once
+     * collected.
+     */
+    public static int getCleanerPendingCount() {
+        return ReferenceCleaner.getPendingCount();
+    }
+
+    /**
+     * The number of native objects released by `close`.
+     */
+    public static long getCleanerClosedCount() {
+        return ReferenceCleaner.getCleanedCount();
+    }
+
+    /**
+     * The number of native objects released once their wrapper was collected.
+     */
+    public static long getCleanerCollectedCount() {
+        return ReferenceCleaner.getCollectedCount();
+    }
+
+    /**
+     * The number of native objects released, either way, by wrapper type (such as "Amount").
+     */
+    public static Map<String, Long> getCleanerReleasedCounts() {
+        return ReferenceCleaner.getReleasedCounts();
+    }
+
+    /**
+     * If true, the core's threads stay attached to the JVM, as daemon threads, between calls of a
+     * System's listener and client callbacks rather than attaching on each call.  The default is
+     * true.
+     */
+    public static void setCallbackThreadsPersistent(boolean persistent) {
+        CallbackThreads.setPersistent(persistent);
+    }
+
+    public static boolean isCallbackThreadsPersistent() {
+        return CallbackThreads.isPersistent();
+    }
+
+    /**
+     * The calls of a System's listener and client callbacks so far, by callback name (such as
+     * "TransferEvent" or "GetTransfers").
+     */
+    public static Map<String, CallbackThreads.Stats> getCallbackStats() {
+        return CallbackThreads.getStats();
+    }
+
+    /* package */
+    static SyncScheduler getSyncScheduler() {
+        SyncScheduler scheduler = syncScheduler;
+        if (null == scheduler) {
+            synchronized (SystemConfiguration.class) {
+                scheduler = syncScheduler;
+                if (null == scheduler) {
+                    scheduler = new SyncScheduler(syncConcurrency, syncStaggerMillis, "system-sync");
+                    syncScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /* package */
+    static ClientScheduler getClientScheduler() {
+        ClientScheduler scheduler = clientScheduler;
+        if (null == scheduler) {
+            synchronized (SystemConfiguration.class) {
+                scheduler = clientScheduler;
+                if (null == scheduler) {
+                    scheduler = new ClientScheduler(clientThreadCount, "system-client-%d");
+                    clientScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /* package */
+    static EventLanes getListenerLanes() {
+        EventLanes lanes = listenerLanes;
+        if (null == lanes) {
+            synchronized (SystemConfiguration.class) {
+                lanes = listenerLanes;
+                if (null == lanes) {
+                    lanes = new EventLanes(listenerLaneCount, "system-listener-lane-%d");
+                    listenerLanes = lanes;
+                }
+            }
+        }
+        return lanes;
+    }
+
+    private SystemConfiguration() {
+    }
+}
@@ -27,16 +27,29 @@ final class Transfer implements com.breadwallet.crypto.Transfer {
 
     /* package */
     static Transfer takeAndCreate(BRCryptoTransfer core, Wallet wallet) {
-        return Transfer.create(core.take(), wallet);
+        return INTERNED.intern(
+                core,
+                () -> Transfer.register(core.take(), wallet),
+                null);
     }
 
     /* package */
     static Transfer create(BRCryptoTransfer core, Wallet wallet) {
+        return INTERNED.intern(
+                core,
+                () -> Transfer.register(core, wallet),
+                // an existing transfer holds its own reference; give back the caller's
+                core::give);
+    }
+
+    private static Transfer register(BRCryptoTransfer core, Wallet wallet) {
         Transfer transfer = new Transfer(core, wallet);
         ReferenceCleaner.register(transfer, core::give);
         return transfer;
     }
 
+    private static final InternTable<Transfer> INTERNED = new InternTable<>();
+
     /* package */
     static Transfer from(com.breadwallet.crypto.Transfer transfer) {
         if (transfer == null) {
@@ -71,10 +84,10 @@ final class Transfer implements com.breadwallet.crypto.Transfer {
         this.unitForFeeSupplier = Suppliers.memoize(() -> Unit.create(core.getUnitForFee()));
         this.estimatedFeeBasisSupplier = Suppliers.memoize(() -> core.getEstimatedFeeBasis().transform(TransferFeeBasis::create));
 
-        this.sourceSupplier = Suppliers.memoize(() -> core.getSourceAddress().transform(Address::create));
-        this.targetSupplier = Suppliers.memoize(() -> core.getTargetAddress().transform(Address::create));
-        this.amountSupplier = Suppliers.memoize(() -> Amount.create(core.getAmount()));
-        this.directedSupplier = Suppliers.memoize(() -> Amount.create(core.getAmountDirected()));
+        this.sourceSupplier = Suppliers.memoize(() -> core.getSourceAddress().transform(Address::createShared));
+        this.targetSupplier = Suppliers.memoize(() -> core.getTargetAddress().transform(Address::createShared));
+        this.amountSupplier = Suppliers.memoize(() -> Amount.createShared(core.getAmount()));
+        this.directedSupplier = Suppliers.memoize(() -> Amount.createShared(core.getAmountDirected()));
         this.directionSupplier = Suppliers.memoize(() -> Utilities.transferDirectionFromCrypto(core.getDirection()));
 
         attributesSupplier = Suppliers.memoize(() -> {
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.corenative.crypto.BRCryptoClientTransferBundle;
+import com.breadwallet.corenative.crypto.BRCryptoTransferStateType;
+import com.breadwallet.corenative.support.BRConstants;
+import com.breadwallet.corenative.utility.NativeArena;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Transaction;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Transfer;
+import com.google.common.primitives.UnsignedLong;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Makes the transfer bundles of a `getTransfers` request, transaction by transaction.
+ *
+ * The request's addresses are hashed once.  Each transaction's transfers are matched to them in a
+ * single pass that also picks out the fee transfer, and the fee is then merged into the transfer
+ * it belongs to without further copies.  The buffers (for the matched transfers and the meta
+ * keys and values handed to the core) are reused from one transaction to the next; a builder is
+ * thus not thread-safe.
+ */
+/* package */
+abstract class TransferBundleBuilder<B> {
+
+    private static final String FEE_ADDRESS = "__fee__";
+
+    /**
+     * A builder making core bundles, with their arguments marshalled into `arena`.
+     */
+    /* package */
+    static TransferBundleBuilder<BRCryptoClientTransferBundle> create(NativeArena arena, List<String> addresses) {
+        return new TransferBundleBuilder<BRCryptoClientTransferBundle>(addresses) {
+            @Override
+            BRCryptoClientTransferBundle createBundle(BRCryptoTransferStateType status,
+                                                      Transaction transaction,
+                                                      Transfer transfer,
+                                                      @Nullable String fee,
+                                                      UnsignedLong blockTimestamp,
+                                                      UnsignedLong blockHeight,
+                                                      UnsignedLong blockConfirmations,
+                                                      UnsignedLong blockTransactionIndex,
+                                                      int metaCount,
+                                                      String[] metaKeys,
+                                                      String[] metaVals) {
+                return BRCryptoClientTransferBundle.create(
+                        arena,
+                        status,
+                        transaction.getHash(),
+                        transfer.getId(),
+                        transfer.getFromAddress().orNull(),
+                        transfer.getToAddress().orNull(),
+                        transfer.getAmount().getAmount(),
+                        transfer.getAmount().getCurrencyId(),
+                        fee,
+                        blockTimestamp,
+                        blockHeight,
+                        blockConfirmations,
+                        blockTransactionIndex,
+                        transaction.getHash(),
+                        metaCount,
+                        metaKeys,
+                        metaVals);
+            }
+        };
+    }
+
+    private final Set<String> addresses;
+
+    // Reused buffers
+    private final List<Transfer> matched = new ArrayList<>();
+    private String[] metaKeys = new String[8];
+    private String[] metaVals = new String[8];
+    private int metaCount = 0;
+
+    /* package */
+    TransferBundleBuilder(List<String> addresses) {
+        this.addresses = new HashSet<>(addresses);
+    }
+
+    /**
+     * Make the bundles for `transaction`'s transfers of the request's addresses.
+     */
+    /* package */
+    void addTransaction(Transaction transaction, List<B> bundles) {
+        matched.clear();
+
+        // Match, and pick out the fee, in one pass
+        Transfer transferWithFee = null;
+        for (Transfer transfer : transaction.getTransfers()) {
+            String from = transfer.getFromAddress().orNull();
+            String to = transfer.getToAddress().orNull();
+            if (!addresses.contains(from) && !addresses.contains(to)) continue;
+
+            if (FEE_ADDRESS.equals(to)) {
+                checkState(null == transferWithFee);
+                transferWithFee = transfer;
+            } else {
+                matched.add(transfer);
+            }
+        }
+
+        // The transfer to add a fee to: the first matching the fee's transaction, source and
+        // currency; otherwise the first matching its transaction and source; otherwise the fee
+        // itself, as a transfer to an 'unknown' target
+        String transferForFeeId = null;
+        if (null != transferWithFee) {
+            Transfer transferMatchingFee = null;
+            Transfer transferMatchingFeeAnyCurrency = null;
+            for (Transfer transfer : matched) {
+                if (transferWithFee.getTransactionId().equals(transfer.getTransactionId()) &&
+                        transferWithFee.getFromAddress().equals(transfer.getFromAddress())) {
+                    if (transferWithFee.getAmount().getCurrencyId().equals(transfer.getAmount().getCurrencyId())) {
+                        transferMatchingFee = transfer;
+                        break;
+                    }
+                    if (null == transferMatchingFeeAnyCurrency) {
+                        transferMatchingFeeAnyCurrency = transfer;
+                    }
+                }
+            }
+            if (null == transferMatchingFee) {
+                transferMatchingFee = transferMatchingFeeAnyCurrency;
+            }
+
+            if (null == transferMatchingFee) {
+                matched.add(Transfer.create(
+                        transferWithFee.getId(),
+                        transferWithFee.getBlockchainId(),
+                        transferWithFee.getIndex(),
+                        transferWithFee.getAmount(),
+                        transferWithFee.getMeta(),
+                        transferWithFee.getFromAddress().orNull(),
+                        "unknown",
+                        "0",
+                        transferWithFee.getAcknowledgements().orNull()));
+            }
+
+            transferForFeeId = (null != transferMatchingFee ? transferMatchingFee : transferWithFee).getId();
+        }
+
+        if (matched.isEmpty()) return;
+
+        UnsignedLong blockHeight    = transaction.getBlockHeight().or(BRConstants.BLOCK_HEIGHT_UNBOUND);
+        UnsignedLong blockTimestamp = transaction.getTimestamp().transform(Utilities::dateAsUnixTimestamp).or(UnsignedLong.ZERO);
+        UnsignedLong blockConfirmations = transaction.getConfirmations().or(UnsignedLong.ZERO);
+        UnsignedLong blockTransactionIndex = transaction.getIndex().or(UnsignedLong.ZERO);
+        BRCryptoTransferStateType status = System.getTransferStatus(transaction.getStatus());
+
+        for (Transfer transfer : matched) {
+            String fee = transfer.getId().equals(transferForFeeId) ? transferWithFee.getAmount().getAmount() : null;
+
+            // Merge Transfer 'meta' into Transaction' meta; duplicates from Transfer
+            setMeta(transaction.getMeta(), transfer.getMeta());
+
+            bundles.add(createBundle(
+                    status,
+                    transaction,
+                    transfer,
+                    fee,
+                    blockTimestamp,
+                    blockHeight,
+                    blockConfirmations,
+                    blockTransactionIndex,
+                    metaCount,
+                    metaKeys,
+                    metaVals));
+        }
+    }
+
+    /**
+     * Make a bundle; the meta arrays are reused once this returns, and hold `metaCount` entries.
+     */
+    abstract B createBundle(BRCryptoTransferStateType status,
+                            Transaction transaction,
+                            Transfer transfer,
+                            @Nullable String fee,
+                            UnsignedLong blockTimestamp,
+                            UnsignedLong blockHeight,
+                            UnsignedLong blockConfirmations,
+                            UnsignedLong blockTransactionIndex,
+                            int metaCount,
+                            String[] metaKeys,
+                            String[] metaVals);
+
+    private void setMeta(Map<String, String> transactionMeta, Map<String, String> transferMeta) {
+        int oldCount = metaCount;
+        metaCount = 0;
+
+        for (Map.Entry<String, String> entry : transactionMeta.entrySet()) {
+            appendMeta(entry.getKey(), entry.getValue());
+        }
+
+        int transactionCount = metaCount;
+        for (Map.Entry<String, String> entry : transferMeta.entrySet()) {
+            int index = indexOfMeta(entry.getKey(), transactionCount);
+            if (-1 == index) {
+                appendMeta(entry.getKey(), entry.getValue());
+            } else {
+                metaVals[index] = entry.getValue();
+            }
+        }
+
+        // Clear what's left of a longer meta, so that it is neither marshalled nor retained
+        if (metaCount < oldCount) {
+            Arrays.fill(metaKeys, metaCount, oldCount, null);
+            Arrays.fill(metaVals, metaCount, oldCount, null);
+        }
+    }
+
+    private void appendMeta(String key, String val) {
+        if (metaCount == metaKeys.length) {
+            metaKeys = Arrays.copyOf(metaKeys, 2 * metaCount);
+            metaVals = Arrays.copyOf(metaVals, 2 * metaCount);
+        }
+        metaKeys[metaCount] = key;
+        metaVals[metaCount] = val;
+        metaCount += 1;
+    }
+
+    private int indexOfMeta(String key, int count) {
+        for (int i = 0; i < count; i++) {
+            if (metaKeys[i].equals(key)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corecrypto;
+
+import com.breadwallet.corenative.crypto.BRCryptoTransferDirection;
+import com.breadwallet.corenative.crypto.BRCryptoTransferStateType;
+import com.breadwallet.crypto.TransferDirection;
+import com.breadwallet.crypto.TransferState;
+import com.google.common.base.Optional;
+import com.google.common.primitives.UnsignedLong;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The fields of a transfer, as read in bulk (for all of a wallet's transfers) from a single
+ * snapshot made by the core rather than each with its own native call, as `Transfer` does.
+ *
+ * Amounts are in the base unit of the transfer's unit (for the amount) or unit for fee (for the
+ * fee).  A snapshot is not updated as the transfer changes.
+ */
+public final class TransferSnapshot {
+
+    /**
+     * Snapshots of the transfers of `wallet`.
+     */
+    public static List<TransferSnapshot> of(com.breadwallet.crypto.Wallet wallet) {
+        return Wallet.from(wallet).getTransferSnapshots();
+    }
+
+    private static final int ATTRIBUTE_REQUIRED  = 0x01;
+    private static final int ATTRIBUTE_HAS_VALUE = 0x02;
+
+    /**
+     * Read the snapshots of `transfers`, from `snapshot` as laid out by `cryptoTransferSnapshotCreate`.
+     */
+    /* package */
+    static List<TransferSnapshot> read(List<Transfer> transfers, ByteBuffer snapshot) {
+        int count = (int) snapshot.getLong(0);
+        checkArgument(count == transfers.size());
+
+        int dataOffset = (int) snapshot.getLong(8);
+        byte[] data = new byte[snapshot.limit() - dataOffset];
+        snapshot.position(dataOffset);
+        snapshot.get(data);
+
+        // The columns' offsets
+        int blockNumbers       = 16;
+        int transactionIndexes = blockNumbers + 8 * count;
+        int timestamps         = transactionIndexes + 8 * count;
+        int stateTypes         = timestamps + 8 * count;
+        int directions         = stateTypes + 4 * count;
+        int successes          = directions + 4 * count;
+        int attributeCounts    = successes + 4 * count;
+        int hashes             = attributeCounts + 4 * count;
+        int sourceAddresses    = hashes + 4 * count;
+        int targetAddresses    = sourceAddresses + 4 * count;
+        int amounts            = targetAddresses + 4 * count;
+        int fees               = amounts + 4 * count;
+        int errors             = fees + 4 * count;
+        int attributes         = errors + 4 * count;
+        checkArgument(attributes + 4 * count == dataOffset);
+
+        List<TransferSnapshot> snapshots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            snapshots.add(new TransferSnapshot(
+                    transfers.get(i),
+                    readString(data, snapshot.getInt(hashes + 4 * i)),
+                    readString(data, snapshot.getInt(sourceAddresses + 4 * i)),
+                    readString(data, snapshot.getInt(targetAddresses + 4 * i)),
+                    readInteger(data, snapshot.getInt(amounts + 4 * i)).or(BigInteger.ZERO),
+                    readInteger(data, snapshot.getInt(fees + 4 * i)),
+                    Utilities.transferDirectionFromCrypto(BRCryptoTransferDirection.fromCore(snapshot.getInt(directions + 4 * i))),
+                    transferStateTypeFromCrypto(BRCryptoTransferStateType.fromCore(snapshot.getInt(stateTypes + 4 * i))),
+                    UnsignedLong.fromLongBits(snapshot.getLong(blockNumbers + 8 * i)),
+                    UnsignedLong.fromLongBits(snapshot.getLong(transactionIndexes + 8 * i)),
+                    UnsignedLong.fromLongBits(snapshot.getLong(timestamps + 8 * i)),
+                    0 != snapshot.getInt(successes + 4 * i),
+                    readString(data, snapshot.getInt(errors + 4 * i)),
+                    readAttributes(data, snapshot.getInt(attributes + 4 * i), snapshot.getInt(attributeCounts + 4 * i))));
+        }
+        return snapshots;
+    }
+
+    private static TransferState.Type transferStateTypeFromCrypto(BRCryptoTransferStateType type) {
+        switch (type) {
+            case CRYPTO_TRANSFER_STATE_CREATED: return TransferState.Type.CREATED;
+            case CRYPTO_TRANSFER_STATE_SIGNED: return TransferState.Type.SIGNED;
+            case CRYPTO_TRANSFER_STATE_SUBMITTED: return TransferState.Type.SUBMITTED;
+            case CRYPTO_TRANSFER_STATE_INCLUDED: return TransferState.Type.INCLUDED;
+            case CRYPTO_TRANSFER_STATE_ERRORED: return TransferState.Type.FAILED;
+            case CRYPTO_TRANSFER_STATE_DELETED: return TransferState.Type.DELETED;
+            default: throw new IllegalArgumentException("Unsupported state");
+        }
+    }
+
+    private static Optional<String> readString(byte[] data, int offset) {
+        if (-1 == offset) return Optional.absent();
+
+        int end = offset;
+        while (0 != data[end]) end++;
+        return Optional.of(new String(data, offset, end - offset, StandardCharsets.UTF_8));
+    }
+
+    private static Optional<BigInteger> readInteger(byte[] data, int offset) {
+        return readString(data, offset).transform(BigInteger::new);
+    }
+
+    private static List<Attribute> readAttributes(byte[] data, int offset, int count) {
+        if (0 == count) return Collections.emptyList();
+
+        List<Attribute> attributes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int flags = data[offset++];
+
+            String key = readString(data, offset).get();
+            offset += lengthOf(data, offset);
+
+            Optional<String> value = Optional.absent();
+            if (0 != (flags & ATTRIBUTE_HAS_VALUE)) {
+                value = readString(data, offset);
+                offset += lengthOf(data, offset);
+            }
+
+            attributes.add(new Attribute(key, value, 0 != (flags & ATTRIBUTE_REQUIRED)));
+        }
+        return Collections.unmodifiableList(attributes);
+    }
+
+    // The length, with its terminator, of the string at `offset`
+    private static int lengthOf(byte[] data, int offset) {
+        int end = offset;
+        while (0 != data[end]) end++;
+        return end - offset + 1;
+    }
+
+    /**
+     * A transfer attribute, as of the snapshot.
+     */
+    public static final class Attribute {
+
+        private final String key;
+        private final Optional<String> value;
+        private final boolean isRequired;
+
+        private Attribute(String key, Optional<String> value, boolean isRequired) {
+            this.key = key;
+            this.value = value;
+            this.isRequired = isRequired;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Optional<String> getValue() {
+            return value;
+        }
+
+        public boolean isRequired() {
+            return isRequired;
+        }
+    }
+
+    private final Transfer transfer;
+    private final Optional<String> hash;
+    private final Optional<String> source;
+    private final Optional<String> target;
+    private final BigInteger amount;
+    private final Optional<BigInteger> fee;
+    private final TransferDirection direction;
+    private final TransferState.Type stateType;
+    private final UnsignedLong blockNumber;
+    private final UnsignedLong transactionIndex;
+    private final UnsignedLong timestamp;
+    private final boolean success;
+    private final Optional<String> error;
+    private final List<Attribute> attributes;
+
+    private TransferSnapshot(Transfer transfer,
+                             Optional<String> hash,
+                             Optional<String> source,
+                             Optional<String> target,
+                             BigInteger amount,
+                             Optional<BigInteger> fee,
+                             TransferDirection direction,
+                             TransferState.Type stateType,
+                             UnsignedLong blockNumber,
+                             UnsignedLong transactionIndex,
+                             UnsignedLong timestamp,
+                             boolean success,
+                             Optional<String> error,
+                             List<Attribute> attributes) {
+        this.transfer = transfer;
+        this.hash = hash;
+        this.source = source;
+        this.target = target;
+        this.amount = amount;
+        this.fee = fee;
+        this.direction = direction;
+        this.stateType = stateType;
+        this.blockNumber = blockNumber;
+        this.transactionIndex = transactionIndex;
+        this.timestamp = timestamp;
+        this.success = success;
+        this.error = error;
+        this.attributes = attributes;
+    }
+
+    /**
+     * The transfer, for anything not in the snapshot.
+     */
+    public com.breadwallet.crypto.Transfer getTransfer() {
+        return transfer;
+    }
+
+    /**
+     * The hash, as would be `TransferHash.toString()`.
+     */
+    public Optional<String> getHash() {
+        return hash;
+    }
+
+    public Optional<String> getSource() {
+        return source;
+    }
+
+    public Optional<String> getTarget() {
+        return target;
+    }
+
+    public BigInteger getAmount() {
+        return amount;
+    }
+
+    /**
+     * The amount, negated if sent and zero if recovered; as is `Transfer.getAmountDirected()`.
+     */
+    public BigInteger getAmountDirected() {
+        switch (direction) {
+            case SENT: return amount.negate();
+            case RECOVERED: return BigInteger.ZERO;
+            default: return amount;
+        }
+    }
+
+    /**
+     * The fee, if paid in the amount's currency.
+     */
+    public Optional<BigInteger> getFee() {
+        return fee;
+    }
+
+    public TransferDirection getDirection() {
+        return direction;
+    }
+
+    public TransferState.Type getStateType() {
+        return stateType;
+    }
+
+    /**
+     * The block number, if included.
+     */
+    public Optional<UnsignedLong> getBlockNumber() {
+        return isIncluded() ? Optional.of(blockNumber) : Optional.absent();
+    }
+
+    /**
+     * The transaction index, if included.
+     */
+    public Optional<UnsignedLong> getTransactionIndex() {
+        return isIncluded() ? Optional.of(transactionIndex) : Optional.absent();
+    }
+
+    /**
+     * The timestamp, in seconds, if included.
+     */
+    public Optional<UnsignedLong> getTimestamp() {
+        return isIncluded() ? Optional.of(timestamp) : Optional.absent();
+    }
+
+    /**
+     * If included, whether successfully.
+     */
+    public boolean isSuccess() {
+        return isIncluded() && success;
+    }
+
+    /**
+     * The error, if included but not successfully.
+     */
+    public Optional<String> getError() {
+        return error;
+    }
+
+    public List<Attribute> getAttributes() {
+        return attributes;
+    }
+
+    private boolean isIncluded() {
+        return TransferState.Type.INCLUDED == stateType;
+    }
+}
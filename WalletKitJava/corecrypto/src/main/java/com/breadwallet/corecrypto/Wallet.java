@@ -30,6 +30,7 @@ import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.primitives.UnsignedLong;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -45,16 +46,29 @@ final class Wallet implements com.breadwallet.crypto.Wallet {
 
     /* package */
     static Wallet takeAndCreate(BRCryptoWallet core, WalletManager walletManager, SystemCallbackCoordinator callbackCoordinator) {
-        return Wallet.create(core.take(), walletManager, callbackCoordinator);
+        return INTERNED.intern(
+                core,
+                () -> Wallet.register(core.take(), walletManager, callbackCoordinator),
+                null);
     }
 
     /* package */
     static Wallet create(BRCryptoWallet core, WalletManager walletManager, SystemCallbackCoordinator callbackCoordinator) {
+        return INTERNED.intern(
+                core,
+                () -> Wallet.register(core, walletManager, callbackCoordinator),
+                // an existing wallet holds its own reference; give back the caller's
+                core::give);
+    }
+
+    private static Wallet register(BRCryptoWallet core, WalletManager walletManager, SystemCallbackCoordinator callbackCoordinator) {
         Wallet wallet = new Wallet(core, walletManager, callbackCoordinator);
         ReferenceCleaner.register(wallet, core::give);
         return wallet;
     }
 
+    private static final InternTable<Wallet> INTERNED = new InternTable<>();
+
     /* package */
     static Wallet from(com.breadwallet.crypto.Wallet wallet) {
         if (wallet == null) {
@@ -341,6 +355,23 @@ final class Wallet implements com.breadwallet.crypto.Wallet {
         return transfers;
     }
 
+    /**
+     * Snapshots of the wallet's transfers, read with a pair of native calls rather than a call per
+     * transfer field.
+     */
+    /* package */
+    List<TransferSnapshot> getTransferSnapshots() {
+        List<BRCryptoTransfer> coreTransfers = new ArrayList<>();
+        ByteBuffer snapshot = core.getTransfersSnapshot(coreTransfers);
+
+        List<Transfer> transfers = new ArrayList<>(coreTransfers.size());
+        for (BRCryptoTransfer transfer: coreTransfers) {
+            transfers.add(Transfer.create(transfer, this));
+        }
+
+        return TransferSnapshot.read(transfers, snapshot);
+    }
+
     @Override
     public Optional<Transfer> getTransferByHash(com.breadwallet.crypto.TransferHash hash) {
         List<Transfer> transfers = getTransfers();
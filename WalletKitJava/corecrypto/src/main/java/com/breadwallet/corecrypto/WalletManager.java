@@ -12,6 +12,7 @@ import android.support.annotation.Nullable;
 import com.breadwallet.corenative.cleaner.ReferenceCleaner;
 import com.breadwallet.corenative.crypto.BRCryptoClient;
 import com.breadwallet.corenative.crypto.BRCryptoListener;
+import com.breadwallet.corenative.crypto.BRCryptoPeer;
 import com.breadwallet.corenative.crypto.BRCryptoWallet;
 import com.breadwallet.corenative.crypto.BRCryptoWalletManager;
 import com.breadwallet.crypto.AddressScheme;
@@ -27,6 +28,7 @@ import com.google.common.base.Suppliers;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.base.Preconditions.checkState;
 
@@ -64,23 +66,45 @@ final class WalletManager implements com.breadwallet.crypto.WalletManager {
 
     /* package */
     static WalletManager create (BRCryptoWalletManager core, boolean needTake, System system, SystemCallbackCoordinator callbackCoordinator) {
-        WalletManager manager = new WalletManager(
-                (needTake ? core.take() : core),
-                system,
-                callbackCoordinator);
-        ReferenceCleaner.register(manager, core::give);
-        return manager;
+        return INTERNED.intern(
+                core,
+                () -> {
+                    WalletManager manager = new WalletManager(
+                            (needTake ? core.take() : core),
+                            system,
+                            callbackCoordinator);
+                    ReferenceCleaner.register(manager, core::give);
+                    return manager;
+                },
+                // an existing manager holds its own reference; give back the caller's
+                (needTake ? null : core::give));
+    }
+
+    private static final InternTable<WalletManager> INTERNED = new InternTable<>();
+
+    /* package */
+    static WalletManager from(com.breadwallet.crypto.WalletManager walletManager) {
+        if (walletManager == null) {
+            return null;
+        }
+
+        if (walletManager instanceof WalletManager) {
+            return (WalletManager) walletManager;
+        }
+
+        throw new IllegalArgumentException("Unsupported wallet manager instance");
     }
 
     private BRCryptoWalletManager core;
     private final System system;
     private final SystemCallbackCoordinator callbackCoordinator;
 
+    private final AtomicInteger syncGeneration = new AtomicInteger(0);
+
     private final Supplier<Account> accountSupplier;
     private final Supplier<Network> networkSupplier;
     private final Supplier<Currency> networkCurrencySupplier;
     private final Supplier<String> pathSupplier;
-    private final Supplier<NetworkFee> networkFeeSupplier;
     private final Supplier<Unit> networkBaseUnitSupplier;
     private final Supplier<Unit> networkDefaultUnitSupplier;
 
@@ -94,7 +118,6 @@ final class WalletManager implements com.breadwallet.crypto.WalletManager {
         this.networkCurrencySupplier = Suppliers.memoize(() -> getNetwork().getCurrency());
         this.pathSupplier = Suppliers.memoize(core::getPath);
 
-        this.networkFeeSupplier = Suppliers.memoize(() -> getNetwork().getMinimumFee());
         this.networkBaseUnitSupplier = Suppliers.memoize(() -> {
             Optional<Unit> maybeUnit = getNetwork().baseUnitFor(getCurrency());
             checkState(maybeUnit.isPresent());
@@ -117,17 +140,22 @@ final class WalletManager implements com.breadwallet.crypto.WalletManager {
     @Override
     public void connect(@Nullable com.breadwallet.crypto.NetworkPeer peer) {
         checkState(null == peer || getNetwork().equals(peer.getNetwork()));
-        core.connect(peer == null ? null : NetworkPeer.from(peer).getBRCryptoPeer());
+        BRCryptoPeer corePeer = peer == null ? null : NetworkPeer.from(peer).getBRCryptoPeer();
+
+        WalletManagerState.Type type = getState().getType();
+        requestSync(type == WalletManagerState.Type.CREATED || type == WalletManagerState.Type.DISCONNECTED,
+                () -> core.connect(corePeer));
     }
 
     @Override
     public void disconnect() {
+        syncGeneration.incrementAndGet();
         core.disconnect();
     }
 
     @Override
     public void sync() {
-        core.sync();
+        requestSync(getState().getType() == WalletManagerState.Type.CONNECTED, core::sync);
     }
 
     @Override
@@ -137,7 +165,30 @@ final class WalletManager implements com.breadwallet.crypto.WalletManager {
 
     @Override
     public void syncToDepth(WalletManagerSyncDepth depth) {
-        core.syncToDepth(Utilities.syncDepthToCrypto(depth));
+        requestSync(getState().getType() == WalletManagerState.Type.CONNECTED,
+                () -> core.syncToDepth(Utilities.syncDepthToCrypto(depth)));
+    }
+
+    /**
+     * Run `start`, which begins a P2P sync if `startsSync`, once the sync scheduler admits it; the
+     * sync then ends on the manager's `SYNC_STOPPED` or disconnect.  An API sync is admitted as its
+     * requests are made, rather than here, so `start` runs at once.  A `start` still waiting when
+     * the manager is disconnected is dropped.
+     */
+    private void requestSync(boolean startsSync, Runnable start) {
+        if (!startsSync || WalletManagerMode.P2P_ONLY != getMode()) {
+            start.run();
+            return;
+        }
+
+        int generation = syncGeneration.get();
+        SystemConfiguration.getSyncScheduler().request(core, completion -> {
+            if (generation == syncGeneration.get()) {
+                start.run();
+            } else {
+                completion.complete();
+            }
+        });
     }
 
     /* package */
@@ -251,7 +302,8 @@ final class WalletManager implements com.breadwallet.crypto.WalletManager {
 
     @Override
     public NetworkFee getDefaultNetworkFee() {
-        return networkFeeSupplier.get();
+        // not memoized, as the network's fees change with `updateNetworkFees`
+        return getNetwork().getMinimumFee();
     }
 
     @Override
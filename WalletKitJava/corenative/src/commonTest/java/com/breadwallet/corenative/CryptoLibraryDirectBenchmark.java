@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corenative;
+
+import com.breadwallet.corenative.crypto.BRCryptoTransferStateType;
+import com.breadwallet.corenative.utility.NativeArena;
+import com.breadwallet.corenative.utility.SizeT;
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares creating transfer bundles through the interface mapped
+ * `cryptoClientTransferBundleCreate` (as `CryptoLibraryIndirect` did) against the directly mapped
+ * one, with its arguments marshalled into a `NativeArena` (one per bundle, and one reset per
+ * bundle): the time and the bytes allocated per bundle. Requires the native library. Skipped unless
+ * run with `-Pbenchmark`; the figures are printed rather than asserted beyond 'direct allocates
+ * less'.
+ */
+public class CryptoLibraryDirectBenchmark {
+
+    private static final int BUNDLES_PER_ITERATION = 10_000;
+    private static final int WARMUP_ITERATIONS     = 5;
+    private static final int MEASURE_ITERATIONS    = 10;
+
+    private static final String[] META_KEYS = { "gasPrice", "gasLimit", "nonce", "gasUsed", "token" };
+    private static final String[] META_VALS = { "1000000000", "21000", "0", "21000", "usdt" };
+
+    private interface Creator {
+        Pointer create(int index);
+    }
+
+    // The prior interface mapping
+    private interface IndirectLibrary extends Library {
+        IndirectLibrary INSTANCE = Native.load(CryptoLibrary.LIBRARY_NAME, IndirectLibrary.class);
+
+        Pointer cryptoClientTransferBundleCreate(int status,
+                                                 String hash,
+                                                 String uids,
+                                                 String sourceAddr,
+                                                 String targetAddr,
+                                                 String amount,
+                                                 String currency,
+                                                 String fee,
+                                                 long blockTimestamp,
+                                                 long blockHeight,
+                                                 long blockConfirmations,
+                                                 long blockTransactionIndex,
+                                                 String blockHash,
+                                                 SizeT attributesCount,
+                                                 String[] attributeKeys,
+                                                 String[] attributeVals);
+    }
+
+    @BeforeClass
+    public static void checkEnabled() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+    }
+
+    @Test
+    public void testDirectAllocatesLessThanIndirect() {
+        int status = BRCryptoTransferStateType.CRYPTO_TRANSFER_STATE_INCLUDED.toCore();
+
+        Creator indirect = i -> IndirectLibrary.INSTANCE.cryptoClientTransferBundleCreate(status,
+                "0xhash", "0xhash:" + i, "0xsource", "0xtarget", "1000", "ethereum-mainnet:__native__", "21000",
+                1_577_836_800L, 9_000_000L + i, 12L, 0L, "0xblock",
+                new SizeT(META_KEYS.length), META_KEYS, META_VALS);
+
+        Creator direct = i -> {
+            try (NativeArena arena = new NativeArena(1024)) {
+                return createDirect(arena, status, i);
+            }
+        };
+
+        NativeArena reused = new NativeArena();
+        Creator directReused = i -> {
+            reused.reset();
+            return createDirect(reused, status, i);
+        };
+
+        long[] indirectResult = measure(indirect);
+        long[] directResult   = measure(direct);
+        long[] reusedResult   = measure(directReused);
+        reused.close();
+
+        java.lang.System.out.println(String.format(
+                "Create %d bundles: indirect %.0f ns, %d B per bundle; direct %.0f ns, %d B per bundle; " +
+                        "direct, reused arena %.0f ns, %d B per bundle",
+                BUNDLES_PER_ITERATION,
+                indirectResult[0] / (double) BUNDLES_PER_ITERATION, indirectResult[1] / BUNDLES_PER_ITERATION,
+                directResult[0] / (double) BUNDLES_PER_ITERATION, directResult[1] / BUNDLES_PER_ITERATION,
+                reusedResult[0] / (double) BUNDLES_PER_ITERATION, reusedResult[1] / BUNDLES_PER_ITERATION));
+
+        assertTrue(directResult[1] < indirectResult[1]);
+        assertTrue(reusedResult[1] < directResult[1]);
+    }
+
+    private static Pointer createDirect(NativeArena arena, int status, int index) {
+        return CryptoLibraryDirect.cryptoClientTransferBundleCreate(status,
+                arena.string("0xhash"), arena.string("0xhash:" + index), arena.string("0xsource"),
+                arena.string("0xtarget"), arena.string("1000"), arena.string("ethereum-mainnet:__native__"),
+                arena.string("21000"), 1_577_836_800L, 9_000_000L + index, 12L, 0L, arena.string("0xblock"),
+                new SizeT(META_KEYS.length), arena.strings(META_KEYS.length, META_KEYS),
+                arena.strings(META_VALS.length, META_VALS));
+    }
+
+    // Returns the mean nanoseconds and bytes allocated per iteration
+    private static long[] measure(Creator creator) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            createAndRelease(creator);
+        }
+
+        long beforeBytes = bean.getThreadAllocatedBytes(thread);
+        long beforeNanos = java.lang.System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            createAndRelease(creator);
+        }
+        long nanos = java.lang.System.nanoTime() - beforeNanos;
+        long bytes = bean.getThreadAllocatedBytes(thread) - beforeBytes;
+
+        return new long[] { nanos / MEASURE_ITERATIONS, bytes / MEASURE_ITERATIONS };
+    }
+
+    private static void createAndRelease(Creator creator) {
+        for (int i = 0; i < BUNDLES_PER_ITERATION; i++) {
+            Pointer bundle = creator.create(i);
+            assertNotNull(bundle);
+            CryptoLibraryDirect.cryptoClientTransferBundleRelease(bundle);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corenative.utility;
+
+import com.sun.jna.Callback;
+import com.sun.jna.CallbackReference;
+import com.sun.jna.Function;
+import com.sun.jna.Memory;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares callbacks from native threads with JNA's default attach/detach on every call against
+ * those `CallbackThreads.attach`ed: the time per call and the number of attaches.
+ *
+ * The core library is not required; the callbacks are driven by libc. Each native thread is created
+ * with `dl_iterate_phdr` as its start routine and the callback as its argument, so that the
+ * callback is called once per loaded object (some tens of times) on a thread, much as the core
+ * calls back on its (long lived) threads. Linux only. Skipped unless run with `-Pbenchmark`; the
+ * figures are printed rather than asserted beyond 'attached is faster and attaches at most once per
+ * thread'.
+ */
+public class CallbackThreadsBenchmark {
+
+    private static final int THREADS_PER_ITERATION = 200;
+    private static final int WARMUP_ITERATIONS     = 2;
+    private static final int MEASURE_ITERATIONS    = 5;
+
+    // As `dl_iterate_phdr` calls back
+    public interface PhdrCallback extends Callback {
+        int callback(Pointer info, Pointer size, Pointer data);
+    }
+
+    private static final AtomicLong CALLS = new AtomicLong();
+
+    @BeforeClass
+    public static void checkEnabled() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+    }
+
+    @Test
+    public void testAttachedCallbacks() {
+        Assume.assumeTrue(Platform.isLinux());
+
+        NativeLibrary libc = NativeLibrary.getInstance(Platform.C_LIBRARY_NAME);
+        Function create = libc.getFunction("pthread_create");
+        Function join = libc.getFunction("pthread_join");
+        Function iterate = libc.getFunction("dl_iterate_phdr");
+
+        PhdrCallback detached = (info, size, data) -> call("Detached");
+
+        CallbackThreads.setPersistent(true);
+        PhdrCallback attached = CallbackThreads.attach((info, size, data) -> call("Attached"), "Attached");
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            run(create, join, iterate, detached);
+            run(create, join, iterate, attached);
+        }
+
+        long detachedNanos = 0;
+        long attachedNanos = 0;
+        long attachedCalls = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            detachedNanos += run(create, join, iterate, detached)[0];
+
+            long[] result = run(create, join, iterate, attached);
+            attachedNanos += result[0];
+            attachedCalls += result[1];
+        }
+        long calls = attachedCalls / MEASURE_ITERATIONS;
+
+        CallbackThreads.Stats stats = CallbackThreads.getStats().get("Attached");
+        long threads = (long) (WARMUP_ITERATIONS + MEASURE_ITERATIONS) * THREADS_PER_ITERATION;
+
+        System.out.println(String.format("calls per iteration: %d on %d threads", calls, THREADS_PER_ITERATION));
+        System.out.println(String.format("detached: %8d ns/call", detachedNanos / attachedCalls));
+        System.out.println(String.format("attached: %8d ns/call, %d attaches for %d calls, %d ns mean in Java",
+                attachedNanos / attachedCalls, stats.getAttachCount(), stats.getCount(), stats.getMeanNanos()));
+
+        assertTrue(calls >= THREADS_PER_ITERATION);
+        assertTrue(stats.getAttachCount() <= threads);
+        assertTrue(attachedNanos < detachedNanos);
+    }
+
+    private static int call(String name) {
+        long enterNanos = CallbackThreads.enter();
+        try {
+            CALLS.incrementAndGet();
+            return 0;
+        } finally {
+            CallbackThreads.exit(name, enterNanos);
+        }
+    }
+
+    // Returns the nanoseconds taken and the calls made
+    private static long[] run(Function create, Function join, Function iterate, PhdrCallback callback) {
+        Pointer function = CallbackReference.getFunctionPointer(callback);
+
+        CALLS.set(0);
+        long start = java.lang.System.nanoTime();
+        for (int i = 0; i < THREADS_PER_ITERATION; i++) {
+            Memory thread = new Memory(Long.BYTES);
+            assertEquals(0, create.invokeInt(new Object[] { thread, null, iterate, function }));
+            assertEquals(0, join.invokeInt(new Object[] { thread.getNativeLong(0), null }));
+        }
+        return new long[] { java.lang.System.nanoTime() - start, CALLS.get() };
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corenative.utility;
+
+import com.sun.jna.Callback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CallbackThreadsTest {
+
+    // The stats are process-wide, so each test records under its own callback names
+
+    private interface TestCallback extends Callback {
+        void callback();
+    }
+
+    private static long millisAgo(long millis) {
+        return java.lang.System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    public void testCallsAreRecordedByName() {
+        String name = "testCallsAreRecordedByName";
+        String otherName = name + ".other";
+        assertNull(CallbackThreads.getStats().get(name));
+
+        CallbackThreads.exit(name, millisAgo(10));
+        CallbackThreads.exit(name, millisAgo(30));
+        CallbackThreads.exit(otherName, CallbackThreads.enter());
+
+        CallbackThreads.Stats stats = CallbackThreads.getStats().get(name);
+        assertEquals(2, stats.getCount());
+        assertTrue(stats.getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(30));
+        assertTrue(stats.getMeanNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(stats.getMeanNanos() < stats.getMaxNanos());
+
+        // calls made in Java attach nothing
+        assertEquals(0, stats.getAttachCount());
+
+        assertEquals(1, CallbackThreads.getStats().get(otherName).getCount());
+    }
+
+    @Test
+    public void testStatsAreASnapshot() {
+        String name = "testStatsAreASnapshot";
+        CallbackThreads.exit(name, CallbackThreads.enter());
+
+        CallbackThreads.Stats stats = CallbackThreads.getStats().get(name);
+        CallbackThreads.exit(name, CallbackThreads.enter());
+
+        assertEquals(1, stats.getCount());
+        assertEquals(2, CallbackThreads.getStats().get(name).getCount());
+    }
+
+    @Test
+    public void testConcurrentCallsAreAllCounted() throws Exception {
+        String name = "testConcurrentCallsAreAllCounted";
+        int threadCount = 8;
+        int callCount = 10_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < callCount; i++) {
+                        // one call, on one thread, takes longest
+                        long enterNanos = (0 == thread && callCount / 2 == i) ? millisAgo(50) : CallbackThreads.enter();
+                        CallbackThreads.exit(name, enterNanos);
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CallbackThreads.Stats stats = CallbackThreads.getStats().get(name);
+        assertEquals(threadCount * callCount, stats.getCount());
+        assertTrue(stats.getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(stats.getMeanNanos() < TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testAttachReturnsCallback() {
+        boolean persistent = CallbackThreads.isPersistent();
+        try {
+            TestCallback callback = () -> {};
+            assertSame(callback, CallbackThreads.attach(callback, "testAttachReturnsCallback"));
+
+            // an attached callback is listed before its first call
+            CallbackThreads.Stats stats = CallbackThreads.getStats().get("testAttachReturnsCallback");
+            assertEquals(0, stats.getCount());
+            assertEquals(0, stats.getMeanNanos());
+
+            CallbackThreads.setPersistent(false);
+            assertFalse(CallbackThreads.isPersistent());
+            assertSame(callback, CallbackThreads.attach(callback, "testAttachReturnsCallback.detached"));
+            assertNull(CallbackThreads.getStats().get("testAttachReturnsCallback.detached"));
+        } finally {
+            CallbackThreads.setPersistent(persistent);
+        }
+    }
+}
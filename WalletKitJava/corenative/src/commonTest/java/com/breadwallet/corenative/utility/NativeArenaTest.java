@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corenative.utility;
+
+import com.google.common.base.Strings;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class NativeArenaTest {
+
+    private static void assertString(String expected, Pointer pointer) {
+        byte[] bytes = expected.getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(bytes, pointer.getByteArray(0, bytes.length));
+        assertEquals(0, pointer.getByte(bytes.length));
+    }
+
+    @Test
+    public void testStringsAreUtf8EncodedAndTerminated() {
+        try (NativeArena arena = new NativeArena()) {
+            for (String string : new String[] {
+                    "",
+                    "ascii",
+                    "café",                    // two bytes
+                    "€100",                    // three bytes
+                    "😀 smile",                // a surrogate pair, four bytes
+                    "lone \ud83d surrogate",   // encoded as '?', as by String.getBytes
+                    Strings.repeat("€", 1000)  // beyond the initial encoding buffer
+            }) {
+                assertString(string, arena.string(string));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyArgumentsAreNull() {
+        try (NativeArena arena = new NativeArena()) {
+            assertNull(arena.string(null));
+            assertNull(arena.bytes(new byte[0]));
+            assertNull(arena.strings(0, new String[] { "unused" }));
+            assertEquals(0, arena.getSize());
+        }
+    }
+
+    @Test
+    public void testBytesAreCopied() {
+        try (NativeArena arena = new NativeArena()) {
+            byte[] bytes = { 1, 2, 3, 0, -1 };
+            Pointer pointer = arena.bytes(bytes);
+
+            bytes[0] = 9;
+            assertArrayEquals(new byte[] { 1, 2, 3, 0, -1 }, pointer.getByteArray(0, 5));
+        }
+    }
+
+    @Test
+    public void testStringArrayHoldsFirstCountStrings() {
+        try (NativeArena arena = new NativeArena()) {
+            // misalign the arena before allocating the array
+            arena.string("x");
+
+            Pointer array = arena.strings(2, new String[] { "key", "€", "ignored" });
+            assertEquals(0, Pointer.nativeValue(array) % Native.POINTER_SIZE);
+
+            assertString("key", array.getPointer(0));
+            assertString("€", array.getPointer(Native.POINTER_SIZE));
+        }
+    }
+
+    @Test
+    public void testAllocationsShareChunks() {
+        try (NativeArena arena = new NativeArena(64)) {
+            Pointer first = arena.string("0123456789");
+            Pointer second = arena.string("0123456789");
+            assertEquals(64, arena.getSize());
+            assertEquals(11, Pointer.nativeValue(second) - Pointer.nativeValue(first));
+
+            // one that doesn't fit starts a new chunk; one larger than a chunk gets its own
+            arena.bytes(new byte[50]);
+            assertEquals(128, arena.getSize());
+            arena.bytes(new byte[100]);
+            assertEquals(228, arena.getSize());
+
+            assertString("0123456789", first);
+        }
+    }
+
+    @Test
+    public void testResetKeepsFirstChunk() {
+        try (NativeArena arena = new NativeArena(64)) {
+            Pointer first = arena.string("first");
+            arena.bytes(new byte[100]);
+            assertEquals(164, arena.getSize());
+
+            arena.reset();
+            assertEquals(64, arena.getSize());
+
+            // allocation starts over in the first chunk
+            assertEquals(Pointer.nativeValue(first), Pointer.nativeValue(arena.string("again")));
+        }
+    }
+
+    @Test
+    public void testClosedArenaIsUnusable() {
+        NativeArena arena = new NativeArena();
+        arena.string("string");
+
+        arena.close();
+        arena.close();
+        assertEquals(0, arena.getSize());
+
+        try {
+            arena.string("string");
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        try {
+            arena.reset();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
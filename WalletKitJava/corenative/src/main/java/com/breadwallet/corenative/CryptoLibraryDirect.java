@@ -250,6 +250,7 @@ public final class CryptoLibraryDirect {
 
     public static native SizeT cryptoTransferGetAttributeCount(Pointer transfer);
     public static native Pointer cryptoTransferGetAttributeAt(Pointer transfer, SizeT index);
+    public static native Pointer cryptoTransferSnapshotCreate(Pointer transfers, SizeT transfersCount, SizeTByReference snapshotSize);
 
     public static native int cryptoTransferEqual(Pointer transfer, Pointer other);
     public static native Pointer cryptoTransferTake(Pointer obj);
@@ -300,7 +301,7 @@ public final class CryptoLibraryDirect {
     public static native Pointer cryptoWalletGetUnit(Pointer wallet);
     public static native Pointer cryptoWalletGetUnitForFee(Pointer wallet);
     public static native Pointer cryptoWalletGetCurrency(Pointer wallet);
-    // INDIRECT: public static native Pointer cryptoWalletCreateTransfer(Pointer wallet, Pointer target, Pointer amount, Pointer feeBasis, SizeT attributesCount, Pointer arrayOfAttributes);
+    public static native Pointer cryptoWalletCreateTransfer(Pointer wallet, Pointer target, Pointer amount, Pointer feeBasis, SizeT attributesCount, Pointer arrayOfAttributes);
     public static native Pointer cryptoWalletCreateTransferForPaymentProtocolRequest(Pointer wallet, Pointer request, Pointer feeBasis);
 
     public static native SizeT cryptoWalletGetTransferAttributeCount(Pointer wallet, Pointer target);
@@ -369,11 +370,27 @@ public final class CryptoLibraryDirect {
 
     // crypto/BRCryptoClient.h
     public static native Pointer cryptoClientTransactionBundleCreate (int status,
-                                                                      byte[] transaction,
+                                                                      Pointer transaction,
                                                                       SizeT transactionLength,
                                                                       long timestamp,
                                                                       long blockHeight);
-    // See 'Indirect': void cryptoClientTransferBundleCreate (int status, ...)
+    public static native Pointer cryptoClientTransferBundleCreate (int status,
+                                                                   Pointer hash,
+                                                                   Pointer uids,
+                                                                   Pointer sourceAddr,
+                                                                   Pointer targetAddr,
+                                                                   Pointer amount,
+                                                                   Pointer currency,
+                                                                   Pointer fee,
+                                                                   long blockTimestamp,
+                                                                   long blockHeight,
+                                                                   long blockConfirmations,
+                                                                   long blockTransactionIndex,
+                                                                   Pointer blockHash,
+                                                                   SizeT attributesCount,
+                                                                   Pointer attributeKeys,
+                                                                   Pointer attributeVals);
+    public static native void cryptoClientTransferBundleRelease (Pointer bundle);
 
     public static native Pointer cryptoClientCurrencyDenominationBundleCreate (String name, String code, String symbol, int decimals);
 
@@ -381,6 +398,10 @@ public final class CryptoLibraryDirect {
     public static native void cryptoClientCurrencyBundleRelease (Pointer currencyBundle);
 
     public static native void cwmAnnounceBlockNumber(Pointer cwm, Pointer callbackState, int success, long blockNumber, String verifiedBlockHash);
+    public static native void cwmAnnounceTransactions(Pointer cwm, Pointer callbackState, int success, Pointer bundles, SizeT bundlesCount);
+    public static native void cwmAnnounceTransactionsPartial(Pointer cwm, Pointer callbackState, Pointer bundles, SizeT bundlesCount);
+    public static native void cwmAnnounceTransfers(Pointer cwm, Pointer callbackState, int success, Pointer bundles, SizeT bundlesCount);
+    public static native void cwmAnnounceTransfersPartial(Pointer cwm, Pointer callbackState, Pointer bundles, SizeT bundlesCount);
     public static native void cwmAnnounceSubmitTransfer(Pointer cwm, Pointer callbackState, int success);
 
     //
@@ -11,8 +11,6 @@ import com.breadwallet.corenative.crypto.BRCryptoAddressScheme;
 import com.breadwallet.corenative.crypto.BRCryptoClient;
 import com.breadwallet.corenative.crypto.BRCryptoClientCurrencyBundle;
 import com.breadwallet.corenative.crypto.BRCryptoClientCurrencyDenominationBundle;
-import com.breadwallet.corenative.crypto.BRCryptoClientTransactionBundle;
-import com.breadwallet.corenative.crypto.BRCryptoClientTransferBundle;
 import com.breadwallet.corenative.crypto.BRCryptoCurrency;
 import com.breadwallet.corenative.crypto.BRCryptoNetworkFee;
 import com.breadwallet.corenative.crypto.BRCryptoSyncMode;
@@ -33,17 +31,14 @@ public final class CryptoLibraryIndirect {
 
     // Can this be migrated to CryptoLibraryDirect? Well, not easily. The JNA library explicitly mentions
     // it doesn't support arrays of pointers in direct mapping mode. That said, it has an example of how
-    // this can be done (see: com.sun.jna.StringArray).
+    // this can be done (see: com.sun.jna.StringArray) and, for the calls made while syncing (creating
+    // transfer bundles, announcing transactions and transfers, creating transfers), that is what
+    // NativeArray does.
     public static void cryptoNetworkSetNetworkFees(Pointer network, BRCryptoNetworkFee[] fees, SizeT count) {
         fees = fees.length == 0 ? null : fees;
         INSTANCE.cryptoNetworkSetNetworkFees(network, fees, count);
     }
 
-    public static Pointer cryptoWalletCreateTransfer(Pointer wallet, Pointer target, Pointer amount, Pointer feeBasis, SizeT attributesCount, BRCryptoTransferAttribute[] attributes) {
-        attributes = attributes.length == 0 ? null : attributes;
-        return INSTANCE.cryptoWalletCreateTransfer(wallet, target, amount, feeBasis, attributesCount, attributes);
-    }
-
     public static int cryptoWalletValidateTransferAttributes(Pointer wallet, SizeT countOfAttributes, BRCryptoTransferAttribute[] attributes, IntByReference validates) {
         attributes = attributes.length == 0 ? null : attributes;
         return INSTANCE.cryptoWalletValidateTransferAttributes(wallet, countOfAttributes, attributes, validates);
@@ -68,43 +63,6 @@ public final class CryptoLibraryIndirect {
                 attributeVals);
     }
 
-    public static Pointer cryptoClientTransferBundleCreate(int status,
-                                                           String hash,
-                                                           String uids,
-                                                           String sourceAddr,
-                                                           String targetAddr,
-                                                           String amount,
-                                                           String currency,
-                                                           String fee,
-                                                           long blockTimestamp,
-                                                           long blockHeight,
-                                                           long blockConfirmations,
-                                                           long blockTransactionIndex,
-                                                           String blockHash,
-                                                           SizeT attributesCount,
-                                                           String[] attributeKeys,
-                                                           String[] attributeVals) {
-        attributeKeys = attributeKeys.length == 0 ? null : attributeKeys;
-        attributeVals = attributeVals.length == 0 ? null : attributeVals;
-        return INSTANCE.cryptoClientTransferBundleCreate(status,
-                hash, uids, sourceAddr, targetAddr,
-                amount, currency, fee,
-                blockTimestamp, blockHeight, blockConfirmations, blockTransactionIndex, blockHash,
-                attributesCount, attributeKeys, attributeVals);
-    }
-
-    public static void cwmAnnounceTransactions(Pointer cwm, Pointer callbackState, int success, BRCryptoClientTransactionBundle[] bundles, SizeT bundlesCount) {
-        INSTANCE.cwmAnnounceTransactions(cwm, callbackState, success,
-                (0 == bundles.length ? null : bundles),
-                bundlesCount);
-    }
-
-    public static void cwmAnnounceTransfers(Pointer cwm, Pointer callbackState, int success, BRCryptoClientTransferBundle[] bundles, SizeT bundlesCount) {
-        INSTANCE.cwmAnnounceTransfers(cwm, callbackState, success,
-                (0 == bundles.length ? null : bundles),
-                bundlesCount);
-    }
-
     public static Pointer cryptoClientCurrencyBundleCreate(String id,
                                                            String name,
                                                            String code,
@@ -153,30 +111,8 @@ public final class CryptoLibraryIndirect {
         void cryptoNetworkSetNetworkFees(Pointer network, BRCryptoNetworkFee[] fees, SizeT count);
 
         // crypto/BRCryptoWallet.h
-        Pointer cryptoWalletCreateTransfer(Pointer wallet, Pointer target, Pointer amount, Pointer feeBasis, SizeT attributesCount, BRCryptoTransferAttribute[] attributes);
-
         int cryptoWalletValidateTransferAttributes(Pointer wallet, SizeT countOfAttributes, BRCryptoTransferAttribute[] attributes, IntByReference validates);
 
-        Pointer cryptoClientTransferBundleCreate(int status,
-                                                 String hash,
-                                                 String uids,
-                                                 String sourceAddr,
-                                                 String targetAddr,
-                                                 String amount,
-                                                 String currency,
-                                                 String fee,
-                                                 long blockTimestamp,
-                                                 long blockHeight,
-                                                 long blockConfirmations,
-                                                 long blockTransactionIndex,
-                                                 String blockHash,
-                                                 SizeT attributesCount,
-                                                 String[] attributeKeys,
-                                                 String[] attributeVals);
-
-        void cwmAnnounceTransactions(Pointer cwm, Pointer callbackState, int success, BRCryptoClientTransactionBundle[] bundles, SizeT bundlesCount);
-        void cwmAnnounceTransfers(Pointer cwm, Pointer callbackState, int success, BRCryptoClientTransferBundle[] bundles, SizeT bundlesCount);
-
         Pointer cryptoClientCurrencyBundleCreate(String id,
                                                  String name,
                                                  String code,
@@ -10,30 +10,93 @@ package com.breadwallet.corenative.cleaner;
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /* package */
-final class Reference extends PhantomReference<Object> implements Runnable {
+final class Reference extends PhantomReference<Object> implements Runnable, ReferenceCleaner.Cleanable {
 
     /* package */
-    static void create(ReferenceQueue<Object> queue, Object referent, Runnable runnable) {
-        REFS.add(new Reference(queue, referent, runnable));
+    static Reference create(ReferenceQueue<Object> queue, Object referent, Runnable runnable) {
+        Reference ref = new Reference(queue, referent, runnable);
+        REFS.add(ref);
+        return ref;
+    }
+
+    /* package */
+    static int getPendingCount() {
+        return REFS.size();
+    }
+
+    /* package */
+    static long getCleanedCount() {
+        return CLEANED.get();
+    }
+
+    /* package */
+    static long getCollectedCount() {
+        return COLLECTED.get();
+    }
+
+    /* package */
+    static Map<String, Long> getReleasedCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : RELEASED.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
     }
 
     private static final Set<Reference> REFS = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
+    private static final AtomicLong CLEANED = new AtomicLong();
+    private static final AtomicLong COLLECTED = new AtomicLong();
+    private static final ConcurrentMap<String, AtomicLong> RELEASED = new ConcurrentHashMap<>();
+
+    private final String type;
     private final Runnable runnable;
 
     private Reference(ReferenceQueue<Object> queue, Object referent, Runnable runnable) {
         super(referent, queue);
+        this.type = referent.getClass().getSimpleName();
         this.runnable = runnable;
     }
 
+    // Run by the cleaner, once the referent has been collected
     @Override
     public void run() {
         if (REFS.remove(this)) {
+            COLLECTED.incrementAndGet();
+            release();
+        }
+    }
+
+    // Run by the referent's owner, while still reachable
+    @Override
+    public void clean() {
+        if (REFS.remove(this)) {
+            // no longer enqueued once the referent is collected
+            clear();
+            CLEANED.incrementAndGet();
+            release();
+        }
+    }
+
+    private void release() {
+        try {
             runnable.run();
+        } finally {
+            AtomicLong count = RELEASED.get(type);
+            if (null == count) {
+                AtomicLong newCount = new AtomicLong();
+                count = RELEASED.putIfAbsent(type, newCount);
+                if (null == count) count = newCount;
+            }
+            count.incrementAndGet();
         }
     }
 }
@@ -8,57 +8,153 @@
 package com.breadwallet.corenative.cleaner;
 
 import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 public final class ReferenceCleaner {
 
     private static final Logger Log = Logger.getLogger(ReferenceCleaner.class.getName());
 
+    /**
+     * A registration, to run its runnable before the referent is collected.
+     */
+    public interface Cleanable {
+
+        /**
+         * Run the registered runnable now, if it hasn't run, and cancel the registration; the
+         * runnable runs at most once.
+         */
+        void clean();
+    }
+
     /**
      * Register a runnable to be executed once all references to `referent`
      * have been dropped.
      *
      * This method provides an alternative to the `finalize` method, which
      * is deprecated as of JDK9.
+     *
+     * @return the registration, to run the runnable sooner
+     */
+    public static Cleanable register(Object referent, Runnable runnable) {
+        return INSTANCE.registerRunnable(referent, runnable);
+    }
+
+    /**
+     * Set the number of threads running the runnables of collected referents.  The default is 1;
+     * with more, releasing many native objects at once (say, after a GC following a busy loop)
+     * isn't bound by a single thread.
      */
-    public static void register(Object referent, Runnable runnable) {
-        INSTANCE.registerRunnable(referent, runnable);
+    public static void setThreadCount(int threadCount) {
+        INSTANCE.setWorkerCount(threadCount);
+    }
+
+    public static int getThreadCount() {
+        return INSTANCE.getWorkerCount();
+    }
+
+    /**
+     * The number of registrations whose runnable has yet to run.
+     */
+    public static int getPendingCount() {
+        return Reference.getPendingCount();
+    }
+
+    /**
+     * The number of runnables run by `Cleanable.clean`.
+     */
+    public static long getCleanedCount() {
+        return Reference.getCleanedCount();
+    }
+
+    /**
+     * The number of runnables run once their referent was collected.
+     */
+    public static long getCollectedCount() {
+        return Reference.getCollectedCount();
+    }
+
+    /**
+     * The number of runnables run, either way, by the simple class name of their referent.
+     */
+    public static Map<String, Long> getReleasedCounts() {
+        return Reference.getReleasedCounts();
     }
 
     private static final ReferenceCleaner INSTANCE = new ReferenceCleaner();
 
     private final ReferenceQueue<Object> queue;
-    private final Thread thread;
+
+    // Guarded by `this`
+    private final List<ReferenceCleanerRunnable> workers;
 
     private ReferenceCleaner() {
         this.queue = new ReferenceQueue<>();
-        this.thread = new Thread(new ReferenceCleanerRunnable(queue));
-        this.thread.setDaemon(true);
-        this.thread.setName(getClass().getName());
-        this.thread.start();
+        this.workers = new ArrayList<>();
+        setWorkerCount(1);
+    }
+
+    private Cleanable registerRunnable(Object referent, Runnable runnable) {
+        return Reference.create(queue, referent, runnable);
+    }
+
+    private synchronized void setWorkerCount(int count) {
+        checkArgument(count >= 1);
+
+        while (workers.size() < count) {
+            ReferenceCleanerRunnable worker = new ReferenceCleanerRunnable(queue);
+
+            Thread thread = new Thread(worker);
+            thread.setDaemon(true);
+            thread.setName(workers.isEmpty() ? getClass().getName() : getClass().getName() + "-" + workers.size());
+            worker.thread = thread;
+
+            workers.add(worker);
+            thread.start();
+        }
+
+        while (workers.size() > count) {
+            workers.remove(workers.size() - 1).stop();
+        }
     }
 
-    private void registerRunnable(Object referent, Runnable runnable) {
-        Reference.create(queue, referent, runnable);
+    private synchronized int getWorkerCount() {
+        return workers.size();
     }
 
     private static class ReferenceCleanerRunnable implements Runnable {
 
         final ReferenceQueue<Object> queue;
 
+        volatile boolean running = true;
+        Thread thread;
+
         ReferenceCleanerRunnable(ReferenceQueue<Object> queue) {
             this.queue = queue;
         }
 
+        void stop() {
+            running = false;
+            thread.interrupt();
+        }
+
         @Override
         public void run() {
-            for (;;) {
+            while (running) {
                 Reference ref;
 
                 try {
                     ref = (Reference) queue.remove();
-                } catch (ClassCastException | InterruptedException e) {
+                } catch (InterruptedException e) {
+                    if (!running) break;
+                    Log.log(Level.SEVERE, "Error pumping queue", e);
+                    continue;
+                } catch (ClassCastException e) {
                     Log.log(Level.SEVERE, "Error pumping queue", e);
                     continue;
                 }
@@ -7,6 +7,7 @@
  */
 package com.breadwallet.corenative.crypto;
 
+import com.breadwallet.corenative.utility.CallbackThreads;
 import com.breadwallet.corenative.utility.Cookie;
 import com.breadwallet.corenative.utility.SizeT;
 import com.google.common.primitives.UnsignedInts;
@@ -81,11 +82,16 @@ public class BRCryptoClient extends Structure {
         default void callback(Pointer context,
                               Pointer manager,
                               Pointer callbackState) {
-            handle(
-                    new Cookie(context),
-                    new BRCryptoWalletManager(manager),
-                    new BRCryptoClientCallbackState(callbackState)
-            );
+            long enterNanos = CallbackThreads.enter();
+            try {
+                handle(
+                        new Cookie(context),
+                        new BRCryptoWalletManager(manager),
+                        new BRCryptoClientCallbackState(callbackState)
+                );
+            } finally {
+                CallbackThreads.exit("GetBlockNumber", enterNanos);
+            }
         }
     }
 
@@ -105,18 +111,23 @@ public class BRCryptoClient extends Structure {
                               SizeT addrCount,
                               long begBlockNumber,
                               long endBlockNumber) {
-            int addressesCount = UnsignedInts.checkedCast(addrCount.longValue());
-            String[] addressesArray = addrs.getStringArray(0, addressesCount, "UTF-8");
-            List<String> addressesList = Arrays.asList(addressesArray);
-
-            handle(
-                    new Cookie(context),
-                    new BRCryptoWalletManager(manager),
-                    new BRCryptoClientCallbackState(callbackState),
-                    addressesList,
-                    begBlockNumber,
-                    endBlockNumber
-            );
+            long enterNanos = CallbackThreads.enter();
+            try {
+                int addressesCount = UnsignedInts.checkedCast(addrCount.longValue());
+                String[] addressesArray = addrs.getStringArray(0, addressesCount, "UTF-8");
+                List<String> addressesList = Arrays.asList(addressesArray);
+
+                handle(
+                        new Cookie(context),
+                        new BRCryptoWalletManager(manager),
+                        new BRCryptoClientCallbackState(callbackState),
+                        addressesList,
+                        begBlockNumber,
+                        endBlockNumber
+                );
+            } finally {
+                CallbackThreads.exit("GetTransactions", enterNanos);
+            }
         }
     }
 
@@ -136,18 +147,23 @@ public class BRCryptoClient extends Structure {
                               SizeT addrCount,
                               long begBlockNumber,
                               long endBlockNumber) {
-            int addressesCount = UnsignedInts.checkedCast(addrCount.longValue());
-            String[] addressesArray = addrs.getStringArray(0, addressesCount, "UTF-8");
-            List<String> addressesList = Arrays.asList(addressesArray);
-
-            handle(
-                    new Cookie(context),
-                    new BRCryptoWalletManager(manager),
-                    new BRCryptoClientCallbackState(callbackState),
-                    addressesList,
-                    begBlockNumber,
-                    endBlockNumber
-            );
+            long enterNanos = CallbackThreads.enter();
+            try {
+                int addressesCount = UnsignedInts.checkedCast(addrCount.longValue());
+                String[] addressesArray = addrs.getStringArray(0, addressesCount, "UTF-8");
+                List<String> addressesList = Arrays.asList(addressesArray);
+
+                handle(
+                        new Cookie(context),
+                        new BRCryptoWalletManager(manager),
+                        new BRCryptoClientCallbackState(callbackState),
+                        addressesList,
+                        begBlockNumber,
+                        endBlockNumber
+                );
+            } finally {
+                CallbackThreads.exit("GetTransfers", enterNanos);
+            }
         }
     }
 
@@ -165,13 +181,18 @@ public class BRCryptoClient extends Structure {
                               Pointer tx,
                               SizeT txLength,
                               String hashAsHex) {
-            handle(
-                    new Cookie(context),
-                    new BRCryptoWalletManager(manager),
-                    new BRCryptoClientCallbackState(callbackState),
-                    tx.getByteArray(0, UnsignedInts.checkedCast(txLength.longValue())),
-                    hashAsHex
-            );
+            long enterNanos = CallbackThreads.enter();
+            try {
+                handle(
+                        new Cookie(context),
+                        new BRCryptoWalletManager(manager),
+                        new BRCryptoClientCallbackState(callbackState),
+                        tx.getByteArray(0, UnsignedInts.checkedCast(txLength.longValue())),
+                        hashAsHex
+                );
+            } finally {
+                CallbackThreads.exit("SubmitTransaction", enterNanos);
+            }
         }
     }
 
@@ -189,13 +210,18 @@ public class BRCryptoClient extends Structure {
                               Pointer tx,
                               SizeT txLength,
                               String hashAsHex) {
-            handle(
-                    new Cookie(context),
-                    new BRCryptoWalletManager(manager),
-                    new BRCryptoClientCallbackState(callbackState),
-                    tx.getByteArray(0, UnsignedInts.checkedCast(txLength.longValue())),
-                    hashAsHex
-            );
+            long enterNanos = CallbackThreads.enter();
+            try {
+                handle(
+                        new Cookie(context),
+                        new BRCryptoWalletManager(manager),
+                        new BRCryptoClientCallbackState(callbackState),
+                        tx.getByteArray(0, UnsignedInts.checkedCast(txLength.longValue())),
+                        hashAsHex
+                );
+            } finally {
+                CallbackThreads.exit("EstimateTransactionFee", enterNanos);
+            }
         }
     }
 
@@ -227,11 +253,11 @@ public class BRCryptoClient extends Structure {
                           EstimateTransactionFeeCallback funcEstimateTransactionFee) {
         super();
         this.context = context.getPointer();
-        this.funcGetBlockNumber = funcGetBlockNumber;
-        this.funcGetTransactions = funcGetTransactions;
-        this.funcGetTransfers = funcGetTransfers;
-        this.funcSubmitTransaction = funcSubmitTransaction;
-        this.funcEstimateTransactionFee = funcEstimateTransactionFee;
+        this.funcGetBlockNumber = CallbackThreads.attach(funcGetBlockNumber, "GetBlockNumber");
+        this.funcGetTransactions = CallbackThreads.attach(funcGetTransactions, "GetTransactions");
+        this.funcGetTransfers = CallbackThreads.attach(funcGetTransfers, "GetTransfers");
+        this.funcSubmitTransaction = CallbackThreads.attach(funcSubmitTransaction, "SubmitTransaction");
+        this.funcEstimateTransactionFee = CallbackThreads.attach(funcEstimateTransactionFee, "EstimateTransactionFee");
     }
 
     @Override
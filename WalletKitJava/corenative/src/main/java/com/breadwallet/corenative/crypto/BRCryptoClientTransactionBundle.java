@@ -1,6 +1,7 @@
 package com.breadwallet.corenative.crypto;
 
 import com.breadwallet.corenative.CryptoLibraryDirect;
+import com.breadwallet.corenative.utility.NativeArena;
 import com.breadwallet.corenative.utility.SizeT;
 import com.google.common.primitives.UnsignedLong;
 import com.sun.jna.Pointer;
@@ -12,9 +13,24 @@ public class BRCryptoClientTransactionBundle extends PointerType {
             byte[] transaction,
             UnsignedLong blockTimestamp,
             UnsignedLong blockHeight) {
+        try (NativeArena arena = new NativeArena(1024)) {
+            return create(arena, status, transaction, blockTimestamp, blockHeight);
+        }
+    }
+
+    /**
+     * Create a bundle, marshalling `transaction` into `arena`; the arena may be reset once this
+     * returns.
+     */
+    public static BRCryptoClientTransactionBundle create(
+            NativeArena arena,
+            BRCryptoTransferStateType status,
+            byte[] transaction,
+            UnsignedLong blockTimestamp,
+            UnsignedLong blockHeight) {
         Pointer pointer = CryptoLibraryDirect.cryptoClientTransactionBundleCreate(
                 status.toCore(),
-                transaction,
+                arena.bytes(transaction),
                 new SizeT(transaction.length),
                 blockTimestamp.longValue(),
                 blockHeight.longValue());
@@ -1,6 +1,7 @@
 package com.breadwallet.corenative.crypto;
 
-import com.breadwallet.corenative.CryptoLibraryIndirect;
+import com.breadwallet.corenative.CryptoLibraryDirect;
+import com.breadwallet.corenative.utility.NativeArena;
 import com.breadwallet.corenative.utility.SizeT;
 import com.google.common.primitives.UnsignedLong;
 import com.sun.jna.Pointer;
@@ -29,24 +30,52 @@ public class BRCryptoClientTransferBundle extends PointerType {
         String[] metaKeys = meta.keySet().toArray(new String[metaCount]);
         String[] metaVals = meta.values().toArray(new String[metaCount]);
 
+        try (NativeArena arena = new NativeArena(1024)) {
+            return create(arena, status, hash, uids, from, to, amount, currency, fee,
+                    blockTimestamp, blockHeight, blockConfirmations, blockTransactionIndex, blockHash,
+                    metaCount, metaKeys, metaVals);
+        }
+    }
 
-        Pointer pointer = CryptoLibraryIndirect.cryptoClientTransferBundleCreate(
+    /**
+     * Create a bundle with the first `metaCount` of `metaKeys` and `metaVals`, marshalling the
+     * arguments into `arena`; the arrays may be reused, and the arena reset, once this returns.
+     */
+    public static BRCryptoClientTransferBundle create(
+            NativeArena arena,
+            BRCryptoTransferStateType status,
+            String hash,
+            String uids,
+            String from,
+            String to,
+            String amount,
+            String currency,
+            String fee,
+            UnsignedLong blockTimestamp,
+            UnsignedLong blockHeight,
+            UnsignedLong blockConfirmations,
+            UnsignedLong blockTransactionIndex,
+            String blockHash,
+            int metaCount,
+            String[] metaKeys,
+            String[] metaVals) {
+        Pointer pointer = CryptoLibraryDirect.cryptoClientTransferBundleCreate(
                 status.toCore(),
-                hash,
-                uids,
-                from,
-                to,
-                amount,
-                currency,
-                fee,
+                arena.string(hash),
+                arena.string(uids),
+                arena.string(from),
+                arena.string(to),
+                arena.string(amount),
+                arena.string(currency),
+                arena.string(fee),
                 blockTimestamp.longValue(),
                 blockHeight.longValue(),
                 blockConfirmations.longValue(),
                 blockTransactionIndex.longValue(),
-                blockHash,
+                arena.string(blockHash),
                 new SizeT(metaCount),
-                metaKeys,
-                metaVals);
+                arena.strings(metaCount, metaKeys),
+                arena.strings(metaCount, metaVals));
 
         return new BRCryptoClientTransferBundle(pointer);
     }
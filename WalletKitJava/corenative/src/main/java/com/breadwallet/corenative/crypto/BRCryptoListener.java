@@ -8,6 +8,7 @@
 package com.breadwallet.corenative.crypto;
 
 import com.breadwallet.corenative.CryptoLibraryDirect;
+import com.breadwallet.corenative.utility.CallbackThreads;
 import com.breadwallet.corenative.utility.Cookie;
 import com.sun.jna.Callback;
 import com.sun.jna.Pointer;
@@ -64,9 +65,14 @@ public class BRCryptoListener extends PointerType {
         default void callback(Pointer context,
                               Pointer system,
                               BRCryptoSystemEvent.ByValue event) {
-            handle(new Cookie(context),
-                    new BRCryptoSystem(system),
-                    event);
+            long enterNanos = CallbackThreads.enter();
+            try {
+                handle(new Cookie(context),
+                        new BRCryptoSystem(system),
+                        event);
+            } finally {
+                CallbackThreads.exit("SystemEvent", enterNanos);
+            }
         }
     }
 
@@ -79,9 +85,14 @@ public class BRCryptoListener extends PointerType {
         default void callback(Pointer context,
                               Pointer network,
                               BRCryptoNetworkEvent.ByValue event) {
-            handle(new Cookie(context),
-                    new BRCryptoNetwork(network),
-                    event);
+            long enterNanos = CallbackThreads.enter();
+            try {
+                handle(new Cookie(context),
+                        new BRCryptoNetwork(network),
+                        event);
+            } finally {
+                CallbackThreads.exit("NetworkEvent", enterNanos);
+            }
         }
     }
 
@@ -94,9 +105,14 @@ public class BRCryptoListener extends PointerType {
         default void callback(Pointer context,
                               Pointer manager,
                               BRCryptoWalletManagerEvent.ByValue event) {
-            handle(new Cookie(context),
-                    new BRCryptoWalletManager(manager),
-                    event);
+            long enterNanos = CallbackThreads.enter();
+            try {
+                handle(new Cookie(context),
+                        new BRCryptoWalletManager(manager),
+                        event);
+            } finally {
+                CallbackThreads.exit("WalletManagerEvent", enterNanos);
+            }
         }
     }
 
@@ -111,10 +127,15 @@ public class BRCryptoListener extends PointerType {
                               Pointer manager,
                               Pointer wallet,
                               BRCryptoWalletEvent event) {
-            handle(new Cookie(context),
-                    new BRCryptoWalletManager(manager),
-                    new BRCryptoWallet(wallet),
-                    event);
+            long enterNanos = CallbackThreads.enter();
+            try {
+                handle(new Cookie(context),
+                        new BRCryptoWalletManager(manager),
+                        new BRCryptoWallet(wallet),
+                        event);
+            } finally {
+                CallbackThreads.exit("WalletEvent", enterNanos);
+            }
         }
     }
 
@@ -131,11 +152,16 @@ public class BRCryptoListener extends PointerType {
                               Pointer wallet,
                               Pointer transfer,
                               BRCryptoTransferEvent.ByValue event) {
-            handle(new Cookie(context),
-                    new BRCryptoWalletManager(manager),
-                    new BRCryptoWallet(wallet),
-                    new BRCryptoTransfer(transfer),
-                    event);
+            long enterNanos = CallbackThreads.enter();
+            try {
+                handle(new Cookie(context),
+                        new BRCryptoWalletManager(manager),
+                        new BRCryptoWallet(wallet),
+                        new BRCryptoTransfer(transfer),
+                        event);
+            } finally {
+                CallbackThreads.exit("TransferEvent", enterNanos);
+            }
         }
     }
 
@@ -160,11 +186,11 @@ public class BRCryptoListener extends PointerType {
         return new BRCryptoListener(
                 CryptoLibraryDirect.cryptoListenerCreate(
                         context.getPointer(),
-                        systemEventCallback,
-                        networkEventCallback,
-                        walletManagerEventCallback,
-                        walletEventCallback,
-                        transferEventCallback));
+                        CallbackThreads.attach(systemEventCallback, "SystemEvent"),
+                        CallbackThreads.attach(networkEventCallback, "NetworkEvent"),
+                        CallbackThreads.attach(walletManagerEventCallback, "WalletManagerEvent"),
+                        CallbackThreads.attach(walletEventCallback, "WalletEvent"),
+                        CallbackThreads.attach(transferEventCallback, "TransferEvent")));
     }
 
     public BRCryptoListener take() {
@@ -9,6 +9,7 @@ package com.breadwallet.corenative.crypto;
 
 import com.breadwallet.corenative.CryptoLibraryDirect;
 import com.breadwallet.corenative.CryptoLibraryIndirect;
+import com.breadwallet.corenative.utility.NativeArray;
 import com.breadwallet.corenative.utility.SizeT;
 import com.breadwallet.corenative.utility.SizeTByReference;
 import com.google.common.base.Optional;
@@ -19,6 +20,8 @@ import com.sun.jna.Pointer;
 import com.sun.jna.PointerType;
 import com.sun.jna.ptr.IntByReference;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -76,6 +79,37 @@ public class BRCryptoWallet extends PointerType {
         return transfers;
     }
 
+    /**
+     * The wallet's transfers, added to `transfers`, and a snapshot of their fields; see
+     * `cryptoTransferSnapshotCreate` for the layout.
+     */
+    public ByteBuffer getTransfersSnapshot(List<BRCryptoTransfer> transfers) {
+        Pointer thisPtr = this.getPointer();
+
+        SizeTByReference count = new SizeTByReference();
+        Pointer transfersPtr = CryptoLibraryDirect.cryptoWalletGetTransfers(thisPtr, count);
+        try {
+            int transfersSize = UnsignedInts.checkedCast(count.getValue().longValue());
+            if (null != transfersPtr) {
+                for (Pointer transferPtr: transfersPtr.getPointerArray(0, transfersSize)) {
+                    transfers.add(new BRCryptoTransfer(transferPtr));
+                }
+            }
+
+            SizeTByReference snapshotSize = new SizeTByReference();
+            Pointer snapshotPtr = CryptoLibraryDirect.cryptoTransferSnapshotCreate(transfersPtr, new SizeT(transfersSize), snapshotSize);
+            try {
+                int size = UnsignedInts.checkedCast(snapshotSize.getValue().longValue());
+                return ByteBuffer.wrap(snapshotPtr.getByteArray(0, size)).order(ByteOrder.nativeOrder());
+            } finally {
+                Native.free(Pointer.nativeValue(snapshotPtr));
+            }
+
+        } finally {
+            if (null != transfersPtr) Native.free(Pointer.nativeValue(transfersPtr));
+        }
+    }
+
 
     public boolean containsTransfer(BRCryptoTransfer transfer) {
         Pointer thisPtr = this.getPointer();
@@ -189,20 +223,18 @@ public class BRCryptoWallet extends PointerType {
                                                      List<BRCryptoTransferAttribute> attributes) {
         Pointer thisPtr = this.getPointer();
 
-        int attributesCount  = attributes.size();
-        BRCryptoTransferAttribute[] attributeRefs = new BRCryptoTransferAttribute[attributesCount];
-        for (int i = 0; i < attributesCount; i++) attributeRefs[i] = attributes.get(i);
-
-        return Optional.fromNullable(
-                CryptoLibraryIndirect.cryptoWalletCreateTransfer(
-                        thisPtr,
-                        target.getPointer(),
-                        amount.getPointer(),
-                        estimatedFeeBasis.getPointer(),
-                        new SizeT(attributesCount),
-                        attributeRefs
-                )
-        ).transform(BRCryptoTransfer::new);
+        try (NativeArray attributeRefs = NativeArray.ofPointers(attributes)) {
+            return Optional.fromNullable(
+                    CryptoLibraryDirect.cryptoWalletCreateTransfer(
+                            thisPtr,
+                            target.getPointer(),
+                            amount.getPointer(),
+                            estimatedFeeBasis.getPointer(),
+                            new SizeT(attributes.size()),
+                            attributeRefs
+                    )
+            ).transform(BRCryptoTransfer::new);
+        }
     }
 
     public Optional<BRCryptoTransfer> createTransferForWalletSweep(BRCryptoWalletSweeper sweeper, BRCryptoWalletManager manager, BRCryptoFeeBasis estimatedFeeBasis) {
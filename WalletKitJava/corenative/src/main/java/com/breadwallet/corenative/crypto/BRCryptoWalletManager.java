@@ -10,6 +10,7 @@ package com.breadwallet.corenative.crypto;
 import com.breadwallet.corenative.CryptoLibraryDirect;
 import com.breadwallet.corenative.CryptoLibraryIndirect;
 import com.breadwallet.corenative.utility.Cookie;
+import com.breadwallet.corenative.utility.NativeArray;
 import com.breadwallet.corenative.utility.SizeT;
 import com.breadwallet.corenative.utility.SizeTByReference;
 import com.google.common.base.Optional;
@@ -326,27 +327,45 @@ public class BRCryptoWalletManager extends PointerType {
     }
 
     public void announceTransactions(BRCryptoClientCallbackState callbackState, boolean success, List<BRCryptoClientTransactionBundle> bundles) {
-        int bundlesCount = bundles.size();
-        BRCryptoClientTransactionBundle[] bundlesArr = bundles.toArray(new BRCryptoClientTransactionBundle[bundlesCount]);
-
-        CryptoLibraryIndirect.cwmAnnounceTransactions(
-                this.getPointer(),
-                callbackState.getPointer(),
-                (success ? BRCryptoBoolean.CRYPTO_TRUE : BRCryptoBoolean.CRYPTO_FALSE),
-                bundlesArr,
-                new SizeT(bundlesCount));
+        try (NativeArray bundlesArr = NativeArray.ofPointers(bundles)) {
+            CryptoLibraryDirect.cwmAnnounceTransactions(
+                    this.getPointer(),
+                    callbackState.getPointer(),
+                    (success ? BRCryptoBoolean.CRYPTO_TRUE : BRCryptoBoolean.CRYPTO_FALSE),
+                    bundlesArr,
+                    new SizeT(bundles.size()));
+        }
     }
 
     public void announceTransfers(BRCryptoClientCallbackState callbackState, boolean success, List<BRCryptoClientTransferBundle> bundles) {
-        int bundlesCount = bundles.size();
-        BRCryptoClientTransferBundle[] bundlesArr = bundles.toArray(new BRCryptoClientTransferBundle[bundlesCount]);
+        try (NativeArray bundlesArr = NativeArray.ofPointers(bundles)) {
+            CryptoLibraryDirect.cwmAnnounceTransfers(
+                    this.getPointer(),
+                    callbackState.getPointer(),
+                    (success ? BRCryptoBoolean.CRYPTO_TRUE : BRCryptoBoolean.CRYPTO_FALSE),
+                    bundlesArr,
+                    new SizeT(bundles.size()));
+        }
+    }
 
-        CryptoLibraryIndirect.cwmAnnounceTransfers(
-                this.getPointer(),
-                callbackState.getPointer(),
-                (success ? BRCryptoBoolean.CRYPTO_TRUE : BRCryptoBoolean.CRYPTO_FALSE),
-                bundlesArr,
-                new SizeT(bundlesCount));
+    public void announceTransactionsPartial(BRCryptoClientCallbackState callbackState, List<BRCryptoClientTransactionBundle> bundles) {
+        try (NativeArray bundlesArr = NativeArray.ofPointers(bundles)) {
+            CryptoLibraryDirect.cwmAnnounceTransactionsPartial(
+                    this.getPointer(),
+                    callbackState.getPointer(),
+                    bundlesArr,
+                    new SizeT(bundles.size()));
+        }
+    }
+
+    public void announceTransfersPartial(BRCryptoClientCallbackState callbackState, List<BRCryptoClientTransferBundle> bundles) {
+        try (NativeArray bundlesArr = NativeArray.ofPointers(bundles)) {
+            CryptoLibraryDirect.cwmAnnounceTransfersPartial(
+                    this.getPointer(),
+                    callbackState.getPointer(),
+                    bundlesArr,
+                    new SizeT(bundles.size()));
+        }
     }
 
     public void announceSubmitTransfer(BRCryptoClientCallbackState callbackState, boolean success) {
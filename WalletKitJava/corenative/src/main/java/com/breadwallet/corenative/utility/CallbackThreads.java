@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corenative.utility;
+
+import com.sun.jna.Callback;
+import com.sun.jna.CallbackThreadInitializer;
+import com.sun.jna.Native;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The threads on which the core calls back into Java, for its listener's events and its client's
+ * requests.
+ *
+ * By default JNA attaches a native thread to the JVM on entry to a callback and detaches it on
+ * return, so that each callback from the core's (long lived) threads pays for an attach.  A
+ * callback `attach`ed here instead leaves its thread attached, as a daemon thread named
+ * "core-callback-N", until the native thread exits.
+ *
+ * Each callback, by name, also records how many calls it has had, how many of those attached a
+ * thread, and the time from each call's entry into Java to its return.
+ */
+public final class CallbackThreads {
+
+    /**
+     * A callback's calls, as of `getStats`.
+     */
+    public static final class Stats {
+
+        private final long count;
+        private final long attachCount;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Stats(long count, long attachCount, long totalNanos, long maxNanos) {
+            this.count = count;
+            this.attachCount = attachCount;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * The number of calls that attached their thread; counted only for callbacks attached
+         * while persistent.
+         */
+        public long getAttachCount() {
+            return attachCount;
+        }
+
+        public long getMeanNanos() {
+            return 0 == count ? 0 : totalNanos / count;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+
+    private static final class Recorder {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong attachCount = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+
+            long max;
+            while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+                // retry
+            }
+        }
+
+        Stats getStats() {
+            return new Stats(count.get(), attachCount.get(), totalNanos.get(), maxNanos.get());
+        }
+    }
+
+    // Names, and counts, the threads attached on entry to a callback
+    private static final class Initializer extends CallbackThreadInitializer {
+
+        private final Recorder recorder;
+
+        Initializer(Recorder recorder) {
+            super(true, false, null);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public String getName(Callback callback) {
+            recorder.attachCount.incrementAndGet();
+            return "core-callback-" + THREAD_NUMBER.incrementAndGet();
+        }
+    }
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private static final ConcurrentMap<String, Recorder> RECORDERS = new ConcurrentHashMap<>();
+
+    private static volatile boolean persistent = true;
+
+    /**
+     * Set whether `attach` leaves threads attached; if not, JNA's default applies.  Only callbacks
+     * attached afterwards are affected.  The default is true.
+     */
+    public static void setPersistent(boolean persistent) {
+        CallbackThreads.persistent = persistent;
+    }
+
+    public static boolean isPersistent() {
+        return persistent;
+    }
+
+    /**
+     * Leave the threads calling `callback` attached, as above.
+     *
+     * @return `callback`
+     */
+    public static <T extends Callback> T attach(T callback, String name) {
+        if (persistent) {
+            Native.setCallbackThreadInitializer(callback, new Initializer(getRecorder(name)));
+        }
+        return callback;
+    }
+
+    /**
+     * Mark the entry of a call of a callback; pass the result to `exit`.
+     */
+    public static long enter() {
+        return java.lang.System.nanoTime();
+    }
+
+    /**
+     * Mark the return of a call of the callback `name`, entered at `enterNanos`.
+     */
+    public static void exit(String name, long enterNanos) {
+        getRecorder(name).record(java.lang.System.nanoTime() - enterNanos);
+    }
+
+    /**
+     * The calls so far, by callback name.
+     */
+    public static Map<String, Stats> getStats() {
+        Map<String, Stats> stats = new HashMap<>();
+        for (Map.Entry<String, Recorder> entry : RECORDERS.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().getStats());
+        }
+        return stats;
+    }
+
+    private static Recorder getRecorder(String name) {
+        Recorder recorder = RECORDERS.get(name);
+        if (null == recorder) {
+            Recorder newRecorder = new Recorder();
+            recorder = RECORDERS.putIfAbsent(name, newRecorder);
+            if (null == recorder) recorder = newRecorder;
+        }
+        return recorder;
+    }
+
+    private CallbackThreads() {
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corenative.utility;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Native memory for the arguments of a series of calls into the core, such as creating the bundles
+ * of a `getTransfers` request: strings (UTF-8 encoded and NUL terminated), byte arrays and arrays
+ * of strings are bump allocated from a few large chunks rather than each from its own `Memory`.
+ *
+ * The memory is only for arguments the core copies, as it does those of the bundle `create`s; it
+ * is reused on `reset` and freed, all at once, on `close`.  An arena is not thread-safe.
+ */
+public final class NativeArena implements AutoCloseable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    // A `Memory` that can be freed on demand
+    private static final class Chunk extends Memory {
+
+        Chunk(long size) {
+            super(size);
+        }
+
+        void free() {
+            dispose();
+        }
+    }
+
+    private final int chunkSize;
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    private Chunk chunk;
+    private long offset;
+
+    private byte[] encoded = new byte[256];
+    private boolean closed = false;
+
+    public NativeArena() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public NativeArena(int chunkSize) {
+        checkArgument(chunkSize > 0);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * `string`, UTF-8 encoded and NUL terminated, or NULL if `string` is null.
+     */
+    @Nullable
+    public Pointer string(@Nullable String string) {
+        if (null == string) return null;
+
+        int length = encode(string);
+        Pointer pointer = allocate(length + 1, 1);
+        pointer.write(0, encoded, 0, length);
+        pointer.setByte(length, (byte) 0);
+        return pointer;
+    }
+
+    /**
+     * A copy of `bytes`, or NULL if empty.
+     */
+    @Nullable
+    public Pointer bytes(byte[] bytes) {
+        if (0 == bytes.length) return null;
+
+        Pointer pointer = allocate(bytes.length, 1);
+        pointer.write(0, bytes, 0, bytes.length);
+        return pointer;
+    }
+
+    /**
+     * The first `count` of `strings`, as an array of `char *`, or NULL if `count` is zero.
+     */
+    @Nullable
+    public Pointer strings(int count, String[] strings) {
+        if (0 == count) return null;
+
+        Pointer array = allocate((long) count * Native.POINTER_SIZE, Native.POINTER_SIZE);
+        for (int i = 0; i < count; i++) {
+            array.setPointer((long) i * Native.POINTER_SIZE, string(strings[i]));
+        }
+        return array;
+    }
+
+    /**
+     * Make the memory allocated so far available again; pointers previously returned are invalid.
+     */
+    public void reset() {
+        checkState(!closed);
+
+        // Keep the first chunk, for the next series of calls
+        for (int i = 1; i < chunks.size(); i++) {
+            chunks.get(i).free();
+        }
+        if (chunks.size() > 1) {
+            chunks.subList(1, chunks.size()).clear();
+        }
+
+        chunk = chunks.isEmpty() ? null : chunks.get(0);
+        offset = 0;
+    }
+
+    /**
+     * The bytes of native memory held.
+     */
+    public long getSize() {
+        long size = 0;
+        for (Chunk chunk : chunks) {
+            size += chunk.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+
+        for (Chunk chunk : chunks) {
+            chunk.free();
+        }
+        chunks.clear();
+        chunk = null;
+    }
+
+    private Pointer allocate(long size, int alignment) {
+        checkState(!closed);
+
+        long start = (offset + alignment - 1) & -alignment;
+        if (null == chunk || start + size > chunk.size()) {
+            chunk = new Chunk(Math.max(size, chunkSize));
+            chunks.add(chunk);
+            start = 0;
+        }
+
+        offset = start + size;
+        return chunk.share(start, size);
+    }
+
+    // UTF-8 encode `string` into `encoded`, returning the length
+    private int encode(String string) {
+        int length = string.length();
+        if (encoded.length < 3 * length) {
+            encoded = new byte[Math.max(3 * length, 2 * encoded.length)];
+        }
+
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                encoded[index++] = (byte) c;
+            } else if (c < 0x800) {
+                encoded[index++] = (byte) (0xC0 | (c >> 6));
+                encoded[index++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, string.charAt(++i));
+                encoded[index++] = (byte) (0xF0 | (codePoint >> 18));
+                encoded[index++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                encoded[index++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                encoded[index++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                encoded[index++] = (byte) '?';
+            } else {
+                encoded[index++] = (byte) (0xE0 | (c >> 12));
+                encoded[index++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                encoded[index++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.corenative.utility;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.PointerType;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * An array of pointers, marshalled by hand into a native block, for passing to directly mapped
+ * functions (which, unlike the interface mapped ones, don't accept arrays of `PointerType`); see
+ * {@link com.sun.jna.StringArray}.  For arrays of strings, see {@link NativeArena}.
+ *
+ * The block is freed on `close`, rather than when collected; use one only for the call it is made
+ * for.
+ */
+public final class NativeArray extends Memory implements AutoCloseable {
+
+    /**
+     * An array of the pointers of `refs`, or null when there are none.
+     */
+    @Nullable
+    public static NativeArray ofPointers(List<? extends PointerType> refs) {
+        int count = refs.size();
+        if (0 == count) return null;
+
+        NativeArray array = new NativeArray((long) count * Native.POINTER_SIZE);
+        for (int i = 0; i < count; i++) {
+            array.setPointer((long) i * Native.POINTER_SIZE, refs.get(i).getPointer());
+        }
+        return array;
+    }
+
+    private NativeArray(long size) {
+        super(size);
+    }
+
+    @Override
+    public void close() {
+        dispose();
+    }
+}
@@ -11,7 +11,7 @@ package com.breadwallet.crypto;
 
 import com.google.common.base.Optional;
 
-public interface Address {
+public interface Address extends AutoCloseable {
 
     /**
      * Create an Address from `string` and `network`.
@@ -36,4 +36,13 @@ public interface Address {
     boolean equals(Object o);
 
     int hashCode();
+
+    /**
+     * Release the native address now rather than once collected.  This is for an address that is
+     * yours alone, such as one from `create`; closing a shared address, such as a transfer's or a
+     * payment request's, does nothing.  Using an address once closed throws an
+     * `IllegalStateException`.
+     */
+    @Override
+    void close();
 }
@@ -14,7 +14,7 @@ import com.google.common.base.Optional;
 import java.lang.Double;
 import java.text.NumberFormat;
 
-public interface Amount extends Comparable<Amount> {
+public interface Amount extends Comparable<Amount>, AutoCloseable {
 
     static Amount create(double value, Unit unit) {
         return CryptoApi.getProvider().amountProvider().create(value, unit);
@@ -144,4 +144,13 @@ public interface Amount extends Comparable<Amount> {
      * In the snippet above, the final three digits of '678' are rounded to '680'.
      */
     Optional<Double> doubleAmount(Unit asUnit);
+
+    /**
+     * Release the native amount now rather than once collected.  This is for amounts that are
+     * yours alone, such as those from `create` or arithmetic; closing a shared amount, such as a
+     * transfer's or a fee basis's, does nothing.  Using an amount once closed throws an
+     * `IllegalStateException`.
+     */
+    @Override
+    void close();
 }
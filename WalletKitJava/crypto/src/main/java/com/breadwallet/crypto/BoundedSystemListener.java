@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto;
+
+import android.support.annotation.Nullable;
+
+import com.breadwallet.crypto.events.network.NetworkEvent;
+import com.breadwallet.crypto.events.system.ListenerEvent;
+import com.breadwallet.crypto.events.system.SystemEvent;
+import com.breadwallet.crypto.events.system.SystemListener;
+import com.breadwallet.crypto.events.transfer.TranferEvent;
+import com.breadwallet.crypto.events.wallet.WalletEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerEvent;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A {@link SystemListener} that queues events, up to `capacity`, for delivery to another listener
+ * on `executor`; events are delivered one at a time, in order.
+ *
+ * What happens to an event announced while the queue is full depends on the `OverflowPolicy`.
+ * For the queue to bound the events pending, System must call this listener directly rather than
+ * through its (unbounded) executor; see `SystemConfiguration.setListenerDeliveredOnLanes` in
+ * corecrypto.
+ */
+public final class BoundedSystemListener implements SystemListener {
+
+    private static final Logger Log = Logger.getLogger(BoundedSystemListener.class.getName());
+
+    public enum OverflowPolicy {
+        /** Wait, on the announcing thread, for room in the queue */
+        BLOCK,
+
+        /**
+         * Merge an event into a queued event that it supersedes (as {@link CoalescingSystemListener}
+         * does), whether or not the queue is full; the merged event keeps the queued event's place.
+         * Otherwise, as `BLOCK`
+         */
+        COALESCE,
+
+        /** Discard the event */
+        DROP
+    }
+
+    private static final class Entry {
+
+        private ListenerEvent event;
+        private final @Nullable Object key;
+
+        Entry(ListenerEvent event, @Nullable Object key) {
+            this.event = event;
+            this.key = key;
+        }
+    }
+
+    private final SystemListener listener;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Executor executor;
+
+    // Guarded by `this`
+    private final ArrayDeque<Entry> queue;
+    private final Map<Object, Entry> queuedByKey;
+    private boolean draining;
+    private int highWaterMark;
+
+    private final AtomicLong droppedCount = new AtomicLong(0);
+    private final AtomicLong mergedCount = new AtomicLong(0);
+    private final AtomicLong blockedCount = new AtomicLong(0);
+
+    public BoundedSystemListener(SystemListener listener,
+                                 int capacity,
+                                 OverflowPolicy policy,
+                                 Executor executor) {
+        checkArgument(capacity >= 1);
+
+        this.listener = listener;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.executor = executor;
+
+        this.queue = new ArrayDeque<>();
+        this.queuedByKey = new HashMap<>();
+        this.draining = false;
+        this.highWaterMark = 0;
+    }
+
+    @Override
+    public void handleSystemEvent(System system, SystemEvent event) {
+        add(ListenerEvent.forSystem(system, event));
+    }
+
+    @Override
+    public void handleNetworkEvent(System system, Network network, NetworkEvent event) {
+        add(ListenerEvent.forNetwork(system, network, event));
+    }
+
+    @Override
+    public void handleManagerEvent(System system, WalletManager manager, WalletManagerEvent event) {
+        add(ListenerEvent.forManager(system, manager, event));
+    }
+
+    @Override
+    public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+        add(ListenerEvent.forWallet(system, manager, wallet, event));
+    }
+
+    @Override
+    public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TranferEvent event) {
+        add(ListenerEvent.forTransfer(system, manager, wallet, transfer, event));
+    }
+
+    /** The number of events queued */
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /** The largest number of events queued at once */
+    public synchronized int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /** The number of events discarded, under `DROP` */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /** The number of events merged into a queued event, under `COALESCE` */
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+
+    /** The number of events that waited for room in the queue */
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    private void add(ListenerEvent event) {
+        boolean startDraining;
+
+        synchronized (this) {
+            Object key = (OverflowPolicy.COALESCE == policy ? ListenerEventMerging.getMergeKey(event) : null);
+            if (null != key) {
+                Entry queued = queuedByKey.get(key);
+                if (null != queued) {
+                    queued.event = ListenerEventMerging.merge(queued.event, event);
+                    mergedCount.incrementAndGet();
+                    return;
+                }
+            }
+
+            if (queue.size() >= capacity) {
+                if (OverflowPolicy.DROP == policy) {
+                    droppedCount.incrementAndGet();
+                    return;
+                }
+
+                blockedCount.incrementAndGet();
+                while (queue.size() >= capacity) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        droppedCount.incrementAndGet();
+                        return;
+                    }
+                }
+            }
+
+            Entry entry = new Entry(event, key);
+            queue.add(entry);
+            if (null != key) {
+                queuedByKey.put(key, entry);
+            }
+            highWaterMark = Math.max(highWaterMark, queue.size());
+
+            startDraining = !draining;
+            draining = true;
+        }
+
+        if (startDraining) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        for (;;) {
+            ListenerEvent event;
+
+            synchronized (this) {
+                Entry entry = queue.poll();
+                if (null == entry) {
+                    draining = false;
+                    return;
+                }
+
+                if (null != entry.key && queuedByKey.get(entry.key) == entry) {
+                    queuedByKey.remove(entry.key);
+                }
+
+                event = entry.event;
+                notifyAll();
+            }
+
+            try {
+                event.dispatch(listener);
+            } catch (Throwable t) {
+                Log.log(Level.SEVERE, "Error handling event", t);
+            }
+        }
+    }
+}
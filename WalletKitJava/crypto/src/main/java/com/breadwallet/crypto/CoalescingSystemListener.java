@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto;
+
+import com.breadwallet.crypto.events.network.NetworkEvent;
+import com.breadwallet.crypto.events.system.BatchingSystemListener;
+import com.breadwallet.crypto.events.system.ListenerEvent;
+import com.breadwallet.crypto.events.system.SystemEvent;
+import com.breadwallet.crypto.events.system.SystemListener;
+import com.breadwallet.crypto.events.transfer.TranferEvent;
+import com.breadwallet.crypto.events.transfer.TransferChangedEvent;
+import com.breadwallet.crypto.events.wallet.WalletBalanceUpdatedEvent;
+import com.breadwallet.crypto.events.wallet.WalletEvent;
+import com.breadwallet.crypto.events.wallet.WalletTransferChangedEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerSyncProgressEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A {@link SystemListener} that collects events and hands them to a
+ * {@link BatchingSystemListener} in batches: once `maxBatchSize` events are pending, or
+ * `maxDelayMillis` after the first of them, whichever comes first.
+ *
+ * Within a batch, superseded events are merged away:
+ * - of the {@link WalletBalanceUpdatedEvent}s for a wallet, only the latest is kept;
+ * - of the {@link WalletManagerSyncProgressEvent}s for a manager, only the latest is kept;
+ * - of the {@link WalletTransferChangedEvent}s for a transfer, only the latest is kept;
+ * - the {@link TransferChangedEvent}s for a transfer become one, from the first old state to the
+ *   last new state.
+ * The kept event takes the place of the latest it merges, so that the events of each wallet (and
+ * of each manager) remain in the order announced.
+ *
+ * Batches are delivered one at a time, in order, on the scheduler's thread or, when a batch fills,
+ * on the thread announcing the event that filled it.
+ */
+public final class CoalescingSystemListener implements SystemListener {
+
+    private final BatchingSystemListener listener;
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService scheduler;
+
+    // Held while taking and delivering a batch, so that batches are delivered in order
+    private final Object deliveryLock = new Object();
+
+    // Pending events, in order; a merged-away event leaves a null.  Guarded by `this`
+    private List<ListenerEvent> pending;
+    private int pendingCount;
+    private final Map<Object, Integer> mergeableIndices;
+    private boolean flushScheduled;
+
+    private final AtomicLong receivedCount = new AtomicLong(0);
+    private final AtomicLong mergedCount = new AtomicLong(0);
+    private final AtomicLong batchCount = new AtomicLong(0);
+
+    public CoalescingSystemListener(BatchingSystemListener listener,
+                                    int maxBatchSize,
+                                    long maxDelayMillis,
+                                    ScheduledExecutorService scheduler) {
+        checkArgument(maxBatchSize >= 1 && maxDelayMillis >= 0);
+
+        this.listener = listener;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.scheduler = scheduler;
+
+        this.pending = new ArrayList<>();
+        this.pendingCount = 0;
+        this.mergeableIndices = new HashMap<>();
+        this.flushScheduled = false;
+    }
+
+    @Override
+    public void handleSystemEvent(System system, SystemEvent event) {
+        add(ListenerEvent.forSystem(system, event));
+    }
+
+    @Override
+    public void handleNetworkEvent(System system, Network network, NetworkEvent event) {
+        add(ListenerEvent.forNetwork(system, network, event));
+    }
+
+    @Override
+    public void handleManagerEvent(System system, WalletManager manager, WalletManagerEvent event) {
+        add(ListenerEvent.forManager(system, manager, event));
+    }
+
+    @Override
+    public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+        add(ListenerEvent.forWallet(system, manager, wallet, event));
+    }
+
+    @Override
+    public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TranferEvent event) {
+        add(ListenerEvent.forTransfer(system, manager, wallet, transfer, event));
+    }
+
+    /**
+     * Deliver the pending events now.
+     */
+    public void flush() {
+        synchronized (deliveryLock) {
+            List<ListenerEvent> batch;
+            synchronized (this) {
+                batch = takeBatch();
+            }
+
+            if (!batch.isEmpty()) {
+                batchCount.incrementAndGet();
+                listener.handleEventBatch(batch);
+            }
+        }
+    }
+
+    /** The number of events received */
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    /** The number of events merged into a later event */
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+
+    /** The number of batches delivered */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    private void add(ListenerEvent event) {
+        receivedCount.incrementAndGet();
+
+        Object key = ListenerEventMerging.getMergeKey(event);
+
+        boolean full;
+        synchronized (this) {
+            if (null != key) {
+                Integer index = mergeableIndices.get(key);
+                if (null != index) {
+                    event = ListenerEventMerging.merge(pending.get(index), event);
+                    pending.set(index, null);
+                    pendingCount -= 1;
+                    mergedCount.incrementAndGet();
+                }
+                mergeableIndices.put(key, pending.size());
+            }
+
+            pending.add(event);
+            pendingCount += 1;
+
+            full = pendingCount >= maxBatchSize;
+            if (!full && !flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (full) {
+            flush();
+        }
+    }
+
+    // Guarded by `this`
+    private List<ListenerEvent> takeBatch() {
+        List<ListenerEvent> batch = new ArrayList<>(pendingCount);
+        for (ListenerEvent event : pending) {
+            if (null != event) batch.add(event);
+        }
+
+        pending = new ArrayList<>();
+        pendingCount = 0;
+        mergeableIndices.clear();
+        flushScheduled = false;
+        return batch;
+    }
+}
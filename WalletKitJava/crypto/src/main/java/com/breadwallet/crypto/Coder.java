@@ -9,7 +9,7 @@ package com.breadwallet.crypto;
 
 import com.google.common.base.Optional;
 
-public interface Coder {
+public interface Coder extends AutoCloseable {
 
     enum Algorithm {
         HEX,
@@ -25,4 +25,10 @@ public interface Coder {
     Optional<String> encode(byte[] source);
 
     Optional<byte[]> decode(String source);
+
+    /**
+     * Does nothing: the coder of each algorithm is shared, and lives as long as the process.
+     */
+    @Override
+    void close();
 }
@@ -8,55 +8,90 @@
 package com.breadwallet.crypto;
 
 import com.breadwallet.crypto.events.network.NetworkEvent;
-import com.breadwallet.crypto.events.system.DefaultSystemListener;
 import com.breadwallet.crypto.events.system.SystemEvent;
 import com.breadwallet.crypto.events.system.SystemListener;
 import com.breadwallet.crypto.events.transfer.TranferEvent;
 import com.breadwallet.crypto.events.wallet.WalletEvent;
 import com.breadwallet.crypto.events.walletmanager.WalletManagerEvent;
 
-import java.util.Objects;
-import java.util.concurrent.CopyOnWriteArraySet;
-
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dispatches events to listeners registered for all events or for those of a particular wallet
+ * manager, wallet or transfer.
+ *
+ * Scoped listeners are indexed by their wallet manager, wallet or transfer, so an event is only
+ * handed to the listeners that match it.  Registration is lock-free: each set of listeners is an
+ * immutable array, replaced by compare-and-set.
+ */
 public final class DispatchingSystemListener implements SystemListener {
 
-    private final CopyOnWriteArraySet<SystemListener> listeners;
+    private static final SystemListener[] NO_LISTENERS = new SystemListener[0];
+
+    private final AtomicReference<SystemListener[]> listeners;
+    private final ListenerIndex<WalletManager> managerListeners;
+    private final ListenerIndex<Wallet> walletListeners;
+    private final ListenerIndex<Transfer> transferListeners;
 
     public DispatchingSystemListener() {
-        this.listeners = new CopyOnWriteArraySet<>();
+        this.listeners = new AtomicReference<>(NO_LISTENERS);
+        this.managerListeners = new ListenerIndex<>();
+        this.walletListeners = new ListenerIndex<>();
+        this.transferListeners = new ListenerIndex<>();
     }
 
     @Override
     public void handleSystemEvent(System system, SystemEvent event) {
-        for (SystemListener listener: listeners) {
+        for (SystemListener listener: listeners.get()) {
             listener.handleSystemEvent(system, event);
-        };
+        }
     }
 
     @Override
     public void handleNetworkEvent(System system, Network network, NetworkEvent event) {
-        for (SystemListener listener: listeners) {
+        for (SystemListener listener: listeners.get()) {
             listener.handleNetworkEvent(system, network, event);
         }
     }
 
     @Override
     public void handleManagerEvent(System system, WalletManager manager, WalletManagerEvent event) {
-        for (SystemListener listener: listeners) {
+        for (SystemListener listener: listeners.get()) {
+            listener.handleManagerEvent(system, manager, event);
+        }
+        for (SystemListener listener: managerListeners.get(manager)) {
             listener.handleManagerEvent(system, manager, event);
         }
     }
 
     @Override
     public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
-        for (SystemListener listener: listeners) {
+        for (SystemListener listener: listeners.get()) {
+            listener.handleWalletEvent(system, manager, wallet, event);
+        }
+        for (SystemListener listener: managerListeners.get(manager)) {
+            listener.handleWalletEvent(system, manager, wallet, event);
+        }
+        for (SystemListener listener: walletListeners.get(wallet)) {
             listener.handleWalletEvent(system, manager, wallet, event);
         }
     }
 
     @Override
     public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TranferEvent event) {
-        for (SystemListener listener: listeners) {
+        for (SystemListener listener: listeners.get()) {
+            listener.handleTransferEvent(system, manager, wallet, transfer, event);
+        }
+        for (SystemListener listener: managerListeners.get(manager)) {
+            listener.handleTransferEvent(system, manager, wallet, transfer, event);
+        }
+        for (SystemListener listener: walletListeners.get(wallet)) {
+            listener.handleTransferEvent(system, manager, wallet, transfer, event);
+        }
+        for (SystemListener listener: transferListeners.get(transfer)) {
             listener.handleTransferEvent(system, manager, wallet, transfer, event);
         }
     }
@@ -67,14 +102,22 @@ public final class DispatchingSystemListener implements SystemListener {
      * Add a listener for all events.
      */
     public void addSystemListener(SystemListener listener) {
-        listeners.add(listener);
+        for (;;) {
+            SystemListener[] current = listeners.get();
+            SystemListener[] updated = with(current, listener);
+            if (current == updated || listeners.compareAndSet(current, updated)) return;
+        }
     }
 
     /**
      * Remove a listener for all events.
      */
     public void removeSystemListener(SystemListener listener) {
-        listeners.remove(listener);
+        for (;;) {
+            SystemListener[] current = listeners.get();
+            SystemListener[] updated = without(current, listener);
+            if (current == updated || listeners.compareAndSet(current, updated)) return;
+        }
     }
 
     // WalletManagerListener registration
@@ -85,14 +128,14 @@ public final class DispatchingSystemListener implements SystemListener {
      * This includes {@link WalletManagerEvent}, {@link WalletEvent} and {@link TranferEvent} events.
      */
     public void addWalletManagerListener(WalletManager manager, SystemListener listener) {
-        listeners.add(new ScopedWalletManagerListener(manager, listener));
+        managerListeners.add(manager, listener);
     }
 
     /**
      * Remove a listener for events scoped to a {@link WalletManager}.
      */
     public void removeWalletManagerListener(WalletManager manager, SystemListener listener) {
-        listeners.remove(new ScopedWalletManagerListener(manager, listener));
+        managerListeners.remove(manager, listener);
     }
 
     // WalletListener registration
@@ -103,14 +146,14 @@ public final class DispatchingSystemListener implements SystemListener {
      * This includes {@link WalletEvent} and {@link TranferEvent} events.
      */
     public void addWalletListener(Wallet wallet, SystemListener listener) {
-        listeners.add(new ScopedWalletListener(wallet, listener));
+        walletListeners.add(wallet, listener);
     }
 
     /**
      * Remove a listener for events scoped to a {@link Wallet}.
      */
     public void removeWalletListener(Wallet wallet, SystemListener listener) {
-        listeners.remove(new ScopedWalletListener(wallet, listener));
+        walletListeners.remove(wallet, listener);
     }
 
     // TransferListener registration
@@ -121,148 +164,90 @@ public final class DispatchingSystemListener implements SystemListener {
      * This includes {@link TranferEvent} events.
      */
     public void addTransferListener(Transfer transfer, SystemListener listener) {
-        listeners.add(new ScopedTransferListener(transfer, listener));
+        transferListeners.add(transfer, listener);
     }
 
     /**
      * Remove a listener for events scoped to a {@link Transfer}.
      */
     public void removeTransferListener(Transfer transfer, SystemListener listener) {
-        listeners.remove(new ScopedTransferListener(transfer, listener));
+        transferListeners.remove(transfer, listener);
     }
 
-    private static class ScopedWalletManagerListener implements DefaultSystemListener {
-
-        private final WalletManager manager;
-        private final SystemListener listener;
-
-        ScopedWalletManagerListener(WalletManager manager, SystemListener listener) {
-            this.manager = manager;
-            this.listener = listener;
-        }
-
-        @Override
-        public void handleManagerEvent(System system, WalletManager manager, WalletManagerEvent event) {
-            if (this.manager.equals(manager)) {
-                listener.handleManagerEvent(system, manager, event);
-            }
-        }
-
-        @Override
-        public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
-            if (this.manager.equals(manager)) {
-                listener.handleWalletEvent(system, manager, wallet, event);
-            }
-        }
-
-        @Override
-        public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TranferEvent event) {
-            if (this.manager.equals(manager)) {
-                listener.handleTransferEvent(system, manager, wallet, transfer, event);
-            }
-        }
-
-        @Override
-        public boolean equals(Object object) {
-            if (this == object) {
-                return true;
-            }
-
-            if (!(object instanceof ScopedWalletManagerListener)) {
-                return false;
-            }
-
-            ScopedWalletManagerListener that = (ScopedWalletManagerListener) object;
-            return manager.equals(that.manager) &&
-                    listener.equals(that.listener);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(manager, listener);
-        }
+    /* package */
+    int getScopedKeyCount() {
+        return managerListeners.size() + walletListeners.size() + transferListeners.size();
     }
 
-    private static class ScopedWalletListener implements DefaultSystemListener {
+    // Listeners keyed by wallet manager, wallet or transfer.  An entry is never empty: it is
+    // removed along with its last listener.
+    private static final class ListenerIndex<K> {
 
-        private final Wallet wallet;
-        private final SystemListener listener;
+        private final ConcurrentMap<K, SystemListener[]> entries = new ConcurrentHashMap<>();
 
-        ScopedWalletListener(Wallet wallet, SystemListener listener) {
-            this.wallet = wallet;
-            this.listener = listener;
+        int size() {
+            return entries.size();
         }
 
-        @Override
-        public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
-            if (this.wallet.equals(wallet)) {
-                listener.handleWalletEvent(system, manager, wallet, event);
-            }
+        SystemListener[] get(K key) {
+            SystemListener[] listeners = entries.get(key);
+            return null == listeners ? NO_LISTENERS : listeners;
         }
 
-        @Override
-        public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TranferEvent event) {
-            if (this.wallet.equals(wallet)) {
-                listener.handleTransferEvent(system, manager, wallet, transfer, event);
+        void add(K key, SystemListener listener) {
+            for (;;) {
+                SystemListener[] current = entries.get(key);
+                if (null == current) {
+                    if (null == entries.putIfAbsent(key, new SystemListener[] { listener })) return;
+                } else {
+                    SystemListener[] updated = with(current, listener);
+                    if (current == updated || entries.replace(key, current, updated)) return;
+                }
             }
         }
 
-        @Override
-        public boolean equals(Object object) {
-            if (this == object) {
-                return true;
-            }
+        void remove(K key, SystemListener listener) {
+            for (;;) {
+                SystemListener[] current = entries.get(key);
+                if (null == current) return;
 
-            if (!(object instanceof ScopedWalletListener)) {
-                return false;
-            }
+                SystemListener[] updated = without(current, listener);
+                if (current == updated) return;
 
-            ScopedWalletListener that = (ScopedWalletListener) object;
-            return wallet.equals(that.wallet) &&
-                    listener.equals(that.listener);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(wallet, listener);
+                if (0 == updated.length) {
+                    if (entries.remove(key, current)) return;
+                } else {
+                    if (entries.replace(key, current, updated)) return;
+                }
+            }
         }
     }
 
-    private static class ScopedTransferListener implements DefaultSystemListener {
+    // `listeners` with `listener` appended, or `listeners` itself if it is already present
+    private static SystemListener[] with(SystemListener[] listeners, SystemListener listener) {
+        if (-1 != indexOf(listeners, listener)) return listeners;
 
-        private final Transfer transfer;
-        private final SystemListener listener;
-
-        ScopedTransferListener(Transfer transfer, SystemListener listener) {
-            this.transfer = transfer;
-            this.listener = listener;
-        }
-
-        @Override
-        public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TranferEvent event) {
-            if (this.transfer.equals(transfer)) {
-                listener.handleTransferEvent(system, manager, wallet, transfer, event);
-            }
-        }
-
-        @Override
-        public boolean equals(Object object) {
-            if (this == object) {
-                return true;
-            }
+        SystemListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        return updated;
+    }
 
-            if (!(object instanceof ScopedTransferListener)) {
-                return false;
-            }
+    // `listeners` less `listener`, or `listeners` itself if it is not present
+    private static SystemListener[] without(SystemListener[] listeners, SystemListener listener) {
+        int index = indexOf(listeners, listener);
+        if (-1 == index) return listeners;
+        if (1 == listeners.length) return NO_LISTENERS;
 
-            ScopedTransferListener that = (ScopedTransferListener) object;
-            return transfer.equals(that.transfer) &&
-                    listener.equals(that.listener);
-        }
+        SystemListener[] updated = new SystemListener[listeners.length - 1];
+        java.lang.System.arraycopy(listeners, 0, updated, 0, index);
+        java.lang.System.arraycopy(listeners, index + 1, updated, index, listeners.length - index - 1);
+        return updated;
+    }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(transfer, listener);
+    private static int indexOf(SystemListener[] listeners, SystemListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) return i;
         }
+        return -1;
     }
 }
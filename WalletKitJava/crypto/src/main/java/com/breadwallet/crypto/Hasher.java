@@ -9,7 +9,7 @@ package com.breadwallet.crypto;
 
 import com.google.common.base.Optional;
 
-public interface Hasher {
+public interface Hasher extends AutoCloseable {
 
     enum Algorithm {
         SHA1,
@@ -30,4 +30,10 @@ public interface Hasher {
     }
 
     Optional<byte[]> hash(byte[] data);
+
+    /**
+     * Does nothing: the hasher of each algorithm is shared, and lives as long as the process.
+     */
+    @Override
+    void close();
 }
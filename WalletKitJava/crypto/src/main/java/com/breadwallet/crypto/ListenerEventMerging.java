@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto;
+
+import android.support.annotation.Nullable;
+
+import com.breadwallet.crypto.events.system.ListenerEvent;
+import com.breadwallet.crypto.events.transfer.TransferChangedEvent;
+import com.breadwallet.crypto.events.wallet.WalletBalanceUpdatedEvent;
+import com.breadwallet.crypto.events.wallet.WalletTransferChangedEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerSyncProgressEvent;
+
+import java.util.Objects;
+
+/**
+ * Which pending events a later event supersedes, and how they merge:
+ * - of the {@link WalletBalanceUpdatedEvent}s for a wallet, only the latest is kept;
+ * - of the {@link WalletManagerSyncProgressEvent}s for a manager, only the latest is kept;
+ * - of the {@link WalletTransferChangedEvent}s for a transfer, only the latest is kept;
+ * - the {@link TransferChangedEvent}s for a transfer become one, from the first old state to the
+ *   last new state.
+ */
+/* package */
+final class ListenerEventMerging {
+
+    /**
+     * The key shared by `event` and the events it may merge with, or null if it never merges.
+     */
+    @Nullable
+    /* package */
+    static Object getMergeKey(ListenerEvent event) {
+        Object e = event.getEvent();
+
+        if (e instanceof WalletManagerSyncProgressEvent) {
+            return new MergeKey(WalletManagerSyncProgressEvent.class, event.getManager().get(), null);
+        } else if (e instanceof WalletBalanceUpdatedEvent) {
+            return new MergeKey(WalletBalanceUpdatedEvent.class, event.getWallet().get(), null);
+        } else if (e instanceof WalletTransferChangedEvent) {
+            return new MergeKey(WalletTransferChangedEvent.class, event.getWallet().get(), ((WalletTransferChangedEvent) e).getTransfer());
+        } else if (e instanceof TransferChangedEvent) {
+            return new MergeKey(TransferChangedEvent.class, event.getTransfer().get(), null);
+        }
+        return null;
+    }
+
+    /**
+     * The event replacing `earlier` and `later`, of the same merge key.
+     */
+    /* package */
+    static ListenerEvent merge(ListenerEvent earlier, ListenerEvent later) {
+        if (later.getEvent() instanceof TransferChangedEvent) {
+            TransferChangedEvent earlierEvent = (TransferChangedEvent) earlier.getEvent();
+            TransferChangedEvent laterEvent = (TransferChangedEvent) later.getEvent();
+            return ListenerEvent.forTransfer(
+                    later.getSystem(),
+                    later.getManager().get(),
+                    later.getWallet().get(),
+                    later.getTransfer().get(),
+                    new TransferChangedEvent(earlierEvent.getOldState(), laterEvent.getNewState()));
+        }
+        return later;
+    }
+
+    private static final class MergeKey {
+
+        private final Class<?> eventClass;
+        private final Object subject;
+        private final @Nullable Object detail;
+
+        MergeKey(Class<?> eventClass, Object subject, @Nullable Object detail) {
+            this.eventClass = eventClass;
+            this.subject = subject;
+            this.detail = detail;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+
+            if (!(object instanceof MergeKey)) {
+                return false;
+            }
+
+            MergeKey that = (MergeKey) object;
+            return eventClass.equals(that.eventClass) &&
+                    subject.equals(that.subject) &&
+                    Objects.equals(detail, that.detail);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(eventClass, subject, detail);
+        }
+    }
+
+    private ListenerEventMerging() {
+    }
+}
@@ -9,7 +9,7 @@ package com.breadwallet.crypto;
 
 import com.google.common.base.Optional;
 
-public interface Signer {
+public interface Signer extends AutoCloseable {
 
     enum Algorithm {
         BASIC_DER,
@@ -24,4 +24,10 @@ public interface Signer {
     Optional<byte[]> sign(byte[] digest, Key key);
 
     Optional<? extends Key> recover(byte[] digest, byte[] signature);
+
+    /**
+     * Does nothing: the signer of each algorithm is shared, and lives as long as the process.
+     */
+    @Override
+    void close();
 }
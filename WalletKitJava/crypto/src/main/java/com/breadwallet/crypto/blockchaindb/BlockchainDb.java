@@ -9,11 +9,16 @@ package com.breadwallet.crypto.blockchaindb;
 
 import android.support.annotation.Nullable;
 
+import com.breadwallet.crypto.blockchaindb.apis.PageHandler;
 import com.breadwallet.crypto.blockchaindb.apis.bdb.BlockApi;
 import com.breadwallet.crypto.blockchaindb.apis.bdb.BlockchainApi;
 import com.breadwallet.crypto.blockchaindb.apis.bdb.CurrencyApi;
 import com.breadwallet.crypto.blockchaindb.apis.bdb.BdbApiClient;
 import com.breadwallet.crypto.blockchaindb.apis.bdb.ExperimentalApi;
+import com.breadwallet.crypto.blockchaindb.apis.bdb.PaginationScheduler;
+import com.breadwallet.crypto.blockchaindb.apis.bdb.RequestMetricsListener;
+import com.breadwallet.crypto.blockchaindb.apis.bdb.CircuitBreaker;
+import com.breadwallet.crypto.blockchaindb.apis.bdb.ThrottleListener;
 import com.breadwallet.crypto.blockchaindb.apis.bdb.SubscriptionApi;
 import com.breadwallet.crypto.blockchaindb.apis.bdb.TransactionApi;
 import com.breadwallet.crypto.blockchaindb.apis.bdb.TransferApi;
@@ -30,26 +35,37 @@ import com.breadwallet.crypto.blockchaindb.models.bdb.Transaction;
 import com.breadwallet.crypto.blockchaindb.models.bdb.TransactionFee;
 import com.breadwallet.crypto.blockchaindb.models.bdb.Transfer;
 import com.breadwallet.crypto.utility.CompletionHandler;
+import com.google.common.base.Optional;
 import com.google.common.primitives.UnsignedLong;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 
 public class BlockchainDb {
 
+    private static final Logger Log = Logger.getLogger(BlockchainDb.class.getName());
+
     private static final String DEFAULT_BDB_BASE_URL = "https://api.blockset.com";
     private static final String DEFAULT_API_BASE_URL = "https://api.breadwallet.com";
     private static final DataTask DEFAULT_DATA_TASK = (cli, request, callback) -> cli.newCall(request).enqueue(callback);
 
+    private static final long DEFAULT_CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long SCHEDULER_KEEP_ALIVE_SECONDS = 30;
+
     private final AtomicInteger ridGenerator;
 
     private final OkHttpClient client;
+    private final BdbApiClient bdbClient;
+    private final PaginationScheduler paginationScheduler;
     private final BlockApi blockApi;
     private final BlockchainApi blockchainApi;
     private final CurrencyApi currencyApi;
@@ -58,6 +74,10 @@ public class BlockchainDb {
     private final TransactionApi transactionApi;
     private final ExperimentalApi experimentalApi;
 
+    private final ExecutorStrategy executorStrategy;
+    private final ExecutorService executorService;
+    private final ScheduledExecutorService scheduledExecutorService;
+
     public BlockchainDb(OkHttpClient client) {
         this(client, null, null, null, null);
     }
@@ -71,29 +91,56 @@ public class BlockchainDb {
                         @Nullable DataTask bdbDataTask,
                         @Nullable String apiBaseURL,
                         @Nullable DataTask apiDataTask) {
+        this(client, bdbBaseURL, bdbDataTask, apiBaseURL, apiDataTask, BlockchainDbOptions.DEFAULT);
+    }
+
+    /**
+     * @param options the optional settings, such as response caching and retrying
+     */
+    public BlockchainDb(OkHttpClient client,
+                        @Nullable String bdbBaseURL,
+                        @Nullable DataTask bdbDataTask,
+                        @Nullable String apiBaseURL,
+                        @Nullable DataTask apiDataTask,
+                        BlockchainDbOptions options) {
         bdbBaseURL = bdbBaseURL == null ? DEFAULT_BDB_BASE_URL : bdbBaseURL;
         apiBaseURL = apiBaseURL == null ? DEFAULT_API_BASE_URL : apiBaseURL;
 
         bdbDataTask = bdbDataTask == null ? DEFAULT_DATA_TASK : bdbDataTask;
         apiDataTask = apiDataTask == null ? DEFAULT_DATA_TASK : apiDataTask;
 
+        ExecutorStrategy executorStrategy = options.getExecutorStrategy();
+        ExecutorService executorService = executorStrategy.createExecutor();
+        ScheduledThreadPoolExecutor scheduledExecutorService = new ScheduledThreadPoolExecutor(1,
+                ExecutorStrategy.createThreadFactory("blockchaindb-scheduler-%d"));
+        scheduledExecutorService.setKeepAliveTime(SCHEDULER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        scheduledExecutorService.allowCoreThreadTimeOut(true);
+
         ObjectCoder coder = ObjectCoder.createObjectCoderWithFailOnUnknownProperties();
-        BdbApiClient bdbClient = new BdbApiClient(client, bdbBaseURL, bdbDataTask, coder);
+        BdbApiClient bdbClient = new BdbApiClient(client, bdbBaseURL, bdbDataTask, coder,
+                options.getBdbResponseCache(), executorService, options.getBdbRetryPolicy(),
+                options.getBdbThrottlePolicies(), scheduledExecutorService);
         BrdApiClient brdClient = new BrdApiClient(client, apiBaseURL, apiDataTask, coder);
 
-        ExecutorService executorService = Executors.newCachedThreadPool();
-        ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        PaginationScheduler paginationScheduler = new PaginationScheduler(options.getMaxPagesInFlight(),
+                options.isPrefetchPages(), executorService);
 
         this.ridGenerator = new AtomicInteger(0);
 
         this.client = client;
+        this.bdbClient = bdbClient;
+        this.paginationScheduler = paginationScheduler;
         this.blockApi = new BlockApi(bdbClient, executorService);
         this.blockchainApi = new BlockchainApi(bdbClient);
         this.currencyApi = new CurrencyApi(bdbClient, executorService);
         this.subscriptionApi = new SubscriptionApi(bdbClient);
-        this.transferApi = new TransferApi(bdbClient, executorService);
-        this.transactionApi = new TransactionApi(bdbClient, executorService);
+        this.transferApi = new TransferApi(bdbClient, paginationScheduler);
+        this.transactionApi = new TransactionApi(bdbClient, paginationScheduler);
         this.experimentalApi = new ExperimentalApi(bdbClient, scheduledExecutorService);
+
+        this.executorStrategy = executorStrategy;
+        this.executorService = executorService;
+        this.scheduledExecutorService = scheduledExecutorService;
     }
 
     public static BlockchainDb createForTest (OkHttpClient client,
@@ -124,6 +171,153 @@ public class BlockchainDb {
         // request had completed just before the `cancelAll()` call.
     }
 
+    /**
+     * Close, waiting up to ten seconds for outstanding work to complete.
+     *
+     * @see #close(long)
+     */
+    public void close() {
+        try {
+            close(DEFAULT_CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Close: wait for outstanding Blockset requests (and their retries), including the page
+     * requests of paged queries still waiting for a slot, to complete and for queued work to
+     * drain, then stop the executors.  Requests still waiting on a retry delay or a rate limit
+     * after `timeoutMillis` fail, with a `QuerySubmissionError`; other work still running is
+     * interrupted.  A caller-provided executor is not shut down.  Requests made once closing has
+     * started are not guaranteed to complete.
+     *
+     * @return true if all work completed within `timeoutMillis`
+     */
+    public boolean close(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        boolean drained = awaitIdle(deadline);
+        bdbClient.close();
+
+        scheduledExecutorService.shutdown();
+        if (executorStrategy.isOwned()) {
+            executorService.shutdown();
+        }
+
+        drained &= scheduledExecutorService.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        if (executorStrategy.isOwned()) {
+            drained &= executorService.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+
+        if (!drained) {
+            Log.log(Level.WARNING, "Closing with work outstanding");
+            scheduledExecutorService.shutdownNow();
+            if (executorStrategy.isOwned()) {
+                executorService.shutdownNow();
+            }
+        }
+        return drained;
+    }
+
+    // A page request waiting for a slot is not yet a Blockset request, while a completing Blockset
+    // request may lead to another page request; so wait until both are idle at once
+    private boolean awaitIdle(long deadline) throws InterruptedException {
+        do {
+            if (!paginationScheduler.awaitIdle(Math.max(0, deadline - System.currentTimeMillis())) ||
+                    !bdbClient.awaitIdle(Math.max(0, deadline - System.currentTimeMillis()))) {
+                return false;
+            }
+        } while (paginationScheduler.getInFlightCount() > 0);
+        return true;
+    }
+
+    /**
+     * The queue and work metrics of the background executor, if it is a bounded pool
+     */
+    public Optional<ExecutorStrategy.Metrics> getExecutorMetrics() {
+        return executorStrategy.getMetrics(executorService);
+    }
+
+    /**
+     * The number of Blockset GET requests that shared the response of an identical request
+     * already in flight
+     */
+    public long getCoalescedRequestCount() {
+        return bdbClient.getCoalescedRequestCount();
+    }
+
+    /**
+     * The number of Blockset GET requests sent, having no identical request in flight
+     */
+    public long getUncoalescedRequestCount() {
+        return bdbClient.getUncoalescedRequestCount();
+    }
+
+    /**
+     * The number of times a failed Blockset request was retried
+     */
+    public long getRetryCount() {
+        return bdbClient.getRetryCount();
+    }
+
+    /**
+     * The number of failed Blockset requests given up on, without a further retry
+     */
+    public long getRetryGiveUpCount() {
+        return bdbClient.getRetryGiveUpCount();
+    }
+
+    /**
+     * The total time, in milliseconds, Blockset requests were delayed by their rate limits
+     */
+    public long getRateLimitedWaitMillis() {
+        return bdbClient.getRateLimitedWaitMillis();
+    }
+
+    /**
+     * The number of Blockset requests failed fast, as their endpoint's circuit breaker was open
+     */
+    public long getRejectedRequestCount() {
+        return bdbClient.getRejectedRequestCount();
+    }
+
+    /**
+     * The circuit breaker state of a Blockset endpoint family (such as "transfers")
+     */
+    public Optional<CircuitBreaker.State> getCircuitState(String endpoint) {
+        return bdbClient.getCircuitState(endpoint);
+    }
+
+    public void setThrottleListener(@Nullable ThrottleListener listener) {
+        bdbClient.setThrottleListener(listener);
+    }
+
+    /**
+     * Set the listener for the metrics of each Blockset request sent, such as a
+     * `RequestMetricsAggregator`, or null (the default) to not measure requests.  Requests made
+     * within a `RequestTag` scope are attributed to its tag.
+     */
+    public void setMetricsListener(@Nullable RequestMetricsListener listener) {
+        bdbClient.setMetricsListener(listener);
+    }
+
+    /**
+     * The number of duplicate transactions, returned for more than one chunk of addresses,
+     * eliminated from paged `getTransactions` results
+     */
+    public long getDuplicateTransactionCount() {
+        return transactionApi.getDuplicateCount();
+    }
+
+    /**
+     * The number of duplicate transfers, returned for more than one chunk of addresses,
+     * eliminated from paged `getTransfers` results
+     */
+    public long getDuplicateTransferCount() {
+        return transferApi.getDuplicateCount();
+    }
+
     // Blockchain
 
     public void getBlockchains(CompletionHandler<List<Blockchain>, QueryError> handler) {
@@ -268,6 +462,23 @@ public class BlockchainDb {
         );
     }
 
+    /* Throws 'IllegalArgumentException' if `addresses` is empty. */
+    public void getTransfers(String id,
+                             List<String> addresses,
+                             @Nullable UnsignedLong beginBlockNumber,
+                             @Nullable UnsignedLong endBlockNumber,
+                             @Nullable Integer maxPageSize,
+                             PageHandler<Transfer, QueryError> handler) {
+        transferApi.getTransfers(
+                id,
+                addresses,
+                beginBlockNumber,
+                endBlockNumber,
+                maxPageSize,
+                handler
+        );
+    }
+
     public void getTransfer(String id,
                             CompletionHandler<Transfer, QueryError> handler) {
         transferApi.getTransfer(
@@ -323,6 +534,29 @@ public class BlockchainDb {
         );
     }
 
+    /* Throws 'IllegalArgumentException' if `addresses` is empty. */
+    public void getTransactions(String id,
+                                List<String> addresses,
+                                @Nullable UnsignedLong beginBlockNumber,
+                                @Nullable UnsignedLong endBlockNumber,
+                                boolean includeRaw,
+                                boolean includeProof,
+                                boolean includeTransfers,
+                                @Nullable Integer maxPageSize,
+                                PageHandler<Transaction, QueryError> handler) {
+        transactionApi.getTransactions(
+                id,
+                addresses,
+                beginBlockNumber,
+                endBlockNumber,
+                includeRaw,
+                includeProof,
+                includeTransfers,
+                maxPageSize,
+                handler
+        );
+    }
+
     public void getTransaction(String id,
                                boolean includeRaw,
                                boolean includeProof,
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb;
+
+import android.support.annotation.Nullable;
+
+import com.breadwallet.crypto.blockchaindb.apis.bdb.PaginationScheduler;
+import com.breadwallet.crypto.blockchaindb.apis.bdb.RetryPolicy;
+import com.breadwallet.crypto.blockchaindb.apis.bdb.ThrottlePolicy;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The optional settings of a BlockchainDb.  Each setting not given keeps its default, under which
+ * a BlockchainDb neither caches, retries nor throttles.
+ *
+ * <pre>
+ *     BlockchainDbOptions options = BlockchainDbOptions.builder()
+ *             .setBdbRetryPolicy(RetryPolicy.RECOMMENDED)
+ *             .build();
+ * </pre>
+ */
+public final class BlockchainDbOptions {
+
+    public static final BlockchainDbOptions DEFAULT = builder().build();
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final int maxPagesInFlight;
+    private final boolean prefetchPages;
+    private final @Nullable ResponseCache bdbResponseCache;
+    private final RetryPolicy bdbRetryPolicy;
+    private final Map<String, ThrottlePolicy> bdbThrottlePolicies;
+    private final ExecutorStrategy executorStrategy;
+
+    private BlockchainDbOptions(Builder builder) {
+        this.maxPagesInFlight = builder.maxPagesInFlight;
+        this.prefetchPages = builder.prefetchPages;
+        this.bdbResponseCache = builder.bdbResponseCache;
+        this.bdbRetryPolicy = builder.bdbRetryPolicy;
+        this.bdbThrottlePolicies = ImmutableMap.copyOf(builder.bdbThrottlePolicies);
+        this.executorStrategy = builder.executorStrategy;
+    }
+
+    public int getMaxPagesInFlight() {
+        return maxPagesInFlight;
+    }
+
+    public boolean isPrefetchPages() {
+        return prefetchPages;
+    }
+
+    @Nullable
+    public ResponseCache getBdbResponseCache() {
+        return bdbResponseCache;
+    }
+
+    public RetryPolicy getBdbRetryPolicy() {
+        return bdbRetryPolicy;
+    }
+
+    public Map<String, ThrottlePolicy> getBdbThrottlePolicies() {
+        return bdbThrottlePolicies;
+    }
+
+    public ExecutorStrategy getExecutorStrategy() {
+        return executorStrategy;
+    }
+
+    public static final class Builder {
+
+        private int maxPagesInFlight = PaginationScheduler.DEFAULT_MAX_IN_FLIGHT;
+        private boolean prefetchPages = PaginationScheduler.DEFAULT_PREFETCH;
+        private @Nullable ResponseCache bdbResponseCache = null;
+        private RetryPolicy bdbRetryPolicy = RetryPolicy.NONE;
+        private Map<String, ThrottlePolicy> bdbThrottlePolicies = ImmutableMap.of();
+        private ExecutorStrategy executorStrategy = ExecutorStrategy.bounded();
+
+        private Builder() {
+        }
+
+        /**
+         * The maximum number of page requests, of paged transaction and transfer queries, in
+         * flight at once
+         */
+        public Builder setMaxPagesInFlight(int maxPagesInFlight) {
+            checkArgument(maxPagesInFlight > 0);
+            this.maxPagesInFlight = maxPagesInFlight;
+            return this;
+        }
+
+        /**
+         * If true, request the next page of a paged query before the current page is handled
+         */
+        public Builder setPrefetchPages(boolean prefetchPages) {
+            this.prefetchPages = prefetchPages;
+            return this;
+        }
+
+        /**
+         * The cache for BlockchainDB responses, or null (the default) for none; it determines, per
+         * endpoint, which responses are cached and for how long
+         */
+        public Builder setBdbResponseCache(@Nullable ResponseCache bdbResponseCache) {
+            this.bdbResponseCache = bdbResponseCache;
+            return this;
+        }
+
+        /**
+         * The policy for retrying failed BlockchainDB requests, such as `RetryPolicy.RECOMMENDED`;
+         * by default, `RetryPolicy.NONE`
+         */
+        public Builder setBdbRetryPolicy(RetryPolicy bdbRetryPolicy) {
+            this.bdbRetryPolicy = checkNotNull(bdbRetryPolicy);
+            return this;
+        }
+
+        /**
+         * The rate limit and circuit breaker of each BlockchainDB endpoint family, keyed by its
+         * first path segment (such as "transfers"), such as `ThrottlePolicy.RECOMMENDED_POLICIES`;
+         * an endpoint family without a policy, as by default, is not throttled
+         */
+        public Builder setBdbThrottlePolicies(Map<String, ThrottlePolicy> bdbThrottlePolicies) {
+            this.bdbThrottlePolicies = checkNotNull(bdbThrottlePolicies);
+            return this;
+        }
+
+        /**
+         * How background work is run; by default, `ExecutorStrategy.bounded()`
+         */
+        public Builder setExecutorStrategy(ExecutorStrategy executorStrategy) {
+            this.executorStrategy = checkNotNull(executorStrategy);
+            return this;
+        }
+
+        public BlockchainDbOptions build() {
+            return new BlockchainDbOptions(this);
+        }
+    }
+}
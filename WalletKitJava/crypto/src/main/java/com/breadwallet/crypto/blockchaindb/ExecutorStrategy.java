@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * How a BlockchainDb runs its background work: dispatching the requests for subsequent pages of
+ * paged queries.  That work is brief and never blocks, so a small pool suffices.
+ *
+ * A strategy is either:
+ * - `bounded`: a pool of at most `threadCount` daemon threads, idle threads expiring, with an
+ *   optionally bounded queue; once the queue is full, or the pool shut down, work runs on the
+ *   submitting thread.  Queue metrics are available.
+ * - `virtualThreads`: a virtual thread per task, on a JDK with virtual threads; otherwise, as
+ *   `bounded` with the default thread count.
+ * - `provided`: a caller-provided executor, which the caller owns and shuts down.
+ */
+public abstract class ExecutorStrategy {
+
+    private static final Logger Log = Logger.getLogger(ExecutorStrategy.class.getName());
+
+    public static final int DEFAULT_THREAD_COUNT = 4;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /** A bounded pool of `DEFAULT_THREAD_COUNT` threads with an unbounded queue */
+    public static ExecutorStrategy bounded() {
+        return bounded(DEFAULT_THREAD_COUNT, Integer.MAX_VALUE);
+    }
+
+    public static ExecutorStrategy bounded(int threadCount, int queueCapacity) {
+        checkArgument(threadCount >= 1 && queueCapacity >= 1);
+        return new Bounded(threadCount, queueCapacity);
+    }
+
+    public static ExecutorStrategy virtualThreads() {
+        return new VirtualThreads();
+    }
+
+    public static ExecutorStrategy provided(ExecutorService executor) {
+        return new Provided(checkNotNull(executor));
+    }
+
+    /** A snapshot of a bounded pool's queue and work */
+    public static final class Metrics {
+
+        private final int queueSize;
+        private final long peakQueueSize;
+        private final int activeCount;
+        private final int poolSize;
+        private final long completedTaskCount;
+        private final long callerRunCount;
+
+        private Metrics(int queueSize,
+                        long peakQueueSize,
+                        int activeCount,
+                        int poolSize,
+                        long completedTaskCount,
+                        long callerRunCount) {
+            this.queueSize = queueSize;
+            this.peakQueueSize = peakQueueSize;
+            this.activeCount = activeCount;
+            this.poolSize = poolSize;
+            this.completedTaskCount = completedTaskCount;
+            this.callerRunCount = callerRunCount;
+        }
+
+        /** The number of tasks waiting for a thread */
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        /** The largest number of tasks that have waited for a thread at once */
+        public long getPeakQueueSize() {
+            return peakQueueSize;
+        }
+
+        /** The number of threads running a task */
+        public int getActiveCount() {
+            return activeCount;
+        }
+
+        /** The number of threads, busy or idle */
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public long getCompletedTaskCount() {
+            return completedTaskCount;
+        }
+
+        /** The number of tasks run on the submitting thread, the queue being full */
+        public long getCallerRunCount() {
+            return callerRunCount;
+        }
+    }
+
+    /* package */
+    abstract ExecutorService createExecutor();
+
+    /* package */
+    abstract boolean isOwned();
+
+    /* package */
+    Optional<Metrics> getMetrics(ExecutorService executor) {
+        return executor instanceof MeteredThreadPoolExecutor
+                ? Optional.of(((MeteredThreadPoolExecutor) executor).getMetrics())
+                : Optional.absent();
+    }
+
+    /* package */
+    static ThreadFactory createThreadFactory(String nameFormat) {
+        return new ThreadFactoryBuilder()
+                .setNameFormat(nameFormat)
+                .setDaemon(true)
+                .build();
+    }
+
+    private static class Bounded extends ExecutorStrategy {
+
+        private final int threadCount;
+        private final int queueCapacity;
+
+        Bounded(int threadCount, int queueCapacity) {
+            this.threadCount = threadCount;
+            this.queueCapacity = queueCapacity;
+        }
+
+        @Override
+        ExecutorService createExecutor() {
+            return new MeteredThreadPoolExecutor(threadCount, queueCapacity);
+        }
+
+        @Override
+        boolean isOwned() {
+            return true;
+        }
+    }
+
+    private static class VirtualThreads extends ExecutorStrategy {
+
+        @Override
+        ExecutorService createExecutor() {
+            try {
+                // Java 21 and later
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                Log.log(Level.INFO, "Virtual threads unavailable; using a bounded pool");
+                return new MeteredThreadPoolExecutor(DEFAULT_THREAD_COUNT, Integer.MAX_VALUE);
+            }
+        }
+
+        @Override
+        boolean isOwned() {
+            return true;
+        }
+    }
+
+    private static class Provided extends ExecutorStrategy {
+
+        private final ExecutorService executor;
+
+        Provided(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        ExecutorService createExecutor() {
+            return executor;
+        }
+
+        @Override
+        boolean isOwned() {
+            return false;
+        }
+    }
+
+    private static class MeteredThreadPoolExecutor extends ThreadPoolExecutor {
+
+        private final AtomicLong peakQueueSize = new AtomicLong(0);
+        private final AtomicLong callerRunCount = new AtomicLong(0);
+
+        MeteredThreadPoolExecutor(int threadCount, int queueCapacity) {
+            super(threadCount,
+                    threadCount,
+                    KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    createThreadFactory("blockchaindb-%d"));
+            allowCoreThreadTimeOut(true);
+
+            // the work is brief, so rather than being dropped it runs on the submitting thread
+            setRejectedExecutionHandler((runnable, executor) -> {
+                callerRunCount.incrementAndGet();
+                runnable.run();
+            });
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            super.execute(command);
+
+            long queueSize = getQueue().size();
+            long peak = peakQueueSize.get();
+            while (queueSize > peak && !peakQueueSize.compareAndSet(peak, queueSize)) {
+                peak = peakQueueSize.get();
+            }
+        }
+
+        Metrics getMetrics() {
+            return new Metrics(
+                    getQueue().size(),
+                    peakQueueSize.get(),
+                    getActiveCount(),
+                    getPoolSize(),
+                    getCompletedTaskCount(),
+                    callerRunCount.get());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.breadwallet.crypto.blockchaindb;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
@@ -7,6 +8,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -54,6 +57,36 @@ public final class ObjectCoder {
         }
     }
 
+    public <X> X deserializeJson(Class<X> clazz, InputStream json) throws ObjectCoderException, IOException {
+        try {
+            return mapper.readValue(json, clazz);
+        } catch (JsonProcessingException e) {
+            throw new ObjectCoderException(e);
+        }
+    }
+
+    // streaming deserializers
+
+    public JsonParser createParser(InputStream json) throws ObjectCoderException, IOException {
+        try {
+            return mapper.getFactory().createParser(json);
+        } catch (JsonProcessingException e) {
+            throw new ObjectCoderException(e);
+        }
+    }
+
+    /**
+     * Bind the value at the parser's current token; on return the parser is positioned on the
+     * last token of that value.
+     */
+    public <X> X deserializeJson(Class<X> clazz, JsonParser parser) throws ObjectCoderException, IOException {
+        try {
+            return mapper.readValue(parser, clazz);
+        } catch (JsonProcessingException e) {
+            throw new ObjectCoderException(e);
+        }
+    }
+
     public <X> List<X> deserializeObjectList(Class<X> clazz, Object object) throws ObjectCoderException {
         TypeFactory typeFactory = mapper.getTypeFactory();
         JavaType type = typeFactory.constructCollectionLikeType(ArrayList.class, clazz);
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb;
+
+import android.support.annotation.Nullable;
+
+import com.google.common.base.Optional;
+
+/**
+ * Tags the BlockchainDb requests made on the current thread, such as with the name of the wallet
+ * manager they are made for, so that their metrics can be attributed.  The tag carries over to the
+ * follow-on requests of a query, such as for later pages, made on other threads.
+ *
+ * <pre>
+ * RequestTag.run(walletManager.getName(), () -> query.getTransfers(...));
+ * </pre>
+ */
+public final class RequestTag {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    public static Optional<String> get() {
+        return Optional.fromNullable(CURRENT.get());
+    }
+
+    /**
+     * Run `runnable` with the current thread tagged with `tag`; the previous tag is then restored.
+     */
+    public static void run(@Nullable String tag, Runnable runnable) {
+        Scope scope = set(tag);
+        try {
+            runnable.run();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Tag the current thread with `tag` until the returned scope is closed; the previous tag is
+     * then restored.
+     */
+    public static Scope set(@Nullable String tag) {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(tag);
+        return scope;
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final @Nullable String previous;
+
+        private Scope(@Nullable String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            CURRENT.set(previous);
+        }
+    }
+
+    private RequestTag() {
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb;
+
+import android.support.annotation.Nullable;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A disk-backed, size-limited, least-recently-used cache of BlockchainDB GET responses.
+ *
+ * Only responses from endpoints with a `Policy` are cached.  A cached response is served as is
+ * while fresh; once stale, it is served while it is revalidated in the background, within the
+ * `staleWhileRevalidate` period, and is otherwise revalidated (using its ETag and Last-Modified
+ * date) before being served.
+ *
+ * Each response is stored in its own file as: a magic number and version, the time stored, the
+ * optional ETag and Last-Modified headers, and the deflated body.
+ */
+public class ResponseCache {
+
+    private static final Logger Log = Logger.getLogger(ResponseCache.class.getName());
+
+    private static final int ENTRY_MAGIC = 0x42444243;  // "BDBC"
+    private static final int ENTRY_VERSION = 1;
+
+    private static final String ENTRY_SUFFIX = ".entry";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** The policy for the rarely changing `/blockchains` and `/currencies` catalogs */
+    public static final Policy DEFAULT_CATALOG_POLICY = new Policy(
+            TimeUnit.MINUTES.toMillis(10),
+            TimeUnit.DAYS.toMillis(7));
+
+    /** The endpoints cached by default, keyed by their first path segment */
+    public static final Map<String, Policy> DEFAULT_POLICIES = ImmutableMap.of(
+            "blockchains", DEFAULT_CATALOG_POLICY,
+            "currencies", DEFAULT_CATALOG_POLICY);
+
+    public static final long DEFAULT_MAX_SIZE = 8 * 1024 * 1024;
+
+    /** How long a cached response may be served for */
+    public static final class Policy {
+
+        private final long maxAgeMillis;
+        private final long staleWhileRevalidateMillis;
+
+        /**
+         * @param maxAgeMillis               how long a response is fresh
+         * @param staleWhileRevalidateMillis how long, once stale, a response may still be served
+         *                                   while it is revalidated in the background
+         */
+        public Policy(long maxAgeMillis, long staleWhileRevalidateMillis) {
+            checkArgument(maxAgeMillis >= 0);
+            checkArgument(staleWhileRevalidateMillis >= 0);
+
+            this.maxAgeMillis = maxAgeMillis;
+            this.staleWhileRevalidateMillis = staleWhileRevalidateMillis;
+        }
+
+        public long getMaxAgeMillis() {
+            return maxAgeMillis;
+        }
+
+        public long getStaleWhileRevalidateMillis() {
+            return staleWhileRevalidateMillis;
+        }
+    }
+
+    /** A cached response */
+    public static final class Entry {
+
+        private final long storedAtMillis;
+        private final @Nullable String etag;
+        private final @Nullable String lastModified;
+        private final byte[] body;
+
+        public Entry(long storedAtMillis, @Nullable String etag, @Nullable String lastModified, byte[] body) {
+            this.storedAtMillis = storedAtMillis;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+
+        public long getStoredAtMillis() {
+            return storedAtMillis;
+        }
+
+        public Optional<String> getEtag() {
+            return Optional.fromNullable(etag);
+        }
+
+        public Optional<String> getLastModified() {
+            return Optional.fromNullable(lastModified);
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public boolean isFresh(Policy policy, long nowMillis) {
+            return nowMillis - storedAtMillis <= policy.maxAgeMillis;
+        }
+
+        public boolean isServableWhileRevalidating(Policy policy, long nowMillis) {
+            return nowMillis - storedAtMillis <= policy.maxAgeMillis + policy.staleWhileRevalidateMillis;
+        }
+
+        /** This entry, revalidated (that is, unchanged) at `nowMillis` */
+        public Entry revalidated(long nowMillis) {
+            return new Entry(nowMillis, etag, lastModified, body);
+        }
+    }
+
+    private final File directory;
+    private final long maxSize;
+    private final Map<String, Policy> policies;
+
+    // Entry file name to file size, in least- to most-recently used order
+    private final LinkedHashMap<String, Long> index;
+    private long size;
+
+    /**
+     * @param directory the directory holding the cached responses; created if needed
+     * @param maxSize   the maximum total size, in bytes, of the cached responses
+     * @param policies  the cached endpoints, keyed by the first path segment of the endpoint
+     *                  (such as "currencies"), and their policy
+     */
+    public ResponseCache(File directory, long maxSize, Map<String, Policy> policies) {
+        checkArgument(maxSize > 0);
+
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.policies = ImmutableMap.copyOf(policies);
+
+        this.index = new LinkedHashMap<>(16, 0.75f, true);
+        this.size = 0;
+
+        loadIndex();
+    }
+
+    public ResponseCache(File directory) {
+        this(directory, DEFAULT_MAX_SIZE, DEFAULT_POLICIES);
+    }
+
+    public Optional<Policy> getPolicy(String endpoint) {
+        return Optional.fromNullable(policies.get(endpoint));
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getEntryCount() {
+        return index.size();
+    }
+
+    public synchronized Optional<Entry> get(String key) {
+        String name = getEntryName(key);
+
+        // a `get` marks the entry as most-recently used
+        if (null == index.get(name)) {
+            return Optional.absent();
+        }
+
+        File file = new File(directory, name);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            Entry entry = readEntry(input);
+
+            // the modification time persists the recency of use
+            file.setLastModified(System.currentTimeMillis());
+            return Optional.of(entry);
+
+        } catch (IOException e) {
+            Log.log(Level.WARNING, "Dropping unreadable cache entry " + name, e);
+            remove(name);
+            return Optional.absent();
+        }
+    }
+
+    public synchronized void put(String key, Entry entry) {
+        String name = getEntryName(key);
+        File file = new File(directory, name);
+        File temp = new File(directory, name + TEMP_SUFFIX);
+
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                writeEntry(output, entry);
+            }
+
+            if (!temp.renameTo(file)) {
+                throw new IOException("Failed to rename " + temp);
+            }
+
+        } catch (IOException e) {
+            Log.log(Level.WARNING, "Failed to cache entry " + name, e);
+            temp.delete();
+            remove(name);
+            return;
+        }
+
+        Long oldSize = index.put(name, file.length());
+        size += file.length() - (null == oldSize ? 0 : oldSize);
+
+        trimToSize();
+    }
+
+    public synchronized void clear() {
+        for (String name : index.keySet()) {
+            new File(directory, name).delete();
+        }
+        index.clear();
+        size = 0;
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(directory, eldest.getKey()).delete();
+            size -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private void remove(String name) {
+        new File(directory, name).delete();
+
+        Long oldSize = index.remove(name);
+        if (null != oldSize) size -= oldSize;
+    }
+
+    private void loadIndex() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.log(Level.WARNING, "Failed to create cache directory " + directory);
+            return;
+        }
+
+        File[] files = directory.listFiles();
+        if (null == files) return;
+
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (file.getName().endsWith(ENTRY_SUFFIX)) {
+                index.put(file.getName(), file.length());
+                size += file.length();
+            } else if (file.getName().endsWith(TEMP_SUFFIX)) {
+                file.delete();
+            }
+        }
+
+        trimToSize();
+    }
+
+    private static String getEntryName(String key) {
+        return Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString() + ENTRY_SUFFIX;
+    }
+
+    // Encoding
+
+    private static void writeEntry(DataOutputStream output, Entry entry) throws IOException {
+        output.writeInt(ENTRY_MAGIC);
+        output.writeByte(ENTRY_VERSION);
+        output.writeLong(entry.storedAtMillis);
+        writeOptionalString(output, entry.etag);
+        writeOptionalString(output, entry.lastModified);
+        output.writeInt(entry.body.length);
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(output, deflater);
+            deflated.write(entry.body);
+            deflated.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static Entry readEntry(DataInputStream input) throws IOException {
+        if (ENTRY_MAGIC != input.readInt() || ENTRY_VERSION != input.readByte()) {
+            throw new IOException("Unexpected entry format");
+        }
+
+        long storedAtMillis = input.readLong();
+        String etag = readOptionalString(input);
+        String lastModified = readOptionalString(input);
+        byte[] body = new byte[input.readInt()];
+
+        // closing the inflating stream ends its `Inflater`, rather than leaving it to finalization
+        try (DataInputStream inflated = new DataInputStream(new InflaterInputStream(input))) {
+            inflated.readFully(body);
+        }
+
+        return new Entry(storedAtMillis, etag, lastModified, body);
+    }
+
+    private static void writeOptionalString(DataOutputStream output, @Nullable String value) throws IOException {
+        output.writeBoolean(null != value);
+        if (null != value) output.writeUTF(value);
+    }
+
+    @Nullable
+    private static String readOptionalString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis;
+
+import java.util.List;
+
+/**
+ * Receives the results of a paged query one page at a time.
+ *
+ * Pages are delivered serially, never concurrently, though not necessarily on the same thread.
+ * A query over many addresses runs as several 'chunks', each paging independently.  A chunk
+ * requests its next page once `handlePage` returns or, when prefetching, once `handlePage` is
+ * called; either way at most one page per chunk is held back, so a slow consumer slows the query
+ * rather than accumulating pages.  Exactly one of `handleComplete` or `handleError` is called,
+ * after which no further pages are delivered; a `handlePage` that throws fails the query, with
+ * `handleError`.
+ *
+ * `handleChunkProgress` reports, after each of a chunk's pages, how many pages it has delivered.
+ */
+public interface PageHandler<T, E> {
+    void handlePage(List<T> data);
+    void handleComplete();
+    void handleError(E error);
+
+    default void handleChunkProgress(int chunkIndex, int chunkCount, int pageCount, boolean chunkComplete) {
+    }
+}
@@ -12,6 +12,8 @@ import android.support.annotation.Nullable;
 import com.breadwallet.crypto.blockchaindb.DataTask;
 import com.breadwallet.crypto.blockchaindb.ObjectCoder;
 import com.breadwallet.crypto.blockchaindb.ObjectCoder.ObjectCoderException;
+import com.breadwallet.crypto.blockchaindb.RequestTag;
+import com.breadwallet.crypto.blockchaindb.ResponseCache;
 import com.breadwallet.crypto.blockchaindb.apis.HttpStatusCodes;
 import com.breadwallet.crypto.blockchaindb.apis.PagedData;
 import com.breadwallet.crypto.blockchaindb.errors.QueryError;
@@ -20,16 +22,32 @@ import com.breadwallet.crypto.blockchaindb.errors.QueryModelError;
 import com.breadwallet.crypto.blockchaindb.errors.QueryNoDataError;
 import com.breadwallet.crypto.blockchaindb.errors.QueryResponseError;
 import com.breadwallet.crypto.blockchaindb.errors.QuerySubmissionError;
+import com.breadwallet.crypto.blockchaindb.errors.QueryUnavailableError;
 import com.breadwallet.crypto.blockchaindb.errors.QueryUrlError;
 import com.breadwallet.crypto.utility.CompletionHandler;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,6 +60,12 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 public class BdbApiClient {
 
@@ -49,16 +73,200 @@ public class BdbApiClient {
 
     private static final MediaType MEDIA_TYPE_JSON = MediaType.parse("application/json; charset=utf-8");
 
+    private static final int HTTP_NOT_MODIFIED = 304;
+
     private final OkHttpClient client;
     private final String baseUrl;
     private final DataTask dataTask;
     private final ObjectCoder coder;
+    private final @Nullable ResponseCache responseCache;
+    private final Executor cacheExecutor;
+    private final int baseUrlPathSize;
+
+    // In-flight GET requests, by `getInFlightKey()`, with the handlers awaiting each
+    private final Map<String, List<CompletionHandler<?, QueryError>>> inFlightRequests;
+    private final AtomicLong coalescedRequestCount;
+    private final AtomicLong uncoalescedRequestCount;
+
+    private final RetryPolicy retryPolicy;
+    private final @Nullable ScheduledExecutorService scheduler;
+    private final Map<String, RetryPolicy.Budget> retryBudgets;
+    private final Random retryRandom;
+    private final AtomicLong retryCount;
+    private final AtomicLong retryGiveUpCount;
+
+    private final Map<String, ThrottlePolicy> throttlePolicies;
+    private final Map<String, Throttle> throttles;
+    private final AtomicLong rateLimitedWaitMillis;
+    private final AtomicLong rejectedRequestCount;
+    private volatile ThrottleListener throttleListener;
+
+    // Requests, with their retries, yet to complete; guarded by `this`
+    private int outstandingCount;
+
+    // Requests waiting on a retry delay or a rate limit; guarded by `this`
+    private final Set<Exchange> waitingExchanges;
+    private boolean closed;
+
+    // Requests are only measured while there is a listener
+    private volatile @Nullable RequestMetricsListener metricsListener;
 
     public BdbApiClient(OkHttpClient client, String baseUrl, DataTask dataTask, ObjectCoder coder) {
+        this(client, baseUrl, dataTask, coder, null, MoreExecutors.directExecutor(), RetryPolicy.NONE,
+                ImmutableMap.of(), null);
+    }
+
+    /**
+     * @param responseCache    if non-null, the cache for responses
+     * @param cacheExecutor    the executor on which responses served from `responseCache` are
+     *                         handled, so that a handler never runs on the requesting thread
+     * @param retryPolicy      the policy for retrying failed requests
+     * @param throttlePolicies the rate limit and circuit breaker of each throttled endpoint family,
+     *                         keyed by the first path segment of the endpoint (such as "transfers")
+     * @param scheduler        the scheduler of retries and rate-limited requests; required unless
+     *                         `retryPolicy` is `NONE` and `throttlePolicies` is empty
+     */
+    public BdbApiClient(OkHttpClient client,
+                        String baseUrl,
+                        DataTask dataTask,
+                        ObjectCoder coder,
+                        @Nullable ResponseCache responseCache,
+                        Executor cacheExecutor,
+                        RetryPolicy retryPolicy,
+                        Map<String, ThrottlePolicy> throttlePolicies,
+                        @Nullable ScheduledExecutorService scheduler) {
+        checkArgument(null != scheduler || (retryPolicy.getMaxAttempts() == 1 && throttlePolicies.isEmpty()));
+
         this.client = client;
         this.baseUrl = baseUrl;
         this.dataTask = dataTask;
         this.coder = coder;
+        this.responseCache = responseCache;
+        this.cacheExecutor = cacheExecutor;
+
+        HttpUrl url = HttpUrl.parse(baseUrl);
+        this.baseUrlPathSize = null == url ? 0 : getPathSize(url);
+
+        this.inFlightRequests = new HashMap<>();
+        this.coalescedRequestCount = new AtomicLong(0);
+        this.uncoalescedRequestCount = new AtomicLong(0);
+
+        this.retryPolicy = retryPolicy;
+        this.scheduler = scheduler;
+        this.retryBudgets = new ConcurrentHashMap<>();
+        this.retryRandom = new Random();
+        this.retryCount = new AtomicLong(0);
+        this.retryGiveUpCount = new AtomicLong(0);
+
+        this.throttlePolicies = ImmutableMap.copyOf(throttlePolicies);
+        this.throttles = new ConcurrentHashMap<>();
+        this.rateLimitedWaitMillis = new AtomicLong(0);
+        this.rejectedRequestCount = new AtomicLong(0);
+        this.throttleListener = new ThrottleListener() {};
+
+        this.outstandingCount = 0;
+        this.waitingExchanges = new HashSet<>();
+        this.closed = false;
+        this.metricsListener = null;
+    }
+
+    /**
+     * The number of GET requests that joined an identical request already in flight, sharing its
+     * response, rather than being sent.
+     */
+    public long getCoalescedRequestCount() {
+        return coalescedRequestCount.get();
+    }
+
+    /**
+     * The number of GET requests that were sent, having no identical request in flight.
+     */
+    public long getUncoalescedRequestCount() {
+        return uncoalescedRequestCount.get();
+    }
+
+    /**
+     * The number of times a failed request was retried.
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * The number of retryable requests that failed without a further retry, having exhausted their
+     * attempts or their endpoint's retry budget, or having been asked to wait too long.
+     */
+    public long getRetryGiveUpCount() {
+        return retryGiveUpCount.get();
+    }
+
+    /**
+     * The total time, in milliseconds, requests were delayed to stay within their rate limits.
+     */
+    public long getRateLimitedWaitMillis() {
+        return rateLimitedWaitMillis.get();
+    }
+
+    /**
+     * The number of requests failed fast, without being sent, as their circuit breaker was open.
+     */
+    public long getRejectedRequestCount() {
+        return rejectedRequestCount.get();
+    }
+
+    /**
+     * The circuit breaker state of a throttled endpoint family, if it has been requested.
+     */
+    public Optional<CircuitBreaker.State> getCircuitState(String endpoint) {
+        Throttle throttle = throttles.get(endpoint);
+        return null == throttle ? Optional.absent() : Optional.of(throttle.breaker.getState());
+    }
+
+    /**
+     * Wait until no requests, including their retries, are outstanding.
+     *
+     * @return true if none are outstanding; false if `timeoutMillis` passed first
+     */
+    public synchronized boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (outstandingCount > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Close: requests waiting on a retry delay or a rate limit fail now, with a
+     * `QuerySubmissionError`, rather than being left on a scheduler about to shut down.  Once closed,
+     * failed requests are not retried and rate-limited requests fail in the same way; requests
+     * already sent complete as usual.
+     */
+    public void close() {
+        List<Exchange> exchanges;
+        synchronized (this) {
+            closed = true;
+            exchanges = new ArrayList<>(waitingExchanges);
+            waitingExchanges.clear();
+        }
+
+        for (Exchange exchange : exchanges) {
+            exchange.fail(new QuerySubmissionError("Closed"));
+        }
+    }
+
+    /**
+     * Set the listener for the metrics of each request sent, or null (the default) for none.
+     */
+    public void setMetricsListener(@Nullable RequestMetricsListener listener) {
+        this.metricsListener = listener;
+    }
+
+    public void setThrottleListener(@Nullable ThrottleListener listener) {
+        this.throttleListener = null == listener ? new ThrottleListener() {} : listener;
     }
 
     // Create (Crud)
@@ -323,43 +531,627 @@ public class BdbApiClient {
         sendRequest(requestBuilder.build(), dataTask, parser, handler);
     }
 
+    /**
+     * Send `request`, unless it is a GET identical to one in flight.  In that case `handler` joins
+     * the in-flight request; every joined handler is called with the one parsed result (which is
+     * thus shared, with any list made unmodifiable).  A handler that throws does not keep the
+     * result from the others.
+     */
     private <T> void sendRequest(Request request,
                                  DataTask dataTask,
                                  ResponseParser<T> parser,
                                  CompletionHandler<T, QueryError> handler) {
-        dataTask.execute(client, request, new Callback() {
+        if (!"GET".equals(request.method())) {
+            sendRequestUncoalesced(request, dataTask, parser, handler);
+            return;
+        }
+
+        String key = getInFlightKey(request, parser);
+
+        synchronized (inFlightRequests) {
+            List<CompletionHandler<?, QueryError>> handlers = inFlightRequests.get(key);
+            if (null != handlers) {
+                handlers.add(handler);
+                coalescedRequestCount.incrementAndGet();
+                return;
+            }
+
+            handlers = new ArrayList<>();
+            handlers.add(handler);
+            inFlightRequests.put(key, handlers);
+            uncoalescedRequestCount.incrementAndGet();
+        }
+
+        sendRequestUncoalesced(request, dataTask, parser, new CompletionHandler<T, QueryError>() {
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                T data = null;
-                QueryError error = null;
-                RuntimeException exception = null;
-
-                try (ResponseBody responseBody = response.body()) {
-                    int responseCode = response.code();
-                    if (HttpStatusCodes.responseSuccess(request.method()).contains(responseCode)) {
-                        if (responseBody == null) {
-                            throw new QueryNoDataError();
-                        } else {
-                            data = parser.parseResponse(responseBody.string());
-                        }
+            public void handleData(T data) {
+                List<CompletionHandler<T, QueryError>> handlers = removeInFlight(key, parser);
+                T shared = handlers.size() > 1 ? unmodifiableView(data) : data;
+                for (CompletionHandler<T, QueryError> handler : handlers) {
+                    try {
+                        handler.handleData(shared);
+                    } catch (RuntimeException e) {
+                        Log.log(Level.SEVERE, "coalesced handler failed", e);
+                    }
+                }
+            }
+
+            @Override
+            public void handleError(QueryError error) {
+                for (CompletionHandler<T, QueryError> handler : removeInFlight(key, parser)) {
+                    try {
+                        handler.handleError(error);
+                    } catch (RuntimeException e) {
+                        Log.log(Level.SEVERE, "coalesced handler failed", e);
+                    }
+                }
+            }
+        });
+    }
+
+    // A result shared by several handlers, with its list (if any) unmodifiable
+    @SuppressWarnings("unchecked")
+    private static <T> T unmodifiableView(T data) {
+        if (data instanceof List) {
+            return (T) Collections.unmodifiableList((List<?>) data);
+        }
+        if (data instanceof PagedData) {
+            PagedData<?> page = (PagedData<?>) data;
+            return (T) new PagedData<>(Collections.unmodifiableList(page.getData()),
+                    page.getPrevUrl().orNull(),
+                    page.getNextUrl().orNull());
+        }
+        return data;
+    }
+
+    // Requests are identical if their method, URL (with parameters) and parsed result type match
+    private static String getInFlightKey(Request request, ResponseParser<?> parser) {
+        return request.method() + " " + request.url() + " " + parser.getResultKey();
+    }
+
+    // Handlers for `key` were all added with a `ResponseParser<T>`, as `parser` is
+    @SuppressWarnings("unchecked")
+    private <T> List<CompletionHandler<T, QueryError>> removeInFlight(String key, ResponseParser<T> parser) {
+        synchronized (inFlightRequests) {
+            List<?> handlers = inFlightRequests.remove(key);
+            return (List<CompletionHandler<T, QueryError>>) handlers;
+        }
+    }
+
+    private <T> void sendRequestUncoalesced(Request request,
+                                            DataTask dataTask,
+                                            ResponseParser<T> parser,
+                                            CompletionHandler<T, QueryError> handler) {
+        if (null != responseCache && "GET".equals(request.method())) {
+            Optional<String> endpoint = getEndpoint(request.url());
+            Optional<ResponseCache.Policy> policy = endpoint.isPresent()
+                    ? responseCache.getPolicy(endpoint.get())
+                    : Optional.absent();
+            if (policy.isPresent()) {
+                sendRequestCached(request, dataTask, policy.get(), parser, handler);
+                return;
+            }
+        }
+
+        RequestRecorder recorder = createRecorder(request);
+        execute(request, dataTask, handler, recorder, new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                handleResponse(request, response, parser, handler, recorder);
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.log(Level.SEVERE, "send request failed", e);
+                handler.handleError(new QuerySubmissionError(e.getMessage()));
+            }
+        });
+    }
+
+    private <T> void handleResponse(Request request,
+                                    Response response,
+                                    ResponseParser<T> parser,
+                                    CompletionHandler<T, QueryError> handler,
+                                    @Nullable RequestRecorder recorder) {
+        T data = null;
+        QueryError error = null;
+        RuntimeException exception = null;
+
+        try (ResponseBody responseBody = response.body()) {
+            int responseCode = response.code();
+            if (HttpStatusCodes.responseSuccess(request.method()).contains(responseCode)) {
+                if (responseBody == null) {
+                    throw new QueryNoDataError();
+                } else if (null == recorder) {
+                    data = parser.parseResponse(responseBody.source());
+                } else {
+                    data = recorder.parse(parser, responseBody.source());
+                }
+            } else {
+                throw new QueryResponseError(responseCode);
+            }
+        } catch (QueryError e) {
+            error = e;
+        } catch (IOException e) {
+            // the body is streamed into the parser; a failed read is a failed submission
+            error = new QuerySubmissionError(e.getMessage());
+        } catch (RuntimeException e) {
+            exception = e;
+        }
+
+        // if anything goes wrong, make sure we report as an error
+        if (exception != null) {
+            Log.log(Level.SEVERE, "response failed with runtime exception", exception);
+            handler.handleError(new QuerySubmissionError(exception.getMessage()));
+        } else if (error != null) {
+            Log.log(Level.SEVERE, "response failed with error", error);
+            handler.handleError(error);
+        } else {
+            if (null != recorder) recorder.recordSuccess(data);
+            handler.handleData(data);
+        }
+    }
+
+    // Metrics
+
+    @Nullable
+    private RequestRecorder createRecorder(Request request) {
+        if (null == metricsListener) {
+            return null;
+        }
+
+        Optional<String> endpoint = getEndpoint(request.url());
+        return new RequestRecorder(endpoint.isPresent() ? endpoint.get() : "", request.method(), RequestTag.get().orNull());
+    }
+
+    private void reportMetrics(RequestRecorder recorder, int attempt) {
+        RequestMetricsListener listener = metricsListener;
+        if (null != listener) {
+            listener.handleRequestMetrics(recorder.build(attempt - 1));
+        }
+    }
+
+    // Measures a request as it progresses
+    private static class RequestRecorder {
+
+        private final String endpoint;
+        private final String method;
+        private final @Nullable String tag;
+        private final long startNanos;
+
+        private long attemptStartNanos;
+        private long firstByteNanos;
+        private int statusCode = RequestMetrics.NO_STATUS;
+        private long responseBytes;
+        private long parseNanos;
+        private int itemCount;
+        private boolean success;
+
+        RequestRecorder(String endpoint, String method, @Nullable String tag) {
+            this.endpoint = endpoint;
+            this.method = method;
+            this.tag = tag;
+            this.startNanos = System.nanoTime();
+        }
+
+        void recordAttempt() {
+            attemptStartNanos = System.nanoTime();
+            firstByteNanos = attemptStartNanos;
+            statusCode = RequestMetrics.NO_STATUS;
+        }
+
+        void recordResponse(int code) {
+            firstByteNanos = System.nanoTime();
+            statusCode = code;
+        }
+
+        <T> T parse(ResponseParser<T> parser, BufferedSource source) throws QueryError, IOException {
+            BufferedSource countingSource = Okio.buffer(new ForwardingSource(source) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) responseBytes += read;
+                    return read;
+                }
+            });
+
+            long parseStartNanos = System.nanoTime();
+            try {
+                return parser.parseResponse(countingSource);
+            } finally {
+                parseNanos = System.nanoTime() - parseStartNanos;
+            }
+        }
+
+        void recordSuccess(@Nullable Object data) {
+            success = true;
+            if (data instanceof PagedData) {
+                itemCount = ((PagedData<?>) data).getData().size();
+            } else if (data instanceof Collection) {
+                itemCount = ((Collection<?>) data).size();
+            } else {
+                itemCount = null == data ? 0 : 1;
+            }
+        }
+
+        RequestMetrics build(int retryCount) {
+            long nowNanos = System.nanoTime();
+            return new RequestMetrics(
+                    endpoint,
+                    method,
+                    statusCode,
+                    success,
+                    TimeUnit.NANOSECONDS.toMicros(firstByteNanos - attemptStartNanos),
+                    TimeUnit.NANOSECONDS.toMicros(nowNanos - startNanos),
+                    responseBytes,
+                    TimeUnit.NANOSECONDS.toMicros(parseNanos),
+                    itemCount,
+                    retryCount,
+                    tag);
+        }
+    }
+
+    // Retry and Throttle
+
+    private void execute(Request request,
+                         DataTask dataTask,
+                         CompletionHandler<?, QueryError> handler,
+                         @Nullable RequestRecorder recorder,
+                         Callback callback) {
+        Optional<String> endpoint = getEndpoint(request.url());
+        String endpointName = endpoint.isPresent() ? endpoint.get() : "";
+
+        RetryPolicy.Budget budget = retryPolicy.isRetryable(request.method())
+                ? getRetryBudget(endpointName)
+                : null;
+
+        synchronized (this) {
+            outstandingCount += 1;
+        }
+
+        new Exchange(request, dataTask, handler, recorder, callback, getThrottle(endpointName), budget).execute(1);
+    }
+
+    // Completion is noted once the final response or failure has been handled, so that any work
+    // it leads to (such as requesting a next page) is underway before the client is idle
+    private synchronized void completeExchange() {
+        outstandingCount -= 1;
+        if (0 == outstandingCount) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * The attempts at a request.  Each attempt waits for its endpoint's rate limit and fails fast,
+     * with a `QueryUnavailableError`, if its endpoint's circuit breaker is open.  An attempt failing
+     * on a transient status or a network failure is retried, per the retry policy; only the final
+     * response, or failure, is passed to `callback`.  As each page of a paged query is its own
+     * request, a retry resumes a query from the failed page.
+     */
+    private class Exchange {
+
+        private final Request request;
+        private final DataTask dataTask;
+        private final CompletionHandler<?, QueryError> handler;
+        private final @Nullable RequestRecorder recorder;
+        private final Callback callback;
+        private final @Nullable Throttle throttle;
+        private final @Nullable RetryPolicy.Budget budget;
+        private final @Nullable String tag;
+
+        // The attempt waiting on the scheduler; guarded by `BdbApiClient.this`
+        private int waitingAttempt;
+
+        Exchange(Request request,
+                 DataTask dataTask,
+                 CompletionHandler<?, QueryError> handler,
+                 @Nullable RequestRecorder recorder,
+                 Callback callback,
+                 @Nullable Throttle throttle,
+                 @Nullable RetryPolicy.Budget budget) {
+            this.request = request;
+            this.dataTask = dataTask;
+            this.handler = handler;
+            this.recorder = recorder;
+            this.callback = callback;
+            this.throttle = throttle;
+            this.budget = budget;
+            this.tag = RequestTag.get().orNull();
+        }
+
+        void execute(int attempt) {
+            long wait = null == throttle ? 0 : throttle.limiter.reserve();
+            if (wait > 0) {
+                rateLimitedWaitMillis.addAndGet(wait);
+                throttleListener.handleRateLimited(throttle.endpoint, wait);
+                if (!schedule(attempt, () -> send(attempt), wait)) {
+                    fail(attempt, new QuerySubmissionError("Closed"));
+                }
+            } else {
+                send(attempt);
+            }
+        }
+
+        private void send(int attempt) {
+            // the circuit may have opened while waiting on the rate limit
+            if (null != throttle && !throttle.allowRequest()) {
+                rejectedRequestCount.incrementAndGet();
+                throttleListener.handleRejected(throttle.endpoint);
+                fail(attempt, new QueryUnavailableError(throttle.endpoint));
+                return;
+            }
+
+            if (null != recorder) recorder.recordAttempt();
+
+            dataTask.execute(client, request, new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    if (null != recorder) recorder.recordResponse(response.code());
+
+                    if (!retryPolicy.isTransient(response.code())) {
+                        if (null != throttle) throttle.recordSuccess();
+                        if (null != budget) budget.recordSuccess();
+                        complete(call, response, attempt);
+                        return;
+                    }
+
+                    if (null != throttle) throttle.recordFailure();
+                    if (!retry(attempt, getRetryAfterMillis(response))) {
+                        complete(call, response, attempt);
                     } else {
-                        throw new QueryResponseError(responseCode);
+                        response.close();
                     }
-                } catch (QueryError e) {
-                    error = e;
-                } catch (RuntimeException e) {
-                    exception = e;
                 }
 
-                // if anything goes wrong, make sure we report as an error
-                if (exception != null) {
-                    Log.log(Level.SEVERE, "response failed with runtime exception", exception);
-                    handler.handleError(new QuerySubmissionError(exception.getMessage()));
-                } else if (error != null) {
-                    Log.log(Level.SEVERE, "response failed with error", error);
-                    handler.handleError(error);
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    if (call.isCanceled()) {
+                        complete(call, e, attempt);
+                        return;
+                    }
+
+                    if (null != throttle) throttle.recordFailure();
+                    if (!retry(attempt, -1)) {
+                        complete(call, e, attempt);
+                    }
+                }
+            });
+        }
+
+        // The final response, or failure, is handled with the request's tag, so that it carries
+        // over to any follow-on requests
+        private void complete(Call call, Response response, int attempt) throws IOException {
+            RequestTag.Scope scope = RequestTag.set(tag);
+            try {
+                callback.onResponse(call, response);
+            } finally {
+                scope.close();
+                complete(attempt);
+            }
+        }
+
+        private void complete(Call call, IOException e, int attempt) {
+            try {
+                RequestTag.run(tag, () -> callback.onFailure(call, e));
+            } finally {
+                complete(attempt);
+            }
+        }
+
+        private void complete(int attempt) {
+            if (null != recorder) reportMetrics(recorder, attempt);
+            completeExchange();
+        }
+
+        private void fail(int attempt, QueryError error) {
+            try {
+                RequestTag.run(tag, () -> handler.handleError(error));
+            } finally {
+                complete(attempt);
+            }
+        }
+
+        // Fail the attempt that was waiting on the scheduler
+        /* package */
+        void fail(QueryError error) {
+            int attempt;
+            synchronized (BdbApiClient.this) {
+                attempt = waitingAttempt;
+            }
+            fail(attempt, error);
+        }
+
+        // Run `next` after `delayMillis`; return false, not having scheduled it, if closed.  Either
+        // `next` runs or, on `close()`, the exchange fails, but not both.
+        private boolean schedule(int attempt, Runnable next, long delayMillis) {
+            synchronized (BdbApiClient.this) {
+                if (closed) {
+                    return false;
+                }
+                waitingExchanges.add(this);
+                waitingAttempt = attempt;
+            }
+
+            try {
+                scheduler.schedule(() -> {
+                    if (stopWaiting()) next.run();
+                }, delayMillis, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (RejectedExecutionException e) {
+                // unless `close()` has already taken the exchange, to fail it
+                return !stopWaiting();
+            }
+        }
+
+        private boolean stopWaiting() {
+            synchronized (BdbApiClient.this) {
+                return waitingExchanges.remove(this);
+            }
+        }
+
+        // Schedule the next attempt; return false if there is to be none
+        private boolean retry(int attempt, long retryAfterMillis) {
+            if (null == budget) {
+                return false;
+            }
+
+            long delay = retryPolicy.getDelayMillis(attempt, retryAfterMillis, retryRandom);
+            if (-1 == delay || !budget.recordFailure() || (null != throttle && CircuitBreaker.State.OPEN == throttle.breaker.getState())) {
+                retryGiveUpCount.incrementAndGet();
+                Log.log(Level.WARNING, String.format("Giving up on %s after %d attempt(s)", request.url(), attempt));
+                return false;
+            }
+
+            if (!schedule(attempt, () -> execute(attempt + 1), delay)) {
+                Log.log(Level.FINE, String.format("Not retrying %s, as closed", request.url()));
+                return false;
+            }
+
+            retryCount.incrementAndGet();
+            Log.log(Level.FINE, String.format("Retrying %s in %d ms", request.url(), delay));
+            return true;
+        }
+    }
+
+    private RetryPolicy.Budget getRetryBudget(String endpoint) {
+        RetryPolicy.Budget budget = retryBudgets.get(endpoint);
+        if (null == budget) {
+            RetryPolicy.Budget newBudget = retryPolicy.createBudget();
+            budget = retryBudgets.putIfAbsent(endpoint, newBudget);
+            if (null == budget) budget = newBudget;
+        }
+        return budget;
+    }
+
+    @Nullable
+    private Throttle getThrottle(String endpoint) {
+        ThrottlePolicy policy = throttlePolicies.get(endpoint);
+        if (null == policy) {
+            return null;
+        }
+
+        Throttle throttle = throttles.get(endpoint);
+        if (null == throttle) {
+            Throttle newThrottle = new Throttle(endpoint, policy);
+            throttle = throttles.putIfAbsent(endpoint, newThrottle);
+            if (null == throttle) throttle = newThrottle;
+        }
+        return throttle;
+    }
+
+    // Retry-After is either a number of seconds or an HTTP date; -1 if absent or malformed
+    private static long getRetryAfterMillis(Response response) {
+        String retryAfter = response.header("Retry-After");
+        if (null == retryAfter) {
+            return -1;
+        }
+
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            Date date = response.headers().getDate("Retry-After");
+            return null == date ? -1 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    // The rate limiter and circuit breaker of an endpoint family
+    private class Throttle {
+
+        private final String endpoint;
+        private final RateLimiter limiter;
+        private final CircuitBreaker breaker;
+
+        Throttle(String endpoint, ThrottlePolicy policy) {
+            this.endpoint = endpoint;
+            this.limiter = policy.createRateLimiter();
+            this.breaker = policy.createCircuitBreaker();
+        }
+
+        boolean allowRequest() {
+            return breaker.allowRequest(System.currentTimeMillis());
+        }
+
+        void recordSuccess() {
+            announce(breaker.recordSuccess(System.currentTimeMillis()));
+        }
+
+        void recordFailure() {
+            announce(breaker.recordFailure(System.currentTimeMillis()));
+        }
+
+        private void announce(@Nullable CircuitBreaker.State state) {
+            if (null != state) {
+                Log.log(Level.INFO, String.format("Circuit for %s is %s", endpoint, state));
+                throttleListener.handleCircuitStateChanged(endpoint, state);
+            }
+        }
+    }
+
+    // Response Cache
+
+    /**
+     * Serve `request` from the response cache: while fresh, the cached response is used as is;
+     * while stale but within `staleWhileRevalidate`, it is used and revalidated in the background;
+     * otherwise the request is sent, conditionally if a (stale) response is cached.
+     */
+    private <T> void sendRequestCached(Request request,
+                                       DataTask dataTask,
+                                       ResponseCache.Policy policy,
+                                       ResponseParser<T> parser,
+                                       CompletionHandler<T, QueryError> handler) {
+        String key = getCacheKey(request);
+        long now = System.currentTimeMillis();
+
+        Optional<ResponseCache.Entry> cached = responseCache.get(key);
+        if (cached.isPresent() && cached.get().isFresh(policy, now)) {
+            dispatchCachedResponse(cached.get(), parser, handler);
+
+        } else if (cached.isPresent() && cached.get().isServableWhileRevalidating(policy, now)) {
+            dispatchCachedResponse(cached.get(), parser, handler);
+
+            sendRequestRevalidating(request, dataTask, key, cached.get(), new EmptyResponseParser(), new CompletionHandler<Void, QueryError>() {
+                @Override
+                public void handleData(Void data) {
+                    Log.log(Level.FINE, String.format("Revalidated: %s", request.url()));
+                }
+
+                @Override
+                public void handleError(QueryError error) {
+                    Log.log(Level.FINE, String.format("Revalidation failed: %s", request.url()), error);
+                }
+            });
+
+        } else {
+            sendRequestRevalidating(request, dataTask, key, cached.orNull(), parser, handler);
+        }
+    }
+
+    private <T> void sendRequestRevalidating(Request request,
+                                             DataTask dataTask,
+                                             String key,
+                                             @Nullable ResponseCache.Entry cached,
+                                             ResponseParser<T> parser,
+                                             CompletionHandler<T, QueryError> handler) {
+        Request.Builder requestBuilder = request.newBuilder();
+        if (null != cached) {
+            if (cached.getEtag().isPresent()) requestBuilder.header("If-None-Match", cached.getEtag().get());
+            if (cached.getLastModified().isPresent()) requestBuilder.header("If-Modified-Since", cached.getLastModified().get());
+        }
+        Request conditionalRequest = requestBuilder.build();
+
+        RequestRecorder recorder = createRecorder(conditionalRequest);
+        execute(conditionalRequest, dataTask, handler, recorder, new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (null != cached && HTTP_NOT_MODIFIED == response.code()) {
+                    response.close();
+
+                    ResponseCache.Entry revalidated = cached.revalidated(System.currentTimeMillis());
+                    responseCache.put(key, revalidated);
+                    handleCachedResponse(revalidated, parser, handler);
+
                 } else {
-                    handler.handleData(data);
+                    handleResponse(conditionalRequest, response, new CachingResponseParser<>(key, response, parser), handler, recorder);
                 }
             }
 
@@ -371,17 +1163,105 @@ public class BdbApiClient {
         });
     }
 
+    // A cache hit is handled on `cacheExecutor`, as a response would be on a network thread, and
+    // carries the request's tag; should the executor reject it, it is handled here
+    private <T> void dispatchCachedResponse(ResponseCache.Entry cached,
+                                            ResponseParser<T> parser,
+                                            CompletionHandler<T, QueryError> handler) {
+        String tag = RequestTag.get().orNull();
+        Runnable task = () -> RequestTag.run(tag, () -> handleCachedResponse(cached, parser, handler));
+
+        try {
+            cacheExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private <T> void handleCachedResponse(ResponseCache.Entry cached,
+                                          ResponseParser<T> parser,
+                                          CompletionHandler<T, QueryError> handler) {
+        T data;
+        try {
+            data = parser.parseResponse(new Buffer().write(cached.getBody()));
+        } catch (QueryError e) {
+            handler.handleError(e);
+            return;
+        } catch (IOException | RuntimeException e) {
+            handler.handleError(new QuerySubmissionError(e.getMessage()));
+            return;
+        }
+        handler.handleData(data);
+    }
+
+    // The endpoint is the first path segment following those of `baseUrl`
+    private Optional<String> getEndpoint(HttpUrl url) {
+        return getPathSize(url) > baseUrlPathSize
+                ? Optional.of(url.pathSegments().get(baseUrlPathSize))
+                : Optional.absent();
+    }
+
+    private static int getPathSize(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int size = segments.size();
+        // a trailing slash results in an empty, final segment
+        return (size > 0 && segments.get(size - 1).isEmpty()) ? size - 1 : size;
+    }
+
+    // The response depends on the "Accept" header, as it specifies the API version
+    private static String getCacheKey(Request request) {
+        return request.url() + " " + request.header("Accept");
+    }
+
+    // Caches the response body once it has parsed successfully
+    private class CachingResponseParser<T> implements ResponseParser<T> {
+
+        private final String key;
+        private final @Nullable String etag;
+        private final @Nullable String lastModified;
+        private final ResponseParser<T> parser;
+
+        CachingResponseParser(String key, Response response, ResponseParser<T> parser) {
+            this.key = key;
+            this.etag = response.header("ETag");
+            this.lastModified = response.header("Last-Modified");
+            this.parser = parser;
+        }
+
+        @Override
+        public T parseResponse(BufferedSource responseData) throws QueryError, IOException {
+            byte[] body = responseData.readByteArray();
+            T data = parser.parseResponse(new Buffer().write(body));
+
+            responseCache.put(key, new ResponseCache.Entry(System.currentTimeMillis(), etag, lastModified, body));
+            return data;
+        }
+
+        @Override
+        public String getResultKey() {
+            return parser.getResultKey();
+        }
+    }
+
     private interface ResponseParser<T> {
         @Nullable
-        T parseResponse(String responseData) throws QueryError;
+        T parseResponse(BufferedSource responseData) throws QueryError, IOException;
+
+        // Identifies the type of result parsed
+        String getResultKey();
     }
 
     private static class EmptyResponseParser implements ResponseParser<Void> {
 
         @Override
-        public Void parseResponse(String responseData) {
+        public Void parseResponse(BufferedSource responseData) {
             return null;
         }
+
+        @Override
+        public String getResultKey() {
+            return "empty";
+        }
     }
 
     private static class RootObjectResponseParser<T> implements ResponseParser<T> {
@@ -396,9 +1276,9 @@ public class BdbApiClient {
         }
 
         @Override
-        public T parseResponse(String responseData) throws QueryError {
+        public T parseResponse(BufferedSource responseData) throws QueryError, IOException {
             try {
-                T resp = coder.deserializeJson(clazz, responseData);
+                T resp = coder.deserializeJson(clazz, responseData.inputStream());
                 if (resp == null) {
                     throw new QueryModelError("Transform error");
                 }
@@ -408,6 +1288,11 @@ public class BdbApiClient {
                 throw new QueryJsonParseError(e.getMessage());
             }
         }
+
+        @Override
+        public String getResultKey() {
+            return "object:" + clazz.getName();
+        }
     }
 
     private static class EmbeddedArrayResponseParser<T> implements ResponseParser<List<T>> {
@@ -425,20 +1310,13 @@ public class BdbApiClient {
         }
 
         @Override
-        public List<T> parseResponse(String responseData) throws QueryError {
-            try {
-                BdbEmbeddedResponse resp = coder.deserializeJson(BdbEmbeddedResponse.class, responseData);
-                List<T> data = (resp == null || !resp.containsEmbedded(path)) ?
-                        Collections.emptyList() :
-                        coder.deserializeObjectList(clazz, resp.getEmbedded(path).get());
-                if (data == null) {
-                    throw new QueryModelError("Transform error");
-                }
+        public List<T> parseResponse(BufferedSource responseData) throws QueryError, IOException {
+            return BdbEmbeddedResponse.decodeEmbeddedArray(coder, responseData.inputStream(), path, clazz).getData();
+        }
 
-                return data;
-            } catch (ObjectCoderException e) {
-                throw new QueryJsonParseError(e.getMessage());
-            }
+        @Override
+        public String getResultKey() {
+            return "array:" + path + ":" + clazz.getName();
         }
     }
 
@@ -457,22 +1335,13 @@ public class BdbApiClient {
         }
 
         @Override
-        public PagedData<T> parseResponse(String responseData) throws QueryError {
-            try {
-                BdbEmbeddedResponse resp = coder.deserializeJson(BdbEmbeddedResponse.class, responseData);
-                List<T> data = (resp == null || !resp.containsEmbedded(path)) ?
-                        Collections.emptyList() :
-                        coder.deserializeObjectList(clazz, resp.getEmbedded(path).get());
-                if (data == null) {
-                    throw new QueryModelError("Transform error");
-                }
+        public PagedData<T> parseResponse(BufferedSource responseData) throws QueryError, IOException {
+            return BdbEmbeddedResponse.decodeEmbeddedArray(coder, responseData.inputStream(), path, clazz);
+        }
 
-                String prevUrl = resp == null ? null : resp.getPreviousUrl().orNull();
-                String nextUrl = resp == null ? null : resp.getNextUrl().orNull();
-                return new PagedData<>(data, prevUrl, nextUrl);
-            } catch (ObjectCoderException e) {
-                throw new QueryJsonParseError(e.getMessage());
-            }
+        @Override
+        public String getResultKey() {
+            return "paged:" + path + ":" + clazz.getName();
         }
     }
 
@@ -7,10 +7,22 @@
  */
 package com.breadwallet.crypto.blockchaindb.apis.bdb;
 
+import com.breadwallet.crypto.blockchaindb.ObjectCoder;
+import com.breadwallet.crypto.blockchaindb.ObjectCoder.ObjectCoderException;
+import com.breadwallet.crypto.blockchaindb.apis.PagedData;
+import com.breadwallet.crypto.blockchaindb.errors.QueryError;
+import com.breadwallet.crypto.blockchaindb.errors.QueryJsonParseError;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.google.common.base.Optional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public class BdbEmbeddedResponse {
@@ -53,6 +65,73 @@ public class BdbEmbeddedResponse {
         return Optional.absent();
     }
 
+    // streaming
+
+    /**
+     * Decode a response directly from `json`, binding each element of `_embedded.<path>` as it
+     * is read. Unlike deserializing into a {@link BdbEmbeddedResponse}, neither the response
+     * text nor an intermediate tree of the embedded array is ever held in memory.
+     *
+     * A missing `_embedded.<path>` (or a JSON `null` response) decodes as an empty array.
+     *
+     * @throws IOException if `json` can not be read; malformed JSON is reported as a QueryError
+     */
+    /* package */
+    static <T> PagedData<T> decodeEmbeddedArray(ObjectCoder coder,
+                                                InputStream json,
+                                                String path,
+                                                Class<T> clazz) throws QueryError, IOException {
+        List<T> data = new ArrayList<>();
+        Links links = null;
+
+        try (JsonParser parser = coder.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return new PagedData<>(data, null, null);
+            } else if (token != JsonToken.START_OBJECT) {
+                throw new QueryJsonParseError("Expected object; found " + token);
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if ("_embedded".equals(field) && value == JsonToken.START_OBJECT) {
+                    decodeEmbedded(coder, parser, path, clazz, data);
+                } else if ("_links".equals(field) && value == JsonToken.START_OBJECT) {
+                    links = coder.deserializeJson(Links.class, parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (ObjectCoderException | JsonProcessingException e) {
+            throw new QueryJsonParseError(e.getMessage());
+        }
+
+        String prevUrl = (null != links && null != links.prev) ? links.prev.href : null;
+        String nextUrl = (null != links && null != links.next) ? links.next.href : null;
+        return new PagedData<>(data, prevUrl, nextUrl);
+    }
+
+    private static <T> void decodeEmbedded(ObjectCoder coder,
+                                           JsonParser parser,
+                                           String path,
+                                           Class<T> clazz,
+                                           List<T> data) throws ObjectCoderException, IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            if (path.equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    data.add(coder.deserializeJson(clazz, parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
     // internals
 
     public static class Link {
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Stops requests to an endpoint that keeps failing.
+ *
+ * The circuit is CLOSED while requests succeed.  After `failureThreshold` consecutive failures it
+ * is OPEN, and requests are refused, for `openMillis`.  It is then HALF_OPEN: one trial request is
+ * allowed (another once `openMillis` passes without an outcome), which closes the circuit if it
+ * succeeds and reopens it if it fails.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state;
+    private int failureCount;
+    private long changedAtMillis;
+
+    /* package */
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+
+        this.state = State.CLOSED;
+        this.failureCount = 0;
+        this.changedAtMillis = 0;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Request permission to send a request; moves an expired OPEN circuit to HALF_OPEN.
+     */
+    /* package */
+    synchronized boolean allowRequest(long nowMillis) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+            case HALF_OPEN:
+                if (nowMillis - changedAtMillis < openMillis) {
+                    return false;
+                }
+                // OPEN has expired, or the HALF_OPEN trial has gone unanswered
+                state = State.HALF_OPEN;
+                changedAtMillis = nowMillis;
+                return true;
+            default:
+                throw new IllegalStateException("Unexpected state: " + state);
+        }
+    }
+
+    /**
+     * @return the new state, or null if unchanged
+     */
+    /* package */
+    @Nullable
+    synchronized State recordSuccess(long nowMillis) {
+        failureCount = 0;
+        return changeState(State.CLOSED, nowMillis);
+    }
+
+    /**
+     * @return the new state, or null if unchanged
+     */
+    /* package */
+    @Nullable
+    synchronized State recordFailure(long nowMillis) {
+        failureCount += 1;
+        if (State.HALF_OPEN == state || (State.CLOSED == state && failureCount >= failureThreshold)) {
+            return changeState(State.OPEN, nowMillis);
+        }
+        return null;
+    }
+
+    @Nullable
+    private State changeState(State newState, long nowMillis) {
+        if (newState == state) {
+            return null;
+        }
+        state = newState;
+        changedAtMillis = nowMillis;
+        return newState;
+    }
+}
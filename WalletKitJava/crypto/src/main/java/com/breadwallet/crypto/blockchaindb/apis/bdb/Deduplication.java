@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+ *
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Identifies repeated results of a chunked query; a result touching addresses in several chunks
+ * is returned by each of those chunks.
+ *
+ * A result is identified by `getKey`.  Of the copies, the first seen is kept unless a later copy
+ * is richer, as ranked by `getRichness`.  As results are handed on page by page, a richer copy is
+ * handed on in addition to (not instead of) an earlier one; other copies are eliminated.
+ */
+/* package */
+abstract class Deduplication<T> {
+
+    private static final HashFunction FINGERPRINT_FUNCTION = Hashing.sipHash24();
+
+    private final AtomicLong eliminatedCount = new AtomicLong(0);
+
+    abstract String getKey(T result);
+
+    abstract int getRichness(T result);
+
+    /* package */
+    long getEliminatedCount() {
+        return eliminatedCount.get();
+    }
+
+    /* package */
+    Filter createFilter() {
+        return new Filter();
+    }
+
+    // Narrows the keys compared; distinct keys may share a fingerprint
+    /* package */
+    long getFingerprint(String key) {
+        return FINGERPRINT_FUNCTION.hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+
+    // Holds the state for a single query; not thread-safe
+    /* package */
+    class Filter {
+
+        private final KeyTable seen = new KeyTable();
+
+        /* package */
+        List<T> filter(List<T> results) {
+            List<T> filtered = new ArrayList<>(results.size());
+            for (T result : results) {
+                String key = getKey(result);
+                if (seen.putIfRicher(getFingerprint(key), key, getRichness(result))) {
+                    filtered.add(result);
+                } else {
+                    eliminatedCount.incrementAndGet();
+                }
+            }
+            return filtered;
+        }
+    }
+
+    // Open-addressed table of keys and their best richness, probed by 64-bit fingerprint so that
+    // a key is compared only with those sharing its fingerprint, and without boxing
+    private static class KeyTable {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private long[] fingerprints = new long[INITIAL_CAPACITY];
+        private String[] keys = new String[INITIAL_CAPACITY];
+        private int[] richnesses = new int[INITIAL_CAPACITY];
+        private int size = 0;
+
+        boolean putIfRicher(long fingerprint, String key, int richness) {
+            int slot = find(fingerprints, keys, fingerprint, key);
+            if (null != keys[slot]) {
+                if (richness <= richnesses[slot]) return false;
+                richnesses[slot] = richness;
+                return true;
+            }
+
+            fingerprints[slot] = fingerprint;
+            keys[slot] = key;
+            richnesses[slot] = richness;
+            if (++size * 2 > keys.length) grow();
+            return true;
+        }
+
+        private void grow() {
+            long[] oldFingerprints = fingerprints;
+            String[] oldKeys = keys;
+            int[] oldRichnesses = richnesses;
+
+            fingerprints = new long[oldKeys.length * 2];
+            keys = new String[oldKeys.length * 2];
+            richnesses = new int[oldKeys.length * 2];
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (null != oldKeys[i]) {
+                    int slot = find(fingerprints, keys, oldFingerprints[i], oldKeys[i]);
+                    fingerprints[slot] = oldFingerprints[i];
+                    keys[slot] = oldKeys[i];
+                    richnesses[slot] = oldRichnesses[i];
+                }
+            }
+        }
+
+        // The slot holding `key`, else the empty slot at which to add it
+        private static int find(long[] fingerprints, String[] keys, long fingerprint, String key) {
+            int mask = keys.length - 1;
+            int slot = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+            while (null != keys[slot] && !(fingerprint == fingerprints[slot] && key.equals(keys[slot]))) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -7,65 +7,135 @@
  */
 package com.breadwallet.crypto.blockchaindb.apis.bdb;
 
+import com.breadwallet.crypto.blockchaindb.apis.PageHandler;
 import com.breadwallet.crypto.blockchaindb.errors.QueryError;
+import com.breadwallet.crypto.blockchaindb.errors.QueryModelError;
 import com.breadwallet.crypto.utility.CompletionHandler;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import static com.google.common.base.Preconditions.checkState;
 
 /* package */
 class GetChunkedCoordinator<ChunkType, ResultType> {
 
-    private final List<List<ChunkType>> chunks;
-    private final List<ResultType> transactions;
-    private final CompletionHandler<List<ResultType>, QueryError> handler;
+    private static final Logger Log = Logger.getLogger(GetChunkedCoordinator.class.getName());
+
+    private final int chunkCount;
+    private final int[] chunkPageCounts;
+    private int remainingChunkCount;
+    private final Deduplication<ResultType>.Filter deduplicationFilter;
+    private final PageHandler<ResultType, QueryError> handler;
 
     private QueryError error;
 
+    // Calls to make on `handler`, in order, by one thread at a time and outside of the lock
+    private final Queue<Runnable> deliveries = new ArrayDeque<>();
+    private boolean delivering = false;
+    private long queuedPageCount = 0;
+    private long deliveredPageCount = 0;
+
     /* package */
-    GetChunkedCoordinator(List<List<ChunkType>> chunks, CompletionHandler<List<ResultType>, QueryError> handler) {
-        this.chunks = new ArrayList<>(chunks);
-        this.transactions = new ArrayList<>();
+    GetChunkedCoordinator(List<List<ChunkType>> chunks,
+                          Deduplication<ResultType> deduplication,
+                          CompletionHandler<List<ResultType>, QueryError> handler) {
+        this(chunks, deduplication, new CollectingPageHandler<>(deduplication, handler));
+    }
+
+    /* package */
+    GetChunkedCoordinator(List<List<ChunkType>> chunks,
+                          Deduplication<ResultType> deduplication,
+                          PageHandler<ResultType, QueryError> handler) {
+        this.chunkCount = chunks.size();
+        this.chunkPageCounts = new int[chunkCount];
+        this.remainingChunkCount = chunkCount;
+        this.deduplicationFilter = deduplication.createFilter();
         this.handler = handler;
     }
 
+    /**
+     * Hand a page of the results of the chunk at `chunkIndex`, less those already handed over, to
+     * the handler.  Pages, across all chunks, are handed over one at a time and in the order they
+     * arrive; this returns once the page has been handed over, by this thread or another.
+     *
+     * @return false if the coordinator has failed and the chunk should stop paging
+     */
     /* package */
-    void handleChunkData(List<ChunkType> chunk, List<ResultType> data) {
-        boolean transitionToSuccess = false;
+    boolean handleChunkPage(int chunkIndex, List<ResultType> data) {
+        long page;
 
         synchronized (this) {
             checkState(!isInSuccessState());
 
-            if (!isInErrorState()) {
-                chunks.remove(chunk);
-                transactions.addAll(data);
-                transitionToSuccess = isInSuccessState();
+            if (isInErrorState()) {
+                return false;
             }
+
+            List<ResultType> filtered = deduplicationFilter.filter(data);
+            int pageCount = chunkPageCounts[chunkIndex] += 1;
+            deliveries.add(() -> deliverPage(chunkIndex, pageCount, filtered));
+            page = queuedPageCount += 1;
         }
 
-        if (transitionToSuccess) {
-            handleSuccess();
+        deliver();
+
+        synchronized (this) {
+            // the chunk pages on once its page is handled, so wait out another thread's delivery
+            while (deliveredPageCount < page && !isInErrorState()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            return !isInErrorState();
         }
     }
 
     /* package */
-    void handleError(QueryError error) {
-        boolean transitionToError = false;
-
+    void handleChunkComplete(int chunkIndex) {
         synchronized (this) {
             checkState(!isInSuccessState());
 
-            if (!isInErrorState()) {
-                this.error = error;
-                transitionToError = isInErrorState();
+            if (isInErrorState()) {
+                return;
+            }
+
+            remainingChunkCount -= 1;
+
+            int pageCount = chunkPageCounts[chunkIndex];
+            deliveries.add(() -> handler.handleChunkProgress(chunkIndex, chunkCount, pageCount, true));
+            if (isInSuccessState()) {
+                deliveries.add(this::handleSuccess);
             }
         }
 
-        if (transitionToError) {
-            handleFailure();
+        deliver();
+    }
+
+    /* package */
+    void handleError(QueryError error) {
+        synchronized (this) {
+            checkState(!isInSuccessState());
+
+            if (isInErrorState()) {
+                return;
+            }
+
+            this.error = error;
+            deliveries.add(this::handleFailure);
+            notifyAll();
         }
+
+        deliver();
     }
 
     private boolean isInErrorState() {
@@ -73,14 +143,105 @@ class GetChunkedCoordinator<ChunkType, ResultType> {
     }
 
     private boolean isInSuccessState() {
-        return chunks.isEmpty();
+        return 0 == remainingChunkCount;
     }
 
     private void handleSuccess() {
-        handler.handleData(transactions);
+        handler.handleComplete();
     }
 
     private void handleFailure() {
         handler.handleError(error);
     }
+
+    // Make the queued calls unless another thread already is; that thread makes those queued
+    // meanwhile, including this thread's
+    private void deliver() {
+        synchronized (this) {
+            if (delivering) {
+                return;
+            }
+            delivering = true;
+        }
+
+        while (true) {
+            Runnable delivery;
+            synchronized (this) {
+                delivery = deliveries.poll();
+                if (null == delivery) {
+                    delivering = false;
+                    return;
+                }
+            }
+
+            try {
+                delivery.run();
+            } catch (RuntimeException e) {
+                Log.log(Level.SEVERE, "handler failed", e);
+            }
+        }
+    }
+
+    private void deliverPage(int chunkIndex, int pageCount, List<ResultType> data) {
+        try {
+            handler.handlePage(data);
+            handler.handleChunkProgress(chunkIndex, chunkCount, pageCount, false);
+
+        } catch (RuntimeException e) {
+            // a failed handler fails the query, so that the handler still hears of its end
+            Log.log(Level.SEVERE, "page handler failed", e);
+            synchronized (this) {
+                if (!isInErrorState()) {
+                    this.error = new QueryModelError(String.valueOf(e.getMessage()));
+                    deliveries.clear();
+                    deliveries.add(this::handleFailure);
+                }
+            }
+        }
+
+        synchronized (this) {
+            deliveredPageCount += 1;
+            notifyAll();
+        }
+    }
+
+    // Accumulates every page for a single, final `CompletionHandler::handleData`; a richer copy of
+    // a result replaces the earlier copy in place
+    private static class CollectingPageHandler<ResultType> implements PageHandler<ResultType, QueryError> {
+
+        private final List<ResultType> results = new ArrayList<>();
+        private final Map<String, Integer> resultIndices = new HashMap<>();
+        private final Deduplication<ResultType> deduplication;
+        private final CompletionHandler<List<ResultType>, QueryError> handler;
+
+        CollectingPageHandler(Deduplication<ResultType> deduplication,
+                              CompletionHandler<List<ResultType>, QueryError> handler) {
+            this.deduplication = deduplication;
+            this.handler = handler;
+        }
+
+        @Override
+        public void handlePage(List<ResultType> data) {
+            for (ResultType result : data) {
+                String key = deduplication.getKey(result);
+                Integer index = resultIndices.get(key);
+                if (null == index) {
+                    resultIndices.put(key, results.size());
+                    results.add(result);
+                } else {
+                    results.set(index, result);
+                }
+            }
+        }
+
+        @Override
+        public void handleComplete() {
+            handler.handleData(results);
+        }
+
+        @Override
+        public void handleError(QueryError error) {
+            handler.handleError(error);
+        }
+    }
 }
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import android.support.annotation.Nullable;
+
+import com.breadwallet.crypto.blockchaindb.RequestTag;
+import com.breadwallet.crypto.blockchaindb.apis.PagedData;
+import com.breadwallet.crypto.blockchaindb.errors.QueryError;
+import com.breadwallet.crypto.utility.CompletionHandler;
+import com.google.common.base.Optional;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Schedules the page requests of paged queries ('walks' along a `nextUrl` chain).
+ *
+ * At most `maxInFlight` page requests are outstanding at once, across all walks.  Requests beyond
+ * that wait in a FIFO queue; as each walk has at most one queued request, the walks waiting on a
+ * slot are served round-robin.  With `prefetch`, a walk requests its next page before the current
+ * page is handed over, overlapping the consumer's work with the next request; at most one page is
+ * held back per walk, preserving page order.  A walk's page requests carry the `RequestTag` of its
+ * start.
+ */
+public class PaginationScheduler {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 8;
+    public static final boolean DEFAULT_PREFETCH = true;
+
+    /* package */
+    interface PageFetcher<T> {
+        // Fetch the first page if `nextUrl` is null; otherwise, the page at `nextUrl`
+        void fetch(@Nullable String nextUrl, CompletionHandler<PagedData<T>, QueryError> handler);
+    }
+
+    /* package */
+    interface PageSink<T> {
+        // Return false to end the walk
+        boolean handlePage(List<T> data);
+        void handleComplete();
+        void handleError(QueryError error);
+    }
+
+    private final int maxInFlight;
+    private final boolean prefetch;
+    private final Executor executor;
+
+    private final Queue<Runnable> pending;
+    private int inFlight;
+
+    public PaginationScheduler(int maxInFlight, boolean prefetch, Executor executor) {
+        checkArgument(maxInFlight > 0);
+
+        this.maxInFlight = maxInFlight;
+        this.prefetch = prefetch;
+        this.executor = executor;
+
+        this.pending = new ArrayDeque<>();
+        this.inFlight = 0;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public boolean isPrefetch() {
+        return prefetch;
+    }
+
+    public synchronized int getInFlightCount() {
+        return inFlight;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Wait until no page requests are in flight or waiting for a slot.
+     *
+     * @return true if none are; false if `timeoutMillis` passed first
+     */
+    public synchronized boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (inFlight > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /* package */
+    <T> void walk(PageFetcher<T> fetcher, PageSink<T> sink) {
+        new Walk<>(fetcher, sink).start();
+    }
+
+    // The first page is requested on the caller's thread, if a slot is available
+    private void submit(Runnable fetch, boolean onCallerThread) {
+        synchronized (this) {
+            if (inFlight >= maxInFlight) {
+                pending.add(fetch);
+                return;
+            }
+            inFlight += 1;
+        }
+
+        if (onCallerThread) fetch.run();
+        else dispatch(fetch);
+    }
+
+    private void release() {
+        Runnable fetch;
+
+        synchronized (this) {
+            fetch = pending.poll();
+            if (null == fetch) {
+                inFlight -= 1;
+                if (0 == inFlight) notifyAll();
+                return;
+            }
+            // the released slot passes directly to `fetch`
+        }
+
+        dispatch(fetch);
+    }
+
+    // Once the executor is shut down, a fetch runs on the releasing thread rather than being lost
+    private void dispatch(Runnable fetch) {
+        try {
+            executor.execute(fetch);
+        } catch (RejectedExecutionException e) {
+            fetch.run();
+        }
+    }
+
+    private class Walk<T> {
+
+        private final PageFetcher<T> fetcher;
+        private final PageSink<T> sink;
+        private final @Nullable String tag;
+
+        private boolean delivering;
+        private boolean stopped;
+        private PagedData<T> heldPage;
+
+        Walk(PageFetcher<T> fetcher, PageSink<T> sink) {
+            this.fetcher = fetcher;
+            this.sink = sink;
+            this.tag = RequestTag.get().orNull();
+        }
+
+        void start() {
+            submit(() -> fetch(null), true);
+        }
+
+        private void submitNext(String nextUrl) {
+            submit(() -> fetch(nextUrl), false);
+        }
+
+        private void fetch(@Nullable String nextUrl) {
+            RequestTag.run(tag, () -> fetchTagged(nextUrl));
+        }
+
+        private void fetchTagged(@Nullable String nextUrl) {
+            fetcher.fetch(nextUrl, new CompletionHandler<PagedData<T>, QueryError>() {
+                @Override
+                public void handleData(PagedData<T> page) {
+                    release();
+                    deliver(page);
+                }
+
+                @Override
+                public void handleError(QueryError error) {
+                    release();
+                    sink.handleError(error);
+                }
+            });
+        }
+
+        private void deliver(PagedData<T> page) {
+            synchronized (this) {
+                // a prefetched page arrived while its predecessor is still being handled
+                if (delivering) {
+                    heldPage = page;
+                    return;
+                }
+                delivering = true;
+            }
+
+            boolean delivered = false;
+            try {
+                while (null != page) {
+                    Optional<String> nextUrl = page.getNextUrl();
+
+                    // once the sink ends the walk, a prefetched page is dropped
+                    if (!stopped) {
+                        if (prefetch && nextUrl.isPresent()) {
+                            submitNext(nextUrl.get());
+                        }
+
+                        stopped = !sink.handlePage(page.getData());
+
+                        if (!nextUrl.isPresent()) {
+                            if (!stopped) sink.handleComplete();
+                        } else if (!prefetch && !stopped) {
+                            submitNext(nextUrl.get());
+                        }
+                    }
+
+                    synchronized (this) {
+                        page = heldPage;
+                        heldPage = null;
+                        delivering = (null != page);
+                    }
+                }
+                delivered = true;
+
+            } finally {
+                // a sink that throws ends the walk; a page arriving later is dropped, not wedged
+                if (!delivered) {
+                    synchronized (this) {
+                        stopped = true;
+                        heldPage = null;
+                        delivering = false;
+                    }
+                }
+            }
+        }
+    }
+}
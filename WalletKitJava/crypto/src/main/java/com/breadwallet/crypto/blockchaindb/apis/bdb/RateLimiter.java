@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket that hands out permits by reservation: a request takes a permit now, possibly
+ * going into debt, and is told how long to wait for the permit to be earned.  Waiting requests
+ * are thus spread out at the permitted rate without blocking a thread.
+ */
+/* package */
+final class RateLimiter {
+
+    private final double permitsPerNanos;
+    private final double burstPermits;
+
+    private double permits;
+    private long updatedAtNanos;
+
+    RateLimiter(double permitsPerSecond, int burstPermits) {
+        this.permitsPerNanos = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burstPermits = burstPermits;
+
+        this.permits = burstPermits;
+        this.updatedAtNanos = System.nanoTime();
+    }
+
+    /**
+     * Reserve a permit.
+     *
+     * @return the time, in milliseconds, to wait before using the permit
+     */
+    synchronized long reserve() {
+        long nowNanos = System.nanoTime();
+        permits = Math.min(burstPermits, permits + (nowNanos - updatedAtNanos) * permitsPerNanos);
+        updatedAtNanos = nowNanos;
+
+        permits -= 1;
+        return permits >= 0 ? 0 : TimeUnit.NANOSECONDS.toMillis((long) Math.ceil(-permits / permitsPerNanos));
+    }
+}
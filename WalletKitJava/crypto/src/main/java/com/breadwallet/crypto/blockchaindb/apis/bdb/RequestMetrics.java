@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import android.support.annotation.Nullable;
+
+import com.google.common.base.Optional;
+
+/**
+ * The measurements of a single BlockchainDB request, as sent over the network, including its
+ * retries.  Requests answered from the response cache, or by joining an identical request in
+ * flight, are not measured.
+ *
+ * Times are in microseconds.  The time to first byte is that of the final attempt; the latency
+ * spans all attempts, through to the response being parsed.  As the response body is parsed as
+ * it streams in, the parse time includes reading the body.
+ */
+public final class RequestMetrics {
+
+    /** The status code of a request that got no response */
+    public static final int NO_STATUS = -1;
+
+    private final String endpoint;
+    private final String method;
+    private final int statusCode;
+    private final boolean success;
+    private final long timeToFirstByteMicros;
+    private final long latencyMicros;
+    private final long responseBytes;
+    private final long parseMicros;
+    private final int itemCount;
+    private final int retryCount;
+    private final @Nullable String tag;
+
+    /* package */
+    RequestMetrics(String endpoint,
+                   String method,
+                   int statusCode,
+                   boolean success,
+                   long timeToFirstByteMicros,
+                   long latencyMicros,
+                   long responseBytes,
+                   long parseMicros,
+                   int itemCount,
+                   int retryCount,
+                   @Nullable String tag) {
+        this.endpoint = endpoint;
+        this.method = method;
+        this.statusCode = statusCode;
+        this.success = success;
+        this.timeToFirstByteMicros = timeToFirstByteMicros;
+        this.latencyMicros = latencyMicros;
+        this.responseBytes = responseBytes;
+        this.parseMicros = parseMicros;
+        this.itemCount = itemCount;
+        this.retryCount = retryCount;
+        this.tag = tag;
+    }
+
+    /** The endpoint family, such as "transfers" */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /** The final status code, or `NO_STATUS` */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /** True if the response was successfully parsed */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public long getTimeToFirstByteMicros() {
+        return timeToFirstByteMicros;
+    }
+
+    public long getLatencyMicros() {
+        return latencyMicros;
+    }
+
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    public long getParseMicros() {
+        return parseMicros;
+    }
+
+    /** The number of items (such as transfers) in the response */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    /** The `RequestTag` of the request, typically its originating wallet manager */
+    public Optional<String> getTag() {
+        return Optional.fromNullable(tag);
+    }
+}
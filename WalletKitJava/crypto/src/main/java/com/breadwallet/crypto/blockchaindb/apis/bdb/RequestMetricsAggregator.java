@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Aggregates request metrics, per endpoint family, into histograms of latency, time to first
+ * byte, response size, parse time and item count, along with request, failure and retry counts.
+ *
+ * Histograms use power-of-two buckets, so recording is a few atomic increments and percentiles
+ * are accurate to within a factor of two.
+ */
+public class RequestMetricsAggregator implements RequestMetricsListener {
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public void handleRequestMetrics(RequestMetrics metrics) {
+        EndpointMetrics endpoint = endpoints.get(metrics.getEndpoint());
+        if (null == endpoint) {
+            EndpointMetrics newEndpoint = new EndpointMetrics();
+            endpoint = endpoints.putIfAbsent(metrics.getEndpoint(), newEndpoint);
+            if (null == endpoint) endpoint = newEndpoint;
+        }
+        endpoint.record(metrics);
+    }
+
+    public Set<String> getEndpoints() {
+        return ImmutableSet.copyOf(endpoints.keySet());
+    }
+
+    public Optional<EndpointMetrics> getEndpointMetrics(String endpoint) {
+        return Optional.fromNullable(endpoints.get(endpoint));
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    public static final class EndpointMetrics {
+
+        private final AtomicLong requestCount = new AtomicLong(0);
+        private final AtomicLong failureCount = new AtomicLong(0);
+        private final AtomicLong retryCount = new AtomicLong(0);
+
+        private final Histogram latencyMicros = new Histogram();
+        private final Histogram timeToFirstByteMicros = new Histogram();
+        private final Histogram responseBytes = new Histogram();
+        private final Histogram parseMicros = new Histogram();
+        private final Histogram itemCount = new Histogram();
+
+        private EndpointMetrics() {
+        }
+
+        private void record(RequestMetrics metrics) {
+            requestCount.incrementAndGet();
+            if (!metrics.isSuccess()) failureCount.incrementAndGet();
+            retryCount.addAndGet(metrics.getRetryCount());
+
+            latencyMicros.record(metrics.getLatencyMicros());
+            if (RequestMetrics.NO_STATUS != metrics.getStatusCode()) {
+                timeToFirstByteMicros.record(metrics.getTimeToFirstByteMicros());
+                responseBytes.record(metrics.getResponseBytes());
+            }
+            if (metrics.isSuccess()) {
+                parseMicros.record(metrics.getParseMicros());
+                itemCount.record(metrics.getItemCount());
+            }
+        }
+
+        public long getRequestCount() {
+            return requestCount.get();
+        }
+
+        public long getFailureCount() {
+            return failureCount.get();
+        }
+
+        public long getRetryCount() {
+            return retryCount.get();
+        }
+
+        public Histogram getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        public Histogram getTimeToFirstByteMicros() {
+            return timeToFirstByteMicros;
+        }
+
+        public Histogram getResponseBytes() {
+            return responseBytes;
+        }
+
+        public Histogram getParseMicros() {
+            return parseMicros;
+        }
+
+        public Histogram getItemCount() {
+            return itemCount;
+        }
+    }
+
+    /**
+     * A histogram of non-negative values.  Bucket `i` counts values in `[2^(i-1), 2^i)`, with
+     * bucket 0 counting zero.
+     */
+    public static final class Histogram {
+
+        private static final int BUCKET_COUNT = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong(0);
+        private final AtomicLong sum = new AtomicLong(0);
+        private final AtomicLong max = new AtomicLong(0);
+
+        private Histogram() {
+        }
+
+        private void record(long value) {
+            value = Math.max(0, value);
+
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+            count.incrementAndGet();
+            sum.addAndGet(value);
+
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getSum() {
+            return sum.get();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public double getMean() {
+            long n = count.get();
+            return 0 == n ? 0 : (double) sum.get() / n;
+        }
+
+        /**
+         * An upper bound on the `percentile` (in [0, 100]) value: the upper limit of the bucket
+         * holding it, capped by the maximum value.
+         */
+        public long getPercentile(double percentile) {
+            long n = count.get();
+            if (0 == n) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(n * Math.min(100, Math.max(0, percentile)) / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += buckets.get(i);
+                if (seen >= Math.max(1, rank)) {
+                    long upper = 0 == i ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                    return Math.min(upper, max.get());
+                }
+            }
+            return max.get();
+        }
+    }
+}
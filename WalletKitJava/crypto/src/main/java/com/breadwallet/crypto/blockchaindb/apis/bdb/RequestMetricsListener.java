@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+/**
+ * Receives the metrics of each BlockchainDB request as it completes.  Calls are made on the
+ * request's thread, once its result has been handled, and so should return promptly.
+ *
+ * With no listener set, requests are not measured at all.
+ */
+public interface RequestMetricsListener {
+    void handleRequestMetrics(RequestMetrics metrics);
+}
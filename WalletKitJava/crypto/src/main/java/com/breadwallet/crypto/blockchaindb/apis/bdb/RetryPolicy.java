@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * When, and after how long, to retry a failed BlockchainDB request.
+ *
+ * Only idempotent requests are retried, and only on a network failure or on a transient status
+ * (408, 429, 500, 502, 503, 504).  The delay before attempt `n + 1` is chosen uniformly from
+ * `[0, min(maxDelay, baseDelay * 2^(n - 1))]` ('full jitter'), but is never less than the
+ * response's Retry-After; a Retry-After beyond `maxRetryAfter` is not waited for.
+ *
+ * Retries are also limited by a budget per endpoint: each failure spends a token, each success
+ * earns back `budgetTokenRatio`, and retries stop while no more than half of `budgetTokens` remain.
+ * A persistently failing endpoint thus sees few retries, while isolated failures are retried.
+ */
+public final class RetryPolicy {
+
+    /** Up to four attempts, from 250 ms apart; retrying is opt-in, as `NONE` is the default */
+    public static final RetryPolicy RECOMMENDED = new RetryPolicy(
+            4,
+            250,
+            TimeUnit.SECONDS.toMillis(10),
+            TimeUnit.SECONDS.toMillis(60),
+            10,
+            0.1);
+
+    /** Never retry; the default */
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0, 1, 0);
+
+    private static final Set<String> IDEMPOTENT_METHODS = ImmutableSet.of("GET", "PUT", "DELETE");
+
+    private static final Set<Integer> TRANSIENT_STATUS_CODES = ImmutableSet.of(408, 429, 500, 502, 503, 504);
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long maxRetryAfterMillis;
+    private final int budgetTokens;
+    private final double budgetTokenRatio;
+
+    /**
+     * @param maxAttempts         the maximum number of attempts, including the first
+     * @param baseDelayMillis     the delay bound for the first retry
+     * @param maxDelayMillis      the limit on the delay bound
+     * @param maxRetryAfterMillis the longest Retry-After waited for
+     * @param budgetTokens        the retry budget, per endpoint
+     * @param budgetTokenRatio    the budget earned back on each success
+     */
+    public RetryPolicy(int maxAttempts,
+                       long baseDelayMillis,
+                       long maxDelayMillis,
+                       long maxRetryAfterMillis,
+                       int budgetTokens,
+                       double budgetTokenRatio) {
+        checkArgument(maxAttempts >= 1);
+        checkArgument(baseDelayMillis >= 0 && maxDelayMillis >= baseDelayMillis);
+        checkArgument(maxRetryAfterMillis >= 0);
+        checkArgument(budgetTokens >= 1 && budgetTokenRatio >= 0);
+
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxRetryAfterMillis = maxRetryAfterMillis;
+        this.budgetTokens = budgetTokens;
+        this.budgetTokenRatio = budgetTokenRatio;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /* package */
+    boolean isRetryable(String httpMethod) {
+        return maxAttempts > 1 && IDEMPOTENT_METHODS.contains(httpMethod);
+    }
+
+    /* package */
+    boolean isTransient(int responseCode) {
+        return TRANSIENT_STATUS_CODES.contains(responseCode);
+    }
+
+    /**
+     * The delay, in milliseconds, before the attempt following `attempt` (counting from 1), or -1
+     * if there should be no further attempt.
+     *
+     * @param retryAfterMillis the response's Retry-After, or -1 if none
+     */
+    /* package */
+    long getDelayMillis(int attempt, long retryAfterMillis, Random random) {
+        if (attempt >= maxAttempts || retryAfterMillis > maxRetryAfterMillis) {
+            return -1;
+        }
+
+        long bound = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 30));
+        long delay = (long) (random.nextDouble() * bound);
+        return Math.max(delay, retryAfterMillis);
+    }
+
+    /* package */
+    Budget createBudget() {
+        return new Budget();
+    }
+
+    /* package */
+    class Budget {
+
+        private double tokens = budgetTokens;
+
+        /* package */
+        synchronized void recordSuccess() {
+            tokens = Math.min(budgetTokens, tokens + budgetTokenRatio);
+        }
+
+        /**
+         * Spend a token for a failure.
+         *
+         * @return true if a retry is within the budget
+         */
+        /* package */
+        synchronized boolean recordFailure() {
+            tokens = Math.max(0, tokens - 1);
+            return tokens > budgetTokens / 2.0;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+/**
+ * Observes the rate limiting and circuit breaking of BlockchainDB requests, per endpoint family.
+ * Calls are made on the request's thread and should return promptly.
+ */
+public interface ThrottleListener {
+
+    /** A request to `endpoint` is delayed by `waitMillis` to stay within its rate limit */
+    default void handleRateLimited(String endpoint, long waitMillis) {
+    }
+
+    /** The circuit breaker of `endpoint` changed to `state` */
+    default void handleCircuitStateChanged(String endpoint, CircuitBreaker.State state) {
+    }
+
+    /** A request to `endpoint` failed fast, as its circuit breaker is open */
+    default void handleRejected(String endpoint) {
+    }
+}
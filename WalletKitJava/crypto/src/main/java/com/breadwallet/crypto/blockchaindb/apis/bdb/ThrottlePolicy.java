@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The rate limit and circuit breaker for an endpoint family (such as "transactions").
+ *
+ * Requests are limited by a token bucket holding up to `burstPermits` permits and refilled at
+ * `permitsPerSecond`; a request finding the bucket empty is delayed, not rejected.  After
+ * `failureThreshold` consecutive failures (network failures or transient statuses) the circuit
+ * opens and requests fail fast for `openMillis`; a single trial request then decides whether the
+ * circuit closes again.
+ */
+public final class ThrottlePolicy {
+
+    /**
+     * Suggested policies, keyed by first path segment; throttling is opt-in, as no endpoint family
+     * is throttled by default
+     */
+    public static final Map<String, ThrottlePolicy> RECOMMENDED_POLICIES = ImmutableMap.of(
+            "transactions", new ThrottlePolicy(20, 40, 5, TimeUnit.SECONDS.toMillis(30)),
+            "transfers",    new ThrottlePolicy(20, 40, 5, TimeUnit.SECONDS.toMillis(30)),
+            "blocks",       new ThrottlePolicy(10, 20, 5, TimeUnit.SECONDS.toMillis(30)),
+            "blockchains",  new ThrottlePolicy(5, 10, 5, TimeUnit.SECONDS.toMillis(30)));
+
+    private final double permitsPerSecond;
+    private final int burstPermits;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    /**
+     * @param permitsPerSecond the sustained request rate
+     * @param burstPermits     the number of requests that may be sent at once, after a lull
+     * @param failureThreshold the number of consecutive failures that opens the circuit
+     * @param openMillis       how long the circuit stays open before a trial request
+     */
+    public ThrottlePolicy(double permitsPerSecond, int burstPermits, int failureThreshold, long openMillis) {
+        checkArgument(permitsPerSecond > 0 && burstPermits >= 1);
+        checkArgument(failureThreshold >= 1 && openMillis >= 0);
+
+        this.permitsPerSecond = permitsPerSecond;
+        this.burstPermits = burstPermits;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurstPermits() {
+        return burstPermits;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+    /* package */
+    RateLimiter createRateLimiter() {
+        return new RateLimiter(permitsPerSecond, burstPermits);
+    }
+
+    /* package */
+    CircuitBreaker createCircuitBreaker() {
+        return new CircuitBreaker(failureThreshold, openMillis);
+    }
+}
@@ -9,13 +9,13 @@ package com.breadwallet.crypto.blockchaindb.apis.bdb;
 
 import android.support.annotation.Nullable;
 
-import com.breadwallet.crypto.blockchaindb.apis.PagedData;
+import com.breadwallet.crypto.blockchaindb.apis.PageHandler;
 import com.breadwallet.crypto.blockchaindb.errors.QueryError;
 import com.breadwallet.crypto.blockchaindb.errors.QueryJsonParseError;
 import com.breadwallet.crypto.blockchaindb.models.bdb.Transaction;
 import com.breadwallet.crypto.blockchaindb.models.bdb.TransactionFee;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Transfer;
 import com.breadwallet.crypto.utility.CompletionHandler;
-import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
@@ -24,23 +24,47 @@ import com.google.common.collect.Multimap;
 import com.google.common.io.BaseEncoding;
 import com.google.common.primitives.UnsignedLong;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
 
 public class TransactionApi {
 
     private static final int ADDRESS_COUNT = 50;
     private static final int DEFAULT_MAX_PAGE_SIZE = 20;
 
+    // The copy in a block and with the most data (raw bytes, then transfers) is the richest
+    private static final class TransactionDeduplication extends Deduplication<Transaction> {
+        @Override
+        String getKey(Transaction transaction) {
+            return transaction.getId();
+        }
+
+        @Override
+        int getRichness(Transaction transaction) {
+            List<Transfer> transfers = transaction.getTransfers();
+            return (transaction.getBlockHeight().isPresent() ? 1 << 30 : 0) +
+                    (transaction.getRawValue().isPresent() ? 1 << 29 : 0) +
+                    (null == transfers ? 0 : transfers.size());
+        }
+    }
+
     private final BdbApiClient jsonClient;
-    private final ExecutorService executorService;
+    private final PaginationScheduler paginationScheduler;
+    private final Deduplication<Transaction> deduplication;
 
     public TransactionApi(BdbApiClient jsonClient,
-                          ExecutorService executorService) {
+                          PaginationScheduler paginationScheduler) {
         this.jsonClient = jsonClient;
-        this.executorService = executorService;
+        this.paginationScheduler = paginationScheduler;
+        this.deduplication = new TransactionDeduplication();
+    }
+
+    /**
+     * The number of duplicate transactions, returned by more than one address chunk, eliminated
+     * from the results of `getTransactions` so far.
+     */
+    public long getDuplicateCount() {
+        return deduplication.getEliminatedCount();
     }
 
     public void getTransactions(String id,
@@ -56,8 +80,40 @@ public class TransactionApi {
             throw new IllegalArgumentException("Empty `addresses`");
 
         List<List<String>> chunkedAddressesList = Lists.partition(addresses, ADDRESS_COUNT);
-        GetChunkedCoordinator<String, Transaction> coordinator = new GetChunkedCoordinator<>(chunkedAddressesList, handler);
+        GetChunkedCoordinator<String, Transaction> coordinator = new GetChunkedCoordinator<>(chunkedAddressesList, deduplication, handler);
+
+        getTransactions(id, chunkedAddressesList, beginBlockNumber, endBlockNumber, includeRaw, includeProof,
+                includeTransfers, maxPageSize, coordinator);
+    }
 
+    public void getTransactions(String id,
+                                List<String> addresses,
+                                @Nullable UnsignedLong beginBlockNumber,
+                                @Nullable UnsignedLong endBlockNumber,
+                                boolean includeRaw,
+                                boolean includeProof,
+                                boolean includeTransfers,
+                                @Nullable Integer maxPageSize,
+                                PageHandler<Transaction, QueryError> handler) {
+        if (addresses.isEmpty())
+            throw new IllegalArgumentException("Empty `addresses`");
+
+        List<List<String>> chunkedAddressesList = Lists.partition(addresses, ADDRESS_COUNT);
+        GetChunkedCoordinator<String, Transaction> coordinator = new GetChunkedCoordinator<>(chunkedAddressesList, deduplication, handler);
+
+        getTransactions(id, chunkedAddressesList, beginBlockNumber, endBlockNumber, includeRaw, includeProof,
+                includeTransfers, maxPageSize, coordinator);
+    }
+
+    private void getTransactions(String id,
+                                 List<List<String>> chunkedAddressesList,
+                                 @Nullable UnsignedLong beginBlockNumber,
+                                 @Nullable UnsignedLong endBlockNumber,
+                                 boolean includeRaw,
+                                 boolean includeProof,
+                                 boolean includeTransfers,
+                                 @Nullable Integer maxPageSize,
+                                 GetChunkedCoordinator<String, Transaction> coordinator) {
         if (null == maxPageSize) maxPageSize = (includeTransfers ? 1 : 3) * DEFAULT_MAX_PAGE_SIZE;
 
         for (int i = 0; i < chunkedAddressesList.size(); i++) {
@@ -75,8 +131,12 @@ public class TransactionApi {
             for (String address : chunkedAddresses) paramsBuilder.put("address", address);
             ImmutableMultimap<String, String> params = paramsBuilder.build();
 
-            CompletionHandler<PagedData<Transaction>, QueryError> pagedHandler = createPagedResultsHandler(coordinator, chunkedAddresses);
-            jsonClient.sendGetForArrayWithPaging("transactions", params, Transaction.class, pagedHandler);
+            paginationScheduler.walk(
+                    (nextUrl, pagedHandler) -> {
+                        if (null == nextUrl) jsonClient.sendGetForArrayWithPaging("transactions", params, Transaction.class, pagedHandler);
+                        else jsonClient.sendGetForArrayWithPaging("transactions", nextUrl, Transaction.class, pagedHandler);
+                    },
+                    createPageSink(coordinator, i));
         }
     }
 
@@ -122,23 +182,21 @@ public class TransactionApi {
         jsonClient.sendPost("transactions", params, json, TransactionFee.class, handler);
     }
 
-
-    private CompletionHandler<PagedData<Transaction>, QueryError> createPagedResultsHandler(GetChunkedCoordinator<String, Transaction> coordinator,
-                                                                                       List<String> chunkedAddresses) {
-        List<Transaction> allResults = new ArrayList<>();
-        return new CompletionHandler<PagedData<Transaction>, QueryError>() {
+    private PaginationScheduler.PageSink<Transaction> createPageSink(GetChunkedCoordinator<String, Transaction> coordinator,
+                                                             int chunkIndex) {
+        return new PaginationScheduler.PageSink<Transaction>() {
             @Override
-            public void handleData(PagedData<Transaction> results) {
-                Optional<String> nextUrl = results.getNextUrl();
-                allResults.addAll(results.getData());
-
-                if (nextUrl.isPresent()) {
-                    submitGetNextTransactions(nextUrl.get(), this);
-                } else if (!transactionsAreAllValid(allResults)) {
+            public boolean handlePage(List<Transaction> data) {
+                if (!transactionsAreAllValid(data)) {
                     coordinator.handleError(new QueryJsonParseError());
-                } else {
-                    coordinator.handleChunkData(chunkedAddresses, allResults);
+                    return false;
                 }
+                return coordinator.handleChunkPage(chunkIndex, data);
+            }
+
+            @Override
+            public void handleComplete() {
+                coordinator.handleChunkComplete(chunkIndex);
             }
 
             @Override
@@ -148,16 +206,6 @@ public class TransactionApi {
         };
     }
 
-    private void submitGetNextTransactions(String nextUrl,
-                                           CompletionHandler<PagedData<Transaction>, QueryError> handler) {
-        executorService.submit(() -> getNextTransactions(nextUrl, handler));
-    }
-
-    private void getNextTransactions(String nextUrl,
-                                     CompletionHandler<PagedData<Transaction>, QueryError> handler) {
-        jsonClient.sendGetForArrayWithPaging("transactions", nextUrl, Transaction.class, handler);
-    }
-
     boolean transactionsAreAllValid (List<Transaction> transactions) {
         for (Transaction transaction : transactions) {
             if (!transactionIsValid(transaction))
@@ -9,19 +9,16 @@ package com.breadwallet.crypto.blockchaindb.apis.bdb;
 
 import android.support.annotation.Nullable;
 
-import com.breadwallet.crypto.blockchaindb.apis.PagedData;
+import com.breadwallet.crypto.blockchaindb.apis.PageHandler;
 import com.breadwallet.crypto.blockchaindb.errors.QueryError;
 import com.breadwallet.crypto.blockchaindb.models.bdb.Transfer;
 import com.breadwallet.crypto.utility.CompletionHandler;
-import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.UnsignedLong;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -30,13 +27,36 @@ public class TransferApi {
     private static final int ADDRESS_COUNT = 50;
     private static final int DEFAULT_MAX_PAGE_SIZE = 20;
 
+    // The copy with the most acknowledgements is the richest
+    private static final class TransferDeduplication extends Deduplication<Transfer> {
+        @Override
+        String getKey(Transfer transfer) {
+            return transfer.getId();
+        }
+
+        @Override
+        int getRichness(Transfer transfer) {
+            return transfer.getAcknowledgements().or(UnsignedLong.ZERO).intValue();
+        }
+    }
+
     private final BdbApiClient jsonClient;
-    private final ExecutorService executorService;
+    private final PaginationScheduler paginationScheduler;
+    private final Deduplication<Transfer> deduplication;
 
     public TransferApi(BdbApiClient jsonClient,
-                       ExecutorService executorService) {
+                       PaginationScheduler paginationScheduler) {
         this.jsonClient = jsonClient;
-        this.executorService = executorService;
+        this.paginationScheduler = paginationScheduler;
+        this.deduplication = new TransferDeduplication();
+    }
+
+    /**
+     * The number of duplicate transfers, returned by more than one address chunk, eliminated
+     * from the results of `getTransfers` so far.
+     */
+    public long getDuplicateCount() {
+        return deduplication.getEliminatedCount();
     }
 
     public void getTransfers(String id,
@@ -49,8 +69,32 @@ public class TransferApi {
             throw new IllegalArgumentException("Empty `addresses`");
 
         List<List<String>> chunkedAddressesList = Lists.partition(addresses, ADDRESS_COUNT);
-        GetChunkedCoordinator<String, Transfer> coordinator = new GetChunkedCoordinator<>(chunkedAddressesList, handler);
+        GetChunkedCoordinator<String, Transfer> coordinator = new GetChunkedCoordinator<>(chunkedAddressesList, deduplication, handler);
+
+        getTransfers(id, chunkedAddressesList, beginBlockNumber, endBlockNumber, maxPageSize, coordinator);
+    }
+
+    public void getTransfers(String id,
+                             List<String> addresses,
+                             @Nullable UnsignedLong beginBlockNumber,
+                             @Nullable UnsignedLong endBlockNumber,
+                             @Nullable Integer maxPageSize,
+                             PageHandler<Transfer, QueryError> handler) {
+        if (addresses.isEmpty())
+            throw new IllegalArgumentException("Empty `addresses`");
+
+        List<List<String>> chunkedAddressesList = Lists.partition(addresses, ADDRESS_COUNT);
+        GetChunkedCoordinator<String, Transfer> coordinator = new GetChunkedCoordinator<>(chunkedAddressesList, deduplication, handler);
+
+        getTransfers(id, chunkedAddressesList, beginBlockNumber, endBlockNumber, maxPageSize, coordinator);
+    }
 
+    private void getTransfers(String id,
+                              List<List<String>> chunkedAddressesList,
+                              @Nullable UnsignedLong beginBlockNumber,
+                              @Nullable UnsignedLong endBlockNumber,
+                              @Nullable Integer maxPageSize,
+                              GetChunkedCoordinator<String, Transfer> coordinator) {
         if (null == maxPageSize) maxPageSize = DEFAULT_MAX_PAGE_SIZE;
 
         for (int i = 0; i < chunkedAddressesList.size(); i++) {
@@ -64,8 +108,12 @@ public class TransferApi {
             for (String address : chunkedAddresses) paramsBuilder.put("address", address);
             ImmutableMultimap<String, String> params = paramsBuilder.build();
 
-            CompletionHandler<PagedData<Transfer>, QueryError> pagedHandler = createPagedResultsHandler(coordinator, chunkedAddresses);
-            jsonClient.sendGetForArrayWithPaging("transfers", params, Transfer.class, pagedHandler);
+            paginationScheduler.walk(
+                    (nextUrl, pagedHandler) -> {
+                        if (null == nextUrl) jsonClient.sendGetForArrayWithPaging("transfers", params, Transfer.class, pagedHandler);
+                        else jsonClient.sendGetForArrayWithPaging("transfers", nextUrl, Transfer.class, pagedHandler);
+                    },
+                    createPageSink(coordinator, i));
         }
     }
 
@@ -74,31 +122,17 @@ public class TransferApi {
         jsonClient.sendGetWithId("transfers", id, ImmutableMultimap.of(), Transfer.class, handler);
     }
 
-    private void submitGetNextTransfers(String nextUrl,
-                                        CompletionHandler<PagedData<Transfer>, QueryError> handler) {
-        executorService.submit(() -> getNextTransfers(nextUrl, handler));
-    }
-
-    private void getNextTransfers(String nextUrl,
-                                  CompletionHandler<PagedData<Transfer>, QueryError> handler) {
-        jsonClient.sendGetForArrayWithPaging("transfers", nextUrl, Transfer.class, handler);
-    }
-
-    private CompletionHandler<PagedData<Transfer>, QueryError> createPagedResultsHandler(GetChunkedCoordinator<String, Transfer> coordinator,
-                                                                                         List<String> chunkedAddresses) {
-        List<Transfer> allResults = new ArrayList<>();
-        return new CompletionHandler<PagedData<Transfer>, QueryError>() {
+    private PaginationScheduler.PageSink<Transfer> createPageSink(GetChunkedCoordinator<String, Transfer> coordinator,
+                                                          int chunkIndex) {
+        return new PaginationScheduler.PageSink<Transfer>() {
             @Override
-            public void handleData(PagedData<Transfer> results) {
-                Optional<String> nextUrl = results.getNextUrl();
-                allResults.addAll(results.getData());
-
-                if (nextUrl.isPresent()) {
-                    submitGetNextTransfers(nextUrl.get(), this);
+            public boolean handlePage(List<Transfer> data) {
+                return coordinator.handleChunkPage(chunkIndex, data);
+            }
 
-                } else {
-                    coordinator.handleChunkData(chunkedAddresses, allResults);
-                }
+            @Override
+            public void handleComplete() {
+                coordinator.handleChunkComplete(chunkIndex);
             }
 
             @Override
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.errors;
+
+// Endpoint unavailable; its circuit breaker is open and the request was not sent
+public class QueryUnavailableError extends QueryError {
+
+    private final String endpoint;
+
+    public QueryUnavailableError(String endpoint) {
+        super("Endpoint unavailable: " + endpoint);
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
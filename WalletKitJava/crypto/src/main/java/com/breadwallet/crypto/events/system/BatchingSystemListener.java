@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.events.system;
+
+import java.util.List;
+
+/**
+ * Receives events in batches rather than one by one; see
+ * {@link com.breadwallet.crypto.CoalescingSystemListener}.
+ */
+public interface BatchingSystemListener {
+
+    /**
+     * Handle a batch of events, in the order announced (less any superseded events).
+     */
+    void handleEventBatch(List<ListenerEvent> events);
+}
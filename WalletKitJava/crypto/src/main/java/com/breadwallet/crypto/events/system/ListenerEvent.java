@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.events.system;
+
+import android.support.annotation.Nullable;
+
+import com.breadwallet.crypto.Network;
+import com.breadwallet.crypto.System;
+import com.breadwallet.crypto.Transfer;
+import com.breadwallet.crypto.Wallet;
+import com.breadwallet.crypto.WalletManager;
+import com.breadwallet.crypto.events.network.NetworkEvent;
+import com.breadwallet.crypto.events.transfer.TranferEvent;
+import com.breadwallet.crypto.events.wallet.WalletEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerEvent;
+import com.google.common.base.Optional;
+
+/**
+ * An event, with the objects it concerns, as it would be announced to a {@link SystemListener}.
+ */
+public final class ListenerEvent {
+
+    public enum Type {
+        SYSTEM,
+        NETWORK,
+        MANAGER,
+        WALLET,
+        TRANSFER
+    }
+
+    public static ListenerEvent forSystem(System system, SystemEvent event) {
+        return new ListenerEvent(Type.SYSTEM, system, null, null, null, null, event);
+    }
+
+    public static ListenerEvent forNetwork(System system, Network network, NetworkEvent event) {
+        return new ListenerEvent(Type.NETWORK, system, network, null, null, null, event);
+    }
+
+    public static ListenerEvent forManager(System system, WalletManager manager, WalletManagerEvent event) {
+        return new ListenerEvent(Type.MANAGER, system, null, manager, null, null, event);
+    }
+
+    public static ListenerEvent forWallet(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+        return new ListenerEvent(Type.WALLET, system, null, manager, wallet, null, event);
+    }
+
+    public static ListenerEvent forTransfer(System system, WalletManager manager, Wallet wallet, Transfer transfer, TranferEvent event) {
+        return new ListenerEvent(Type.TRANSFER, system, null, manager, wallet, transfer, event);
+    }
+
+    private final Type type;
+    private final System system;
+    private final @Nullable Network network;
+    private final @Nullable WalletManager manager;
+    private final @Nullable Wallet wallet;
+    private final @Nullable Transfer transfer;
+    private final Object event;
+
+    private ListenerEvent(Type type,
+                          System system,
+                          @Nullable Network network,
+                          @Nullable WalletManager manager,
+                          @Nullable Wallet wallet,
+                          @Nullable Transfer transfer,
+                          Object event) {
+        this.type = type;
+        this.system = system;
+        this.network = network;
+        this.manager = manager;
+        this.wallet = wallet;
+        this.transfer = transfer;
+        this.event = event;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public System getSystem() {
+        return system;
+    }
+
+    public Optional<Network> getNetwork() {
+        return Optional.fromNullable(network);
+    }
+
+    public Optional<WalletManager> getManager() {
+        return Optional.fromNullable(manager);
+    }
+
+    public Optional<Wallet> getWallet() {
+        return Optional.fromNullable(wallet);
+    }
+
+    public Optional<Transfer> getTransfer() {
+        return Optional.fromNullable(transfer);
+    }
+
+    /**
+     * The event itself: a {@link SystemEvent}, {@link NetworkEvent}, {@link WalletManagerEvent},
+     * {@link WalletEvent} or {@link TranferEvent}, according to the type.
+     */
+    public Object getEvent() {
+        return event;
+    }
+
+    /**
+     * Announce this event to `listener`, as System would.
+     */
+    public void dispatch(SystemListener listener) {
+        switch (type) {
+            case SYSTEM:
+                listener.handleSystemEvent(system, (SystemEvent) event);
+                break;
+            case NETWORK:
+                listener.handleNetworkEvent(system, network, (NetworkEvent) event);
+                break;
+            case MANAGER:
+                listener.handleManagerEvent(system, manager, (WalletManagerEvent) event);
+                break;
+            case WALLET:
+                listener.handleWalletEvent(system, manager, wallet, (WalletEvent) event);
+                break;
+            case TRANSFER:
+                listener.handleTransferEvent(system, manager, wallet, transfer, (TranferEvent) event);
+                break;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto;
+
+import com.breadwallet.crypto.blockchaindb.BlockchainDb;
+import com.breadwallet.crypto.blockchaindb.DataTask;
+import com.breadwallet.crypto.blockchaindb.errors.QueryError;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Transaction;
+import com.breadwallet.crypto.utility.CompletionHandler;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.guava.GuavaModule;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the peak heap used to decode one page of `/transactions` using the streaming decoder in
+ * `BdbApiClient` against the prior String + tree + convertValue decode. Skipped unless run with
+ * `-Pbenchmark`; the figures are logged rather than asserted beyond 'streaming peaks lower'.
+ */
+public class BlockchainDbDecodeBenchmark {
+
+    private static final Logger Log = Logger.getLogger(BlockchainDbDecodeBenchmark.class.getName());
+
+    private static final MediaType MEDIA_TYPE_JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private static final int TRANSACTIONS_PER_PAGE = 5000;
+    private static final int WARMUP_ITERATIONS     = 5;
+    private static final int MEASURE_ITERATIONS    = 10;
+
+    private byte[] page;
+
+    @BeforeClass
+    public static void checkEnabled() {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+    }
+
+    @Before
+    public void setup() {
+        page = createPage(TRANSACTIONS_PER_PAGE).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testStreamingDecodePeaksLower() throws Exception {
+        // prior decode: String, then a Map tree, then `convertValue` over that tree
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new GuavaModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        JavaType listType = mapper.getTypeFactory().constructCollectionLikeType(ArrayList.class, Transaction.class);
+
+        Decoder stringDecoder = () -> {
+            String json = ResponseBody.create(page, MEDIA_TYPE_JSON).string();
+            Map<?, ?> resp = mapper.readValue(json, Map.class);
+            Object embedded = ((Map<?, ?>) resp.get("_embedded")).get("transactions");
+            List<Transaction> transactions = mapper.convertValue(embedded, listType);
+            return transactions.size();
+        };
+
+        // streaming decode, through BlockchainDb and BdbApiClient
+        DataTask dataTask = (client, request, callback) -> {
+            try {
+                callback.onResponse(client.newCall(request), new Response.Builder()
+                        .request(request)
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(200)
+                        .message("OK")
+                        .body(ResponseBody.create(page, MEDIA_TYPE_JSON))
+                        .build());
+            } catch (java.io.IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        BlockchainDb blockchainDb = new BlockchainDb(new OkHttpClient(), null, dataTask, null, null);
+
+        Decoder streamingDecoder = () -> {
+            int[] count = { -1 };
+            blockchainDb.getTransactions("bitcoin-mainnet", Collections.singletonList("address"),
+                    null, null, true, false, false, new CompletionHandler<List<Transaction>, QueryError>() {
+                        @Override
+                        public void handleData(List<Transaction> data) {
+                            count[0] = data.size();
+                        }
+
+                        @Override
+                        public void handleError(QueryError error) {
+                            fail(error.toString());
+                        }
+                    });
+            return count[0];
+        };
+
+        long stringBytes    = measure(stringDecoder);
+        long streamingBytes = measure(streamingDecoder);
+
+        Log.info(String.format(
+                "Decode %d transactions (%d KB page): string+tree peaks at %d KB, streaming at %d KB",
+                TRANSACTIONS_PER_PAGE, page.length / 1024, stringBytes / 1024, streamingBytes / 1024));
+
+        assertTrue(streamingBytes < stringBytes);
+    }
+
+    private interface Decoder {
+        int decode() throws Exception;
+    }
+
+    // The most heap, over the iterations, that one decode holds above what was in use as it began:
+    // each iteration collects, resets the heap pools' peaks and then sums them once decoded. A
+    // collection during the decode leaves its garbage in a pool's peak, so this bounds from above.
+    private static long measure(Decoder decoder) throws Exception {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            assertEquals(TRANSACTIONS_PER_PAGE, decoder.decode());
+        }
+
+        long peak = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            java.lang.System.gc();
+
+            long before = 0;
+            for (MemoryPoolMXBean pool : pools) {
+                pool.resetPeakUsage();
+                before += pool.getUsage().getUsed();
+            }
+
+            assertEquals(TRANSACTIONS_PER_PAGE, decoder.decode());
+
+            long after = 0;
+            for (MemoryPoolMXBean pool : pools) {
+                after += pool.getPeakUsage().getUsed();
+            }
+            peak = Math.max(peak, after - before);
+        }
+        return peak;
+    }
+
+    private static String createPage(int count) {
+        StringBuilder builder = new StringBuilder("{\"_embedded\":{\"transactions\":[");
+        for (int i = 0; i < count; i++) {
+            if (i != 0) builder.append(',');
+            builder.append("{\"transaction_id\":\"bitcoin-mainnet:").append(i)
+                    .append("\",\"identifier\":\"").append(i)
+                    .append("\",\"hash\":\"").append(String.format("%064x", i))
+                    .append("\",\"blockchain_id\":\"bitcoin-mainnet\",\"size\":225")
+                    .append(",\"fee\":{\"currency_id\":\"bitcoin-mainnet:__native__\",\"amount\":\"1000\"}")
+                    .append(",\"status\":\"confirmed\",\"timestamp\":\"2020-01-01T00:00:00.000+0000\"")
+                    .append(",\"index\":").append(i % 100)
+                    .append(",\"block_hash\":\"").append(String.format("%064x", i / 100))
+                    .append("\",\"block_height\":").append(600000 + i / 100)
+                    .append(",\"confirmations\":10,\"raw\":\"AQAAAAEAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAP////8=\"")
+                    .append(",\"meta\":{}}");
+        }
+        builder.append("]},\"_links\":{\"self\":{\"href\":\"https://api.blockset.com/transactions\"}}}");
+        return builder.toString();
+    }
+}
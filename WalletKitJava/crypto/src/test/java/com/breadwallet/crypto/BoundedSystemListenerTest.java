@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto;
+
+import com.breadwallet.crypto.BoundedSystemListener.OverflowPolicy;
+import com.breadwallet.crypto.events.network.NetworkEvent;
+import com.breadwallet.crypto.events.system.SystemCreatedEvent;
+import com.breadwallet.crypto.events.system.SystemEvent;
+import com.breadwallet.crypto.events.system.SystemListener;
+import com.breadwallet.crypto.events.transfer.TranferEvent;
+import com.breadwallet.crypto.events.wallet.WalletEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerSyncProgressEvent;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class BoundedSystemListenerTest {
+
+    // Runs its tasks only when asked
+    private static class ManualExecutor implements Executor {
+
+        final List<Runnable> tasks = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    // Records the events delivered; throws on `throwing`
+    private static class Recorder implements SystemListener {
+
+        final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+        Object throwing;
+
+        private void record(Object event) {
+            events.add(event);
+            if (event == throwing) throw new IllegalStateException("listener failed");
+        }
+
+        @Override
+        public void handleSystemEvent(System system, SystemEvent event) {
+            record(event);
+        }
+
+        @Override
+        public void handleNetworkEvent(System system, Network network, NetworkEvent event) {
+            record(event);
+        }
+
+        @Override
+        public void handleManagerEvent(System system, WalletManager manager, WalletManagerEvent event) {
+            record(event);
+        }
+
+        @Override
+        public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+            record(event);
+        }
+
+        @Override
+        public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TranferEvent event) {
+            record(event);
+        }
+    }
+
+    // An object of `type` that is only equal to itself
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":   return proxy == args[0];
+                case "hashCode": return java.lang.System.identityHashCode(proxy);
+                case "toString": return type.getSimpleName();
+                default: throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private final System system = stub(System.class);
+    private final WalletManager manager = stub(WalletManager.class);
+    private final ManualExecutor executor = new ManualExecutor();
+    private final Recorder recorder = new Recorder();
+
+    private static WalletManagerSyncProgressEvent progress(float percent) {
+        return new WalletManagerSyncProgressEvent(percent, null);
+    }
+
+    @Test
+    public void testEventsAreDeliveredInOrderByOneDrain() {
+        BoundedSystemListener listener = new BoundedSystemListener(recorder, 10, OverflowPolicy.BLOCK, executor);
+
+        SystemEvent first = new SystemCreatedEvent();
+        WalletManagerEvent second = progress(10);
+        SystemEvent third = new SystemCreatedEvent();
+        listener.handleSystemEvent(system, first);
+        listener.handleManagerEvent(system, manager, second);
+        listener.handleSystemEvent(system, third);
+
+        assertEquals(1, executor.tasks.size());
+        assertEquals(3, listener.getQueueDepth());
+
+        executor.runAll();
+        assertEquals(Arrays.asList(first, second, third), recorder.events);
+        assertEquals(0, listener.getQueueDepth());
+        assertEquals(3, listener.getHighWaterMark());
+    }
+
+    @Test
+    public void testDropDiscardsEventsWhileFull() {
+        BoundedSystemListener listener = new BoundedSystemListener(recorder, 2, OverflowPolicy.DROP, executor);
+
+        SystemEvent first = new SystemCreatedEvent();
+        SystemEvent second = new SystemCreatedEvent();
+        listener.handleSystemEvent(system, first);
+        listener.handleSystemEvent(system, second);
+        listener.handleSystemEvent(system, new SystemCreatedEvent());
+
+        assertEquals(1, listener.getDroppedCount());
+        executor.runAll();
+        assertEquals(Arrays.asList(first, second), recorder.events);
+
+        // room again, once drained
+        SystemEvent fourth = new SystemCreatedEvent();
+        listener.handleSystemEvent(system, fourth);
+        executor.runAll();
+        assertEquals(Arrays.asList(first, second, fourth), recorder.events);
+        assertEquals(2, listener.getHighWaterMark());
+    }
+
+    @Test
+    public void testCoalesceMergesIntoQueuedEventInPlace() {
+        BoundedSystemListener listener = new BoundedSystemListener(recorder, 10, OverflowPolicy.COALESCE, executor);
+
+        SystemEvent created = new SystemCreatedEvent();
+        WalletManagerSyncProgressEvent latest = progress(30);
+        listener.handleManagerEvent(system, manager, progress(10));
+        listener.handleSystemEvent(system, created);
+        listener.handleManagerEvent(system, manager, progress(20));
+        listener.handleManagerEvent(system, manager, latest);
+
+        assertEquals(2, listener.getQueueDepth());
+        assertEquals(2, listener.getMergedCount());
+
+        executor.runAll();
+        assertEquals(Arrays.asList(latest, created), recorder.events);
+    }
+
+    @Test
+    public void testCoalesceKeepsEventsOfDifferentManagers() {
+        BoundedSystemListener listener = new BoundedSystemListener(recorder, 10, OverflowPolicy.COALESCE, executor);
+
+        listener.handleManagerEvent(system, manager, progress(10));
+        listener.handleManagerEvent(system, stub(WalletManager.class), progress(10));
+
+        assertEquals(2, listener.getQueueDepth());
+        assertEquals(0, listener.getMergedCount());
+    }
+
+    @Test
+    public void testDeliveredEventIsNoLongerMergedInto() {
+        BoundedSystemListener listener = new BoundedSystemListener(recorder, 10, OverflowPolicy.COALESCE, executor);
+
+        WalletManagerSyncProgressEvent first = progress(10);
+        WalletManagerSyncProgressEvent second = progress(20);
+        listener.handleManagerEvent(system, manager, first);
+        executor.runAll();
+        listener.handleManagerEvent(system, manager, second);
+        executor.runAll();
+
+        assertEquals(Arrays.asList(first, second), recorder.events);
+    }
+
+    @Test
+    public void testBlockWaitsForRoom() throws InterruptedException {
+        BoundedSystemListener listener = new BoundedSystemListener(recorder, 1, OverflowPolicy.BLOCK, executor);
+
+        SystemEvent first = new SystemCreatedEvent();
+        SystemEvent second = new SystemCreatedEvent();
+        listener.handleSystemEvent(system, first);
+
+        Thread announcer = new Thread(() -> listener.handleSystemEvent(system, second));
+        announcer.start();
+        while (0 == listener.getBlockedCount()) {
+            Thread.sleep(1);
+        }
+        assertTrue(announcer.isAlive());
+
+        // draining the first makes room for the second
+        executor.runAll();
+        announcer.join(10_000);
+        assertFalse(announcer.isAlive());
+
+        executor.runAll();
+        assertEquals(Arrays.asList(first, second), recorder.events);
+    }
+
+    @Test
+    public void testThrowingListenerDoesNotStopDelivery() {
+        BoundedSystemListener listener = new BoundedSystemListener(recorder, 10, OverflowPolicy.BLOCK, executor);
+
+        SystemEvent first = new SystemCreatedEvent();
+        SystemEvent second = new SystemCreatedEvent();
+        recorder.throwing = first;
+        listener.handleSystemEvent(system, first);
+        listener.handleSystemEvent(system, second);
+
+        executor.runAll();
+        assertEquals(Arrays.asList(first, second), recorder.events);
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto;
+
+import com.breadwallet.crypto.events.network.NetworkEvent;
+import com.breadwallet.crypto.events.system.BatchingSystemListener;
+import com.breadwallet.crypto.events.system.ListenerEvent;
+import com.breadwallet.crypto.events.system.SystemCreatedEvent;
+import com.breadwallet.crypto.events.system.SystemEvent;
+import com.breadwallet.crypto.events.system.SystemListener;
+import com.breadwallet.crypto.events.transfer.TranferEvent;
+import com.breadwallet.crypto.events.transfer.TransferChangedEvent;
+import com.breadwallet.crypto.events.wallet.WalletBalanceUpdatedEvent;
+import com.breadwallet.crypto.events.wallet.WalletCreatedEvent;
+import com.breadwallet.crypto.events.wallet.WalletEvent;
+import com.breadwallet.crypto.events.wallet.WalletTransferChangedEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerSyncProgressEvent;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CoalescingSystemListenerTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    // Never flushes on its own within a test
+    private static final long NEVER_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    // Records the batches delivered, and the threads delivering them
+    private static class Recorder implements BatchingSystemListener {
+
+        final BlockingQueue<List<ListenerEvent>> batches = new LinkedBlockingQueue<>();
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void handleEventBatch(List<ListenerEvent> events) {
+            threads.add(Thread.currentThread());
+            batches.add(events);
+        }
+
+        List<Object> nextBatch() throws InterruptedException {
+            List<ListenerEvent> batch = batches.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertNotNull("Timed out waiting for a batch", batch);
+
+            List<Object> events = new ArrayList<>();
+            for (ListenerEvent event : batch) events.add(event.getEvent());
+            return events;
+        }
+    }
+
+    // An object of `type` that is only equal to itself
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":   return proxy == args[0];
+                case "hashCode": return java.lang.System.identityHashCode(proxy);
+                case "toString": return type.getSimpleName();
+                default: throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private final System system = stub(System.class);
+    private final WalletManager manager = stub(WalletManager.class);
+    private final Wallet wallet = stub(Wallet.class);
+    private final Wallet otherWallet = stub(Wallet.class);
+    private final Transfer transfer = stub(Transfer.class);
+    private final Transfer otherTransfer = stub(Transfer.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Recorder recorder = new Recorder();
+
+    @After
+    public void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    private static WalletManagerSyncProgressEvent progress(float percent) {
+        return new WalletManagerSyncProgressEvent(percent, null);
+    }
+
+    private WalletBalanceUpdatedEvent balance() {
+        return new WalletBalanceUpdatedEvent(stub(Amount.class));
+    }
+
+    @Test
+    public void testBatchKeepsAnnouncedOrderAndMergesInPlace() throws InterruptedException {
+        CoalescingSystemListener listener = new CoalescingSystemListener(recorder, 100, NEVER_MILLIS, scheduler);
+
+        SystemEvent created = new SystemCreatedEvent();
+        WalletEvent walletCreated = new WalletCreatedEvent();
+        WalletManagerSyncProgressEvent progress50 = progress(50);
+        WalletBalanceUpdatedEvent otherBalance = balance();
+        WalletBalanceUpdatedEvent lastBalance = balance();
+
+        listener.handleSystemEvent(system, created);
+        listener.handleManagerEvent(system, manager, progress(10));
+        listener.handleWalletEvent(system, manager, wallet, balance());
+        listener.handleTransferEvent(system, manager, wallet, transfer,
+                new TransferChangedEvent(TransferState.CREATED(), TransferState.SIGNED()));
+        listener.handleWalletEvent(system, manager, otherWallet, otherBalance);
+        listener.handleWalletEvent(system, manager, wallet, walletCreated);
+        listener.handleManagerEvent(system, manager, progress50);
+        listener.handleTransferEvent(system, manager, wallet, transfer,
+                new TransferChangedEvent(TransferState.SIGNED(), TransferState.SUBMITTED()));
+        listener.handleWalletEvent(system, manager, wallet, lastBalance);
+
+        listener.flush();
+        List<Object> batch = recorder.nextBatch();
+
+        // each kept event takes the place of the latest it merges; others keep their place
+        assertEquals(6, batch.size());
+        assertSame(created, batch.get(0));
+        assertSame(otherBalance, batch.get(1));
+        assertSame(walletCreated, batch.get(2));
+        assertSame(progress50, batch.get(3));
+        assertSame(lastBalance, batch.get(5));
+
+        // the transfer's changes become one, from the first old state to the last new state
+        TransferChangedEvent changed = (TransferChangedEvent) batch.get(4);
+        assertEquals(TransferState.Type.CREATED, changed.getOldState().getType());
+        assertEquals(TransferState.Type.SUBMITTED, changed.getNewState().getType());
+
+        assertEquals(9, listener.getReceivedCount());
+        assertEquals(3, listener.getMergedCount());
+        assertEquals(1, listener.getBatchCount());
+    }
+
+    @Test
+    public void testWalletTransferChangesMergeOnlyForTheSameTransfer() throws InterruptedException {
+        CoalescingSystemListener listener = new CoalescingSystemListener(recorder, 100, NEVER_MILLIS, scheduler);
+
+        WalletTransferChangedEvent other = new WalletTransferChangedEvent(otherTransfer);
+        WalletTransferChangedEvent last = new WalletTransferChangedEvent(transfer);
+        listener.handleWalletEvent(system, manager, wallet, new WalletTransferChangedEvent(transfer));
+        listener.handleWalletEvent(system, manager, wallet, other);
+        listener.handleWalletEvent(system, manager, wallet, last);
+
+        listener.flush();
+        assertEquals(Arrays.asList(other, last), recorder.nextBatch());
+    }
+
+    @Test
+    public void testFullBatchIsDeliveredByAnnouncingThread() throws InterruptedException {
+        CoalescingSystemListener listener = new CoalescingSystemListener(recorder, 2, NEVER_MILLIS, scheduler);
+
+        // merged events don't fill a batch
+        listener.handleManagerEvent(system, manager, progress(10));
+        listener.handleManagerEvent(system, manager, progress(20));
+        assertTrue(recorder.batches.isEmpty());
+
+        SystemEvent created = new SystemCreatedEvent();
+        listener.handleSystemEvent(system, created);
+        assertEquals(1, recorder.batches.size());
+        assertEquals(Thread.currentThread(), recorder.threads.get(0));
+
+        List<Object> batch = recorder.nextBatch();
+        assertEquals(2, batch.size());
+        assertEquals(20, ((WalletManagerSyncProgressEvent) batch.get(0)).getPercentComplete(), 0);
+        assertSame(created, batch.get(1));
+    }
+
+    @Test
+    public void testEventsDoNotMergeAcrossBatches() throws InterruptedException {
+        CoalescingSystemListener listener = new CoalescingSystemListener(recorder, 100, NEVER_MILLIS, scheduler);
+
+        WalletManagerSyncProgressEvent first = progress(10);
+        WalletManagerSyncProgressEvent second = progress(20);
+        listener.handleManagerEvent(system, manager, first);
+        listener.flush();
+        listener.handleManagerEvent(system, manager, second);
+        listener.flush();
+
+        // nothing pending, nothing delivered
+        listener.flush();
+
+        assertEquals(Collections.singletonList(first), recorder.nextBatch());
+        assertEquals(Collections.singletonList(second), recorder.nextBatch());
+        assertEquals(0, listener.getMergedCount());
+        assertEquals(2, listener.getBatchCount());
+    }
+
+    @Test
+    public void testBatchIsDeliveredAfterDelay() throws InterruptedException {
+        CoalescingSystemListener listener = new CoalescingSystemListener(recorder, 100, 20, scheduler);
+
+        SystemEvent first = new SystemCreatedEvent();
+        SystemEvent second = new SystemCreatedEvent();
+        listener.handleSystemEvent(system, first);
+        listener.handleSystemEvent(system, second);
+
+        assertEquals(Arrays.asList(first, second), recorder.nextBatch());
+        assertNotEquals(Thread.currentThread(), recorder.threads.get(0));
+
+        // and the next event schedules the next flush
+        SystemEvent third = new SystemCreatedEvent();
+        listener.handleSystemEvent(system, third);
+        assertEquals(Collections.singletonList(third), recorder.nextBatch());
+    }
+
+    @Test
+    public void testListenerEventDispatchesAsAnnounced() {
+        List<String> calls = new ArrayList<>();
+        SystemListener listener = new SystemListener() {
+            @Override
+            public void handleSystemEvent(System system, SystemEvent event) {
+                calls.add("system");
+            }
+
+            @Override
+            public void handleNetworkEvent(System system, Network network, NetworkEvent event) {
+                calls.add("network");
+            }
+
+            @Override
+            public void handleManagerEvent(System s, WalletManager m, WalletManagerEvent event) {
+                assertSame(manager, m);
+                calls.add("manager");
+            }
+
+            @Override
+            public void handleWalletEvent(System s, WalletManager m, Wallet w, WalletEvent event) {
+                assertSame(manager, m);
+                assertSame(wallet, w);
+                calls.add("wallet");
+            }
+
+            @Override
+            public void handleTransferEvent(System s, WalletManager m, Wallet w, Transfer t, TranferEvent event) {
+                assertSame(manager, m);
+                assertSame(wallet, w);
+                assertSame(transfer, t);
+                calls.add("transfer");
+            }
+        };
+
+        ListenerEvent.forSystem(system, new SystemCreatedEvent()).dispatch(listener);
+        ListenerEvent.forManager(system, manager, progress(10)).dispatch(listener);
+        ListenerEvent.forWallet(system, manager, wallet, new WalletCreatedEvent()).dispatch(listener);
+        ListenerEvent.forTransfer(system, manager, wallet, transfer,
+                new TransferChangedEvent(TransferState.CREATED(), TransferState.SIGNED())).dispatch(listener);
+
+        assertEquals(Arrays.asList("system", "manager", "wallet", "transfer"), calls);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto;
+
+import com.breadwallet.crypto.events.network.NetworkEvent;
+import com.breadwallet.crypto.events.system.SystemCreatedEvent;
+import com.breadwallet.crypto.events.system.SystemEvent;
+import com.breadwallet.crypto.events.system.SystemListener;
+import com.breadwallet.crypto.events.transfer.TranferEvent;
+import com.breadwallet.crypto.events.transfer.TransferCreatedEvent;
+import com.breadwallet.crypto.events.wallet.WalletCreatedEvent;
+import com.breadwallet.crypto.events.wallet.WalletEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerCreatedEvent;
+import com.breadwallet.crypto.events.walletmanager.WalletManagerEvent;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class DispatchingSystemListenerTest {
+
+    // Records the events delivered
+    private static class Recorder implements SystemListener {
+
+        final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void handleSystemEvent(System system, SystemEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void handleNetworkEvent(System system, Network network, NetworkEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void handleManagerEvent(System system, WalletManager manager, WalletManagerEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void handleWalletEvent(System system, WalletManager manager, Wallet wallet, WalletEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void handleTransferEvent(System system, WalletManager manager, Wallet wallet, Transfer transfer, TranferEvent event) {
+            events.add(event);
+        }
+    }
+
+    // An object of `type` that is only equal to itself
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":   return proxy == args[0];
+                case "hashCode": return java.lang.System.identityHashCode(proxy);
+                case "toString": return type.getSimpleName();
+                default: throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private final System system = stub(System.class);
+    private final WalletManager manager = stub(WalletManager.class);
+    private final WalletManager otherManager = stub(WalletManager.class);
+    private final Wallet wallet = stub(Wallet.class);
+    private final Wallet otherWallet = stub(Wallet.class);
+    private final Transfer transfer = stub(Transfer.class);
+    private final Transfer otherTransfer = stub(Transfer.class);
+
+    private final DispatchingSystemListener dispatcher = new DispatchingSystemListener();
+
+    @Test
+    public void testSystemListenerHearsEverything() {
+        Recorder recorder = new Recorder();
+        dispatcher.addSystemListener(recorder);
+
+        SystemEvent systemEvent = new SystemCreatedEvent();
+        WalletManagerEvent managerEvent = new WalletManagerCreatedEvent();
+        WalletEvent walletEvent = new WalletCreatedEvent();
+        TranferEvent transferEvent = new TransferCreatedEvent();
+        dispatcher.handleSystemEvent(system, systemEvent);
+        dispatcher.handleManagerEvent(system, otherManager, managerEvent);
+        dispatcher.handleWalletEvent(system, otherManager, otherWallet, walletEvent);
+        dispatcher.handleTransferEvent(system, otherManager, otherWallet, otherTransfer, transferEvent);
+
+        assertEquals(Arrays.asList(systemEvent, managerEvent, walletEvent, transferEvent), recorder.events);
+        assertEquals(0, dispatcher.getScopedKeyCount());
+    }
+
+    @Test
+    public void testManagerListenerHearsOnlyItsManager() {
+        Recorder recorder = new Recorder();
+        dispatcher.addWalletManagerListener(manager, recorder);
+
+        WalletManagerEvent managerEvent = new WalletManagerCreatedEvent();
+        WalletEvent walletEvent = new WalletCreatedEvent();
+        TranferEvent transferEvent = new TransferCreatedEvent();
+        dispatcher.handleSystemEvent(system, new SystemCreatedEvent());
+        dispatcher.handleManagerEvent(system, manager, managerEvent);
+        dispatcher.handleWalletEvent(system, manager, wallet, walletEvent);
+        dispatcher.handleTransferEvent(system, manager, wallet, transfer, transferEvent);
+
+        dispatcher.handleManagerEvent(system, otherManager, new WalletManagerCreatedEvent());
+        dispatcher.handleWalletEvent(system, otherManager, wallet, new WalletCreatedEvent());
+        dispatcher.handleTransferEvent(system, otherManager, wallet, transfer, new TransferCreatedEvent());
+
+        assertEquals(Arrays.asList(managerEvent, walletEvent, transferEvent), recorder.events);
+    }
+
+    @Test
+    public void testWalletListenerHearsOnlyItsWallet() {
+        Recorder recorder = new Recorder();
+        dispatcher.addWalletListener(wallet, recorder);
+
+        WalletEvent walletEvent = new WalletCreatedEvent();
+        TranferEvent transferEvent = new TransferCreatedEvent();
+        dispatcher.handleManagerEvent(system, manager, new WalletManagerCreatedEvent());
+        dispatcher.handleWalletEvent(system, manager, wallet, walletEvent);
+        dispatcher.handleTransferEvent(system, manager, wallet, transfer, transferEvent);
+
+        dispatcher.handleWalletEvent(system, manager, otherWallet, new WalletCreatedEvent());
+        dispatcher.handleTransferEvent(system, manager, otherWallet, transfer, new TransferCreatedEvent());
+
+        assertEquals(Arrays.asList(walletEvent, transferEvent), recorder.events);
+    }
+
+    @Test
+    public void testTransferListenerHearsOnlyItsTransfer() {
+        Recorder recorder = new Recorder();
+        dispatcher.addTransferListener(transfer, recorder);
+
+        TranferEvent transferEvent = new TransferCreatedEvent();
+        dispatcher.handleManagerEvent(system, manager, new WalletManagerCreatedEvent());
+        dispatcher.handleWalletEvent(system, manager, wallet, new WalletCreatedEvent());
+        dispatcher.handleTransferEvent(system, manager, wallet, transfer, transferEvent);
+
+        dispatcher.handleTransferEvent(system, manager, wallet, otherTransfer, new TransferCreatedEvent());
+
+        assertEquals(Collections.singletonList(transferEvent), recorder.events);
+    }
+
+    @Test
+    public void testListenerAtEachScopeHearsOnce() {
+        Recorder recorder = new Recorder();
+        dispatcher.addSystemListener(recorder);
+        dispatcher.addWalletManagerListener(manager, recorder);
+        dispatcher.addWalletListener(wallet, recorder);
+        dispatcher.addTransferListener(transfer, recorder);
+
+        TranferEvent transferEvent = new TransferCreatedEvent();
+        dispatcher.handleTransferEvent(system, manager, wallet, transfer, transferEvent);
+
+        // once per scope that it is registered at
+        assertEquals(Collections.nCopies(4, transferEvent), recorder.events);
+    }
+
+    @Test
+    public void testDuplicateAddIsIgnored() {
+        Recorder recorder = new Recorder();
+        dispatcher.addSystemListener(recorder);
+        dispatcher.addSystemListener(recorder);
+        dispatcher.addWalletListener(wallet, recorder);
+        dispatcher.addWalletListener(wallet, recorder);
+
+        WalletEvent walletEvent = new WalletCreatedEvent();
+        dispatcher.handleWalletEvent(system, manager, wallet, walletEvent);
+        assertEquals(Arrays.asList(walletEvent, walletEvent), recorder.events);
+
+        // one removal undoes both adds
+        dispatcher.removeSystemListener(recorder);
+        dispatcher.removeWalletListener(wallet, recorder);
+        dispatcher.handleWalletEvent(system, manager, wallet, new WalletCreatedEvent());
+        assertEquals(2, recorder.events.size());
+    }
+
+    @Test
+    public void testRemovingLastListenerDropsEntry() {
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        dispatcher.addWalletManagerListener(manager, first);
+        dispatcher.addWalletManagerListener(manager, second);
+        dispatcher.addWalletListener(wallet, first);
+        dispatcher.addTransferListener(transfer, first);
+        assertEquals(3, dispatcher.getScopedKeyCount());
+
+        dispatcher.removeWalletManagerListener(manager, first);
+        assertEquals(3, dispatcher.getScopedKeyCount());
+
+        dispatcher.removeWalletManagerListener(manager, second);
+        dispatcher.removeWalletListener(wallet, first);
+        dispatcher.removeTransferListener(transfer, first);
+        assertEquals(0, dispatcher.getScopedKeyCount());
+
+        // removing one that is not there changes nothing
+        dispatcher.removeWalletListener(wallet, first);
+        dispatcher.removeSystemListener(first);
+        assertEquals(0, dispatcher.getScopedKeyCount());
+
+        dispatcher.handleTransferEvent(system, manager, wallet, transfer, new TransferCreatedEvent());
+        assertTrue(first.events.isEmpty());
+        assertTrue(second.events.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentAddAndRemove() throws Exception {
+        int threadCount = 8;
+        int rounds = 1000;
+
+        // each thread churns its own listeners at both scopes, and keeps one of each to the end
+        List<Recorder> kept = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) kept.add(new Recorder());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (Recorder recorder : kept) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < rounds; round++) {
+                        Recorder churned = new Recorder();
+                        dispatcher.addSystemListener(churned);
+                        dispatcher.addWalletListener(wallet, churned);
+                        dispatcher.removeWalletListener(wallet, churned);
+                        dispatcher.removeSystemListener(churned);
+                    }
+                    dispatcher.addSystemListener(recorder);
+                    dispatcher.addWalletListener(wallet, recorder);
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // no add is lost and no removal is undone
+        WalletEvent walletEvent = new WalletCreatedEvent();
+        dispatcher.handleWalletEvent(system, manager, wallet, walletEvent);
+        for (Recorder recorder : kept) {
+            assertEquals(Arrays.asList(walletEvent, walletEvent), recorder.events);
+        }
+        assertEquals(1, dispatcher.getScopedKeyCount());
+
+        for (Recorder recorder : kept) dispatcher.removeWalletListener(wallet, recorder);
+        assertEquals(0, dispatcher.getScopedKeyCount());
+    }
+}
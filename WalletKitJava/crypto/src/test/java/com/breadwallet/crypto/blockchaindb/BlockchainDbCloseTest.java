@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb;
+
+import com.breadwallet.crypto.blockchaindb.apis.bdb.RetryPolicy;
+import com.breadwallet.crypto.blockchaindb.apis.bdb.ThrottlePolicy;
+import com.breadwallet.crypto.blockchaindb.errors.QueryError;
+import com.breadwallet.crypto.blockchaindb.errors.QuerySubmissionError;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Blockchain;
+import com.breadwallet.crypto.utility.CompletionHandler;
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+public class BlockchainDbCloseTest {
+
+    private static class Handler implements CompletionHandler<List<Blockchain>, QueryError> {
+
+        final List<QueryError> errors = new ArrayList<>();
+
+        @Override
+        public void handleData(List<Blockchain> data) {
+            fail();
+        }
+
+        @Override
+        public void handleError(QueryError error) {
+            errors.add(error);
+        }
+    }
+
+    private final FakeDataTask dataTask = new FakeDataTask();
+
+    private BlockchainDb createDb(BlockchainDbOptions options) {
+        return new BlockchainDb(new OkHttpClient(), "https://bdb.test", dataTask, null, null, options);
+    }
+
+    @Test
+    public void testCloseFailsRequestWaitingToRetry() throws InterruptedException {
+        BlockchainDb db = createDb(BlockchainDbOptions.builder()
+                .setBdbRetryPolicy(new RetryPolicy(2, 0, 0, TimeUnit.MINUTES.toMillis(1), 10, 0.1))
+                .build());
+
+        Handler handler = new Handler();
+        db.getBlockchains(true, handler);
+        dataTask.respond(0, new Response.Builder()
+                .request(dataTask.getRequest(0))
+                .protocol(Protocol.HTTP_1_1)
+                .code(503)
+                .message("")
+                .header("Retry-After", "30")
+                .body(ResponseBody.create("", MediaType.get("application/json"))));
+        assertEquals(1, db.getRetryCount());
+        assertTrue(handler.errors.isEmpty());
+
+        assertFalse(db.close(0));
+        assertEquals(1, handler.errors.size());
+        assertTrue(handler.errors.get(0) instanceof QuerySubmissionError);
+        assertEquals(1, dataTask.getRequestCount());
+    }
+
+    @Test
+    public void testCloseFailsRateLimitedRequest() throws InterruptedException {
+        BlockchainDb db = createDb(BlockchainDbOptions.builder()
+                .setBdbThrottlePolicies(ImmutableMap.of("blockchains", new ThrottlePolicy(0.001, 1, 5, 0)))
+                .build());
+
+        Handler first = new Handler();
+        Handler second = new Handler();
+        db.getBlockchains(true, first);
+        db.getBlockchains(false, second);
+        assertEquals(1, dataTask.getRequestCount());
+
+        assertFalse(db.close(0));
+        assertTrue(first.errors.isEmpty());
+        assertEquals(1, second.errors.size());
+        assertTrue(second.errors.get(0) instanceof QuerySubmissionError);
+    }
+
+    @Test
+    public void testRequestsAfterCloseAreNotLeftWaiting() throws InterruptedException {
+        BlockchainDb db = createDb(BlockchainDbOptions.builder()
+                .setBdbThrottlePolicies(ImmutableMap.of("blockchains", new ThrottlePolicy(0.001, 1, 5, 0)))
+                .build());
+        assertTrue(db.close(0));
+
+        Handler first = new Handler();
+        Handler second = new Handler();
+        db.getBlockchains(true, first);
+        db.getBlockchains(false, second);
+
+        assertEquals(1, second.errors.size());
+        assertTrue(second.errors.get(0) instanceof QuerySubmissionError);
+    }
+}
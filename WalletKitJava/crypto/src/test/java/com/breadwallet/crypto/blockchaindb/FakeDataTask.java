@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * A `DataTask` that sends nothing; each request is held until the test responds to it.
+ */
+/* package */
+class FakeDataTask implements DataTask {
+
+    private static final MediaType MEDIA_TYPE_JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final List<Request> requests = new ArrayList<>();
+    private final List<Callback> callbacks = new ArrayList<>();
+
+    @Override
+    public synchronized void execute(OkHttpClient client, Request request, Callback callback) {
+        requests.add(request);
+        callbacks.add(callback);
+    }
+
+    synchronized int getRequestCount() {
+        return requests.size();
+    }
+
+    synchronized Request getRequest(int index) {
+        return requests.get(index);
+    }
+
+    void respond(int index, int code, String json) {
+        respond(index, new Response.Builder()
+                .request(getRequest(index))
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("")
+                .body(ResponseBody.create(json, MEDIA_TYPE_JSON)));
+    }
+
+    void respond(int index, Response.Builder response) {
+        Callback callback;
+        synchronized (this) {
+            callback = callbacks.get(index);
+        }
+        try {
+            callback.onResponse(null, response.build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void fail(int index, IOException e) {
+        Callback callback;
+        synchronized (this) {
+            callback = callbacks.get(index);
+        }
+        callback.onFailure(null, e);
+    }
+}
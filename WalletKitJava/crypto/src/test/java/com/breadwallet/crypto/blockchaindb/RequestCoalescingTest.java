@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb;
+
+import com.breadwallet.crypto.blockchaindb.errors.QueryError;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Blockchain;
+import com.breadwallet.crypto.utility.CompletionHandler;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.OkHttpClient;
+
+import static org.junit.Assert.*;
+
+public class RequestCoalescingTest {
+
+    private static final String BLOCKCHAINS = "{\"_embedded\":{\"blockchains\":[{" +
+            "\"id\":\"bitcoin-mainnet\",\"name\":\"Bitcoin\",\"network\":\"mainnet\",\"is_mainnet\":true," +
+            "\"native_currency_id\":\"bitcoin-mainnet:__native__\",\"block_height\":1,\"fee_estimates\":[]," +
+            "\"confirmations_until_final\":6}]}}";
+
+    private final FakeDataTask dataTask = new FakeDataTask();
+    private final BlockchainDb db = new BlockchainDb(new OkHttpClient(), "https://bdb.test", dataTask, null, null);
+
+    @After
+    public void teardown() throws InterruptedException {
+        db.close(0);
+    }
+
+    private static class Handler implements CompletionHandler<List<Blockchain>, QueryError> {
+
+        final List<List<Blockchain>> data = new ArrayList<>();
+        final boolean throwing;
+
+        Handler(boolean throwing) {
+            this.throwing = throwing;
+        }
+
+        @Override
+        public void handleData(List<Blockchain> data) {
+            this.data.add(data);
+            if (throwing) throw new IllegalStateException("handler failed");
+        }
+
+        @Override
+        public void handleError(QueryError error) {
+            fail();
+        }
+    }
+
+    @Test
+    public void testIdenticalGetsShareOneRequest() {
+        Handler first = new Handler(false);
+        Handler second = new Handler(false);
+        db.getBlockchains(true, first);
+        db.getBlockchains(true, second);
+
+        assertEquals(1, dataTask.getRequestCount());
+        assertEquals(1, db.getCoalescedRequestCount());
+
+        dataTask.respond(0, 200, BLOCKCHAINS);
+        assertEquals(1, first.data.size());
+        assertEquals(1, second.data.size());
+        assertEquals("bitcoin-mainnet", second.data.get(0).get(0).getId());
+    }
+
+    @Test
+    public void testThrowingHandlerDoesNotStarveOthers() {
+        Handler first = new Handler(true);
+        Handler second = new Handler(false);
+        db.getBlockchains(true, first);
+        db.getBlockchains(true, second);
+
+        dataTask.respond(0, 200, BLOCKCHAINS);
+        assertEquals(1, first.data.size());
+        assertEquals(1, second.data.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSharedResultIsUnmodifiable() {
+        Handler first = new Handler(false);
+        Handler second = new Handler(false);
+        db.getBlockchains(true, first);
+        db.getBlockchains(true, second);
+
+        dataTask.respond(0, 200, BLOCKCHAINS);
+        first.data.get(0).clear();
+    }
+
+    @Test
+    public void testDifferentGetsAreNotCoalesced() {
+        db.getBlockchains(true, new Handler(false));
+        db.getBlockchains(false, new Handler(false));
+
+        assertEquals(2, dataTask.getRequestCount());
+        assertEquals(0, db.getCoalescedRequestCount());
+    }
+}
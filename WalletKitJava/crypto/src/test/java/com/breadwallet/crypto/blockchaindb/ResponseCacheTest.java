@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb;
+
+import com.breadwallet.crypto.blockchaindb.errors.QueryError;
+import com.breadwallet.crypto.blockchaindb.models.bdb.Blockchain;
+import com.breadwallet.crypto.utility.CompletionHandler;
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+public class ResponseCacheTest {
+
+    private static final String BLOCKCHAINS = "{\"_embedded\":{\"blockchains\":[{" +
+            "\"id\":\"bitcoin-mainnet\",\"name\":\"Bitcoin\",\"network\":\"mainnet\",\"is_mainnet\":true," +
+            "\"native_currency_id\":\"bitcoin-mainnet:__native__\",\"block_height\":1,\"fee_estimates\":[]," +
+            "\"confirmations_until_final\":6}]}}";
+
+    private static final ResponseCache.Policy POLICY = new ResponseCache.Policy(1000, 1000);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private ResponseCache createCache(long maxSize) throws IOException {
+        return new ResponseCache(folder.getRoot(), maxSize, ImmutableMap.of("blockchains", POLICY));
+    }
+
+    @Test
+    public void testEntryRoundTrips() throws IOException {
+        ResponseCache cache = createCache(ResponseCache.DEFAULT_MAX_SIZE);
+        cache.put("a", new ResponseCache.Entry(5, "\"etag\"", "Mon, 01 Jul 2019 00:00:00 GMT", bytes("body")));
+
+        ResponseCache.Entry entry = cache.get("a").get();
+        assertEquals(5, entry.getStoredAtMillis());
+        assertEquals("\"etag\"", entry.getEtag().get());
+        assertEquals("Mon, 01 Jul 2019 00:00:00 GMT", entry.getLastModified().get());
+        assertArrayEquals(bytes("body"), entry.getBody());
+
+        cache.put("b", new ResponseCache.Entry(5, null, null, new byte[0]));
+        assertFalse(cache.get("b").get().getEtag().isPresent());
+        assertEquals(0, cache.get("b").get().getBody().length);
+        assertFalse(cache.get("c").isPresent());
+    }
+
+    @Test
+    public void testEntriesPersist() throws IOException {
+        createCache(ResponseCache.DEFAULT_MAX_SIZE).put("a", new ResponseCache.Entry(5, null, null, bytes("body")));
+
+        ResponseCache cache = createCache(ResponseCache.DEFAULT_MAX_SIZE);
+        assertEquals(1, cache.getEntryCount());
+        assertArrayEquals(bytes("body"), cache.get("a").get().getBody());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws IOException {
+        ResponseCache sizing = createCache(ResponseCache.DEFAULT_MAX_SIZE);
+        sizing.put("size", new ResponseCache.Entry(0, null, null, bytes("body")));
+        long entrySize = sizing.getSize();
+        sizing.clear();
+
+        ResponseCache cache = createCache(2 * entrySize);
+        cache.put("a", new ResponseCache.Entry(0, null, null, bytes("body")));
+        cache.put("b", new ResponseCache.Entry(0, null, null, bytes("body")));
+        cache.get("a");
+        cache.put("c", new ResponseCache.Entry(0, null, null, bytes("body")));
+
+        assertEquals(2, cache.getEntryCount());
+        assertTrue(cache.get("a").isPresent());
+        assertFalse(cache.get("b").isPresent());
+        assertTrue(cache.get("c").isPresent());
+    }
+
+    @Test
+    public void testUnreadableEntryIsDropped() throws IOException {
+        ResponseCache cache = createCache(ResponseCache.DEFAULT_MAX_SIZE);
+        cache.put("a", new ResponseCache.Entry(0, null, null, bytes("body")));
+
+        for (File file : folder.getRoot().listFiles()) {
+            try (FileOutputStream output = new FileOutputStream(file)) {
+                output.write(bytes("garbage"));
+            }
+        }
+
+        assertFalse(cache.get("a").isPresent());
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testFreshness() {
+        ResponseCache.Entry entry = new ResponseCache.Entry(1000, null, null, new byte[0]);
+
+        assertTrue(entry.isFresh(POLICY, 2000));
+        assertFalse(entry.isFresh(POLICY, 2001));
+        assertTrue(entry.isServableWhileRevalidating(POLICY, 3000));
+        assertFalse(entry.isServableWhileRevalidating(POLICY, 3001));
+        assertTrue(entry.revalidated(3001).isFresh(POLICY, 3001));
+    }
+
+    // BlockchainDb
+
+    private static class Handler implements CompletionHandler<List<Blockchain>, QueryError> {
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile Thread thread;
+        volatile List<Blockchain> data;
+
+        @Override
+        public void handleData(List<Blockchain> data) {
+            this.thread = Thread.currentThread();
+            this.data = data;
+            latch.countDown();
+        }
+
+        @Override
+        public void handleError(QueryError error) {
+            fail();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private BlockchainDb createDb(FakeDataTask dataTask) throws IOException {
+        return new BlockchainDb(new OkHttpClient(), "https://bdb.test", dataTask, null, null,
+                BlockchainDbOptions.builder()
+                        .setBdbResponseCache(new ResponseCache(folder.getRoot(), ResponseCache.DEFAULT_MAX_SIZE,
+                                ImmutableMap.of("blockchains", new ResponseCache.Policy(TimeUnit.MINUTES.toMillis(1), 0))))
+                        .build());
+    }
+
+    @Test
+    public void testFreshHitIsHandledOffTheRequestingThread() throws IOException, InterruptedException {
+        FakeDataTask dataTask = new FakeDataTask();
+        BlockchainDb db = createDb(dataTask);
+
+        Handler miss = new Handler();
+        db.getBlockchains(true, miss);
+        dataTask.respond(0, 200, BLOCKCHAINS);
+        miss.await();
+
+        Handler hit = new Handler();
+        db.getBlockchains(true, hit);
+        hit.await();
+
+        assertEquals(1, dataTask.getRequestCount());
+        assertEquals("bitcoin-mainnet", hit.data.get(0).getId());
+        assertNotSame(Thread.currentThread(), hit.thread);
+
+        db.close(0);
+    }
+
+    @Test
+    public void testNotModifiedIsServedFromCache() throws IOException, InterruptedException {
+        FakeDataTask dataTask = new FakeDataTask();
+        BlockchainDb db = new BlockchainDb(new OkHttpClient(), "https://bdb.test", dataTask, null, null,
+                BlockchainDbOptions.builder()
+                        .setBdbResponseCache(new ResponseCache(folder.getRoot(), ResponseCache.DEFAULT_MAX_SIZE,
+                                ImmutableMap.of("blockchains", new ResponseCache.Policy(0, 0))))
+                        .build());
+
+        Handler miss = new Handler();
+        db.getBlockchains(true, miss);
+        dataTask.respond(0, new Response.Builder()
+                .request(dataTask.getRequest(0))
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("")
+                .header("ETag", "\"v1\"")
+                .body(ResponseBody.create(BLOCKCHAINS, MediaType.get("application/json"))));
+        miss.await();
+
+        // stale at once, so revalidated
+        Thread.sleep(5);
+        Handler revalidated = new Handler();
+        db.getBlockchains(true, revalidated);
+        assertEquals("\"v1\"", dataTask.getRequest(1).header("If-None-Match"));
+        dataTask.respond(1, new Response.Builder()
+                .request(dataTask.getRequest(1))
+                .protocol(Protocol.HTTP_1_1)
+                .code(304)
+                .message("")
+                .body(ResponseBody.create("", MediaType.get("application/json"))));
+        revalidated.await();
+
+        assertEquals("bitcoin-mainnet", revalidated.data.get(0).getId());
+
+        db.close(0);
+    }
+}
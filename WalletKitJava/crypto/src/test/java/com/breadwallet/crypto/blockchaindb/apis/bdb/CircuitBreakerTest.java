@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 1000);
+
+    private void open(long nowMillis) {
+        breaker.recordFailure(nowMillis);
+        breaker.recordFailure(nowMillis);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.recordFailure(nowMillis));
+    }
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        assertTrue(breaker.allowRequest(0));
+        assertNull(breaker.recordFailure(0));
+        assertNull(breaker.recordFailure(0));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.recordFailure(0));
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(999));
+    }
+
+    @Test
+    public void testSuccessResetsFailureCount() {
+        breaker.recordFailure(0);
+        breaker.recordFailure(0);
+        assertNull(breaker.recordSuccess(0));
+        breaker.recordFailure(0);
+        breaker.recordFailure(0);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest(0));
+    }
+
+    @Test
+    public void testAllowsOneTrialOnceOpenExpires() {
+        open(0);
+
+        assertTrue(breaker.allowRequest(1000));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest(1500));
+
+        // another trial once the first goes unanswered
+        assertTrue(breaker.allowRequest(2000));
+    }
+
+    @Test
+    public void testSuccessfulTrialCloses() {
+        open(0);
+        breaker.allowRequest(1000);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.recordSuccess(1100));
+        assertTrue(breaker.allowRequest(1100));
+    }
+
+    @Test
+    public void testFailedTrialReopens() {
+        open(0);
+        breaker.allowRequest(1000);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.recordFailure(1100));
+        assertFalse(breaker.allowRequest(2000));
+        assertTrue(breaker.allowRequest(2100));
+    }
+}
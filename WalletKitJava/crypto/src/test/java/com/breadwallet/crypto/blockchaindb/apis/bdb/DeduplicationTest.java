@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import com.breadwallet.crypto.blockchaindb.apis.PageHandler;
+import com.breadwallet.crypto.blockchaindb.errors.QueryError;
+import com.breadwallet.crypto.blockchaindb.errors.QueryModelError;
+import com.breadwallet.crypto.utility.CompletionHandler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DeduplicationTest {
+
+    // Results are "key:richness"
+    private static class StringDeduplication extends Deduplication<String> {
+
+        @Override
+        String getKey(String result) {
+            return result.substring(0, result.indexOf(':'));
+        }
+
+        @Override
+        int getRichness(String result) {
+            return Integer.parseInt(result.substring(result.indexOf(':') + 1));
+        }
+    }
+
+    private final StringDeduplication deduplication = new StringDeduplication();
+
+    @Test
+    public void testRepeatsAreEliminated() {
+        Deduplication<String>.Filter filter = deduplication.createFilter();
+
+        assertEquals(Arrays.asList("a:0", "b:0"), filter.filter(Arrays.asList("a:0", "b:0", "a:0")));
+        assertEquals(Collections.singletonList("c:0"), filter.filter(Arrays.asList("b:0", "c:0")));
+        assertEquals(2, deduplication.getEliminatedCount());
+    }
+
+    @Test
+    public void testRicherCopyIsHandedOn() {
+        Deduplication<String>.Filter filter = deduplication.createFilter();
+
+        assertEquals(Collections.singletonList("a:1"), filter.filter(Collections.singletonList("a:1")));
+        assertEquals(Collections.singletonList("a:2"), filter.filter(Collections.singletonList("a:2")));
+
+        // neither an equal nor a poorer copy is
+        assertEquals(Collections.emptyList(), filter.filter(Arrays.asList("a:2", "a:0")));
+        assertEquals(2, deduplication.getEliminatedCount());
+    }
+
+    @Test
+    public void testFiltersAreIndependent() {
+        Deduplication<String>.Filter first = deduplication.createFilter();
+        Deduplication<String>.Filter second = deduplication.createFilter();
+
+        assertEquals(Collections.singletonList("a:0"), first.filter(Collections.singletonList("a:0")));
+        assertEquals(Collections.singletonList("a:0"), second.filter(Collections.singletonList("a:0")));
+    }
+
+    @Test
+    public void testManyKeys() {
+        Deduplication<String>.Filter filter = deduplication.createFilter();
+
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) results.add("key" + i + ":0");
+
+        assertEquals(results, filter.filter(results));
+        assertEquals(Collections.emptyList(), filter.filter(results));
+        assertEquals(results.size(), deduplication.getEliminatedCount());
+    }
+
+    @Test
+    public void testKeysSharingFingerprintAreDistinct() {
+        Deduplication<String> colliding = new StringDeduplication() {
+            @Override
+            long getFingerprint(String key) {
+                return 42;
+            }
+        };
+        Deduplication<String>.Filter filter = colliding.createFilter();
+
+        assertEquals(Arrays.asList("a:0", "b:0", "c:0"), filter.filter(Arrays.asList("a:0", "b:0", "c:0")));
+        assertEquals(Collections.singletonList("b:1"), filter.filter(Arrays.asList("a:0", "b:1", "c:0")));
+        assertEquals(2, colliding.getEliminatedCount());
+
+        // and stay so as the table grows
+        List<String> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) results.add("key" + i + ":0");
+        assertEquals(results, filter.filter(results));
+        assertEquals(Collections.emptyList(), filter.filter(results));
+    }
+
+    @Test
+    public void testCoordinatorCollectsRicherCopyInPlace() {
+        List<List<String>> results = new ArrayList<>();
+        GetChunkedCoordinator<String, String> coordinator = new GetChunkedCoordinator<>(
+                Arrays.asList(Collections.singletonList("x"), Collections.singletonList("y")),
+                deduplication,
+                new CompletionHandler<List<String>, QueryError>() {
+                    @Override
+                    public void handleData(List<String> data) {
+                        results.add(data);
+                    }
+
+                    @Override
+                    public void handleError(QueryError error) {
+                        fail();
+                    }
+                });
+
+        assertTrue(coordinator.handleChunkPage(0, Arrays.asList("a:0", "b:0")));
+        assertTrue(coordinator.handleChunkPage(1, Arrays.asList("b:1", "c:0")));
+        coordinator.handleChunkComplete(1);
+        assertTrue(results.isEmpty());
+
+        coordinator.handleChunkComplete(0);
+        assertEquals(Collections.singletonList(Arrays.asList("a:0", "b:1", "c:0")), results);
+    }
+
+    @Test
+    public void testCoordinatorFailsWhenHandlerThrows() {
+        List<QueryError> errors = new ArrayList<>();
+        GetChunkedCoordinator<String, String> coordinator = new GetChunkedCoordinator<>(
+                Collections.singletonList(Collections.singletonList("x")),
+                deduplication,
+                new PageHandler<String, QueryError>() {
+                    @Override
+                    public void handlePage(List<String> data) {
+                        throw new IllegalStateException("handler failed");
+                    }
+
+                    @Override
+                    public void handleComplete() {
+                        fail();
+                    }
+
+                    @Override
+                    public void handleError(QueryError error) {
+                        errors.add(error);
+                    }
+                });
+
+        assertFalse(coordinator.handleChunkPage(0, Collections.singletonList("a:0")));
+        assertFalse(coordinator.handleChunkPage(0, Collections.singletonList("b:0")));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof QueryModelError);
+    }
+}
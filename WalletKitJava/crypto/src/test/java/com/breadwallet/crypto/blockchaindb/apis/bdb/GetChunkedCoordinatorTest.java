@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import com.breadwallet.crypto.blockchaindb.apis.PageHandler;
+import com.breadwallet.crypto.blockchaindb.errors.QueryError;
+import com.breadwallet.crypto.blockchaindb.errors.QueryNoDataError;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class GetChunkedCoordinatorTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private static final List<List<String>> TWO_CHUNKS =
+            Arrays.asList(Collections.singletonList("x"), Collections.singletonList("y"));
+
+    // Results are "key:richness"
+    private static final Deduplication<String> DEDUPLICATION = new Deduplication<String>() {
+        @Override
+        String getKey(String result) {
+            return result.substring(0, result.indexOf(':'));
+        }
+
+        @Override
+        int getRichness(String result) {
+            return Integer.parseInt(result.substring(result.indexOf(':') + 1));
+        }
+    };
+
+    // Records each call as a string; the first page is held until `release`
+    private static class RecordingPageHandler implements PageHandler<String, QueryError> {
+
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void handlePage(List<String> data) {
+            calls.add("page " + data);
+            entered.countDown();
+            try {
+                assertTrue(release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void handleComplete() {
+            calls.add("complete");
+        }
+
+        @Override
+        public void handleError(QueryError error) {
+            calls.add("error");
+        }
+
+        @Override
+        public void handleChunkProgress(int chunkIndex, int chunkCount, int pageCount, boolean chunkComplete) {
+            calls.add("progress " + chunkIndex + " " + pageCount + (chunkComplete ? " complete" : ""));
+        }
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testHandlerIsCalledOutsideLockAndInOrder() throws Exception {
+        RecordingPageHandler handler = new RecordingPageHandler();
+        GetChunkedCoordinator<String, String> coordinator = new GetChunkedCoordinator<>(TWO_CHUNKS, DEDUPLICATION, handler);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> first = executor.submit(() -> coordinator.handleChunkPage(0, Arrays.asList("a:0", "b:0")));
+            assertTrue(handler.entered.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+            // while the first page is being handled, the coordinator takes the others' calls ...
+            coordinator.handleChunkComplete(0);
+            Future<Boolean> second = executor.submit(() -> coordinator.handleChunkPage(1, Arrays.asList("b:0", "c:0")));
+
+            // ... but holds the second chunk until its page is handled
+            Thread.sleep(100);
+            assertFalse(second.isDone());
+            assertEquals(Collections.singletonList("page [a:0, b:0]"), handler.calls);
+
+            handler.release.countDown();
+            assertTrue(first.get());
+            assertTrue(second.get());
+
+            coordinator.handleChunkComplete(1);
+            assertEquals(Arrays.asList(
+                    "page [a:0, b:0]",
+                    "progress 0 1",
+                    "progress 0 1 complete",
+                    "page [c:0]",
+                    "progress 1 1",
+                    "progress 1 1 complete",
+                    "complete"), handler.calls);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testErrorFollowsQueuedPagesAndStopsWaitingChunks() throws Exception {
+        RecordingPageHandler handler = new RecordingPageHandler();
+        GetChunkedCoordinator<String, String> coordinator = new GetChunkedCoordinator<>(TWO_CHUNKS, DEDUPLICATION, handler);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> first = executor.submit(() -> coordinator.handleChunkPage(0, Collections.singletonList("a:0")));
+            assertTrue(handler.entered.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+            Future<Boolean> second = executor.submit(() -> coordinator.handleChunkPage(1, Collections.singletonList("b:0")));
+            Thread.sleep(100);
+
+            // the failure is reported once the pages queued ahead of it are handled
+            coordinator.handleError(new QueryNoDataError());
+            assertFalse(second.get());
+            assertFalse(coordinator.handleChunkPage(0, Collections.singletonList("c:0")));
+
+            handler.release.countDown();
+            assertFalse(first.get());
+            assertEquals(Arrays.asList(
+                    "page [a:0]",
+                    "progress 0 1",
+                    "page [b:0]",
+                    "progress 1 1",
+                    "error"), handler.calls);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHandlerMayCallBackIntoCoordinator() {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        AtomicReference<GetChunkedCoordinator<String, String>> coordinator = new AtomicReference<>();
+        coordinator.set(new GetChunkedCoordinator<>(
+                Collections.singletonList(Collections.singletonList("x")),
+                DEDUPLICATION,
+                new PageHandler<String, QueryError>() {
+                    @Override
+                    public void handlePage(List<String> data) {
+                        calls.add("page " + data);
+                        coordinator.get().handleError(new QueryNoDataError());
+                    }
+
+                    @Override
+                    public void handleComplete() {
+                        calls.add("complete");
+                    }
+
+                    @Override
+                    public void handleError(QueryError error) {
+                        calls.add("error");
+                    }
+                }));
+
+        assertFalse(coordinator.get().handleChunkPage(0, Collections.singletonList("a:0")));
+        assertEquals(Arrays.asList("page [a:0]", "error"), calls);
+    }
+}
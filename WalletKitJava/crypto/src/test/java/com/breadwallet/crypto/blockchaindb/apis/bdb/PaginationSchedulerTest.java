@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import com.breadwallet.crypto.blockchaindb.apis.PagedData;
+import com.breadwallet.crypto.blockchaindb.errors.QueryError;
+import com.breadwallet.crypto.blockchaindb.errors.QueryNoDataError;
+import com.breadwallet.crypto.utility.CompletionHandler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class PaginationSchedulerTest {
+
+    // Records each fetch; the test completes them
+    private static class Fetcher implements PaginationScheduler.PageFetcher<Integer> {
+
+        final String name;
+        final List<String> log;
+        final List<CompletionHandler<PagedData<Integer>, QueryError>> handlers = new ArrayList<>();
+        final List<String> urls = new ArrayList<>();
+
+        Fetcher(String name, List<String> log) {
+            this.name = name;
+            this.log = log;
+        }
+
+        @Override
+        public void fetch(String nextUrl, CompletionHandler<PagedData<Integer>, QueryError> handler) {
+            log.add(name + ":fetch:" + nextUrl);
+            urls.add(nextUrl);
+            handlers.add(handler);
+        }
+
+        void page(int index, Integer value, String nextUrl) {
+            handlers.get(index).handleData(new PagedData<>(Collections.singletonList(value), null, nextUrl));
+        }
+    }
+
+    // Records each page and the walk's end; ends the walk on `stopAt`
+    private static class Sink implements PaginationScheduler.PageSink<Integer> {
+
+        final String name;
+        final List<String> log;
+        final List<Integer> pages = new ArrayList<>();
+        Integer stopAt;
+        Integer throwAt;
+        boolean complete;
+        QueryError error;
+
+        Sink(String name, List<String> log) {
+            this.name = name;
+            this.log = log;
+        }
+
+        @Override
+        public boolean handlePage(List<Integer> data) {
+            log.add(name + ":page:" + data.get(0));
+            if (data.get(0).equals(throwAt)) throw new IllegalStateException("sink failed");
+            pages.addAll(data);
+            return !data.get(0).equals(stopAt);
+        }
+
+        @Override
+        public void handleComplete() {
+            complete = true;
+        }
+
+        @Override
+        public void handleError(QueryError error) {
+            this.error = error;
+        }
+    }
+
+    private final List<String> log = new ArrayList<>();
+
+    private List<String> fetches() {
+        List<String> fetches = new ArrayList<>();
+        for (String entry : log) {
+            if (entry.contains(":fetch:")) fetches.add(entry);
+        }
+        return fetches;
+    }
+
+    @Test
+    public void testInFlightIsCapped() {
+        PaginationScheduler scheduler = new PaginationScheduler(2, false, Runnable::run);
+
+        List<Fetcher> fetchers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Fetcher fetcher = new Fetcher("w" + i, log);
+            fetchers.add(fetcher);
+            scheduler.walk(fetcher, new Sink("w" + i, log));
+        }
+
+        assertEquals(2, scheduler.getInFlightCount());
+        assertEquals(3, scheduler.getPendingCount());
+        assertEquals(Arrays.asList("w0:fetch:null", "w1:fetch:null"), log);
+
+        // each completion passes its slot to one waiting walk
+        fetchers.get(0).page(0, 0, null);
+        assertEquals(2, scheduler.getInFlightCount());
+        assertEquals(2, scheduler.getPendingCount());
+
+        fetchers.get(1).page(0, 0, null);
+        fetchers.get(2).page(0, 0, null);
+        fetchers.get(3).page(0, 0, null);
+        fetchers.get(4).page(0, 0, null);
+        assertEquals(0, scheduler.getInFlightCount());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testWaitingWalksAreServedInOrder() {
+        PaginationScheduler scheduler = new PaginationScheduler(1, false, Runnable::run);
+
+        Fetcher first = new Fetcher("a", log);
+        Fetcher second = new Fetcher("b", log);
+        Fetcher third = new Fetcher("c", log);
+        scheduler.walk(first, new Sink("a", log));
+        scheduler.walk(second, new Sink("b", log));
+        scheduler.walk(third, new Sink("c", log));
+
+        // `a`'s next page queues behind `b` and `c`, which were waiting first
+        first.page(0, 1, "a2");
+        second.page(0, 1, null);
+        third.page(0, 1, null);
+        first.page(1, 2, null);
+
+        assertEquals(Arrays.asList(
+                "a:fetch:null",
+                "b:fetch:null",
+                "c:fetch:null",
+                "a:fetch:a2"), fetches());
+    }
+
+    @Test
+    public void testPrefetchRequestsNextPageBeforeHandingOver() {
+        PaginationScheduler scheduler = new PaginationScheduler(4, true, Runnable::run);
+
+        Fetcher fetcher = new Fetcher("a", log);
+        Sink sink = new Sink("a", log);
+        scheduler.walk(fetcher, sink);
+
+        fetcher.page(0, 1, "a2");
+        assertEquals(Arrays.asList("a:fetch:null", "a:fetch:a2", "a:page:1"), log);
+
+        fetcher.page(1, 2, null);
+        assertEquals(Arrays.asList(1, 2), sink.pages);
+        assertTrue(sink.complete);
+    }
+
+    @Test
+    public void testWithoutPrefetchRequestsNextPageAfterHandingOver() {
+        PaginationScheduler scheduler = new PaginationScheduler(4, false, Runnable::run);
+
+        Fetcher fetcher = new Fetcher("a", log);
+        scheduler.walk(fetcher, new Sink("a", log));
+
+        fetcher.page(0, 1, "a2");
+        assertEquals(Arrays.asList("a:fetch:null", "a:page:1", "a:fetch:a2"), log);
+    }
+
+    @Test
+    public void testPrefetchedPageIsHeldUntilPredecessorIsHandled() {
+        PaginationScheduler scheduler = new PaginationScheduler(4, true, Runnable::run);
+
+        Fetcher fetcher = new Fetcher("a", log);
+        Sink sink = new Sink("a", log) {
+            @Override
+            public boolean handlePage(List<Integer> data) {
+                // the prefetched page arrives while this one is being handled
+                if (data.get(0) == 1) fetcher.page(1, 2, null);
+                return super.handlePage(data);
+            }
+        };
+        scheduler.walk(fetcher, sink);
+
+        fetcher.page(0, 1, "a2");
+        assertEquals(Arrays.asList(1, 2), sink.pages);
+        assertTrue(sink.complete);
+    }
+
+    @Test
+    public void testStoppedWalkDropsPrefetchedPage() {
+        PaginationScheduler scheduler = new PaginationScheduler(4, true, Runnable::run);
+
+        Fetcher fetcher = new Fetcher("a", log);
+        Sink sink = new Sink("a", log);
+        sink.stopAt = 1;
+        scheduler.walk(fetcher, sink);
+
+        fetcher.page(0, 1, "a2");
+        fetcher.page(1, 2, "a3");
+
+        assertEquals(Collections.singletonList(1), sink.pages);
+        assertEquals(2, fetcher.urls.size());
+        assertFalse(sink.complete);
+        assertEquals(0, scheduler.getInFlightCount());
+    }
+
+    @Test
+    public void testStoppedWalkWithoutPrefetchRequestsNothingMore() {
+        PaginationScheduler scheduler = new PaginationScheduler(4, false, Runnable::run);
+
+        Fetcher fetcher = new Fetcher("a", log);
+        Sink sink = new Sink("a", log);
+        sink.stopAt = 1;
+        scheduler.walk(fetcher, sink);
+
+        fetcher.page(0, 1, "a2");
+
+        assertEquals(1, fetcher.urls.size());
+        assertFalse(sink.complete);
+    }
+
+    @Test
+    public void testErrorEndsWalkAndReleasesSlot() {
+        PaginationScheduler scheduler = new PaginationScheduler(1, false, Runnable::run);
+
+        Fetcher first = new Fetcher("a", log);
+        Fetcher second = new Fetcher("b", log);
+        Sink sink = new Sink("a", log);
+        scheduler.walk(first, sink);
+        scheduler.walk(second, new Sink("b", log));
+
+        first.handlers.get(0).handleError(new QueryNoDataError());
+
+        assertTrue(sink.error instanceof QueryNoDataError);
+        assertEquals(1, second.urls.size());
+    }
+
+    @Test
+    public void testThrowingSinkDoesNotWedgeWalk() {
+        PaginationScheduler scheduler = new PaginationScheduler(4, true, Runnable::run);
+
+        Fetcher fetcher = new Fetcher("a", log);
+        Sink sink = new Sink("a", log);
+        sink.throwAt = 1;
+        scheduler.walk(fetcher, sink);
+
+        try {
+            fetcher.page(0, 1, "a2");
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // the prefetched page is dropped rather than held behind the failed delivery
+        fetcher.page(1, 2, null);
+        assertEquals(Collections.emptyList(), sink.pages);
+        assertFalse(sink.complete);
+        assertEquals(0, scheduler.getInFlightCount());
+    }
+
+    @Test
+    public void testAwaitIdleCountsWaitingWalks() throws InterruptedException {
+        PaginationScheduler scheduler = new PaginationScheduler(1, false, Runnable::run);
+
+        Fetcher first = new Fetcher("a", log);
+        Fetcher second = new Fetcher("b", log);
+        scheduler.walk(first, new Sink("a", log));
+        scheduler.walk(second, new Sink("b", log));
+
+        first.page(0, 1, null);
+        assertFalse(scheduler.awaitIdle(0));
+
+        second.page(0, 1, null);
+        assertTrue(scheduler.awaitIdle(0));
+    }
+
+    @Test
+    public void testFetchRunsOnReleasingThreadOnceExecutorRejects() {
+        PaginationScheduler scheduler = new PaginationScheduler(1, false, command -> {
+            throw new RejectedExecutionException();
+        });
+
+        Fetcher first = new Fetcher("a", log);
+        Fetcher second = new Fetcher("b", log);
+        scheduler.walk(first, new Sink("a", log));
+        scheduler.walk(second, new Sink("b", log));
+
+        first.page(0, 1, null);
+        assertEquals(1, second.urls.size());
+    }
+}
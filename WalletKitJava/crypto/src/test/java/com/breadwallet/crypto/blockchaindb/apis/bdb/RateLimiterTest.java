@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+
+    @Test
+    public void testBurstIsNotDelayed() {
+        RateLimiter limiter = new RateLimiter(1, 3);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+    }
+
+    @Test
+    public void testRequestsBeyondBurstAreSpreadOut() {
+        RateLimiter limiter = new RateLimiter(1, 1);
+        assertEquals(0, limiter.reserve());
+
+        // each reservation goes further into debt, one second per permit
+        long first = limiter.reserve();
+        long second = limiter.reserve();
+        assertTrue(first > 900 && first <= 1000);
+        assertTrue(second > 1900 && second <= 2000);
+    }
+
+    @Test
+    public void testPermitsAreEarnedBack() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(100, 1);
+        assertEquals(0, limiter.reserve());
+
+        Thread.sleep(50);
+        assertEquals(0, limiter.reserve());
+    }
+
+    @Test
+    public void testEarnedPermitsAreCappedAtBurst() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(20, 2);
+
+        // long enough to earn four permits
+        Thread.sleep(200);
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertTrue(limiter.reserve() > 0);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019 Breadwinner AG.  All right reserved.
+*
+ * See the LICENSE file at the project root for license information.
+ * See the CONTRIBUTORS file at the project root for a list of contributors.
+ */
+package com.breadwallet.crypto.blockchaindb.apis.bdb;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyTest {
+
+    // Always the bound of the delay
+    private static class MaxRandom extends Random {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public double nextDouble() {
+            return 1.0;
+        }
+    }
+
+    private final RetryPolicy policy = new RetryPolicy(4, 100, 350, 1000, 10, 0.5);
+
+    @Test
+    public void testOnlyIdempotentMethodsAreRetryable() {
+        assertTrue(policy.isRetryable("GET"));
+        assertTrue(policy.isRetryable("PUT"));
+        assertTrue(policy.isRetryable("DELETE"));
+        assertFalse(policy.isRetryable("POST"));
+        assertFalse(RetryPolicy.NONE.isRetryable("GET"));
+    }
+
+    @Test
+    public void testOnlyTransientStatusesAreRetried() {
+        for (int code : new int[] { 408, 429, 500, 502, 503, 504 }) {
+            assertTrue(policy.isTransient(code));
+        }
+        for (int code : new int[] { 200, 400, 401, 404, 501 }) {
+            assertFalse(policy.isTransient(code));
+        }
+    }
+
+    @Test
+    public void testDelayBoundDoublesUpToMax() {
+        Random random = new MaxRandom();
+        assertEquals(100, policy.getDelayMillis(1, -1, random));
+        assertEquals(200, policy.getDelayMillis(2, -1, random));
+        assertEquals(350, policy.getDelayMillis(3, -1, random));
+    }
+
+    @Test
+    public void testDelayIsJittered() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            long delay = policy.getDelayMillis(2, -1, random);
+            assertTrue(delay >= 0 && delay <= 200);
+        }
+    }
+
+    @Test
+    public void testNoDelayAfterLastAttempt() {
+        assertEquals(-1, policy.getDelayMillis(4, -1, new MaxRandom()));
+        assertEquals(-1, RetryPolicy.NONE.getDelayMillis(1, -1, new MaxRandom()));
+    }
+
+    @Test
+    public void testRetryAfterIsAFloor() {
+        assertEquals(800, policy.getDelayMillis(1, 800, new MaxRandom()));
+    }
+
+    @Test
+    public void testLongRetryAfterIsNotWaitedFor() {
+        assertEquals(-1, policy.getDelayMillis(1, 1001, new MaxRandom()));
+    }
+
+    @Test
+    public void testBudgetStopsRetriesAndRecovers() {
+        RetryPolicy.Budget budget = policy.createBudget();
+
+        // ten tokens; retries stop once no more than five remain
+        for (int i = 0; i < 4; i++) {
+            assertTrue(budget.recordFailure());
+        }
+        assertFalse(budget.recordFailure());
+
+        // each success earns back half a token; a retry needs more than one
+        budget.recordSuccess();
+        budget.recordSuccess();
+        budget.recordSuccess();
+        assertTrue(budget.recordFailure());
+    }
+}